@@ -0,0 +1,60 @@
+package com.shangmin.whisperrr.config;
+
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+
+/**
+ * Configuration giving bulk uploads their own multipart limits.
+ * <p>
+ * The container enforces the multipart limits of the servlet a request is mapped to
+ * while it reads the body, before any controller runs. The main dispatcher keeps the
+ * {@code spring.servlet.multipart} limits, sized for a single upload, so an oversized
+ * {@code POST /api/audio/upload} is refused without being spooled to disk. Bulk
+ * uploads are mapped to a second dispatcher over the same application context, whose
+ * limits are {@code whisperrr.batch.max-file-size} and
+ * {@code whisperrr.batch.max-request-size}.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+@Configuration
+public class BatchUploadConfig {
+    
+    private static final String BATCH_UPLOAD_PATH = "/api/audio/upload:batch";
+    
+    /**
+     * Registers the dispatcher serving bulk uploads.
+     * 
+     * @param context the application context the controllers live in
+     * @param multipartProperties the multipart settings shared with the main dispatcher
+     * @param maxFileSize the largest part a bulk upload may hold
+     * @param maxRequestSize the largest bulk upload request
+     * @return ServletRegistrationBean<DispatcherServlet> the registration
+     */
+    @Bean
+    public ServletRegistrationBean<DispatcherServlet> batchUploadServletRegistration(
+            WebApplicationContext context,
+            MultipartProperties multipartProperties,
+            @Value("${whisperrr.batch.max-file-size:1GB}") DataSize maxFileSize,
+            @Value("${whisperrr.batch.max-request-size:1GB}") DataSize maxRequestSize) {
+        // Not a bean of its own, so the main dispatcher is still auto-configured
+        DispatcherServlet dispatcherServlet = new DispatcherServlet(context);
+        ServletRegistrationBean<DispatcherServlet> registration =
+            new ServletRegistrationBean<>(dispatcherServlet, BATCH_UPLOAD_PATH);
+        registration.setName("batchUploadDispatcherServlet");
+        registration.setLoadOnStartup(1);
+        registration.setMultipartConfig(new MultipartConfigElement(
+            multipartProperties.getLocation() != null ? multipartProperties.getLocation() : "",
+            maxFileSize.toBytes(),
+            maxRequestSize.toBytes(),
+            (int) multipartProperties.getFileSizeThreshold().toBytes()));
+        return registration;
+    }
+}
@@ -0,0 +1,19 @@
+package com.shangmin.whisperrr.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling configuration enabling background tasks such as the job queue worker.
+ * <p>
+ * The tasks run on a pool of {@code spring.task.scheduling.pool.size} threads, so the
+ * lease heartbeats keep running while another task is busy. Long work, such as the
+ * retention purge, is handed to a thread of its own rather than run on the pool.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,18 +1,52 @@
 package com.shangmin.whisperrr.controller;
 
 import com.shangmin.whisperrr.dto.AudioUploadResponse;
-import com.shangmin.whisperrr.dto.TranscriptionResultResponse;
+import com.shangmin.whisperrr.dto.BatchProgressResponse;
+import com.shangmin.whisperrr.dto.BatchStatusRequest;
+import com.shangmin.whisperrr.dto.BatchStatusResponse;
+import com.shangmin.whisperrr.dto.BatchUploadResponse;
+import com.shangmin.whisperrr.dto.JobListResponse;
+import com.shangmin.whisperrr.dto.PartialResultResponse;
+import com.shangmin.whisperrr.dto.SegmentWindowResponse;
+import com.shangmin.whisperrr.dto.TranscriptSearchResponse;
+import com.shangmin.whisperrr.dto.TranscriptionOptions;
 import com.shangmin.whisperrr.dto.TranscriptionStatusResponse;
+import com.shangmin.whisperrr.enums.ExportFormat;
+import com.shangmin.whisperrr.exception.InvalidTimeRangeException;
+import com.shangmin.whisperrr.exception.UnsupportedExportFormatException;
+import com.shangmin.whisperrr.repository.projection.StoredResultView;
 import com.shangmin.whisperrr.service.AudioService;
+import com.shangmin.whisperrr.service.AudioService.VersionedStatus;
+import com.shangmin.whisperrr.service.JobListingService;
+import com.shangmin.whisperrr.service.PartialResultService;
+import com.shangmin.whisperrr.service.ResultStreamService;
+import com.shangmin.whisperrr.service.ResultStreamService.CachedResult;
+import com.shangmin.whisperrr.service.SegmentIndex;
+import com.shangmin.whisperrr.service.SegmentIndexService;
+import com.shangmin.whisperrr.service.StatusStreamService;
+import com.shangmin.whisperrr.service.TranscriptSearchService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST controller for audio transcription operations
@@ -23,36 +57,195 @@ public class AudioController {
     
     private static final Logger logger = LoggerFactory.getLogger(AudioController.class);
     
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+    private static final int GZIP_BUFFER_SIZE = 8192;
+    
     private final AudioService audioService;
+    private final StatusStreamService statusStreamService;
+    private final ResultStreamService resultStreamService;
+    private final PartialResultService partialResultService;
+    private final SegmentIndexService segmentIndexService;
+    private final JobListingService jobListingService;
+    private final TranscriptSearchService transcriptSearchService;
+    
+    @Value("${whisperrr.http.result-max-age-seconds:86400}")
+    private long resultMaxAgeSeconds;
     
     @Autowired
-    public AudioController(AudioService audioService) {
+    public AudioController(AudioService audioService,
+                           StatusStreamService statusStreamService,
+                           ResultStreamService resultStreamService,
+                           PartialResultService partialResultService,
+                           SegmentIndexService segmentIndexService,
+                           JobListingService jobListingService,
+                           TranscriptSearchService transcriptSearchService) {
         this.audioService = audioService;
+        this.statusStreamService = statusStreamService;
+        this.resultStreamService = resultStreamService;
+        this.partialResultService = partialResultService;
+        this.segmentIndexService = segmentIndexService;
+        this.jobListingService = jobListingService;
+        this.transcriptSearchService = transcriptSearchService;
     }
     
     /**
      * Upload an audio file for transcription
      * 
      * @param audioFile the audio file to upload
+     * @param model the Whisper model to use, or the service default
+     * @param language the ISO 639-1 language hint, or auto-detection
+     * @param task transcribe or translate
      * @return response containing job ID and status
      */
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<AudioUploadResponse> uploadAudio(
-            @RequestParam("audioFile") @Valid MultipartFile audioFile) {
+            @RequestParam("audioFile") @Valid MultipartFile audioFile,
+            @RequestParam(value = "model", required = false) String model,
+            @RequestParam(value = "language", required = false) String language,
+            @RequestParam(value = "task", defaultValue = TranscriptionOptions.TASK_TRANSCRIBE) String task) {
         
         logger.info("Received audio upload request for file: {}", audioFile.getOriginalFilename());
         
         try {
-            AudioUploadResponse response = audioService.uploadAudio(audioFile);
+            AudioUploadResponse response = audioService.uploadAudio(
+                audioFile, new TranscriptionOptions(model, language, task));
             logger.info("Audio upload successful with job ID: {}", response.getJobId());
             return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
-            
+        
         } catch (Exception e) {
             logger.error("Error processing audio upload: {}", e.getMessage(), e);
             throw e; // Let GlobalExceptionHandler handle it
         }
     }
     
+    /**
+     * Upload many audio files for transcription in one request, as separate
+     * {@code audioFiles} parts, a ZIP {@code archive}, or both
+     * 
+     * @param audioFiles the audio files to upload
+     * @param archive a ZIP archive of audio files to upload
+     * @param model the Whisper model to use for every file, or the service default
+     * @param language the ISO 639-1 language hint, or auto-detection
+     * @param task transcribe or translate
+     * @return response containing the batch ID, the job of each accepted file and the rejected files
+     */
+    @PostMapping(value = "/upload:batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BatchUploadResponse> uploadBatch(
+            @RequestParam(value = "audioFiles", required = false) List<MultipartFile> audioFiles,
+            @RequestParam(value = "archive", required = false) MultipartFile archive,
+            @RequestParam(value = "model", required = false) String model,
+            @RequestParam(value = "language", required = false) String language,
+            @RequestParam(value = "task", defaultValue = TranscriptionOptions.TASK_TRANSCRIBE) String task) {
+        
+        logger.info("Received bulk upload request for {} files{}", audioFiles != null ? audioFiles.size() : 0,
+            archive != null ? " and an archive" : "");
+        
+        try {
+            BatchUploadResponse response = audioService.uploadBatch(
+                audioFiles, archive, new TranscriptionOptions(model, language, task));
+            logger.info("Bulk upload successful with batch ID: {}", response.getBatchId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        
+        } catch (Exception e) {
+            logger.error("Error processing bulk upload: {}", e.getMessage(), e);
+            throw e; // Let GlobalExceptionHandler handle it
+        }
+    }
+    
+    /**
+     * Get the aggregate progress of the jobs created by a bulk upload
+     * 
+     * @param batchId the batch ID
+     * @return job counts per status and the share of the batch's audio processed
+     */
+    @GetMapping("/batch/{batchId}")
+    public ResponseEntity<BatchProgressResponse> getBatchProgress(@PathVariable String batchId) {
+        
+        logger.debug("Getting progress for batch: {}", batchId);
+        
+        try {
+            BatchProgressResponse response = audioService.getBatchProgress(batchId);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
+        
+        } catch (Exception e) {
+            logger.error("Error getting batch progress: {}", e.getMessage(), e);
+            throw e; // Let GlobalExceptionHandler handle it
+        }
+    }
+    
+    /**
+     * List jobs newest first, one window at a time
+     * 
+     * @param status the status of the jobs to list, or every job
+     * @param cursor the nextCursor of the previous window, or the first window
+     * @param size the maximum number of jobs in the window
+     * @return the jobs, and the cursor of the next window
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<JobListResponse> listJobs(@RequestParam(value = "status", required = false) String status,
+                                                    @RequestParam(value = "cursor", required = false) String cursor,
+                                                    @RequestParam(value = "size", defaultValue = "50") int size) {
+        
+        logger.debug("Listing jobs with status {} after cursor {}", status, cursor);
+        
+        try {
+            JobListResponse response = jobListingService.listJobs(status, cursor, size);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
+        
+        } catch (Exception e) {
+            logger.error("Error listing jobs: {}", e.getMessage(), e);
+            throw e; // Let GlobalExceptionHandler handle it
+        }
+    }
+    
+    /**
+     * List pending jobs in the order they will be processed, one window at a time
+     * 
+     * @param cursor the nextCursor of the previous window, or the first window
+     * @param size the maximum number of jobs in the window
+     * @return the jobs, and the cursor of the next window
+     */
+    @GetMapping("/jobs/queue")
+    public ResponseEntity<JobListResponse> listQueue(@RequestParam(value = "cursor", required = false) String cursor,
+                                                     @RequestParam(value = "size", defaultValue = "50") int size) {
+        
+        logger.debug("Listing queued jobs after cursor {}", cursor);
+        
+        try {
+            JobListResponse response = jobListingService.listQueue(cursor, size);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
+        
+        } catch (Exception e) {
+            logger.error("Error listing queued jobs: {}", e.getMessage(), e);
+            throw e; // Let GlobalExceptionHandler handle it
+        }
+    }
+    
+    /**
+     * Search transcription text, best matches first
+     * 
+     * @param query the search, in web-search syntax
+     * @param language the language code of the transcriptions to search, or every language
+     * @param size the maximum number of results
+     * @return the matching transcriptions with highlighted excerpts
+     */
+    @GetMapping("/search")
+    public ResponseEntity<TranscriptSearchResponse> searchTranscriptions(@RequestParam("q") String query,
+                                                                         @RequestParam(value = "language", required = false) String language,
+                                                                         @RequestParam(value = "size", defaultValue = "20") int size) {
+        
+        logger.debug("Searching transcriptions in language {} for: {}", language, query);
+        
+        try {
+            TranscriptSearchResponse response = transcriptSearchService.search(query, language, size);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
+        
+        } catch (Exception e) {
+            logger.error("Error searching transcriptions: {}", e.getMessage(), e);
+            throw e; // Let GlobalExceptionHandler handle it
+        }
+    }
+    
     /**
      * Get the status of a transcription job
      * 
@@ -60,14 +253,20 @@ public class AudioController {
      * @return status response
      */
     @GetMapping("/status/{jobId}")
-    public ResponseEntity<TranscriptionStatusResponse> getTranscriptionStatus(@PathVariable String jobId) {
+    public ResponseEntity<TranscriptionStatusResponse> getTranscriptionStatus(@PathVariable String jobId, WebRequest request) {
         
-        logger.info("Getting transcription status for job: {}", jobId);
+        logger.debug("Getting transcription status for job: {}", jobId);
         
         try {
-            TranscriptionStatusResponse response = audioService.getTranscriptionStatus(jobId);
-            return ResponseEntity.ok(response);
+            // The version is read in the same query as the status, so the ETag always matches the body
+            VersionedStatus status = audioService.getVersionedTranscriptionStatus(jobId);
+            // checkNotModified also sets the ETag header, on the 304 and on the full response
+            if (request.checkNotModified(toETag(status.version(), ""))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+            }
             
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(status.status());
+        
         } catch (Exception e) {
             logger.error("Error getting transcription status: {}", e.getMessage(), e);
             throw e; // Let GlobalExceptionHandler handle it
@@ -75,26 +274,360 @@ public class AudioController {
     }
     
     /**
-     * Get the transcription result for a completed job
+     * Get the status of many transcription jobs in one request
+     * 
+     * @param request the job IDs to look up
+     * @return status of each job found, and the job IDs that were not found
+     */
+    @PostMapping(value = "/status:batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchStatusResponse> getTranscriptionStatuses(@RequestBody @Valid BatchStatusRequest request) {
+        
+        logger.debug("Getting transcription status for {} jobs", request.getJobIds().size());
+        
+        try {
+            BatchStatusResponse response = audioService.getTranscriptionStatuses(request.getJobIds());
+            return ResponseEntity.ok(response);
+        
+        } catch (Exception e) {
+            logger.error("Error getting transcription statuses: {}", e.getMessage(), e);
+            throw e; // Let GlobalExceptionHandler handle it
+        }
+    }
+    
+    /**
+     * Stream the status of a transcription job as Server-Sent Events.
+     * A {@code status} event is sent on connect and on every transition; a completed
+     * job also gets a {@code result} event with the path of its result, after which the
+     * stream is closed.
      * 
      * @param jobId the job ID
-     * @return transcription result
+     * @return the event stream
      */
-    @GetMapping("/result/{jobId}")
-    public ResponseEntity<TranscriptionResultResponse> getTranscriptionResult(@PathVariable String jobId) {
+    @GetMapping(value = "/status/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTranscriptionStatus(@PathVariable String jobId) {
+        
+        logger.debug("Opening status stream for job: {}", jobId);
+        
+        try {
+            return statusStreamService.streamTranscriptionStatus(jobId);
+        
+        } catch (Exception e) {
+            logger.error("Error opening status stream: {}", e.getMessage(), e);
+            throw e; // Let GlobalExceptionHandler handle it
+        }
+    }
+    
+    /**
+     * Get the segments of a transcription that follow the ones a client already has.
+     * Available while the job is running; pass the returned {@code lastSegment} as
+     * {@code afterSegment} on the next request until {@code complete} is true.
+     * 
+     * @param jobId the job ID
+     * @param afterSegment the index of the last segment already received, or -1 for none
+     * @return the following segments with the job's status and progress
+     */
+    @GetMapping("/result/{jobId}/partial")
+    public ResponseEntity<PartialResultResponse> getPartialResult(
+            @PathVariable String jobId,
+            @RequestParam(value = "afterSegment", defaultValue = "-1") int afterSegment) {
+        
+        logger.debug("Getting partial result for job: {} after segment {}", jobId, afterSegment);
+        
+        try {
+            PartialResultResponse response = partialResultService.getPartialResult(jobId, afterSegment);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(response);
+        
+        } catch (Exception e) {
+            logger.error("Error getting partial result: {}", e.getMessage(), e);
+            throw e; // Let GlobalExceptionHandler handle it
+        }
+    }
+    
+    /**
+     * Get the segments of a completed transcription that overlap a time window,
+     * found by binary search over the segment times.
+     * 
+     * @param jobId the job ID
+     * @param from the start of the window, in seconds or as [[hh:]mm:]ss; defaults to the beginning
+     * @param to the end of the window, exclusive; defaults to the end of the transcript
+     * @return the overlapping segments and the index of the first one
+     */
+    @GetMapping("/result/{jobId}/segments")
+    public ResponseEntity<SegmentWindowResponse> getSegments(
+            @PathVariable String jobId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            WebRequest request) {
+        
+        logger.debug("Getting segments for job: {} from {} to {}", jobId, from, to);
+        
+        try {
+            double start = from != null ? parseTime("from", from) : 0;
+            double end = to != null ? parseTime("to", to) : Double.POSITIVE_INFINITY;
+            if (end <= start) {
+                throw new InvalidTimeRangeException("'to' must be after 'from'");
+            }
+            
+            SegmentIndex index = segmentIndexService.getSegmentIndex(jobId);
+            if (request.checkNotModified(toETag(index.getVersion(), ".segments"))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(resultCacheControl()).build();
+            }
+            
+            int first = index.firstEndingAfter(start);
+            int last = Math.max(first, index.firstStartingFrom(end));
+            SegmentWindowResponse response = new SegmentWindowResponse(jobId, start,
+                to != null ? end : null, first, index.segments(first, last));
+            return ResponseEntity.ok().cacheControl(resultCacheControl()).body(response);
+        
+        } catch (Exception e) {
+            logger.error("Error getting segments: {}", e.getMessage(), e);
+            throw e; // Let GlobalExceptionHandler handle it
+        }
+    }
+    
+    /**
+     * Export a completed transcription as a subtitle or text file. The file is
+     * written from the stored segments straight to the response, one segment at a
+     * time, so no copy of the whole document is ever built.
+     * 
+     * @param jobId the job ID
+     * @param format the file format: srt, vtt, tsv or txt
+     * @return the file, as an attachment
+     */
+    @GetMapping("/result/{jobId}/export")
+    public ResponseEntity<StreamingResponseBody> exportTranscription(
+            @PathVariable String jobId,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        
+        logger.info("Exporting transcription for job: {} as {}", jobId, format);
+        
+        try {
+            ExportFormat exportFormat = ExportFormat.fromExtension(format);
+            if (exportFormat == null) {
+                throw new UnsupportedExportFormatException(
+                    "Unsupported export format: " + format + ", expected srt, vtt, tsv or txt");
+            }
+            
+            StoredResultView result = resultStreamService.getStoredResult(jobId);
+            boolean gzip = acceptsGzip(acceptEncoding);
+            String etag = toETag(result.getVersion(), "." + exportFormat.getExtension() + (gzip ? "-gzip" : ""));
+            if (request.checkNotModified(etag)) {
+                return notModified();
+            }
+            
+            StreamingResponseBody body = out -> resultStreamService.writeExport(result, exportFormat, out);
+            String filename = jobId + "." + exportFormat.getExtension();
+            return resultResponse(HttpStatus.OK, gzip)
+                .contentType(new MediaType(MediaType.parseMediaType(exportFormat.getMimeType()), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(gzip ? gzipped(body) : body);
+        
+        } catch (Exception e) {
+            logger.error("Error exporting transcription: {}", e.getMessage(), e);
+            throw e; // Let GlobalExceptionHandler handle it
+        }
+    }
+    
+    /**
+     * Get the transcription result for a completed job. The result is streamed from
+     * the database, so its size does not change how much memory a request holds.
+     * 
+     * @param jobId the job ID
+     * @return transcription result, with its segments
+     */
+    @GetMapping(value = "/result/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getTranscriptionResult(
+            @PathVariable String jobId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
         
         logger.info("Getting transcription result for job: {}", jobId);
         
         try {
-            TranscriptionResultResponse response = audioService.getTranscriptionResult(jobId);
-            return ResponseEntity.ok(response);
+            // A cached result is answered without touching the database at all
+            CachedResult cached = resultStreamService.getCachedResult(jobId);
+            StoredResultView result = null;
+            long version;
+            if (cached != null) {
+                version = cached.version();
+            } else {
+                // Revalidation is answered from the job row and sizes alone, without reading the transcription
+                result = resultStreamService.getStoredResult(jobId);
+                version = result.getVersion();
+            }
+            
+            boolean gzip = acceptsGzip(acceptEncoding);
+            String etag = toETag(version, gzip ? "-gzip" : "");
+            if (request.checkNotModified(etag)) {
+                return notModified();
+            }
             
+            if (cached == null) {
+                cached = resultStreamService.cacheResult(jobId, result);
+            }
+            if (cached != null) {
+                byte[] body = gzip ? cached.gzip() : cached.json();
+                return resultResponse(HttpStatus.OK, gzip)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .contentLength(body.length)
+                    .body(out -> out.write(body));
+            }
+            
+            StoredResultView stored = result;
+            StreamingResponseBody body = out -> resultStreamService.writeJson(jobId, stored, out);
+            return resultResponse(HttpStatus.OK, gzip)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(gzip ? gzipped(body) : body);
+        
         } catch (Exception e) {
             logger.error("Error getting transcription result: {}", e.getMessage(), e);
             throw e; // Let GlobalExceptionHandler handle it
         }
     }
     
+    /**
+     * Get the transcribed text of a completed job as plain text. A single byte
+     * range may be requested with {@code Range}; other range requests get the
+     * whole text. Ranges are always sent uncompressed.
+     * 
+     * @param jobId the job ID
+     * @param range the requested byte range, if any
+     * @param ifRange the ETag the range is conditional on, if any
+     * @return the text, or the requested part of it
+     */
+    @GetMapping(value = "/result/{jobId}", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<StreamingResponseBody> getTranscriptionText(
+            @PathVariable String jobId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            WebRequest request) {
+        
+        logger.info("Getting transcription text for job: {}", jobId);
+        
+        try {
+            StoredResultView result = resultStreamService.getStoredResult(jobId);
+            String identityETag = toETag(result.getVersion(), ".txt");
+            boolean partial = range != null && (ifRange == null || ifRange.equals(identityETag));
+            boolean gzip = !partial && acceptsGzip(acceptEncoding);
+            String etag = gzip ? toETag(result.getVersion(), ".txt-gzip") : identityETag;
+            if (request.checkNotModified(etag)) {
+                return notModified();
+            }
+            
+            long length = result.getTextBytes();
+            long start = 0;
+            long end = length - 1;
+            if (partial) {
+                try {
+                    List<HttpRange> ranges = HttpRange.parseRanges(range);
+                    partial = ranges.size() == 1;
+                    if (partial) {
+                        start = ranges.get(0).getRangeStart(length);
+                        end = ranges.get(0).getRangeEnd(length);
+                    }
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                if (partial && start >= length) {
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length).build();
+                }
+            }
+            
+            long first = start;
+            long last = end;
+            StreamingResponseBody body = out -> resultStreamService.writeText(result, first, last, out);
+            ResponseEntity.BodyBuilder response = resultResponse(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK, gzip)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(TEXT_PLAIN_UTF8);
+            if (partial) {
+                response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+            if (gzip) {
+                return response.body(gzipped(body));
+            }
+            return response.contentLength(end - start + 1).body(body);
+        
+        } catch (Exception e) {
+            logger.error("Error getting transcription text: {}", e.getMessage(), e);
+            throw e; // Let GlobalExceptionHandler handle it
+        }
+    }
+    
+    // checkNotModified has already set the ETag header, on the 304 and on the full response
+    private ResponseEntity<StreamingResponseBody> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .cacheControl(resultCacheControl())
+            .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+            .build();
+    }
+    
+    private ResponseEntity.BodyBuilder resultResponse(HttpStatus status, boolean gzip) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+            .cacheControl(resultCacheControl())
+            .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response;
+    }
+    
+    private CacheControl resultCacheControl() {
+        // Completed results never change, so caches need not revalidate until they expire
+        return CacheControl.maxAge(resultMaxAgeSeconds, TimeUnit.SECONDS).cachePublic().immutable();
+    }
+    
+    // Compressed here rather than by the container, which leaves responses with strong ETags uncompressed
+    private static StreamingResponseBody gzipped(StreamingResponseBody body) {
+        return out -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+            body.writeTo(gzip);
+            gzip.finish();
+        };
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+    
+    private static String toETag(long version, String representation) {
+        return "\"" + version + representation + "\"";
+    }
+    
+    /**
+     * Parses a time given in seconds, or as {@code [[hh:]mm:]ss} with optional fractional seconds.
+     */
+    private static double parseTime(String name, String value) {
+        try {
+            double seconds = 0;
+            for (String part : value.trim().split(":", -1)) {
+                double number = Double.parseDouble(part);
+                if (number < 0) {
+                    throw new NumberFormatException("negative");
+                }
+                seconds = seconds * 60 + number;
+            }
+            if (!Double.isFinite(seconds)) {
+                throw new NumberFormatException("not finite");
+            }
+            return seconds;
+        } catch (NumberFormatException e) {
+            throw new InvalidTimeRangeException("Invalid '" + name + "' time: " + value, e);
+        }
+    }
+    
     /**
      * Health check endpoint
      * 
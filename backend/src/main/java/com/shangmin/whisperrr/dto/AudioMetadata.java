@@ -0,0 +1,53 @@
+package com.shangmin.whisperrr.dto;
+
+import com.shangmin.whisperrr.enums.AudioFormat;
+
+/**
+ * DTO for audio properties read from a file's container headers
+ */
+public class AudioMetadata {
+    
+    private final AudioFormat format;
+    
+    private final Double durationSeconds;
+    
+    private final Integer sampleRate;
+    
+    private final Integer channels;
+    
+    public AudioMetadata(AudioFormat format, Double durationSeconds, Integer sampleRate, Integer channels) {
+        this.format = format;
+        this.durationSeconds = durationSeconds;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+    }
+    
+    public AudioFormat getFormat() {
+        return format;
+    }
+    
+    /**
+     * Duration in seconds, or null when the headers do not record it
+     */
+    public Double getDurationSeconds() {
+        return durationSeconds;
+    }
+    
+    public Integer getSampleRate() {
+        return sampleRate;
+    }
+    
+    public Integer getChannels() {
+        return channels;
+    }
+    
+    @Override
+    public String toString() {
+        return "AudioMetadata{" +
+                "format=" + format +
+                ", durationSeconds=" + durationSeconds +
+                ", sampleRate=" + sampleRate +
+                ", channels=" + channels +
+                '}';
+    }
+}
@@ -0,0 +1,116 @@
+package com.shangmin.whisperrr.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the aggregate progress of the jobs created by one bulk upload
+ */
+public class BatchProgressResponse {
+    
+    private String batchId;
+    private long total;
+    private long pending;
+    private long processing;
+    private long completed;
+    private long failed;
+    private Double progressPercent;
+    private boolean complete;
+    private LocalDateTime updatedAt;
+    
+    public BatchProgressResponse() {}
+    
+    public BatchProgressResponse(String batchId, long total, long pending, long processing, long completed,
+                                 long failed, Double progressPercent, boolean complete, LocalDateTime updatedAt) {
+        this.batchId = batchId;
+        this.total = total;
+        this.pending = pending;
+        this.processing = processing;
+        this.completed = completed;
+        this.failed = failed;
+        this.progressPercent = progressPercent;
+        this.complete = complete;
+        this.updatedAt = updatedAt;
+    }
+    
+    public String getBatchId() {
+        return batchId;
+    }
+    
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    public void setTotal(long total) {
+        this.total = total;
+    }
+    
+    public long getPending() {
+        return pending;
+    }
+    
+    public void setPending(long pending) {
+        this.pending = pending;
+    }
+    
+    public long getProcessing() {
+        return processing;
+    }
+    
+    public void setProcessing(long processing) {
+        this.processing = processing;
+    }
+    
+    public long getCompleted() {
+        return completed;
+    }
+    
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+    
+    /**
+     * Jobs that failed or were cancelled
+     */
+    public long getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+    
+    /**
+     * Share of the batch's audio that needs no more work, in percent with one
+     * decimal; null when the durations are unknown
+     */
+    public Double getProgressPercent() {
+        return progressPercent;
+    }
+    
+    public void setProgressPercent(Double progressPercent) {
+        this.progressPercent = progressPercent;
+    }
+    
+    /**
+     * True once every job in the batch has completed or failed
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,32 @@
+package com.shangmin.whisperrr.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO for looking up the status of many jobs in one request
+ */
+public class BatchStatusRequest {
+    
+    public static final int MAX_JOB_IDS = 5000;
+    
+    @NotEmpty(message = "At least one job ID is required")
+    @Size(max = MAX_JOB_IDS, message = "At most " + MAX_JOB_IDS + " job IDs can be looked up at once")
+    private List<String> jobIds;
+    
+    public BatchStatusRequest() {}
+    
+    public BatchStatusRequest(List<String> jobIds) {
+        this.jobIds = jobIds;
+    }
+    
+    public List<String> getJobIds() {
+        return jobIds;
+    }
+    
+    public void setJobIds(List<String> jobIds) {
+        this.jobIds = jobIds;
+    }
+}
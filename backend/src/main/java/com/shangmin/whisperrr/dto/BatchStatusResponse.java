@@ -0,0 +1,41 @@
+package com.shangmin.whisperrr.dto;
+
+import java.util.List;
+
+/**
+ * DTO for batch status response
+ */
+public class BatchStatusResponse {
+    
+    private List<TranscriptionStatusResponse> statuses;
+    private List<String> notFound;
+    
+    public BatchStatusResponse() {}
+    
+    public BatchStatusResponse(List<TranscriptionStatusResponse> statuses, List<String> notFound) {
+        this.statuses = statuses;
+        this.notFound = notFound;
+    }
+    
+    /**
+     * Status of each job found, in the order the job IDs were requested
+     */
+    public List<TranscriptionStatusResponse> getStatuses() {
+        return statuses;
+    }
+    
+    public void setStatuses(List<TranscriptionStatusResponse> statuses) {
+        this.statuses = statuses;
+    }
+    
+    /**
+     * Requested job IDs that are malformed or do not exist
+     */
+    public List<String> getNotFound() {
+        return notFound;
+    }
+    
+    public void setNotFound(List<String> notFound) {
+        this.notFound = notFound;
+    }
+}
@@ -0,0 +1,52 @@
+package com.shangmin.whisperrr.dto;
+
+/**
+ * DTO for one file of a bulk upload, either accepted as a job or rejected
+ */
+public class BatchUploadEntry {
+    
+    private String filename;
+    private String jobId;
+    private String error;
+    
+    public BatchUploadEntry() {}
+    
+    public BatchUploadEntry(String filename, String jobId, String error) {
+        this.filename = filename;
+        this.jobId = jobId;
+        this.error = error;
+    }
+    
+    /**
+     * Name of the part or archive entry
+     */
+    public String getFilename() {
+        return filename;
+    }
+    
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+    
+    /**
+     * ID of the job created for the file, null if it was rejected
+     */
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    /**
+     * Why the file was rejected, null if it was accepted
+     */
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
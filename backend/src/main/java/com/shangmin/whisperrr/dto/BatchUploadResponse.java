@@ -0,0 +1,73 @@
+package com.shangmin.whisperrr.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for bulk upload response
+ */
+public class BatchUploadResponse {
+    
+    private String batchId;
+    private List<BatchUploadEntry> jobs;
+    private List<BatchUploadEntry> rejected;
+    private LocalDateTime timestamp;
+    private String message;
+    
+    public BatchUploadResponse() {}
+    
+    public BatchUploadResponse(String batchId, List<BatchUploadEntry> jobs, List<BatchUploadEntry> rejected,
+                               LocalDateTime timestamp, String message) {
+        this.batchId = batchId;
+        this.jobs = jobs;
+        this.rejected = rejected;
+        this.timestamp = timestamp;
+        this.message = message;
+    }
+    
+    public String getBatchId() {
+        return batchId;
+    }
+    
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+    
+    /**
+     * The job created for each accepted file, in the order the files were sent
+     */
+    public List<BatchUploadEntry> getJobs() {
+        return jobs;
+    }
+    
+    public void setJobs(List<BatchUploadEntry> jobs) {
+        this.jobs = jobs;
+    }
+    
+    /**
+     * Files that failed validation, with the reason for each
+     */
+    public List<BatchUploadEntry> getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(List<BatchUploadEntry> rejected) {
+        this.rejected = rejected;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,38 @@
+package com.shangmin.whisperrr.dto;
+
+import java.util.List;
+
+/**
+ * DTO for a window of a job listing
+ */
+public class JobListResponse {
+    
+    private List<JobSummary> jobs;
+    private String nextCursor;
+    
+    public JobListResponse() {}
+    
+    public JobListResponse(List<JobSummary> jobs, String nextCursor) {
+        this.jobs = jobs;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<JobSummary> getJobs() {
+        return jobs;
+    }
+    
+    public void setJobs(List<JobSummary> jobs) {
+        this.jobs = jobs;
+    }
+    
+    /**
+     * Opaque token that continues the listing after the last job, or null if there are no more jobs
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,81 @@
+package com.shangmin.whisperrr.dto;
+
+import com.shangmin.whisperrr.enums.JobStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one job in a job listing
+ */
+public class JobSummary {
+    
+    private String jobId;
+    private String filename;
+    private JobStatus status;
+    private Integer priority;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    
+    public JobSummary() {}
+    
+    public JobSummary(String jobId, String filename, JobStatus status, Integer priority,
+                      LocalDateTime createdAt, LocalDateTime completedAt) {
+        this.jobId = jobId;
+        this.filename = filename;
+        this.status = status;
+        this.priority = priority;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+    }
+    
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    /**
+     * Original name of the uploaded audio file
+     */
+    public String getFilename() {
+        return filename;
+    }
+    
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+    
+    public JobStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+    
+    public Integer getPriority() {
+        return priority;
+    }
+    
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,84 @@
+package com.shangmin.whisperrr.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the segments of a transcription that follow a given segment, available
+ * while the job is still running
+ */
+public class PartialResultResponse {
+    
+    private String jobId;
+    private TranscriptionStatus status;
+    private Double progressPercent;
+    private List<TranscriptionSegment> segments;
+    private int lastSegment;
+    private boolean complete;
+    
+    public PartialResultResponse() {}
+    
+    public PartialResultResponse(String jobId, TranscriptionStatus status, Double progressPercent,
+                                 List<TranscriptionSegment> segments, int lastSegment, boolean complete) {
+        this.jobId = jobId;
+        this.status = status;
+        this.progressPercent = progressPercent;
+        this.segments = segments;
+        this.lastSegment = lastSegment;
+        this.complete = complete;
+    }
+    
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    public TranscriptionStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(TranscriptionStatus status) {
+        this.status = status;
+    }
+    
+    public Double getProgressPercent() {
+        return progressPercent;
+    }
+    
+    public void setProgressPercent(Double progressPercent) {
+        this.progressPercent = progressPercent;
+    }
+    
+    public List<TranscriptionSegment> getSegments() {
+        return segments;
+    }
+    
+    public void setSegments(List<TranscriptionSegment> segments) {
+        this.segments = segments;
+    }
+    
+    /**
+     * Index of the last segment returned, or the requested index if none were;
+     * pass it as {@code afterSegment} to fetch the segments that follow.
+     */
+    public int getLastSegment() {
+        return lastSegment;
+    }
+    
+    public void setLastSegment(int lastSegment) {
+        this.lastSegment = lastSegment;
+    }
+    
+    /**
+     * Whether no further segments will follow this response.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+}
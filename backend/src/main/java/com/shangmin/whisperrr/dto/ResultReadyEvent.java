@@ -0,0 +1,36 @@
+package com.shangmin.whisperrr.dto;
+
+/**
+ * DTO for the status stream event sent when a job's result can be fetched
+ */
+public class ResultReadyEvent {
+    
+    private String jobId;
+    private String resultUrl;
+    
+    public ResultReadyEvent() {}
+    
+    public ResultReadyEvent(String jobId, String resultUrl) {
+        this.jobId = jobId;
+        this.resultUrl = resultUrl;
+    }
+    
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    /**
+     * Path of the result endpoint for the job
+     */
+    public String getResultUrl() {
+        return resultUrl;
+    }
+    
+    public void setResultUrl(String resultUrl) {
+        this.resultUrl = resultUrl;
+    }
+}
@@ -0,0 +1,66 @@
+package com.shangmin.whisperrr.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the segments of a transcription that overlap a time window
+ */
+public class SegmentWindowResponse {
+    
+    private String jobId;
+    private double from;
+    private Double to;
+    private int firstSegment;
+    private List<TranscriptionSegment> segments;
+    
+    public SegmentWindowResponse() {}
+    
+    public SegmentWindowResponse(String jobId, double from, Double to, int firstSegment,
+                                 List<TranscriptionSegment> segments) {
+        this.jobId = jobId;
+        this.from = from;
+        this.to = to;
+        this.firstSegment = firstSegment;
+        this.segments = segments;
+    }
+    
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    public double getFrom() {
+        return from;
+    }
+    
+    public void setFrom(double from) {
+        this.from = from;
+    }
+    
+    public Double getTo() {
+        return to;
+    }
+    
+    public void setTo(Double to) {
+        this.to = to;
+    }
+    
+    public int getFirstSegment() {
+        return firstSegment;
+    }
+    
+    public void setFirstSegment(int firstSegment) {
+        this.firstSegment = firstSegment;
+    }
+    
+    public List<TranscriptionSegment> getSegments() {
+        return segments;
+    }
+    
+    public void setSegments(List<TranscriptionSegment> segments) {
+        this.segments = segments;
+    }
+}
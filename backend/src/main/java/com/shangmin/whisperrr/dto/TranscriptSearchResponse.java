@@ -0,0 +1,66 @@
+package com.shangmin.whisperrr.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the results of a full-text search over transcriptions
+ */
+public class TranscriptSearchResponse {
+    
+    private String query;
+    private String language;
+    private List<TranscriptSearchResult> results;
+    private boolean truncated;
+    
+    public TranscriptSearchResponse() {}
+    
+    public TranscriptSearchResponse(String query, String language, List<TranscriptSearchResult> results,
+                                    boolean truncated) {
+        this.query = query;
+        this.language = language;
+        this.results = results;
+        this.truncated = truncated;
+    }
+    
+    public String getQuery() {
+        return query;
+    }
+    
+    public void setQuery(String query) {
+        this.query = query;
+    }
+    
+    /**
+     * Language the search was restricted to, or null if it covered every language
+     */
+    public String getLanguage() {
+        return language;
+    }
+    
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+    
+    /**
+     * Matching transcriptions, best match first
+     */
+    public List<TranscriptSearchResult> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<TranscriptSearchResult> results) {
+        this.results = results;
+    }
+    
+    /**
+     * Whether the query matched more transcriptions than a search ranks, in which
+     * case the results are the best of a sample and better matches may exist
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+    
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+}
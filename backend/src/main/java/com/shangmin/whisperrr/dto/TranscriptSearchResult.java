@@ -0,0 +1,72 @@
+package com.shangmin.whisperrr.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one transcription matched by a full-text search
+ */
+public class TranscriptSearchResult {
+    
+    private String jobId;
+    private String language;
+    private Double rank;
+    private String snippet;
+    private LocalDateTime createdAt;
+    
+    public TranscriptSearchResult() {}
+    
+    public TranscriptSearchResult(String jobId, String language, Double rank, String snippet,
+                                  LocalDateTime createdAt) {
+        this.jobId = jobId;
+        this.language = language;
+        this.rank = rank;
+        this.snippet = snippet;
+        this.createdAt = createdAt;
+    }
+    
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    public String getLanguage() {
+        return language;
+    }
+    
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+    
+    /**
+     * Relevance of the match; higher is better, comparable only within one search
+     */
+    public Double getRank() {
+        return rank;
+    }
+    
+    public void setRank(Double rank) {
+        this.rank = rank;
+    }
+    
+    /**
+     * HTML-escaped excerpts around the matches, with matching words in {@code <mark>} tags
+     */
+    public String getSnippet() {
+        return snippet;
+    }
+    
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,43 @@
+package com.shangmin.whisperrr.dto;
+
+/**
+ * DTO for the settings a transcription is requested with.
+ * A null model or language leaves the choice to the transcription service.
+ */
+public class TranscriptionOptions {
+    
+    public static final String TASK_TRANSCRIBE = "transcribe";
+    public static final String TASK_TRANSLATE = "translate";
+    
+    private final String model;
+    
+    private final String language;
+    
+    private final String task;
+    
+    public TranscriptionOptions(String model, String language, String task) {
+        this.model = model;
+        this.language = language;
+        this.task = task != null ? task : TASK_TRANSCRIBE;
+    }
+    
+    /**
+     * Options that leave every choice to the transcription service
+     * @return default options
+     */
+    public static TranscriptionOptions defaults() {
+        return new TranscriptionOptions(null, null, TASK_TRANSCRIBE);
+    }
+    
+    public String getModel() {
+        return model;
+    }
+    
+    public String getLanguage() {
+        return language;
+    }
+    
+    public String getTask() {
+        return task;
+    }
+}
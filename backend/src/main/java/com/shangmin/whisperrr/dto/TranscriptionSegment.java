@@ -0,0 +1,62 @@
+package com.shangmin.whisperrr.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO for a single timed segment of a transcription
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TranscriptionSegment {
+    
+    @JsonProperty("start_time")
+    private double startTime;
+    
+    @JsonProperty("end_time")
+    private double endTime;
+    
+    private String text;
+    
+    private Double confidence;
+    
+    public TranscriptionSegment() {}
+    
+    public TranscriptionSegment(double startTime, double endTime, String text, Double confidence) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.text = text;
+        this.confidence = confidence;
+    }
+    
+    public double getStartTime() {
+        return startTime;
+    }
+    
+    public void setStartTime(double startTime) {
+        this.startTime = startTime;
+    }
+    
+    public double getEndTime() {
+        return endTime;
+    }
+    
+    public void setEndTime(double endTime) {
+        this.endTime = endTime;
+    }
+    
+    public String getText() {
+        return text;
+    }
+    
+    public void setText(String text) {
+        this.text = text;
+    }
+    
+    public Double getConfidence() {
+        return confidence;
+    }
+    
+    public void setConfidence(Double confidence) {
+        this.confidence = confidence;
+    }
+}
@@ -0,0 +1,89 @@
+package com.shangmin.whisperrr.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for the response of the Python transcription service's /transcribe endpoint
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TranscriptionServiceResponse {
+    
+    private String text;
+    
+    private String language;
+    
+    private Double duration;
+    
+    private List<TranscriptionSegment> segments = new ArrayList<>();
+    
+    @JsonProperty("confidence_score")
+    private Double confidenceScore;
+    
+    @JsonProperty("model_used")
+    private String modelUsed;
+    
+    @JsonProperty("processing_time")
+    private Double processingTime;
+    
+    public TranscriptionServiceResponse() {}
+    
+    public String getText() {
+        return text;
+    }
+    
+    public void setText(String text) {
+        this.text = text;
+    }
+    
+    public String getLanguage() {
+        return language;
+    }
+    
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+    
+    public Double getDuration() {
+        return duration;
+    }
+    
+    public void setDuration(Double duration) {
+        this.duration = duration;
+    }
+    
+    public List<TranscriptionSegment> getSegments() {
+        return segments;
+    }
+    
+    public void setSegments(List<TranscriptionSegment> segments) {
+        this.segments = segments;
+    }
+    
+    public Double getConfidenceScore() {
+        return confidenceScore;
+    }
+    
+    public void setConfidenceScore(Double confidenceScore) {
+        this.confidenceScore = confidenceScore;
+    }
+    
+    public String getModelUsed() {
+        return modelUsed;
+    }
+    
+    public void setModelUsed(String modelUsed) {
+        this.modelUsed = modelUsed;
+    }
+    
+    public Double getProcessingTime() {
+        return processingTime;
+    }
+    
+    public void setProcessingTime(Double processingTime) {
+        this.processingTime = processingTime;
+    }
+}
@@ -11,6 +11,8 @@ public class TranscriptionStatusResponse {
     private TranscriptionStatus status;
     private LocalDateTime timestamp;
     private String message;
+    private Double progressPercent;
+    private String errorMessage;
     
     public TranscriptionStatusResponse() {}
     
@@ -21,6 +23,12 @@ public class TranscriptionStatusResponse {
         this.message = message;
     }
     
+    public TranscriptionStatusResponse(String jobId, TranscriptionStatus status, LocalDateTime timestamp, String message,
+                                       Double progressPercent) {
+        this(jobId, status, timestamp, message);
+        this.progressPercent = progressPercent;
+    }
+    
     public String getJobId() {
         return jobId;
     }
@@ -52,4 +60,20 @@ public class TranscriptionStatusResponse {
     public void setMessage(String message) {
         this.message = message;
     }
+    
+    public Double getProgressPercent() {
+        return progressPercent;
+    }
+    
+    public void setProgressPercent(Double progressPercent) {
+        this.progressPercent = progressPercent;
+    }
+    
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
 }
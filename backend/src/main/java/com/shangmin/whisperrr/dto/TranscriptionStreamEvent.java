@@ -0,0 +1,71 @@
+package com.shangmin.whisperrr.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for one line of the Python transcription service's streamed /transcribe response
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TranscriptionStreamEvent {
+    
+    public static final String PROGRESS = "progress";
+    public static final String RESULT = "result";
+    public static final String ERROR = "error";
+    
+    private String type;
+    
+    @JsonProperty("processed_seconds")
+    private Double processedSeconds;
+    
+    private List<TranscriptionSegment> segments = new ArrayList<>();
+    
+    private TranscriptionServiceResponse result;
+    
+    private String message;
+    
+    public TranscriptionStreamEvent() {}
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public Double getProcessedSeconds() {
+        return processedSeconds;
+    }
+    
+    public void setProcessedSeconds(Double processedSeconds) {
+        this.processedSeconds = processedSeconds;
+    }
+    
+    public List<TranscriptionSegment> getSegments() {
+        return segments;
+    }
+    
+    public void setSegments(List<TranscriptionSegment> segments) {
+        this.segments = segments;
+    }
+    
+    public TranscriptionServiceResponse getResult() {
+        return result;
+    }
+    
+    public void setResult(TranscriptionServiceResponse result) {
+        this.result = result;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
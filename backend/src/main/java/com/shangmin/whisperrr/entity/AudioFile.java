@@ -19,13 +19,20 @@ import java.util.List;
 @Entity
 @Table(name = "audio_files",
        indexes = {
-           @Index(name = "idx_audio_files_uploaded_by", columnList = "uploaded_by"),
+           @Index(name = "idx_audio_files_uploaded_by", columnList = "uploaded_by, created_at, id"),
            @Index(name = "idx_audio_files_s3_key", columnList = "s3_key"),
-           @Index(name = "idx_audio_files_format", columnList = "format"),
-           @Index(name = "idx_audio_files_created_at", columnList = "created_at")
+           @Index(name = "idx_audio_files_format", columnList = "format, created_at, id"),
+           @Index(name = "idx_audio_files_checksum", columnList = "checksum"),
+           @Index(name = "idx_audio_files_created_at", columnList = "created_at, id")
        })
 public class AudioFile extends BaseEntity {
     
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audio_files_id_gen")
+    @SequenceGenerator(name = "audio_files_id_gen", sequenceName = "audio_files_id_seq",
+                       allocationSize = BaseEntity.ID_ALLOCATION_SIZE)
+    private Long id;
+    
     @NotBlank(message = "Filename is required")
     @Size(max = 255, message = "Filename must not exceed 255 characters")
     @Column(name = "filename", nullable = false, length = 255)
@@ -89,6 +96,16 @@ public class AudioFile extends BaseEntity {
         this.uploadedBy = uploadedBy;
     }
     
+    @Override
+    public Long getId() {
+        return id;
+    }
+    
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
     /**
      * Gets the filename.
      * 
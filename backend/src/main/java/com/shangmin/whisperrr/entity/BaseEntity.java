@@ -10,8 +10,13 @@ import java.util.Objects;
 
 /**
  * Base entity class providing common audit fields for all entities.
- * This class includes ID, creation timestamp, last modification timestamp,
+ * This class includes ID accessors, creation timestamp, last modification timestamp,
  * and version for optimistic locking.
+ * <p>
+ * Each entity maps its own ID to its table's sequence. Sequence IDs, unlike IDENTITY,
+ * are known before the insert, so inserts can be batched. Generator names are shared
+ * across the persistence unit, so every entity declares a generator of its own name
+ * next to its ID rather than one declared here.
  * 
  * @author shangmin
  * @version 1.0
@@ -20,9 +25,11 @@ import java.util.Objects;
 @EntityListeners(AuditingEntityListener.class)
 public abstract class BaseEntity {
     
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    /**
+     * IDs reserved per sequence call by the pooled optimizer; must match the
+     * sequences' {@code INCREMENT BY}.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
     
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -48,9 +55,7 @@ public abstract class BaseEntity {
      * 
      * @return Long unique identifier
      */
-    public Long getId() {
-        return id;
-    }
+    public abstract Long getId();
     
     /**
      * Sets the unique identifier of the entity.
@@ -58,9 +63,7 @@ public abstract class BaseEntity {
      * 
      * @param id the unique identifier
      */
-    public void setId(Long id) {
-        this.id = id;
-    }
+    public abstract void setId(Long id);
     
     /**
      * Gets the creation timestamp of the entity.
@@ -125,7 +128,7 @@ public abstract class BaseEntity {
      * @return true if the entity is new, false otherwise
      */
     public boolean isNew() {
-        return id == null;
+        return getId() == null;
     }
     
     @Override
@@ -133,18 +136,18 @@ public abstract class BaseEntity {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         BaseEntity that = (BaseEntity) o;
-        return Objects.equals(id, that.id);
+        return Objects.equals(getId(), that.getId());
     }
     
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Objects.hash(getId());
     }
     
     @Override
     public String toString() {
         return getClass().getSimpleName() + "{" +
-                "id=" + id +
+                "id=" + getId() +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
                 ", version=" + version +
@@ -17,13 +17,23 @@ import java.util.UUID;
 @Table(name = "jobs",
        indexes = {
            @Index(name = "idx_jobs_job_id", columnList = "job_id"),
-           @Index(name = "idx_jobs_status", columnList = "status"),
-           @Index(name = "idx_jobs_requested_by", columnList = "requested_by"),
-           @Index(name = "idx_jobs_created_at", columnList = "created_at"),
-           @Index(name = "idx_jobs_queue", columnList = "status, priority DESC, created_at ASC")
+           @Index(name = "idx_jobs_status", columnList = "status, created_at, id"),
+           @Index(name = "idx_jobs_requested_by", columnList = "requested_by, created_at, id"),
+           @Index(name = "idx_jobs_audio_file_id", columnList = "audio_file_id"),
+           @Index(name = "idx_jobs_created_at", columnList = "created_at, id"),
+           @Index(name = "idx_jobs_queue", columnList = "status, priority DESC, created_at ASC, id ASC"),
+           @Index(name = "idx_jobs_lease", columnList = "status, lease_expires_at"),
+           @Index(name = "idx_jobs_batch_id", columnList = "batch_id"),
+           @Index(name = "idx_jobs_pending_by_user", columnList = "requested_by, priority, created_at")
        })
 public class Job extends BaseEntity {
     
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "jobs_id_gen")
+    @SequenceGenerator(name = "jobs_id_gen", sequenceName = "jobs_id_seq",
+                       allocationSize = BaseEntity.ID_ALLOCATION_SIZE)
+    private Long id;
+    
     @NotNull(message = "Job ID is required")
     @Column(name = "job_id", nullable = false, unique = true, updatable = false)
     private UUID jobId;
@@ -51,6 +61,30 @@ public class Job extends BaseEntity {
     @Column(name = "model_used", length = 50)
     private String modelUsed;
     
+    @Column(name = "requested_model", length = 50)
+    private String requestedModel;
+    
+    @Column(name = "requested_language", length = 10)
+    private String requestedLanguage;
+    
+    @Column(name = "task", nullable = false, length = 20)
+    private String task = "transcribe";
+    
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+    
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+    
+    @Column(name = "retry_count", nullable = false)
+    private Integer retryCount = 0;
+    
+    @Column(name = "processed_seconds")
+    private Double processedSeconds;
+    
+    @Column(name = "batch_id", updatable = false)
+    private UUID batchId;
+    
     @NotNull(message = "Requested by user is required")
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requested_by", nullable = false, foreignKey = @ForeignKey(name = "fk_jobs_requested_by"))
@@ -83,6 +117,16 @@ public class Job extends BaseEntity {
         this.audioFile = audioFile;
     }
     
+    @Override
+    public Long getId() {
+        return id;
+    }
+    
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
     /**
      * Gets the unique job ID.
      * 
@@ -228,6 +272,150 @@ public class Job extends BaseEntity {
         this.modelUsed = modelUsed;
     }
     
+    /**
+     * Gets the model requested for the transcription.
+     * 
+     * @return String requested model, or null for the service default
+     */
+    public String getRequestedModel() {
+        return requestedModel;
+    }
+    
+    /**
+     * Sets the model requested for the transcription.
+     * 
+     * @param requestedModel the requested model
+     */
+    public void setRequestedModel(String requestedModel) {
+        this.requestedModel = requestedModel;
+    }
+    
+    /**
+     * Gets the language hint given for the transcription.
+     * 
+     * @return String ISO 639-1 language code, or null for auto-detection
+     */
+    public String getRequestedLanguage() {
+        return requestedLanguage;
+    }
+    
+    /**
+     * Sets the language hint given for the transcription.
+     * 
+     * @param requestedLanguage the ISO 639-1 language code
+     */
+    public void setRequestedLanguage(String requestedLanguage) {
+        this.requestedLanguage = requestedLanguage;
+    }
+    
+    /**
+     * Gets the transcription task.
+     * 
+     * @return String task, either transcribe or translate
+     */
+    public String getTask() {
+        return task;
+    }
+    
+    /**
+     * Sets the transcription task.
+     * 
+     * @param task the task, either transcribe or translate
+     */
+    public void setTask(String task) {
+        this.task = task;
+    }
+    
+    /**
+     * Gets the node that currently holds the processing lease.
+     * 
+     * @return String lease owner, or null if the job is not leased
+     */
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+    
+    /**
+     * Sets the node that currently holds the processing lease.
+     * 
+     * @param leaseOwner the lease owner
+     */
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+    
+    /**
+     * Gets the time the processing lease expires unless renewed.
+     * 
+     * @return LocalDateTime lease expiry
+     */
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+    
+    /**
+     * Sets the time the processing lease expires unless renewed.
+     * 
+     * @param leaseExpiresAt the lease expiry
+     */
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+    
+    /**
+     * Gets the number of times the job was returned to the queue after its lease expired.
+     * 
+     * @return Integer retry count
+     */
+    public Integer getRetryCount() {
+        return retryCount;
+    }
+    
+    /**
+     * Sets the number of times the job was returned to the queue after its lease expired.
+     * 
+     * @param retryCount the retry count
+     */
+    public void setRetryCount(Integer retryCount) {
+        this.retryCount = retryCount;
+    }
+    
+    /**
+     * Gets the seconds of audio transcribed so far while the job is running.
+     * 
+     * @return Double processed seconds, or null before the first segments arrive
+     */
+    public Double getProcessedSeconds() {
+        return processedSeconds;
+    }
+    
+    /**
+     * Sets the seconds of audio transcribed so far.
+     * 
+     * @param processedSeconds the processed seconds
+     */
+    public void setProcessedSeconds(Double processedSeconds) {
+        this.processedSeconds = processedSeconds;
+    }
+    
+    /**
+     * Gets the ID of the bulk upload that created the job.
+     * 
+     * @return UUID batch ID, or null for a job uploaded on its own
+     */
+    public UUID getBatchId() {
+        return batchId;
+    }
+    
+    /**
+     * Sets the ID of the bulk upload that created the job.
+     * 
+     * @param batchId the batch ID
+     */
+    public void setBatchId(UUID batchId) {
+        this.batchId = batchId;
+    }
+    
     /**
      * Gets the user who requested the job.
      * 
@@ -375,6 +563,7 @@ public class Job extends BaseEntity {
                 ", errorMessage='" + errorMessage + '\'' +
                 ", processingTimeMs=" + processingTimeMs +
                 ", modelUsed='" + modelUsed + '\'' +
+                ", retryCount=" + retryCount +
                 ", requestedBy=" + (requestedBy != null ? requestedBy.getUsername() : null) +
                 ", audioFile=" + (audioFile != null ? audioFile.getFilename() : null) +
                 ", createdAt=" + getCreatedAt() +
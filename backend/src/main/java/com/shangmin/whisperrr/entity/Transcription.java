@@ -16,11 +16,18 @@ import jakarta.validation.constraints.Size;
 @Table(name = "transcriptions",
        indexes = {
            @Index(name = "idx_transcriptions_job_id", columnList = "job_id"),
-           @Index(name = "idx_transcriptions_language", columnList = "language"),
-           @Index(name = "idx_transcriptions_confidence", columnList = "confidence")
+           @Index(name = "idx_transcriptions_language", columnList = "language, created_at, id"),
+           @Index(name = "idx_transcriptions_confidence", columnList = "confidence"),
+           @Index(name = "idx_transcriptions_created_at", columnList = "created_at, id")
        })
 public class Transcription extends BaseEntity {
     
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transcriptions_id_gen")
+    @SequenceGenerator(name = "transcriptions_id_gen", sequenceName = "transcriptions_id_seq",
+                       allocationSize = BaseEntity.ID_ALLOCATION_SIZE)
+    private Long id;
+    
     @NotNull(message = "Transcription text is required")
     @Column(name = "text", nullable = false, columnDefinition = "TEXT")
     private String text;
@@ -37,8 +44,8 @@ public class Transcription extends BaseEntity {
     @Column(name = "duration")
     private Double duration;
     
-    @Column(name = "segments_json", columnDefinition = "TEXT")
-    private String segmentsJson;
+    @Column(name = "segments_data", columnDefinition = "BYTEA")
+    private byte[] segmentsData;
     
     @NotNull(message = "Job is required")
     @OneToOne(fetch = FetchType.LAZY)
@@ -63,6 +70,16 @@ public class Transcription extends BaseEntity {
         this.job = job;
     }
     
+    @Override
+    public Long getId() {
+        return id;
+    }
+    
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
     /**
      * Gets the transcribed text.
      * 
@@ -136,21 +153,21 @@ public class Transcription extends BaseEntity {
     }
     
     /**
-     * Gets the segments JSON data.
+     * Gets the segments in their stored binary form.
      * 
-     * @return String segments JSON
+     * @return byte[] encoded segments, readable through SegmentView
      */
-    public String getSegmentsJson() {
-        return segmentsJson;
+    public byte[] getSegmentsData() {
+        return segmentsData;
     }
     
     /**
-     * Sets the segments JSON data.
+     * Sets the segments in their stored binary form.
      * 
-     * @param segmentsJson the segments JSON
+     * @param segmentsData the segments encoded by SegmentView
      */
-    public void setSegmentsJson(String segmentsJson) {
-        this.segmentsJson = segmentsJson;
+    public void setSegmentsData(byte[] segmentsData) {
+        this.segmentsData = segmentsData;
     }
     
     /**
@@ -24,10 +24,17 @@ import java.util.List;
        indexes = {
            @Index(name = "idx_users_username", columnList = "username"),
            @Index(name = "idx_users_email", columnList = "email"),
-           @Index(name = "idx_users_active", columnList = "is_active")
+           @Index(name = "idx_users_active", columnList = "is_active"),
+           @Index(name = "idx_users_created_at", columnList = "created_at, id")
        })
 public class User extends BaseEntity {
     
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_gen")
+    @SequenceGenerator(name = "users_id_gen", sequenceName = "users_id_seq",
+                       allocationSize = BaseEntity.ID_ALLOCATION_SIZE)
+    private Long id;
+    
     @NotBlank(message = "Username is required")
     @Size(max = 50, message = "Username must not exceed 50 characters")
     @Column(name = "username", nullable = false, unique = true, length = 50)
@@ -84,6 +91,16 @@ public class User extends BaseEntity {
         this.passwordHash = passwordHash;
     }
     
+    @Override
+    public Long getId() {
+        return id;
+    }
+    
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
     /**
      * Gets the username.
      * 
@@ -0,0 +1,67 @@
+package com.shangmin.whisperrr.enums;
+
+/**
+ * Enum representing the file formats a transcription can be exported as.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+public enum ExportFormat {
+    SRT("application/x-subrip", "srt"),
+    VTT("text/vtt", "vtt"),
+    TSV("text/tab-separated-values", "tsv"),
+    TXT("text/plain", "txt");
+    
+    private final String mimeType;
+    private final String extension;
+    
+    /**
+     * Constructor for ExportFormat enum.
+     * 
+     * @param mimeType MIME type of the export format
+     * @param extension File extension of the export format
+     */
+    ExportFormat(String mimeType, String extension) {
+        this.mimeType = mimeType;
+        this.extension = extension;
+    }
+    
+    /**
+     * Gets the MIME type of the export format.
+     * 
+     * @return String MIME type
+     */
+    public String getMimeType() {
+        return mimeType;
+    }
+    
+    /**
+     * Gets the file extension of the export format.
+     * 
+     * @return String file extension
+     */
+    public String getExtension() {
+        return extension;
+    }
+    
+    /**
+     * Gets the ExportFormat enum from a file extension.
+     * 
+     * @param extension File extension (with or without dot)
+     * @return ExportFormat enum or null if not found
+     */
+    public static ExportFormat fromExtension(String extension) {
+        if (extension == null) {
+            return null;
+        }
+        
+        String cleanExtension = extension.startsWith(".") ? extension.substring(1) : extension;
+        
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(cleanExtension)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -3,7 +3,9 @@ package com.shangmin.whisperrr.exception;
 import com.shangmin.whisperrr.dto.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -31,6 +33,50 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(error);
     }
     
+    @ExceptionHandler(InvalidTimeRangeException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidTimeRangeException(InvalidTimeRangeException ex) {
+        logger.warn("Invalid time range: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            "INVALID_TIME_RANGE",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.badRequest().body(error);
+    }
+    
+    @ExceptionHandler(UnsupportedExportFormatException.class)
+    public ResponseEntity<ErrorResponse> handleUnsupportedExportFormatException(UnsupportedExportFormatException ex) {
+        logger.warn("Unsupported export format: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            "UNSUPPORTED_EXPORT_FORMAT",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.badRequest().body(error);
+    }
+    
+    @ExceptionHandler(InvalidScrollRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidScrollRequestException(InvalidScrollRequestException ex) {
+        logger.warn("Invalid scroll request: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            "INVALID_SCROLL_REQUEST",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.badRequest().body(error);
+    }
+    
+    @ExceptionHandler(InvalidSearchRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidSearchRequestException(InvalidSearchRequestException ex) {
+        logger.warn("Invalid search request: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            "INVALID_SEARCH_REQUEST",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.badRequest().body(error);
+    }
+    
     @ExceptionHandler(TranscriptionNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleTranscriptionNotFoundException(TranscriptionNotFoundException ex) {
         logger.warn("Transcription not found: {}", ex.getMessage());
@@ -42,6 +88,27 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
     
+    /**
+     * Status streams are requested with {@code Accept: text/event-stream}, which an
+     * {@link ErrorResponse} body cannot be written as, so they get the status alone.
+     * A 404 also tells EventSource clients not to reconnect.
+     */
+    @ExceptionHandler(value = TranscriptionNotFoundException.class, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Void> handleTranscriptionNotFoundExceptionForStream(TranscriptionNotFoundException ex) {
+        logger.warn("Transcription not found for status stream: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+    
+    /**
+     * Plain-text results are requested with {@code Accept: text/plain}, so the error
+     * is sent as the message alone.
+     */
+    @ExceptionHandler(value = TranscriptionNotFoundException.class, produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> handleTranscriptionNotFoundExceptionForText(TranscriptionNotFoundException ex) {
+        logger.warn("Transcription not found for text result: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.TEXT_PLAIN).body(ex.getMessage());
+    }
+    
     @ExceptionHandler(TranscriptionProcessingException.class)
     public ResponseEntity<ErrorResponse> handleTranscriptionProcessingException(TranscriptionProcessingException ex) {
         logger.error("Transcription processing error: {}", ex.getMessage(), ex);
@@ -53,6 +120,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
     
+    @ExceptionHandler(JobQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleJobQueueFullException(JobQueueFullException ex) {
+        logger.warn("Job rejected by admission control: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            "QUEUE_FULL",
+            ex.getMessage(),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(error);
+    }
+    
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationException(MethodArgumentNotValidException ex) {
         logger.warn("Validation error: {}", ex.getMessage());
@@ -74,7 +154,7 @@ public class GlobalExceptionHandler {
         logger.warn("File size exceeded limit: {}", ex.getMessage());
         ErrorResponse error = new ErrorResponse(
             "FILE_SIZE_EXCEEDED",
-            "File size exceeds the maximum allowed limit of 25MB",
+            "Upload exceeds the maximum allowed request size",
             LocalDateTime.now()
         );
         return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
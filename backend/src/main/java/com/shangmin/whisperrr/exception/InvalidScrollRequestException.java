@@ -0,0 +1,15 @@
+package com.shangmin.whisperrr.exception;
+
+/**
+ * Exception thrown when a listing is requested with a malformed continuation token or filter
+ */
+public class InvalidScrollRequestException extends RuntimeException {
+    
+    public InvalidScrollRequestException(String message) {
+        super(message);
+    }
+    
+    public InvalidScrollRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
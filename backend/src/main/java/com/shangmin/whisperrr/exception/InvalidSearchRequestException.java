@@ -0,0 +1,11 @@
+package com.shangmin.whisperrr.exception;
+
+/**
+ * Exception thrown when a transcription search is requested with an empty or malformed query or language
+ */
+public class InvalidSearchRequestException extends RuntimeException {
+    
+    public InvalidSearchRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.shangmin.whisperrr.exception;
+
+/**
+ * Exception thrown when a requested time range cannot be parsed or is empty
+ */
+public class InvalidTimeRangeException extends RuntimeException {
+    
+    public InvalidTimeRangeException(String message) {
+        super(message);
+    }
+    
+    public InvalidTimeRangeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,23 @@
+package com.shangmin.whisperrr.exception;
+
+/**
+ * Exception thrown when the transcription queue cannot admit another job
+ */
+public class JobQueueFullException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public JobQueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public JobQueueFullException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
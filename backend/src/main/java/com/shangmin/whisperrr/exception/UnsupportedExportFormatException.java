@@ -0,0 +1,15 @@
+package com.shangmin.whisperrr.exception;
+
+/**
+ * Exception thrown when a transcription is requested in an export format that is not supported
+ */
+public class UnsupportedExportFormatException extends RuntimeException {
+    
+    public UnsupportedExportFormatException(String message) {
+        super(message);
+    }
+    
+    public UnsupportedExportFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -3,8 +3,9 @@ package com.shangmin.whisperrr.repository;
 import com.shangmin.whisperrr.entity.AudioFile;
 import com.shangmin.whisperrr.entity.User;
 import com.shangmin.whisperrr.enums.AudioFormat;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -32,13 +33,33 @@ public interface AudioFileRepository extends JpaRepository<AudioFile, Long> {
     List<AudioFile> findByUploadedBy(User uploadedBy);
     
     /**
-     * Finds audio files by the user who uploaded them with pagination.
+     * Finds audio files by the user who uploaded them created before a keyset
+     * position, newest first.
      * 
      * @param uploadedBy the user who uploaded the files
-     * @param pageable pagination and sorting information
-     * @return Page<AudioFile> page of audio files uploaded by the user
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of audio files
+     * @return List<AudioFile> the audio files after the position
      */
-    Page<AudioFile> findByUploadedBy(User uploadedBy, Pageable pageable);
+    @Query("SELECT af FROM AudioFile af WHERE af.uploadedBy = :uploadedBy " +
+           "AND (af.createdAt, af.id) < (:createdAt, :id) ORDER BY af.createdAt DESC, af.id DESC")
+    List<AudioFile> findByUploadedByCreatedBefore(@Param("uploadedBy") User uploadedBy,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through audio files by the user who uploaded them, newest first.
+     * 
+     * @param uploadedBy the user who uploaded the files
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of audio files in the window
+     * @return Window<AudioFile> the audio files, and the position after each of them
+     */
+    default Window<AudioFile> scrollByUploadedBy(User uploadedBy, KeysetScrollPosition position, int size) {
+        return Keysets.newestFirst(position, size,
+            (createdAt, id, limit) -> findByUploadedByCreatedBefore(uploadedBy, createdAt, id, limit));
+    }
     
     /**
      * Finds audio files by S3 key.
@@ -74,13 +95,32 @@ public interface AudioFileRepository extends JpaRepository<AudioFile, Long> {
     List<AudioFile> findByFormat(AudioFormat format);
     
     /**
-     * Finds audio files by format with pagination.
+     * Finds audio files by format created before a keyset position, newest first.
+     * 
+     * @param format the audio format
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of audio files
+     * @return List<AudioFile> the audio files after the position
+     */
+    @Query("SELECT af FROM AudioFile af WHERE af.format = :format " +
+           "AND (af.createdAt, af.id) < (:createdAt, :id) ORDER BY af.createdAt DESC, af.id DESC")
+    List<AudioFile> findByFormatCreatedBefore(@Param("format") AudioFormat format,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through audio files by format, newest first.
      * 
      * @param format the audio format
-     * @param pageable pagination and sorting information
-     * @return Page<AudioFile> page of audio files with the specified format
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of audio files in the window
+     * @return Window<AudioFile> the audio files, and the position after each of them
      */
-    Page<AudioFile> findByFormat(AudioFormat format, Pageable pageable);
+    default Window<AudioFile> scrollByFormat(AudioFormat format, KeysetScrollPosition position, int size) {
+        return Keysets.newestFirst(position, size,
+            (createdAt, id, limit) -> findByFormatCreatedBefore(format, createdAt, id, limit));
+    }
     
     /**
      * Finds audio files by checksum.
@@ -128,16 +168,36 @@ public interface AudioFileRepository extends JpaRepository<AudioFile, Long> {
                                                        @Param("endDate") LocalDateTime endDate);
     
     /**
-     * Searches audio files by filename containing the given text.
+     * Searches audio files by a case-insensitive filename pattern, newest first,
+     * among the files created before a keyset position. The pattern is matched
+     * against the bare columns so their trigram indexes can serve it.
      * 
-     * @param searchText the text to search for
-     * @param pageable pagination and sorting information
-     * @return Page<AudioFile> page of matching audio files
+     * @param pattern the LIKE pattern, escaped with {@link LikePatterns#ESCAPE}
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of audio files
+     * @return List<AudioFile> the matching audio files after the position
      */
     @Query("SELECT af FROM AudioFile af WHERE " +
-           "LOWER(af.filename) LIKE LOWER(CONCAT('%', :searchText, '%')) OR " +
-           "LOWER(af.originalFilename) LIKE LOWER(CONCAT('%', :searchText, '%'))")
-    Page<AudioFile> searchByFilename(@Param("searchText") String searchText, Pageable pageable);
+           "(af.filename ILIKE :pattern ESCAPE '\\' OR af.originalFilename ILIKE :pattern ESCAPE '\\') " +
+           "AND (af.createdAt, af.id) < (:createdAt, :id) ORDER BY af.createdAt DESC, af.id DESC")
+    List<AudioFile> searchByFilenameCreatedBefore(@Param("pattern") String pattern,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through audio files with a filename containing the given text, newest first.
+     * 
+     * @param searchText the text to search for
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of audio files in the window
+     * @return Window<AudioFile> the matching audio files, and the position after each of them
+     */
+    default Window<AudioFile> searchByFilename(String searchText, KeysetScrollPosition position, int size) {
+        String pattern = LikePatterns.containing(searchText);
+        return Keysets.newestFirst(position, size,
+            (createdAt, id, limit) -> searchByFilenameCreatedBefore(pattern, createdAt, id, limit));
+    }
     
     /**
      * Counts audio files by uploaded by user.
@@ -185,20 +245,20 @@ public interface AudioFileRepository extends JpaRepository<AudioFile, Long> {
     /**
      * Finds the largest audio files.
      * 
-     * @param pageable pagination and sorting information
-     * @return Page<AudioFile> page of largest audio files
+     * @param limit the maximum number of audio files
+     * @return List<AudioFile> list of largest audio files
      */
     @Query("SELECT af FROM AudioFile af ORDER BY af.fileSize DESC")
-    Page<AudioFile> findLargestFiles(Pageable pageable);
+    List<AudioFile> findLargestFiles(Limit limit);
     
     /**
      * Finds the longest audio files by duration.
      * 
-     * @param pageable pagination and sorting information
-     * @return Page<AudioFile> page of longest audio files
+     * @param limit the maximum number of audio files
+     * @return List<AudioFile> list of longest audio files
      */
     @Query("SELECT af FROM AudioFile af WHERE af.duration IS NOT NULL ORDER BY af.duration DESC")
-    Page<AudioFile> findLongestFiles(Pageable pageable);
+    List<AudioFile> findLongestFiles(Limit limit);
     
     /**
      * Finds audio files that have been processed (have associated jobs).
@@ -3,12 +3,20 @@ package com.shangmin.whisperrr.repository;
 import com.shangmin.whisperrr.entity.Job;
 import com.shangmin.whisperrr.entity.User;
 import com.shangmin.whisperrr.enums.JobStatus;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.shangmin.whisperrr.repository.projection.BatchProgressView;
+import com.shangmin.whisperrr.repository.projection.JobStatusView;
+import com.shangmin.whisperrr.repository.projection.JobVersionView;
+import com.shangmin.whisperrr.repository.projection.QueuedJobCandidate;
+import com.shangmin.whisperrr.repository.projection.ReusableTranscription;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -32,6 +40,130 @@ public interface JobRepository extends JpaRepository<Job, Long> {
      */
     Optional<Job> findByJobId(UUID jobId);
     
+    /**
+     * Finds the primary key of a job without loading the entity.
+     * 
+     * @param jobId the unique job ID
+     * @return Optional<Long> the primary key, if the job exists
+     */
+    @Query("SELECT j.id FROM Job j WHERE j.jobId = :jobId")
+    Optional<Long> findIdByJobId(@Param("jobId") UUID jobId);
+    
+    /**
+     * Finds a job together with the audio file it transcribes.
+     * 
+     * @param id the primary key of the job
+     * @return Optional<Job> the job with its audio file loaded, if found
+     */
+    @Query("SELECT j FROM Job j JOIN FETCH j.audioFile WHERE j.id = :id")
+    Optional<Job> findWithAudioFileById(@Param("id") Long id);
+    
+    /**
+     * Finds the most recent completed job for identical audio requested with the
+     * same model, language and task, whose transcription can be reused.
+     * 
+     * @param checksum the checksum of the audio content
+     * @param model the requested model, or null for the service default
+     * @param language the requested language, or null for auto-detection
+     * @param task the transcription task
+     * @return Optional<ReusableTranscription> the job to reuse, if any
+     */
+    @Query(value = "SELECT j.id AS id, a.checksum AS checksum, j.model_used AS modelUsed, " +
+                   "j.processing_time_ms AS processingTimeMs " +
+                   "FROM audio_files a JOIN jobs j ON j.audio_file_id = a.id " +
+                   "WHERE a.checksum = :checksum AND j.status = 'COMPLETED' AND j.task = :task " +
+                   "AND j.requested_model IS NOT DISTINCT FROM CAST(:model AS VARCHAR) " +
+                   "AND j.requested_language IS NOT DISTINCT FROM CAST(:language AS VARCHAR) " +
+                   "AND EXISTS (SELECT 1 FROM transcriptions t WHERE t.job_id = j.id) " +
+                   "ORDER BY j.completed_at DESC LIMIT 1",
+           nativeQuery = true)
+    Optional<ReusableTranscription> findReusableTranscription(@Param("checksum") String checksum,
+                                                              @Param("model") String model,
+                                                              @Param("language") String language,
+                                                              @Param("task") String task);
+    
+    /**
+     * Finds, for each of many checksums, the most recent completed job for identical
+     * audio requested with the same model, language and task, whose transcription
+     * can be reused. Checksums with no such job are left out of the result.
+     * 
+     * @param checksums the checksums of the audio contents
+     * @param model the requested model, or null for the service default
+     * @param language the requested language, or null for auto-detection
+     * @param task the transcription task
+     * @return List<ReusableTranscription> at most one job to reuse per checksum
+     */
+    @Query(value = "SELECT DISTINCT ON (a.checksum) j.id AS id, a.checksum AS checksum, " +
+                   "j.model_used AS modelUsed, j.processing_time_ms AS processingTimeMs " +
+                   "FROM audio_files a JOIN jobs j ON j.audio_file_id = a.id " +
+                   "WHERE a.checksum = ANY(:checksums) AND j.status = 'COMPLETED' AND j.task = :task " +
+                   "AND j.requested_model IS NOT DISTINCT FROM CAST(:model AS VARCHAR) " +
+                   "AND j.requested_language IS NOT DISTINCT FROM CAST(:language AS VARCHAR) " +
+                   "AND EXISTS (SELECT 1 FROM transcriptions t WHERE t.job_id = j.id) " +
+                   "ORDER BY a.checksum, j.completed_at DESC",
+           nativeQuery = true)
+    List<ReusableTranscription> findReusableTranscriptions(@Param("checksums") String[] checksums,
+                                                           @Param("model") String model,
+                                                           @Param("language") String language,
+                                                           @Param("task") String task);
+    
+    /**
+     * Finds the status and version of a job without loading the entity.
+     * 
+     * @param jobId the unique job ID
+     * @return Optional<JobVersionView> the status and version, if the job exists
+     */
+    @Query("SELECT j.status AS status, j.version AS version FROM Job j WHERE j.jobId = :jobId")
+    Optional<JobVersionView> findVersionByJobId(@Param("jobId") UUID jobId);
+    
+    /**
+     * Finds the status fields of a job without loading the entity. Only the columns
+     * of the view are selected, so nothing enters the persistence context, and they
+     * are returned as a JobStatusRow rather than a projection proxy.
+     * 
+     * @param jobId the unique job ID
+     * @return Optional<JobStatusView> the status fields, if the job exists
+     */
+    @Query("SELECT new com.shangmin.whisperrr.repository.projection.JobStatusRow(" +
+           "j.jobId, j.status, j.updatedAt, j.processedSeconds, a.duration, j.errorMessage, j.version) " +
+           "FROM Job j JOIN j.audioFile a WHERE j.jobId = :jobId")
+    Optional<JobStatusView> findStatusByJobId(@Param("jobId") UUID jobId);
+    
+    /**
+     * Finds the status fields of many jobs in one query. Job IDs that do not exist
+     * are left out of the result.
+     * 
+     * @param jobIds the job IDs to look up
+     * @return List<JobStatusView> the status of each job found, in no particular order
+     */
+    @Query(value = "SELECT j.job_id AS jobId, j.status AS status, j.updated_at AS updatedAt, " +
+                   "j.processed_seconds AS processedSeconds, a.duration AS duration, " +
+                   "j.error_message AS errorMessage, j.version AS version " +
+                   "FROM jobs j JOIN audio_files a ON a.id = j.audio_file_id WHERE j.job_id = ANY(:jobIds)",
+           nativeQuery = true)
+    List<JobStatusView> findStatusesByJobIds(@Param("jobIds") UUID[] jobIds);
+    
+    /**
+     * Aggregates the status of the jobs created by one bulk upload. Every count is
+     * zero when no job carries the batch ID.
+     * 
+     * @param batchId the batch ID
+     * @return BatchProgressView job counts per status and audio seconds processed
+     */
+    @Query(value = "SELECT count(*) AS total, " +
+                   "count(*) FILTER (WHERE j.status = 'PENDING') AS pending, " +
+                   "count(*) FILTER (WHERE j.status = 'PROCESSING') AS processing, " +
+                   "count(*) FILTER (WHERE j.status = 'COMPLETED') AS completed, " +
+                   "count(*) FILTER (WHERE j.status IN ('FAILED', 'CANCELLED')) AS failed, " +
+                   "sum(a.duration) AS totalSeconds, " +
+                   "sum(CASE WHEN j.status IN ('COMPLETED', 'FAILED', 'CANCELLED') THEN a.duration " +
+                   "WHEN j.status = 'PROCESSING' THEN LEAST(COALESCE(j.processed_seconds, 0), a.duration) " +
+                   "ELSE 0 END) AS processedSeconds, " +
+                   "max(j.updated_at) AS updatedAt " +
+                   "FROM jobs j JOIN audio_files a ON a.id = j.audio_file_id WHERE j.batch_id = :batchId",
+           nativeQuery = true)
+    BatchProgressView findBatchProgress(@Param("batchId") UUID batchId);
+    
     /**
      * Finds jobs by status.
      * 
@@ -41,13 +173,55 @@ public interface JobRepository extends JpaRepository<Job, Long> {
     List<Job> findByStatus(JobStatus status);
     
     /**
-     * Finds jobs by status with pagination.
+     * Finds jobs created before a keyset position, newest first, with their audio files.
+     * 
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of jobs
+     * @return List<Job> the jobs after the position
+     */
+    @Query("SELECT j FROM Job j JOIN FETCH j.audioFile WHERE (j.createdAt, j.id) < (:createdAt, :id) " +
+           "ORDER BY j.createdAt DESC, j.id DESC")
+    List<Job> findCreatedBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through all jobs, newest first, with their audio files.
+     * 
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of jobs in the window
+     * @return Window<Job> the jobs, and the position after each of them
+     */
+    default Window<Job> scrollAll(KeysetScrollPosition position, int size) {
+        return Keysets.newestFirst(position, size, this::findCreatedBefore);
+    }
+    
+    /**
+     * Finds jobs with a status created before a keyset position, newest first, with
+     * their audio files.
+     * 
+     * @param status the job status
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of jobs
+     * @return List<Job> the jobs after the position
+     */
+    @Query("SELECT j FROM Job j JOIN FETCH j.audioFile WHERE j.status = :status " +
+           "AND (j.createdAt, j.id) < (:createdAt, :id) ORDER BY j.createdAt DESC, j.id DESC")
+    List<Job> findByStatusCreatedBefore(@Param("status") JobStatus status, @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through jobs by status, newest first, with their audio files.
      * 
      * @param status the job status
-     * @param pageable pagination and sorting information
-     * @return Page<Job> page of jobs with the specified status
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of jobs in the window
+     * @return Window<Job> the jobs, and the position after each of them
      */
-    Page<Job> findByStatus(JobStatus status, Pageable pageable);
+    default Window<Job> scrollByStatus(JobStatus status, KeysetScrollPosition position, int size) {
+        return Keysets.newestFirst(position, size,
+            (createdAt, id, limit) -> findByStatusCreatedBefore(status, createdAt, id, limit));
+    }
     
     /**
      * Finds jobs by requested by user and status.
@@ -59,14 +233,37 @@ public interface JobRepository extends JpaRepository<Job, Long> {
     List<Job> findByRequestedByAndStatus(User requestedBy, JobStatus status);
     
     /**
-     * Finds jobs by requested by user and status with pagination.
+     * Finds jobs by requested by user and status created before a keyset position,
+     * newest first.
      * 
      * @param requestedBy the user who requested the jobs
      * @param status the job status
-     * @param pageable pagination and sorting information
-     * @return Page<Job> page of jobs matching the criteria
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of jobs
+     * @return List<Job> the jobs after the position
      */
-    Page<Job> findByRequestedByAndStatus(User requestedBy, JobStatus status, Pageable pageable);
+    @Query("SELECT j FROM Job j WHERE j.requestedBy = :requestedBy AND j.status = :status " +
+           "AND (j.createdAt, j.id) < (:createdAt, :id) ORDER BY j.createdAt DESC, j.id DESC")
+    List<Job> findByRequestedByAndStatusCreatedBefore(@Param("requestedBy") User requestedBy,
+                                                      @Param("status") JobStatus status,
+                                                      @Param("createdAt") LocalDateTime createdAt,
+                                                      @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through jobs by requested by user and status, newest first.
+     * 
+     * @param requestedBy the user who requested the jobs
+     * @param status the job status
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of jobs in the window
+     * @return Window<Job> the jobs, and the position after each of them
+     */
+    default Window<Job> scrollByRequestedByAndStatus(User requestedBy, JobStatus status,
+                                                     KeysetScrollPosition position, int size) {
+        return Keysets.newestFirst(position, size,
+            (createdAt, id, limit) -> findByRequestedByAndStatusCreatedBefore(requestedBy, status, createdAt, id, limit));
+    }
     
     /**
      * Finds pending jobs ordered by priority and creation time.
@@ -77,13 +274,43 @@ public interface JobRepository extends JpaRepository<Job, Long> {
     List<Job> findPendingJobs();
     
     /**
-     * Finds pending jobs with pagination.
+     * Finds pending jobs of one priority queued after a keyset position, with their
+     * audio files.
      * 
-     * @param pageable pagination and sorting information
-     * @return Page<Job> page of pending jobs
+     * @param priority the priority of the position
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of jobs
+     * @return List<Job> the jobs after the position, in queue order
      */
-    @Query("SELECT j FROM Job j WHERE j.status = 'PENDING' ORDER BY j.priority DESC, j.createdAt ASC")
-    Page<Job> findPendingJobs(Pageable pageable);
+    @Query("SELECT j FROM Job j JOIN FETCH j.audioFile WHERE j.status = 'PENDING' AND j.priority = :priority " +
+           "AND (j.createdAt, j.id) > (:createdAt, :id) ORDER BY j.createdAt ASC, j.id ASC")
+    List<Job> findPendingAtPriorityAfter(@Param("priority") Integer priority, @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id, Limit limit);
+    
+    /**
+     * Finds pending jobs below a priority, with their audio files.
+     * 
+     * @param priority the priority the jobs are below
+     * @param limit the maximum number of jobs
+     * @return List<Job> the jobs, in queue order
+     */
+    @Query("SELECT j FROM Job j JOIN FETCH j.audioFile WHERE j.status = 'PENDING' AND j.priority < :priority " +
+           "ORDER BY j.priority DESC, j.createdAt ASC, j.id ASC")
+    List<Job> findPendingBelowPriority(@Param("priority") Integer priority, Limit limit);
+    
+    /**
+     * Scrolls through pending jobs in the order they are claimed: highest priority
+     * first, oldest first within a priority.
+     * 
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of jobs in the window
+     * @return Window<Job> the jobs, and the position after each of them
+     */
+    default Window<Job> scrollPendingJobs(KeysetScrollPosition position, int size) {
+        return Keysets.queueOrder(position, size, Job::getPriority,
+            this::findPendingAtPriorityAfter, this::findPendingBelowPriority);
+    }
     
     /**
      * Finds jobs by requested by user ordered by creation date descending.
@@ -94,13 +321,32 @@ public interface JobRepository extends JpaRepository<Job, Long> {
     List<Job> findByRequestedByOrderByCreatedAtDesc(User requestedBy);
     
     /**
-     * Finds jobs by requested by user with pagination.
+     * Finds jobs by requested by user created before a keyset position, newest first.
+     * 
+     * @param requestedBy the user who requested the jobs
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of jobs
+     * @return List<Job> the jobs after the position
+     */
+    @Query("SELECT j FROM Job j WHERE j.requestedBy = :requestedBy " +
+           "AND (j.createdAt, j.id) < (:createdAt, :id) ORDER BY j.createdAt DESC, j.id DESC")
+    List<Job> findByRequestedByCreatedBefore(@Param("requestedBy") User requestedBy,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through jobs by requested by user, newest first.
      * 
      * @param requestedBy the user who requested the jobs
-     * @param pageable pagination and sorting information
-     * @return Page<Job> page of jobs requested by the user
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of jobs in the window
+     * @return Window<Job> the jobs, and the position after each of them
      */
-    Page<Job> findByRequestedBy(User requestedBy, Pageable pageable);
+    default Window<Job> scrollByRequestedBy(User requestedBy, KeysetScrollPosition position, int size) {
+        return Keysets.newestFirst(position, size,
+            (createdAt, id, limit) -> findByRequestedByCreatedBefore(requestedBy, createdAt, id, limit));
+    }
     
     /**
      * Finds jobs by model used.
@@ -111,13 +357,32 @@ public interface JobRepository extends JpaRepository<Job, Long> {
     List<Job> findByModelUsed(String modelUsed);
     
     /**
-     * Finds jobs by model used with pagination.
+     * Finds jobs by model used created before a keyset position, newest first.
+     * 
+     * @param modelUsed the model used for transcription
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of jobs
+     * @return List<Job> the jobs after the position
+     */
+    @Query("SELECT j FROM Job j WHERE j.modelUsed = :modelUsed " +
+           "AND (j.createdAt, j.id) < (:createdAt, :id) ORDER BY j.createdAt DESC, j.id DESC")
+    List<Job> findByModelUsedCreatedBefore(@Param("modelUsed") String modelUsed,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through jobs by model used, newest first.
      * 
      * @param modelUsed the model used for transcription
-     * @param pageable pagination and sorting information
-     * @return Page<Job> page of jobs using the specified model
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of jobs in the window
+     * @return Window<Job> the jobs, and the position after each of them
      */
-    Page<Job> findByModelUsed(String modelUsed, Pageable pageable);
+    default Window<Job> scrollByModelUsed(String modelUsed, KeysetScrollPosition position, int size) {
+        return Keysets.newestFirst(position, size,
+            (createdAt, id, limit) -> findByModelUsedCreatedBefore(modelUsed, createdAt, id, limit));
+    }
     
     /**
      * Finds jobs created within a date range.
@@ -174,6 +439,145 @@ public interface JobRepository extends JpaRepository<Job, Long> {
            nativeQuery = true)
     Optional<Job> findOldestPendingJob();
     
+    /**
+     * Atomically claims a batch of pending jobs for processing.
+     * Rows are taken in queue order (priority, then age) and locked with
+     * SKIP LOCKED, so concurrent workers never claim the same job. Each
+     * claimed job is leased to the caller for the given number of seconds.
+     * 
+     * @param batchSize the maximum number of jobs to claim
+     * @param leaseOwner the node claiming the jobs
+     * @param leaseSeconds the initial lease duration in seconds
+     * @return List<Job> the claimed jobs, now in PROCESSING state
+     */
+    @Transactional
+    @Query(value = "UPDATE jobs SET status = 'PROCESSING', started_at = now(), lease_owner = :leaseOwner, " +
+                   "lease_expires_at = now() + :leaseSeconds * interval '1 second', updated_at = now(), version = version + 1 " +
+                   "WHERE id IN (SELECT id FROM jobs WHERE status = 'PENDING' " +
+                   "ORDER BY priority DESC, created_at ASC LIMIT :batchSize FOR UPDATE SKIP LOCKED) " +
+                   "RETURNING *",
+           nativeQuery = true)
+    List<Job> claimPendingJobs(@Param("batchSize") int batchSize,
+                               @Param("leaseOwner") String leaseOwner,
+                               @Param("leaseSeconds") long leaseSeconds);
+    
+    /**
+     * Finds the head of every user's pending queue for fair-share scheduling.
+     * Within each user, jobs are ordered by priority plus an aging bonus of one
+     * point per aging interval waited, so old low-priority jobs move forward.
+     * <p>
+     * The wait is measured from the same instant for every job, so that order is
+     * {@code priority * agingSeconds - created_at} descending, and a user's first
+     * {@code perUser} jobs in it are among the {@code perUser} oldest of each of
+     * their priorities. Users and their priorities are found by skipping through
+     * {@code idx_jobs_pending_by_user}, and the oldest jobs of each priority are read
+     * from it, so a poll never sorts a whole backlog.
+     * 
+     * @param perUser the maximum number of jobs to return for each user
+     * @param agingSeconds the wait in seconds that is worth one priority point
+     * @return List<QueuedJobCandidate> candidate jobs across all users with pending work
+     */
+    @Query(value = "WITH RECURSIVE owners (id) AS (" +
+                   "  SELECT min(requested_by) FROM jobs WHERE status = 'PENDING' " +
+                   "  UNION ALL " +
+                   "  SELECT (SELECT min(requested_by) FROM jobs WHERE status = 'PENDING' AND requested_by > o.id) " +
+                   "  FROM owners o WHERE o.id IS NOT NULL), " +
+                   "levels (requested_by, priority) AS (" +
+                   "  SELECT o.id, (SELECT max(priority) FROM jobs WHERE status = 'PENDING' AND requested_by = o.id) " +
+                   "  FROM owners o WHERE o.id IS NOT NULL " +
+                   "  UNION ALL " +
+                   "  SELECT l.requested_by, (SELECT max(priority) FROM jobs " +
+                   "    WHERE status = 'PENDING' AND requested_by = l.requested_by AND priority < l.priority) " +
+                   "  FROM levels l WHERE l.priority IS NOT NULL) " +
+                   "SELECT j.id AS id, j.requested_by AS requestedBy, u.role AS role, " +
+                   "j.priority AS priority, j.created_at AS createdAt " +
+                   "FROM owners o JOIN users u ON u.id = o.id " +
+                   "CROSS JOIN LATERAL (SELECT c.* FROM levels l " +
+                   "  CROSS JOIN LATERAL (SELECT id, requested_by, priority, created_at FROM jobs " +
+                   "    WHERE status = 'PENDING' AND requested_by = l.requested_by AND priority = l.priority " +
+                   "    ORDER BY created_at LIMIT :perUser) c " +
+                   "  WHERE l.requested_by = o.id AND l.priority IS NOT NULL " +
+                   "  ORDER BY c.priority * :agingSeconds - EXTRACT(EPOCH FROM c.created_at) DESC, c.created_at " +
+                   "  LIMIT :perUser) j",
+           nativeQuery = true)
+    List<QueuedJobCandidate> findPendingQueueHeads(@Param("perUser") int perUser,
+                                                   @Param("agingSeconds") double agingSeconds);
+    
+    /**
+     * Atomically claims the given pending jobs for processing.
+     * Jobs already locked or claimed by another worker are skipped.
+     * 
+     * @param ids the primary keys of the jobs to claim
+     * @param leaseOwner the node claiming the jobs
+     * @param leaseSeconds the initial lease duration in seconds
+     * @return List<Job> the jobs that were claimed, in no particular order
+     */
+    @Transactional
+    @Query(value = "UPDATE jobs SET status = 'PROCESSING', started_at = now(), lease_owner = :leaseOwner, " +
+                   "lease_expires_at = now() + :leaseSeconds * interval '1 second', updated_at = now(), version = version + 1 " +
+                   "WHERE id IN (SELECT id FROM jobs WHERE id IN (:ids) AND status = 'PENDING' " +
+                   "FOR UPDATE SKIP LOCKED) " +
+                   "RETURNING *",
+           nativeQuery = true)
+    List<Job> claimJobsByIds(@Param("ids") List<Long> ids,
+                             @Param("leaseOwner") String leaseOwner,
+                             @Param("leaseSeconds") long leaseSeconds);
+    
+    /**
+     * Returns claimed jobs to the pending queue.
+     * 
+     * @param ids the primary keys of the jobs to release
+     * @return int number of jobs released
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Job j SET j.status = 'PENDING', j.startedAt = NULL, j.leaseOwner = NULL, j.leaseExpiresAt = NULL, " +
+           "j.updatedAt = CURRENT_TIMESTAMP, j.version = j.version + 1 " +
+           "WHERE j.id IN :ids AND j.status = 'PROCESSING'")
+    int releaseJobs(@Param("ids") List<Long> ids);
+    
+    /**
+     * Extends the leases of running jobs still held by the given node.
+     * 
+     * @param ids the primary keys of the jobs being worked on
+     * @param leaseOwner the node renewing the leases
+     * @param leaseSeconds the new lease duration in seconds, counted from now
+     * @return int number of leases renewed
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE jobs SET lease_expires_at = now() + :leaseSeconds * interval '1 second' " +
+                   "WHERE id IN (:ids) AND status = 'PROCESSING' AND lease_owner = :leaseOwner",
+           nativeQuery = true)
+    int renewLeases(@Param("ids") List<Long> ids,
+                    @Param("leaseOwner") String leaseOwner,
+                    @Param("leaseSeconds") long leaseSeconds);
+    
+    /**
+     * Recovers running jobs whose lease has expired.
+     * Jobs under the retry limit go back to PENDING with their retry count
+     * incremented; the rest are marked FAILED. Rows are locked with SKIP LOCKED
+     * so reapers on different nodes never handle the same job.
+     * 
+     * @param maxRetries the number of times a job may be returned to the queue
+     * @param limit the maximum number of jobs to recover
+     * @return List<Job> the recovered jobs in their new state
+     */
+    @Transactional
+    @Query(value = "UPDATE jobs SET " +
+                   "status = CASE WHEN retry_count >= :maxRetries THEN 'FAILED' ELSE 'PENDING' END, " +
+                   "retry_count = CASE WHEN retry_count >= :maxRetries THEN retry_count ELSE retry_count + 1 END, " +
+                   "started_at = CASE WHEN retry_count >= :maxRetries THEN started_at END, " +
+                   "completed_at = CASE WHEN retry_count >= :maxRetries THEN now() END, " +
+                   "error_message = CASE WHEN retry_count >= :maxRetries " +
+                   "  THEN 'Worker lease expired after ' || (retry_count + 1) || ' attempts' ELSE error_message END, " +
+                   "lease_owner = NULL, lease_expires_at = NULL, updated_at = now(), version = version + 1 " +
+                   "WHERE id IN (SELECT id FROM jobs WHERE status = 'PROCESSING' AND lease_expires_at < now() " +
+                   "ORDER BY lease_expires_at LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+                   "RETURNING *",
+           nativeQuery = true)
+    List<Job> reapExpiredLeases(@Param("maxRetries") int maxRetries, @Param("limit") int limit);
+    
     /**
      * Counts jobs by status.
      * 
@@ -182,6 +586,17 @@ public interface JobRepository extends JpaRepository<Job, Long> {
      */
     long countByStatus(JobStatus status);
     
+    /**
+     * Counts pending jobs, stopping at the given number. Reads at most that many
+     * index entries however long the queue is.
+     * 
+     * @param limit the count to stop at
+     * @return long the number of pending jobs, or the limit if there are more
+     */
+    @Query(value = "SELECT count(*) FROM (SELECT 1 FROM jobs WHERE status = 'PENDING' LIMIT :limit) p",
+           nativeQuery = true)
+    long countPendingUpTo(@Param("limit") long limit);
+    
     /**
      * Counts jobs by requested by user.
      * 
@@ -228,20 +643,20 @@ public interface JobRepository extends JpaRepository<Job, Long> {
     /**
      * Finds the fastest completed jobs.
      * 
-     * @param pageable pagination and sorting information
-     * @return Page<Job> page of fastest completed jobs
+     * @param limit the maximum number of jobs
+     * @return List<Job> list of fastest completed jobs
      */
     @Query("SELECT j FROM Job j WHERE j.status = 'COMPLETED' AND j.processingTimeMs IS NOT NULL ORDER BY j.processingTimeMs ASC")
-    Page<Job> findFastestCompletedJobs(Pageable pageable);
+    List<Job> findFastestCompletedJobs(Limit limit);
     
     /**
      * Finds the slowest completed jobs.
      * 
-     * @param pageable pagination and sorting information
-     * @return Page<Job> page of slowest completed jobs
+     * @param limit the maximum number of jobs
+     * @return List<Job> list of slowest completed jobs
      */
     @Query("SELECT j FROM Job j WHERE j.status = 'COMPLETED' AND j.processingTimeMs IS NOT NULL ORDER BY j.processingTimeMs DESC")
-    Page<Job> findSlowestCompletedJobs(Pageable pageable);
+    List<Job> findSlowestCompletedJobs(Limit limit);
     
     /**
      * Finds jobs with high priority.
@@ -265,7 +680,10 @@ public interface JobRepository extends JpaRepository<Job, Long> {
      * 
      * @param threshold the time threshold for cleanup
      * @return List<Job> list of jobs that need cleanup
+     * @deprecated loads every matching entity; use
+     *             {@link com.shangmin.whisperrr.service.RetentionService#purgeCompletedBefore(LocalDateTime)}
      */
+    @Deprecated
     @Query("SELECT j FROM Job j WHERE j.status IN ('COMPLETED', 'FAILED', 'CANCELLED') AND j.completedAt < :threshold")
     List<Job> findJobsForCleanup(@Param("threshold") LocalDateTime threshold);
 }
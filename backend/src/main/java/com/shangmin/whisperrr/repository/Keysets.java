@@ -0,0 +1,128 @@
+package com.shangmin.whisperrr.repository;
+
+import com.shangmin.whisperrr.entity.BaseEntity;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds keyset-paginated windows for the repositories' scroll methods.
+ * <p>
+ * A window is read with a row comparison against the key of the last row of the
+ * previous window, such as {@code (created_at, id) < (:createdAt, :id)}, which an
+ * index on those columns answers by seeking straight to the position. Unlike OFFSET,
+ * the cost of a window does not grow with its depth, and no count query is run: one
+ * row past the window is read to tell whether another window follows. The Spring Data
+ * keyset queries of derived methods expand the comparison into OR-ed terms, which
+ * PostgreSQL cannot use as an index bound, so the scroll methods declare their own.
+ * <p>
+ * The first window is read by the same query as the others, with a key that sorts
+ * before every row. Only forward scrolling is supported.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+public final class Keysets {
+    
+    public static final String PRIORITY = "priority";
+    public static final String CREATED_AT = "createdAt";
+    public static final String ID = "id";
+    
+    // Bounds of PostgreSQL's timestamp range that every stored creation time falls within
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1, 1, 1, 0, 0);
+    
+    private Keysets() {
+    }
+    
+    /**
+     * A query for the rows that sort after a {@code (created_at, id)} key.
+     */
+    @FunctionalInterface
+    public interface CreatedAtQuery<T> {
+        List<T> find(LocalDateTime createdAt, Long id, Limit limit);
+    }
+    
+    /**
+     * A query for the rows that sort after a key within the key's priority.
+     */
+    @FunctionalInterface
+    public interface SamePriorityQuery<T> {
+        List<T> find(Integer priority, LocalDateTime createdAt, Long id, Limit limit);
+    }
+    
+    /**
+     * A query for the rows of every priority below a given one, in queue order.
+     */
+    @FunctionalInterface
+    public interface LowerPriorityQuery<T> {
+        List<T> find(Integer priority, Limit limit);
+    }
+    
+    /**
+     * Reads a window of rows ordered by {@code created_at DESC, id DESC}.
+     * 
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of rows in the window
+     * @param before the query for the rows created before a key, newest first
+     * @return Window<T> the rows, with the position after each of them
+     */
+    public static <T extends BaseEntity> Window<T> newestFirst(KeysetScrollPosition position, int size,
+                                                               CreatedAtQuery<T> before) {
+        Map<String, Object> keys = forwardKeys(position);
+        LocalDateTime createdAt = keys.isEmpty() ? LATEST : (LocalDateTime) keys.get(CREATED_AT);
+        Long id = keys.isEmpty() ? Long.MAX_VALUE : (Long) keys.get(ID);
+        List<T> rows = before.find(createdAt, id, Limit.of(size + 1));
+        return window(rows, size, row -> Map.of(CREATED_AT, row.getCreatedAt(), ID, row.getId()));
+    }
+    
+    /**
+     * Reads a window of rows in queue order: {@code priority DESC, created_at, id}.
+     * The order mixes directions, so no single row comparison expresses it. The rest
+     * of the key's priority and the lower priorities are read as two index range scans
+     * instead, the second only when the first does not fill the window.
+     * 
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of rows in the window
+     * @param priorityOf the priority of a row
+     * @param samePriority the query for the rows after a key within its priority
+     * @param lowerPriorities the query for the rows below a priority
+     * @return Window<T> the rows, with the position after each of them
+     */
+    public static <T extends BaseEntity> Window<T> queueOrder(KeysetScrollPosition position, int size,
+                                                              Function<T, Integer> priorityOf,
+                                                              SamePriorityQuery<T> samePriority,
+                                                              LowerPriorityQuery<T> lowerPriorities) {
+        Map<String, Object> keys = forwardKeys(position);
+        Integer priority = keys.isEmpty() ? Integer.MAX_VALUE : (Integer) keys.get(PRIORITY);
+        LocalDateTime createdAt = keys.isEmpty() ? EARLIEST : (LocalDateTime) keys.get(CREATED_AT);
+        Long id = keys.isEmpty() ? Long.MIN_VALUE : (Long) keys.get(ID);
+        
+        List<T> rows = new ArrayList<>(samePriority.find(priority, createdAt, id, Limit.of(size + 1)));
+        if (rows.size() <= size) {
+            rows.addAll(lowerPriorities.find(priority, Limit.of(size + 1 - rows.size())));
+        }
+        return window(rows, size,
+            row -> Map.of(PRIORITY, priorityOf.apply(row), CREATED_AT, row.getCreatedAt(), ID, row.getId()));
+    }
+    
+    private static Map<String, Object> forwardKeys(KeysetScrollPosition position) {
+        if (position.scrollsBackward()) {
+            throw new IllegalArgumentException("Only forward keyset scrolling is supported");
+        }
+        return position.getKeys();
+    }
+    
+    private static <T> Window<T> window(List<T> rows, int size, Function<T, Map<String, Object>> keyOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> items = hasNext ? rows.subList(0, size) : rows;
+        return Window.from(items, index -> ScrollPosition.forward(keyOf.apply(items.get(index))), hasNext);
+    }
+}
@@ -0,0 +1,39 @@
+package com.shangmin.whisperrr.repository;
+
+/**
+ * Builds LIKE patterns for the repositories' substring searches.
+ * <p>
+ * The searches match {@code column ILIKE :pattern ESCAPE '\'}, which the pg_trgm GIN
+ * indexes on the searched columns answer from the trigrams of the pattern, so a
+ * search reads the index instead of every row. Wrapping the column in {@code LOWER}
+ * would hide it from those indexes. The text searched for is escaped, so a
+ * {@code %} or {@code _} in it matches only itself.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+public final class LikePatterns {
+    
+    public static final char ESCAPE = '\\';
+    
+    private LikePatterns() {
+    }
+    
+    /**
+     * Builds the pattern for values containing the given text.
+     * 
+     * @param text the text to search for
+     * @return String the pattern, with the wildcards in the text escaped
+     */
+    public static String containing(String text) {
+        StringBuilder pattern = new StringBuilder(text.length() + 8).append('%');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -1,9 +1,13 @@
 package com.shangmin.whisperrr.repository;
 
 import com.shangmin.whisperrr.entity.Transcription;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.shangmin.whisperrr.repository.projection.StoredResultView;
+import com.shangmin.whisperrr.repository.projection.TranscriptSearchHit;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -31,6 +35,35 @@ public interface TranscriptionRepository extends JpaRepository<Transcription, Lo
     @Query("SELECT t FROM Transcription t WHERE t.job.jobId = :jobId")
     Optional<Transcription> findByJobJobId(@Param("jobId") UUID jobId);
     
+    /**
+     * Finds a job's status and the sizes of its stored result without reading
+     * the text or segments.
+     * 
+     * @param jobId the job ID
+     * @return Optional<StoredResultView> the job and its result, if the job exists
+     */
+    @Query(value = "SELECT t.id AS transcriptionId, j.status AS status, j.version AS version, " +
+                   "j.completed_at AS completedAt, octet_length(t.text_bytes) AS textBytes, " +
+                   "octet_length(t.segments_data) AS segmentsBytes " +
+                   "FROM jobs j LEFT JOIN transcriptions t ON t.job_id = j.id WHERE j.job_id = :jobId",
+           nativeQuery = true)
+    Optional<StoredResultView> findStoredResultByJobId(@Param("jobId") UUID jobId);
+    
+    /**
+     * Copies the transcription of one job to another without loading it.
+     * 
+     * @param sourceJobId the primary key of the job to copy from
+     * @param targetJobId the primary key of the job to copy to
+     * @return int number of transcriptions copied
+     */
+    @Modifying
+    @Query(value = "INSERT INTO transcriptions (text, language, confidence, duration, segments_data, job_id, " +
+                   "created_at, updated_at, version) " +
+                   "SELECT text, language, confidence, duration, segments_data, :targetJobId, now(), now(), 0 " +
+                   "FROM transcriptions WHERE job_id = :sourceJobId",
+           nativeQuery = true)
+    int copyToJob(@Param("sourceJobId") Long sourceJobId, @Param("targetJobId") Long targetJobId);
+    
     /**
      * Finds transcriptions by language.
      * 
@@ -40,13 +73,32 @@ public interface TranscriptionRepository extends JpaRepository<Transcription, Lo
     List<Transcription> findByLanguage(String language);
     
     /**
-     * Finds transcriptions by language with pagination.
+     * Finds transcriptions by language created before a keyset position, newest first.
+     * 
+     * @param language the language code
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of transcriptions
+     * @return List<Transcription> the transcriptions after the position
+     */
+    @Query("SELECT t FROM Transcription t WHERE t.language = :language " +
+           "AND (t.createdAt, t.id) < (:createdAt, :id) ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transcription> findByLanguageCreatedBefore(@Param("language") String language,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through transcriptions by language, newest first.
      * 
      * @param language the language code
-     * @param pageable pagination and sorting information
-     * @return Page<Transcription> page of transcriptions in the specified language
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of transcriptions in the window
+     * @return Window<Transcription> the transcriptions, and the position after each of them
      */
-    Page<Transcription> findByLanguage(String language, Pageable pageable);
+    default Window<Transcription> scrollByLanguage(String language, KeysetScrollPosition position, int size) {
+        return Keysets.newestFirst(position, size,
+            (createdAt, id, limit) -> findByLanguageCreatedBefore(language, createdAt, id, limit));
+    }
     
     /**
      * Finds transcriptions with confidence greater than the specified value.
@@ -57,13 +109,35 @@ public interface TranscriptionRepository extends JpaRepository<Transcription, Lo
     List<Transcription> findByConfidenceGreaterThan(Double confidence);
     
     /**
-     * Finds transcriptions with confidence greater than the specified value with pagination.
+     * Finds transcriptions with confidence greater than the specified value created
+     * before a keyset position, newest first.
+     * 
+     * @param confidence the minimum confidence score
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of transcriptions
+     * @return List<Transcription> the transcriptions after the position
+     */
+    @Query("SELECT t FROM Transcription t WHERE t.confidence > :confidence " +
+           "AND (t.createdAt, t.id) < (:createdAt, :id) ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transcription> findByConfidenceGreaterThanCreatedBefore(@Param("confidence") Double confidence,
+                                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                                 @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through transcriptions with confidence greater than the specified value,
+     * newest first.
      * 
      * @param confidence the minimum confidence score
-     * @param pageable pagination and sorting information
-     * @return Page<Transcription> page of transcriptions with high confidence
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of transcriptions in the window
+     * @return Window<Transcription> the transcriptions, and the position after each of them
      */
-    Page<Transcription> findByConfidenceGreaterThan(Double confidence, Pageable pageable);
+    default Window<Transcription> scrollByConfidenceGreaterThan(Double confidence, KeysetScrollPosition position,
+                                                               int size) {
+        return Keysets.newestFirst(position, size,
+            (createdAt, id, limit) -> findByConfidenceGreaterThanCreatedBefore(confidence, createdAt, id, limit));
+    }
     
     /**
      * Finds transcriptions with confidence less than the specified value.
@@ -83,25 +157,47 @@ public interface TranscriptionRepository extends JpaRepository<Transcription, Lo
     List<Transcription> findByConfidenceBetween(Double minConfidence, Double maxConfidence);
     
     /**
-     * Searches transcriptions by text containing the given search term.
+     * Searches transcription text for a web-search style query ({@code "exact phrase"},
+     * {@code or}, {@code -excluded}), best matches first. The query is matched against
+     * the indexed search_vector, parsed with the text search configuration of the given
+     * language, or of every language when it is null. A query in every language also
+     * matches some transcripts the query in their own language would not, such as one
+     * whose excluded word stems differently, so each match is rechecked against the
+     * query parsed with its own configuration, which also ranks and highlights it.
+     * <p>
+     * At most {@code maxCandidates} matches are ranked, which bounds the cost of a
+     * search for a very common word. Every hit carries the number of matches that
+     * were ranked, so a caller can tell when the cap was reached. Excerpts are built
+     * only for the transcriptions returned.
      * 
-     * @param searchText the text to search for
-     * @param pageable pagination and sorting information
-     * @return Page<Transcription> page of matching transcriptions
+     * @param query the search query
+     * @param language the language code of the transcriptions to search, or null for all
+     * @param maxCandidates the maximum number of matches to rank
+     * @param size the maximum number of transcriptions to return
+     * @return List<TranscriptSearchHit> the best matching transcriptions, best first
      */
-    @Query("SELECT t FROM Transcription t WHERE LOWER(t.text) LIKE LOWER(CONCAT('%', :searchText, '%'))")
-    Page<Transcription> searchByTextContaining(@Param("searchText") String searchText, Pageable pageable);
-    
-    /**
-     * Performs full-text search on transcription text.
-     * 
-     * @param searchText the text to search for
-     * @param pageable pagination and sorting information
-     * @return Page<Transcription> page of matching transcriptions
-     */
-    @Query(value = "SELECT * FROM transcriptions WHERE to_tsvector('english', text) @@ plainto_tsquery('english', :searchText)", 
+    @Query(value = "WITH search AS MATERIALIZED (" +
+                   "    SELECT whisperrr_ts_query(CAST(:language AS VARCHAR), :query) AS query), " +
+                   "candidates AS (" +
+                   "    SELECT id, search_vector, query FROM (" +
+                   "        SELECT t.id, t.search_vector, " +
+                   "               websearch_to_tsquery(whisperrr_ts_config(t.language), :query) AS query " +
+                   "        FROM transcriptions t, search WHERE t.search_vector @@ search.query " +
+                   "        AND (CAST(:language AS VARCHAR) IS NULL OR t.language = CAST(:language AS VARCHAR))" +
+                   "    ) matched WHERE search_vector @@ query LIMIT :maxCandidates), " +
+                   "ranked AS (" +
+                   "    SELECT id, query, ts_rank_cd(search_vector, query, 1) AS rank FROM candidates " +
+                   "    ORDER BY rank DESC, id DESC LIMIT :size) " +
+                   "SELECT j.job_id AS jobId, t.language AS language, CAST(r.rank AS DOUBLE PRECISION) AS rank, " +
+                   "       ts_headline(whisperrr_ts_config(t.language), " +
+                   "                   replace(replace(replace(t.text, '&', '&amp;'), '<', '&lt;'), '>', '&gt;'), r.query, " +
+                   "                   'MaxFragments=2, MinWords=8, MaxWords=24, StartSel=<mark>, StopSel=</mark>') AS snippet, " +
+                   "       t.created_at AS createdAt, (SELECT count(*) FROM candidates) AS candidates " +
+                   "FROM ranked r JOIN transcriptions t ON t.id = r.id JOIN jobs j ON j.id = t.job_id " +
+                   "ORDER BY r.rank DESC, r.id DESC",
            nativeQuery = true)
-    Page<Transcription> fullTextSearch(@Param("searchText") String searchText, Pageable pageable);
+    List<TranscriptSearchHit> search(@Param("query") String query, @Param("language") String language,
+                                     @Param("maxCandidates") int maxCandidates, @Param("size") int size);
     
     /**
      * Finds transcriptions created within a date range.
@@ -128,37 +224,60 @@ public interface TranscriptionRepository extends JpaRepository<Transcription, Lo
                                                           @Param("maxConfidence") Double maxConfidence);
     
     /**
-     * Finds transcriptions by language and confidence range with pagination.
+     * Finds transcriptions by language and confidence range created before a keyset
+     * position, newest first.
      * 
      * @param language the language code
      * @param minConfidence the minimum confidence score
      * @param maxConfidence the maximum confidence score
-     * @param pageable pagination and sorting information
-     * @return Page<Transcription> page of transcriptions matching the criteria
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of transcriptions
+     * @return List<Transcription> the transcriptions after the position
      */
-    @Query("SELECT t FROM Transcription t WHERE t.language = :language AND t.confidence BETWEEN :minConfidence AND :maxConfidence")
-    Page<Transcription> findByLanguageAndConfidenceBetween(@Param("language") String language,
-                                                          @Param("minConfidence") Double minConfidence,
-                                                          @Param("maxConfidence") Double maxConfidence,
-                                                          Pageable pageable);
+    @Query("SELECT t FROM Transcription t WHERE t.language = :language " +
+           "AND t.confidence BETWEEN :minConfidence AND :maxConfidence " +
+           "AND (t.createdAt, t.id) < (:createdAt, :id) ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transcription> findByLanguageAndConfidenceBetweenCreatedBefore(@Param("language") String language,
+                                                                        @Param("minConfidence") Double minConfidence,
+                                                                        @Param("maxConfidence") Double maxConfidence,
+                                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                                        @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through transcriptions by language and confidence range, newest first.
+     * 
+     * @param language the language code
+     * @param minConfidence the minimum confidence score
+     * @param maxConfidence the maximum confidence score
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of transcriptions in the window
+     * @return Window<Transcription> the transcriptions, and the position after each of them
+     */
+    default Window<Transcription> scrollByLanguageAndConfidenceBetween(String language, Double minConfidence,
+                                                                      Double maxConfidence,
+                                                                      KeysetScrollPosition position, int size) {
+        return Keysets.newestFirst(position, size, (createdAt, id, limit) ->
+            findByLanguageAndConfidenceBetweenCreatedBefore(language, minConfidence, maxConfidence, createdAt, id, limit));
+    }
     
     /**
      * Finds transcriptions with the highest confidence scores.
      * 
-     * @param pageable pagination and sorting information
-     * @return Page<Transcription> page of transcriptions with highest confidence
+     * @param limit the maximum number of transcriptions
+     * @return List<Transcription> list of transcriptions with highest confidence
      */
     @Query("SELECT t FROM Transcription t WHERE t.confidence IS NOT NULL ORDER BY t.confidence DESC")
-    Page<Transcription> findHighestConfidenceTranscriptions(Pageable pageable);
+    List<Transcription> findHighestConfidenceTranscriptions(Limit limit);
     
     /**
      * Finds transcriptions with the lowest confidence scores.
      * 
-     * @param pageable pagination and sorting information
-     * @return Page<Transcription> page of transcriptions with lowest confidence
+     * @param limit the maximum number of transcriptions
+     * @return List<Transcription> list of transcriptions with lowest confidence
      */
     @Query("SELECT t FROM Transcription t WHERE t.confidence IS NOT NULL ORDER BY t.confidence ASC")
-    Page<Transcription> findLowestConfidenceTranscriptions(Pageable pageable);
+    List<Transcription> findLowestConfidenceTranscriptions(Limit limit);
     
     /**
      * Finds transcriptions by word count range.
@@ -225,19 +344,19 @@ public interface TranscriptionRepository extends JpaRepository<Transcription, Lo
     Double getOverallAverageConfidence();
     
     /**
-     * Finds transcriptions with segments JSON data.
+     * Finds transcriptions with segments data.
      * 
      * @return List<Transcription> list of transcriptions with segments data
      */
-    @Query("SELECT t FROM Transcription t WHERE t.segmentsJson IS NOT NULL AND t.segmentsJson != ''")
+    @Query("SELECT t FROM Transcription t WHERE t.segmentsData IS NOT NULL")
     List<Transcription> findTranscriptionsWithSegments();
     
     /**
-     * Finds transcriptions without segments JSON data.
+     * Finds transcriptions without segments data.
      * 
      * @return List<Transcription> list of transcriptions without segments data
      */
-    @Query("SELECT t FROM Transcription t WHERE t.segmentsJson IS NULL OR t.segmentsJson = ''")
+    @Query("SELECT t FROM Transcription t WHERE t.segmentsData IS NULL")
     List<Transcription> findTranscriptionsWithoutSegments();
     
     /**
@@ -254,11 +373,11 @@ public interface TranscriptionRepository extends JpaRepository<Transcription, Lo
     /**
      * Finds the longest transcriptions by duration.
      * 
-     * @param pageable pagination and sorting information
-     * @return Page<Transcription> page of longest transcriptions
+     * @param limit the maximum number of transcriptions
+     * @return List<Transcription> list of longest transcriptions
      */
     @Query("SELECT t FROM Transcription t WHERE t.duration IS NOT NULL ORDER BY t.duration DESC")
-    Page<Transcription> findLongestTranscriptions(Pageable pageable);
+    List<Transcription> findLongestTranscriptions(Limit limit);
     
     /**
      * Finds transcriptions that need quality review (low confidence).
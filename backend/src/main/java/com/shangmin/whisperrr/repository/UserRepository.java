@@ -2,13 +2,15 @@ package com.shangmin.whisperrr.repository;
 
 import com.shangmin.whisperrr.entity.User;
 import com.shangmin.whisperrr.enums.UserRole;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -94,43 +96,112 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByRoleAndIsActive(UserRole role, Boolean isActive);
     
     /**
-     * Finds users with pagination and sorting.
+     * Finds users created before a keyset position, newest first.
      * 
-     * @param pageable pagination and sorting information
-     * @return Page<User> page of users
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of users
+     * @return List<User> the users after the position
      */
-    Page<User> findAll(Pageable pageable);
+    @Query("SELECT u FROM User u WHERE (u.createdAt, u.id) < (:createdAt, :id) ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findCreatedBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
     
     /**
-     * Finds active users with pagination and sorting.
+     * Scrolls through all users, newest first.
      * 
-     * @param pageable pagination and sorting information
-     * @return Page<User> page of active users
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of users in the window
+     * @return Window<User> the users, and the position after each of them
      */
-    Page<User> findByIsActiveTrue(Pageable pageable);
+    default Window<User> scrollAll(KeysetScrollPosition position, int size) {
+        return Keysets.newestFirst(position, size, this::findCreatedBefore);
+    }
     
     /**
-     * Finds users by role with pagination and sorting.
+     * Finds active users created before a keyset position, newest first.
+     * 
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of users
+     * @return List<User> the active users after the position
+     */
+    @Query("SELECT u FROM User u WHERE u.isActive = true " +
+           "AND (u.createdAt, u.id) < (:createdAt, :id) ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findActiveCreatedBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through active users, newest first.
+     * 
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of users in the window
+     * @return Window<User> the active users, and the position after each of them
+     */
+    default Window<User> scrollByIsActiveTrue(KeysetScrollPosition position, int size) {
+        return Keysets.newestFirst(position, size, this::findActiveCreatedBefore);
+    }
+    
+    /**
+     * Finds users by role created before a keyset position, newest first.
      * 
      * @param role the user role
-     * @param pageable pagination and sorting information
-     * @return Page<User> page of users with the specified role
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of users
+     * @return List<User> the users after the position
      */
-    Page<User> findByRole(UserRole role, Pageable pageable);
+    @Query("SELECT u FROM User u WHERE u.role = :role " +
+           "AND (u.createdAt, u.id) < (:createdAt, :id) ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findByRoleCreatedBefore(@Param("role") UserRole role, @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id, Limit limit);
     
     /**
-     * Searches users by username or email containing the given text.
+     * Scrolls through users by role, newest first.
      * 
-     * @param searchText the text to search for
-     * @param pageable pagination and sorting information
-     * @return Page<User> page of matching users
+     * @param role the user role
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of users in the window
+     * @return Window<User> the users, and the position after each of them
+     */
+    default Window<User> scrollByRole(UserRole role, KeysetScrollPosition position, int size) {
+        return Keysets.newestFirst(position, size,
+            (createdAt, id, limit) -> findByRoleCreatedBefore(role, createdAt, id, limit));
+    }
+    
+    /**
+     * Searches users by a case-insensitive pattern for the username, email or name,
+     * newest first, among the users created before a keyset position. The pattern is
+     * matched against the bare columns so their trigram indexes can serve it.
+     * 
+     * @param pattern the LIKE pattern, escaped with {@link LikePatterns#ESCAPE}
+     * @param createdAt the creation time of the position
+     * @param id the primary key of the position
+     * @param limit the maximum number of users
+     * @return List<User> the matching users after the position
      */
     @Query("SELECT u FROM User u WHERE " +
-           "LOWER(u.username) LIKE LOWER(CONCAT('%', :searchText, '%')) OR " +
-           "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchText, '%')) OR " +
-           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchText, '%')) OR " +
-           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchText, '%'))")
-    Page<User> searchUsers(@Param("searchText") String searchText, Pageable pageable);
+           "(u.username ILIKE :pattern ESCAPE '\\' OR " +
+           "u.email ILIKE :pattern ESCAPE '\\' OR " +
+           "u.firstName ILIKE :pattern ESCAPE '\\' OR " +
+           "u.lastName ILIKE :pattern ESCAPE '\\') " +
+           "AND (u.createdAt, u.id) < (:createdAt, :id) ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> searchUsersCreatedBefore(@Param("pattern") String pattern,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id, Limit limit);
+    
+    /**
+     * Scrolls through users with a username, email or name containing the given
+     * text, newest first.
+     * 
+     * @param searchText the text to search for
+     * @param position the position the previous window ended at, or the initial position
+     * @param size the maximum number of users in the window
+     * @return Window<User> the matching users, and the position after each of them
+     */
+    default Window<User> searchUsers(String searchText, KeysetScrollPosition position, int size) {
+        String pattern = LikePatterns.containing(searchText);
+        return Keysets.newestFirst(position, size,
+            (createdAt, id, limit) -> searchUsersCreatedBefore(pattern, createdAt, id, limit));
+    }
     
     /**
      * Finds users created within a date range.
@@ -140,8 +211,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return List<User> list of users created in the date range
      */
     @Query("SELECT u FROM User u WHERE u.createdAt BETWEEN :startDate AND :endDate")
-    List<User> findByCreatedAtBetween(@Param("startDate") java.time.LocalDateTime startDate, 
-                                     @Param("endDate") java.time.LocalDateTime endDate);
+    List<User> findByCreatedAtBetween(@Param("startDate") LocalDateTime startDate, 
+                                     @Param("endDate") LocalDateTime endDate);
     
     /**
      * Counts users by role.
@@ -172,7 +243,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return List<User> list of users ordered by last update time
      */
     @Query("SELECT u FROM User u ORDER BY u.updatedAt DESC")
-    List<User> findMostRecentlyActiveUsers(Pageable pageable);
+    List<User> findMostRecentlyActiveUsers(Limit limit);
     
     /**
      * Finds users who have uploaded audio files.
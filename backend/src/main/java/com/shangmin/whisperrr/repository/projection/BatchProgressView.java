@@ -0,0 +1,69 @@
+package com.shangmin.whisperrr.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only aggregate of the jobs created by one bulk upload.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+public interface BatchProgressView {
+    
+    /**
+     * Gets the number of jobs in the batch.
+     * 
+     * @return long job count, zero if the batch does not exist
+     */
+    long getTotal();
+    
+    /**
+     * Gets the number of jobs waiting in the queue.
+     * 
+     * @return long pending job count
+     */
+    long getPending();
+    
+    /**
+     * Gets the number of jobs being transcribed.
+     * 
+     * @return long processing job count
+     */
+    long getProcessing();
+    
+    /**
+     * Gets the number of jobs transcribed successfully.
+     * 
+     * @return long completed job count
+     */
+    long getCompleted();
+    
+    /**
+     * Gets the number of jobs that failed or were cancelled.
+     * 
+     * @return long failed job count
+     */
+    long getFailed();
+    
+    /**
+     * Gets the total duration of the batch's audio.
+     * 
+     * @return Double duration in seconds, or null if no duration is known
+     */
+    Double getTotalSeconds();
+    
+    /**
+     * Gets the seconds of the batch's audio that need no more work: all of each
+     * finished job, and what has been transcribed of each running one.
+     * 
+     * @return Double processed seconds, or null if no duration is known
+     */
+    Double getProcessedSeconds();
+    
+    /**
+     * Gets the time of the latest status change of any job in the batch.
+     * 
+     * @return LocalDateTime last update time, or null if the batch does not exist
+     */
+    LocalDateTime getUpdatedAt();
+}
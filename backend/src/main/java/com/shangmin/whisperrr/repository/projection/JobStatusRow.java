@@ -0,0 +1,73 @@
+package com.shangmin.whisperrr.repository.projection;
+
+import com.shangmin.whisperrr.enums.JobStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * JobStatusView built by a JPQL constructor expression.
+ * <p>
+ * Spring Data returns interface projections as proxies that intercept every getter,
+ * which allocates more per lookup than loading the entity would. The single-job
+ * status lookup runs on every poll, so its query selects into this class instead.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+public final class JobStatusRow implements JobStatusView {
+    
+    private final UUID jobId;
+    private final JobStatus status;
+    private final LocalDateTime updatedAt;
+    private final Double processedSeconds;
+    private final Double duration;
+    private final String errorMessage;
+    private final Long version;
+    
+    public JobStatusRow(UUID jobId, JobStatus status, LocalDateTime updatedAt, Double processedSeconds,
+                        Double duration, String errorMessage, Long version) {
+        this.jobId = jobId;
+        this.status = status;
+        this.updatedAt = updatedAt;
+        this.processedSeconds = processedSeconds;
+        this.duration = duration;
+        this.errorMessage = errorMessage;
+        this.version = version;
+    }
+    
+    @Override
+    public UUID getJobId() {
+        return jobId;
+    }
+    
+    @Override
+    public JobStatus getStatus() {
+        return status;
+    }
+    
+    @Override
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    @Override
+    public Double getProcessedSeconds() {
+        return processedSeconds;
+    }
+    
+    @Override
+    public Double getDuration() {
+        return duration;
+    }
+    
+    @Override
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    
+    @Override
+    public Long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,65 @@
+package com.shangmin.whisperrr.repository.projection;
+
+import com.shangmin.whisperrr.enums.JobStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only view of the status fields of a job, for status lookups that do not
+ * need the rest of the entity.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+public interface JobStatusView {
+    
+    /**
+     * Gets the public job ID.
+     * 
+     * @return UUID job ID
+     */
+    UUID getJobId();
+    
+    /**
+     * Gets the job status.
+     * 
+     * @return JobStatus status
+     */
+    JobStatus getStatus();
+    
+    /**
+     * Gets the time of the last status change.
+     * 
+     * @return LocalDateTime last update time
+     */
+    LocalDateTime getUpdatedAt();
+    
+    /**
+     * Gets the seconds of audio transcribed so far.
+     * 
+     * @return Double processed seconds, or null if none yet
+     */
+    Double getProcessedSeconds();
+    
+    /**
+     * Gets the duration of the job's audio.
+     * 
+     * @return Double duration in seconds, or null if unknown
+     */
+    Double getDuration();
+    
+    /**
+     * Gets the reason the job failed.
+     * 
+     * @return String error message, or null unless the job failed
+     */
+    String getErrorMessage();
+    
+    /**
+     * Gets the job version, which changes on every status transition.
+     * 
+     * @return Long version
+     */
+    Long getVersion();
+}
@@ -0,0 +1,27 @@
+package com.shangmin.whisperrr.repository.projection;
+
+import com.shangmin.whisperrr.enums.JobStatus;
+
+/**
+ * Read-only view of the status and version of a job, for conditional requests
+ * that only need to know whether the job has changed.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+public interface JobVersionView {
+    
+    /**
+     * Gets the job status.
+     * 
+     * @return JobStatus status
+     */
+    JobStatus getStatus();
+    
+    /**
+     * Gets the optimistic locking version, which is incremented on every change.
+     * 
+     * @return Long version number
+     */
+    Long getVersion();
+}
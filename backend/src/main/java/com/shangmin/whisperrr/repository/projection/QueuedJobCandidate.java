@@ -0,0 +1,47 @@
+package com.shangmin.whisperrr.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a pending job used for scheduling decisions.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+public interface QueuedJobCandidate {
+    
+    /**
+     * Gets the primary key of the job.
+     * 
+     * @return Long job primary key
+     */
+    Long getId();
+    
+    /**
+     * Gets the primary key of the user who requested the job.
+     * 
+     * @return Long requesting user primary key
+     */
+    Long getRequestedBy();
+    
+    /**
+     * Gets the role of the user who requested the job.
+     * 
+     * @return String user role name
+     */
+    String getRole();
+    
+    /**
+     * Gets the job priority.
+     * 
+     * @return Integer job priority
+     */
+    Integer getPriority();
+    
+    /**
+     * Gets the time the job was queued.
+     * 
+     * @return LocalDateTime creation timestamp
+     */
+    LocalDateTime getCreatedAt();
+}
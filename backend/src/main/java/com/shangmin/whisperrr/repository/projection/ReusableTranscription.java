@@ -0,0 +1,39 @@
+package com.shangmin.whisperrr.repository.projection;
+
+/**
+ * Read-only view of a completed job whose transcription can be reused
+ * for an identical upload.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+public interface ReusableTranscription {
+    
+    /**
+     * Gets the primary key of the completed job.
+     * 
+     * @return Long job primary key
+     */
+    Long getId();
+    
+    /**
+     * Gets the checksum of the audio the job transcribed.
+     * 
+     * @return String audio checksum
+     */
+    String getChecksum();
+    
+    /**
+     * Gets the model that produced the transcription.
+     * 
+     * @return String model used
+     */
+    String getModelUsed();
+    
+    /**
+     * Gets the time the original transcription took.
+     * 
+     * @return Long processing time in milliseconds
+     */
+    Long getProcessingTimeMs();
+}
@@ -0,0 +1,58 @@
+package com.shangmin.whisperrr.repository.projection;
+
+import com.shangmin.whisperrr.enums.JobStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a job's stored result, with the sizes of its text and segments
+ * instead of their content, for responses that stream the result.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+public interface StoredResultView {
+    
+    /**
+     * Gets the primary key of the job's transcription.
+     * 
+     * @return Long transcription primary key, or null if no transcription is stored
+     */
+    Long getTranscriptionId();
+    
+    /**
+     * Gets the job status.
+     * 
+     * @return JobStatus status
+     */
+    JobStatus getStatus();
+    
+    /**
+     * Gets the optimistic locking version of the job.
+     * 
+     * @return Long version number
+     */
+    Long getVersion();
+    
+    /**
+     * Gets the completion timestamp of the job.
+     * 
+     * @return LocalDateTime when the job completed
+     */
+    LocalDateTime getCompletedAt();
+    
+    /**
+     * Gets the size of the transcribed text.
+     * 
+     * @return Long text size in UTF-8 bytes
+     */
+    Long getTextBytes();
+    
+    /**
+     * Gets the size of the stored segments.
+     * 
+     * @return Long size in bytes of the segments in the binary form read by
+     *         SegmentView, or null if no segments are stored
+     */
+    Long getSegmentsBytes();
+}
@@ -0,0 +1,57 @@
+package com.shangmin.whisperrr.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only view of a transcription matched by a full-text search, with its rank
+ * and a highlighted excerpt instead of the full text.
+ * 
+ * @author shangmin
+ * @version 1.0
+ */
+public interface TranscriptSearchHit {
+    
+    /**
+     * Gets the public ID of the job the transcription belongs to.
+     * 
+     * @return UUID job ID
+     */
+    UUID getJobId();
+    
+    /**
+     * Gets the language code of the transcription.
+     * 
+     * @return String language code, or null if unknown
+     */
+    String getLanguage();
+    
+    /**
+     * Gets how well the transcription matches the search, higher being better.
+     * 
+     * @return Double rank
+     */
+    Double getRank();
+    
+    /**
+     * Gets the excerpts of the transcription around the matches, HTML-escaped, with
+     * the matching words wrapped in {@code <mark>} tags.
+     * 
+     * @return String highlighted excerpts
+     */
+    String getSnippet();
+    
+    /**
+     * Gets the time the transcription was stored.
+     * 
+     * @return LocalDateTime creation time
+     */
+    LocalDateTime getCreatedAt();
+    
+    /**
+     * Gets the number of matches the search ranked, the same for every hit.
+     * 
+     * @return Long number of ranked matches
+     */
+    Long getCandidates();
+}
@@ -0,0 +1,23 @@
+package com.shangmin.whisperrr.service;
+
+import com.shangmin.whisperrr.dto.AudioMetadata;
+import com.shangmin.whisperrr.enums.AudioFormat;
+
+import java.nio.file.Path;
+
+/**
+ * Service interface for inspecting audio files without decoding them
+ */
+public interface AudioProbeService {
+    
+    /**
+     * Read the container headers of an audio file, checking that the content is the
+     * expected format and working out its duration, sample rate and channel count
+     * @param audioPath path of the audio file
+     * @param expectedFormat the format implied by the file extension
+     * @return properties read from the headers
+     * @throws com.shangmin.whisperrr.exception.FileValidationException if the file is not
+     *         a well-formed file of the expected format
+     */
+    AudioMetadata probe(Path audioPath, AudioFormat expectedFormat);
+}
@@ -1,21 +1,47 @@
 package com.shangmin.whisperrr.service;
 
 import com.shangmin.whisperrr.dto.AudioUploadResponse;
-import com.shangmin.whisperrr.dto.TranscriptionResultResponse;
+import com.shangmin.whisperrr.dto.BatchProgressResponse;
+import com.shangmin.whisperrr.dto.BatchStatusResponse;
+import com.shangmin.whisperrr.dto.BatchUploadResponse;
+import com.shangmin.whisperrr.dto.TranscriptionOptions;
 import com.shangmin.whisperrr.dto.TranscriptionStatusResponse;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 /**
  * Service interface for audio transcription operations
  */
 public interface AudioService {
     
     /**
-     * Upload and process an audio file for transcription
+     * Upload and process an audio file for transcription. Identical audio already
+     * transcribed with the same options is completed from the stored result.
      * @param audioFile the audio file to transcribe
+     * @param options the model, language and task to transcribe with
      * @return response containing job ID and status
      */
-    AudioUploadResponse uploadAudio(MultipartFile audioFile);
+    AudioUploadResponse uploadAudio(MultipartFile audioFile, TranscriptionOptions options);
+    
+    /**
+     * Upload many audio files for transcription at once, as separate files, a ZIP
+     * archive, or both. Files are validated, stored and hashed in parallel, and the
+     * jobs of all valid files are created in one transaction under a shared batch
+     * ID. Invalid files are rejected without failing the rest of the batch.
+     * @param audioFiles the audio files to transcribe, may be null or empty
+     * @param archive a ZIP archive of audio files to transcribe, or null
+     * @param options the model, language and task to transcribe every file with
+     * @return response containing the batch ID, the job of each accepted file and the rejected files
+     */
+    BatchUploadResponse uploadBatch(List<MultipartFile> audioFiles, MultipartFile archive, TranscriptionOptions options);
+    
+    /**
+     * Get the aggregate progress of the jobs created by a bulk upload
+     * @param batchId the batch ID
+     * @return job counts per status and the share of the batch's audio processed
+     */
+    BatchProgressResponse getBatchProgress(String batchId);
     
     /**
      * Get the status of a transcription job
@@ -25,11 +51,20 @@ public interface AudioService {
     TranscriptionStatusResponse getTranscriptionStatus(String jobId);
     
     /**
-     * Get the transcription result for a completed job
+     * Get the status of a transcription job together with its version, read in the
+     * same query. The version changes on every status transition, so it identifies
+     * the status response
      * @param jobId the job ID
-     * @return transcription result
+     * @return status response and the job version it was read at
      */
-    TranscriptionResultResponse getTranscriptionResult(String jobId);
+    VersionedStatus getVersionedTranscriptionStatus(String jobId);
+    
+    /**
+     * Get the status of many transcription jobs in one lookup
+     * @param jobIds the job IDs
+     * @return status of each job found, and the job IDs that were not found
+     */
+    BatchStatusResponse getTranscriptionStatuses(List<String> jobIds);
     
     /**
      * Validate an audio file
@@ -37,4 +72,12 @@ public interface AudioService {
      * @throws com.shangmin.whisperrr.exception.FileValidationException if validation fails
      */
     void validateAudioFile(MultipartFile audioFile);
+    
+    /**
+     * A job's status response and the version it was read at
+     * @param version the job version
+     * @param status the status response
+     */
+    record VersionedStatus(long version, TranscriptionStatusResponse status) {
+    }
 }
@@ -0,0 +1,41 @@
+package com.shangmin.whisperrr.service;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Service interface for writing uploaded audio into the local audio store
+ */
+public interface AudioStorageService {
+    
+    /**
+     * Stream audio into the store, computing its checksum in the same pass
+     * @param content the audio bytes, read once and not closed
+     * @param storedFilename the name to store the audio under
+     * @return where the audio was stored, its size and checksum
+     * @throws com.shangmin.whisperrr.exception.TranscriptionProcessingException if the audio cannot be stored
+     */
+    StoredAudio store(InputStream content, String storedFilename);
+    
+    /**
+     * Resolve the path of a stored audio file
+     * @param storedFilename the name the audio was stored under
+     * @return path of the audio file
+     */
+    Path resolve(String storedFilename);
+    
+    /**
+     * Delete a stored audio file, logging rather than failing if it cannot be removed
+     * @param storedFilename the name the audio was stored under
+     */
+    void deleteQuietly(String storedFilename);
+    
+    /**
+     * An audio file written to the store
+     * @param path location of the stored file
+     * @param size number of bytes written
+     * @param checksum hex-encoded MD5 of the content
+     */
+    record StoredAudio(Path path, long size, String checksum) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.shangmin.whisperrr.service;
+
+/**
+ * Service interface for running transcription work on a bounded worker pool
+ */
+public interface JobExecutor {
+    
+    /**
+     * Submit a task for execution, failing fast when the pending queue is full
+     * @param task the work to run
+     * @throws com.shangmin.whisperrr.exception.JobQueueFullException if the task cannot be admitted
+     */
+    void submit(Runnable task);
+    
+    /**
+     * Get the number of tasks waiting for a free worker
+     * @return pending queue depth
+     */
+    int getQueueDepth();
+    
+    /**
+     * Get the number of tasks that can still be admitted before submissions are rejected
+     * @return remaining queue capacity
+     */
+    int getRemainingCapacity();
+}
@@ -0,0 +1,30 @@
+package com.shangmin.whisperrr.service;
+
+import com.shangmin.whisperrr.dto.JobListResponse;
+
+/**
+ * Service interface for listing transcription jobs one window at a time. Each
+ * window carries an opaque cursor that continues the listing after its last job
+ */
+public interface JobListingService {
+    
+    /**
+     * List jobs newest first
+     * @param status the status of the jobs to list, or null for every job
+     * @param cursor the cursor of the previous window, or null for the first window
+     * @param size the maximum number of jobs in the window
+     * @return the jobs, and the cursor of the next window
+     * @throws com.shangmin.whisperrr.exception.InvalidScrollRequestException if the status or cursor is malformed
+     */
+    JobListResponse listJobs(String status, String cursor, int size);
+    
+    /**
+     * List pending jobs in the order they will be claimed: highest priority first,
+     * oldest first within a priority
+     * @param cursor the cursor of the previous window, or null for the first window
+     * @param size the maximum number of jobs in the window
+     * @return the jobs, and the cursor of the next window
+     * @throws com.shangmin.whisperrr.exception.InvalidScrollRequestException if the cursor is malformed
+     */
+    JobListResponse listQueue(String cursor, int size);
+}
@@ -0,0 +1,21 @@
+package com.shangmin.whisperrr.service;
+
+import com.shangmin.whisperrr.dto.PartialResultResponse;
+
+/**
+ * Service interface for reading the segments of a transcription incrementally,
+ * while the job is still running
+ */
+public interface PartialResultService {
+    
+    /**
+     * Get the segments that follow a given segment, with the job's status and progress.
+     * Segments of a running job are those stored so far; once the job completes they
+     * come from its stored result, with the same indexes
+     * @param jobId the job ID
+     * @param afterSegment the index of the last segment the caller already has, or -1 for none
+     * @return the following segments, at most a page of them
+     * @throws com.shangmin.whisperrr.exception.TranscriptionNotFoundException if the job does not exist
+     */
+    PartialResultResponse getPartialResult(String jobId, int afterSegment);
+}
@@ -0,0 +1,76 @@
+package com.shangmin.whisperrr.service;
+
+import com.shangmin.whisperrr.enums.ExportFormat;
+import com.shangmin.whisperrr.repository.projection.StoredResultView;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for writing completed transcription results straight from the
+ * database to a response, without holding the whole result in memory
+ */
+public interface ResultStreamService {
+    
+    /**
+     * Look up a completed job's stored result without reading its text or segments
+     * @param jobId the job ID
+     * @return the job's version and the sizes of its text and segments
+     * @throws com.shangmin.whisperrr.exception.TranscriptionNotFoundException if the job does not exist, is not completed or has no result
+     */
+    StoredResultView getStoredResult(String jobId);
+    
+    /**
+     * Write a result as JSON: the fields of
+     * {@link com.shangmin.whisperrr.dto.TranscriptionResultResponse} followed by the segments
+     * @param jobId the job ID
+     * @param result the stored result
+     * @param out the stream to write to
+     * @throws IOException if the result cannot be read or written
+     */
+    void writeJson(String jobId, StoredResultView result, OutputStream out) throws IOException;
+    
+    /**
+     * Write a range of a result's text, UTF-8 encoded
+     * @param result the stored result
+     * @param start the first byte to write
+     * @param end the last byte to write, inclusive
+     * @param out the stream to write to
+     * @throws IOException if the text cannot be read or written
+     */
+    void writeText(StoredResultView result, long start, long end, OutputStream out) throws IOException;
+    
+    /**
+     * Write a result's segments as a subtitle or text file, UTF-8 encoded
+     * @param result the stored result
+     * @param format the file format
+     * @param out the stream to write to
+     * @throws IOException if the segments cannot be read or written
+     */
+    void writeExport(StoredResultView result, ExportFormat format, OutputStream out) throws IOException;
+    
+    /**
+     * Get a result from the result cache without touching the database
+     * @param jobId the job ID
+     * @return the serialized result, or null if it is not cached
+     */
+    CachedResult getCachedResult(String jobId);
+    
+    /**
+     * Serialize a result into the result cache, if it is small enough to be cached
+     * @param jobId the job ID
+     * @param result the stored result
+     * @return the serialized result, or null if it is too large and must be streamed
+     * @throws com.shangmin.whisperrr.exception.TranscriptionProcessingException if the result cannot be read
+     */
+    CachedResult cacheResult(String jobId, StoredResultView result);
+    
+    /**
+     * A completed result serialized as it is sent
+     * @param version the job version the result was serialized at
+     * @param json the JSON response body
+     * @param gzip the same body gzip-compressed
+     */
+    record CachedResult(long version, byte[] json, byte[] gzip) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.shangmin.whisperrr.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Service interface for purging old transcription jobs and their data
+ */
+public interface RetentionService {
+    
+    /**
+     * Delete terminal jobs completed before the threshold, together with their
+     * transcriptions and any audio files no longer referenced by a job
+     * @param threshold jobs completed before this time are purged
+     * @return number of jobs purged
+     */
+    long purgeCompletedBefore(LocalDateTime threshold);
+}
@@ -0,0 +1,135 @@
+package com.shangmin.whisperrr.service;
+
+import com.shangmin.whisperrr.dto.TranscriptionSegment;
+
+import java.util.List;
+
+/**
+ * Time-ordered index over the segments of one completed transcription.
+ * <p>
+ * Searches run over the start and end times a {@link SegmentView} decodes into
+ * primitive arrays, so a lookup costs O(log n) plus the segments it returns, however
+ * long the transcript is, and texts are only decoded for the segments returned.
+ * Segments may overlap: {@code maxEnds[i]} is the latest end among the first
+ * {@code i + 1} segments, which never decreases and can be searched for the first
+ * segment still running at a given time.
+ */
+public final class SegmentIndex {
+    
+    private final long version;
+    private final SegmentView view;
+    private final int[] maxEnds;
+    
+    private SegmentIndex(long version, SegmentView view) {
+        this.version = version;
+        this.view = view;
+        this.maxEnds = new int[view.size()];
+        
+        int maxEnd = Integer.MIN_VALUE;
+        for (int i = 0; i < maxEnds.length; i++) {
+            maxEnd = Math.max(maxEnd, view.endMillis(i));
+            maxEnds[i] = maxEnd;
+        }
+    }
+    
+    /**
+     * Builds an index over a transcription's stored segments.
+     * 
+     * @param version the version of the job the segments belong to
+     * @param view the segments, which are stored in time order
+     * @return SegmentIndex the index
+     */
+    public static SegmentIndex of(long version, SegmentView view) {
+        return new SegmentIndex(version, view);
+    }
+    
+    /**
+     * Builds an index over segments that are not stored yet.
+     * 
+     * @param version the version of the job the segments belong to
+     * @param segments the segments, in any order
+     * @return SegmentIndex the index
+     */
+    public static SegmentIndex of(long version, List<TranscriptionSegment> segments) {
+        return new SegmentIndex(version, SegmentView.wrap(SegmentView.encode(segments)));
+    }
+    
+    /**
+     * Gets the version of the job the segments belong to.
+     * 
+     * @return long job version
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * Gets the number of segments.
+     * 
+     * @return int segment count
+     */
+    public int size() {
+        return maxEnds.length;
+    }
+    
+    /**
+     * Finds the first segment that ends after the given time. Every segment before
+     * it ends at or before that time.
+     * 
+     * @param time the time in seconds
+     * @return int index of the segment, or {@link #size()} if there is none
+     */
+    public int firstEndingAfter(double time) {
+        int low = 0;
+        int high = maxEnds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (maxEnds[mid] > time * 1000) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Finds the first segment that starts at or after the given time.
+     * 
+     * @param time the time in seconds
+     * @return int index of the segment, or {@link #size()} if there is none
+     */
+    public int firstStartingFrom(double time) {
+        int low = 0;
+        int high = maxEnds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (view.startMillis(mid) >= time * 1000) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Gets the segments between two indexes.
+     * 
+     * @param from the index of the first segment
+     * @param to the index after the last segment
+     * @return List<TranscriptionSegment> the segments, in time order
+     */
+    public List<TranscriptionSegment> segments(int from, int to) {
+        return view.segments(from, to);
+    }
+    
+    /**
+     * Estimates the heap held by the index, for weighing it in a cache.
+     * 
+     * @return long approximate size in bytes
+     */
+    public long estimateBytes() {
+        return 32L + view.estimateBytes() + (long) maxEnds.length * Integer.BYTES;
+    }
+}
@@ -0,0 +1,16 @@
+package com.shangmin.whisperrr.service;
+
+/**
+ * Service interface for time-range lookups over the segments of completed transcriptions
+ */
+public interface SegmentIndexService {
+    
+    /**
+     * Get the segment index of a completed job, built from its stored segments on
+     * first use and kept for later lookups
+     * @param jobId the job ID
+     * @return the index, at the job's current version
+     * @throws com.shangmin.whisperrr.exception.TranscriptionNotFoundException if the job does not exist, is not completed or has no result
+     */
+    SegmentIndex getSegmentIndex(String jobId);
+}
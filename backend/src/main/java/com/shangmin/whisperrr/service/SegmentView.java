@@ -0,0 +1,407 @@
+package com.shangmin.whisperrr.service;
+
+import com.shangmin.whisperrr.dto.TranscriptionSegment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read-only view over the segments of a transcription in their stored binary form.
+ * <p>
+ * The format keeps what JSON repeats per segment out of the stored bytes: field
+ * names, number formatting and escaping. It is laid out as
+ * <pre>
+ * byte      format version (1)
+ * byte      flags, bit 0 set when confidences are present
+ * int       segment count n
+ * int       length of the metadata that follows, in bytes
+ * varint[n] gap to each start from the previous segment's end, in ms, zigzag-encoded
+ * varint[n] duration of each segment, in ms, zigzag-encoded
+ * varint[n] length of each text, in UTF-8 bytes
+ * float[n]  confidences, NaN where missing, only if flag 0 is set
+ * byte[]    the texts, UTF-8, one after another
+ * </pre>
+ * Whisper segments usually start where the previous one ended, so most gaps are a
+ * single zero byte and durations take two. Segments are stored in start-time order.
+ * <p>
+ * Opening a view decodes the metadata into primitive arrays. The texts stay in the
+ * stored bytes and are only decoded when read, so the view holds the stored bytes
+ * plus three ints per segment.
+ */
+public final class SegmentView {
+    
+    private static final byte FORMAT_VERSION = 1;
+    private static final int FLAG_CONFIDENCES = 1;
+    private static final int HEADER_BYTES = 10;
+    
+    private static final SegmentView EMPTY = new SegmentView(new int[0], new int[0], new int[1], null, ByteBuffer.allocate(0));
+    
+    private final int[] startMillis;
+    private final int[] endMillis;
+    private final int[] textOffsets;
+    private final float[] confidences;
+    private final ByteBuffer texts;
+    
+    private SegmentView(int[] startMillis, int[] endMillis, int[] textOffsets, float[] confidences, ByteBuffer texts) {
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.textOffsets = textOffsets;
+        this.confidences = confidences;
+        this.texts = texts;
+    }
+    
+    /**
+     * Encodes segments in the stored binary form, in start-time order.
+     * 
+     * @param segments the segments, may be null
+     * @return byte[] the encoded segments
+     */
+    public static byte[] encode(List<TranscriptionSegment> segments) {
+        List<TranscriptionSegment> sorted = segments != null ? new ArrayList<>(segments) : new ArrayList<>();
+        // Whisper emits segments in order; the stable sort only matters for anything else
+        sorted.sort(Comparator.comparingDouble(TranscriptionSegment::getStartTime));
+        
+        boolean hasConfidences = sorted.stream().anyMatch(segment -> segment.getConfidence() != null);
+        ByteArrayOutputStream metadata = new ByteArrayOutputStream(sorted.size() * 4);
+        ByteArrayOutputStream texts = new ByteArrayOutputStream(sorted.size() * 64);
+        int[] lengths = new int[sorted.size()];
+        
+        long previousEnd = 0;
+        for (TranscriptionSegment segment : sorted) {
+            long start = toMillis(segment.getStartTime());
+            long end = toMillis(segment.getEndTime());
+            writeVarint(metadata, zigzag(start - previousEnd));
+            previousEnd = end;
+        }
+        for (TranscriptionSegment segment : sorted) {
+            writeVarint(metadata, zigzag(toMillis(segment.getEndTime()) - toMillis(segment.getStartTime())));
+        }
+        for (int i = 0; i < sorted.size(); i++) {
+            String text = sorted.get(i).getText();
+            byte[] bytes = (text != null ? text : "").getBytes(StandardCharsets.UTF_8);
+            texts.writeBytes(bytes);
+            lengths[i] = bytes.length;
+        }
+        for (int length : lengths) {
+            writeVarint(metadata, length);
+        }
+        if (hasConfidences) {
+            for (TranscriptionSegment segment : sorted) {
+                Double confidence = segment.getConfidence();
+                writeInt(metadata, Float.floatToIntBits(confidence != null ? confidence.floatValue() : Float.NaN));
+            }
+        }
+        
+        ByteBuffer encoded = ByteBuffer.allocate(HEADER_BYTES + metadata.size() + texts.size());
+        encoded.put(FORMAT_VERSION)
+            .put((byte) (hasConfidences ? FLAG_CONFIDENCES : 0))
+            .putInt(sorted.size())
+            .putInt(metadata.size())
+            .put(metadata.toByteArray())
+            .put(texts.toByteArray());
+        return encoded.array();
+    }
+    
+    /**
+     * Opens a view over encoded segments without copying them.
+     * 
+     * @param data the encoded segments, may be null
+     * @return SegmentView the view
+     */
+    public static SegmentView wrap(byte[] data) {
+        if (data == null || data.length == 0) {
+            return EMPTY;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteBufferInputStream(ByteBuffer.wrap(data)));
+            int[] header = readHeader(in);
+            Metadata metadata = readMetadata(in, header);
+            int textsStart = HEADER_BYTES + header[2];
+            if (data.length - textsStart != metadata.textOffsets()[header[1]]) {
+                throw new IllegalArgumentException("Encoded segments are truncated");
+            }
+            ByteBuffer texts = ByteBuffer.wrap(data, textsStart, data.length - textsStart).slice();
+            return new SegmentView(metadata.startMillis(), metadata.endMillis(), metadata.textOffsets(),
+                metadata.confidences(), texts.asReadOnlyBuffer());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Encoded segments are truncated", e);
+        }
+    }
+    
+    /**
+     * Reads the metadata of encoded segments from a stream, leaving the stream at the
+     * first byte of the texts. The returned view has times and text lengths but no
+     * texts; the caller reads {@link #textLength(int)} bytes per segment from the
+     * stream instead.
+     * 
+     * @param in the stream, positioned at the start of the encoded segments
+     * @return SegmentView a view without texts
+     * @throws IOException if the stream fails or ends early
+     */
+    public static SegmentView readMetadata(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        Metadata metadata = readMetadata(data, readHeader(data));
+        return new SegmentView(metadata.startMillis(), metadata.endMillis(), metadata.textOffsets(),
+            metadata.confidences(), null);
+    }
+    
+    /**
+     * Gets the number of segments.
+     * 
+     * @return int segment count
+     */
+    public int size() {
+        return startMillis.length;
+    }
+    
+    /**
+     * Gets when a segment starts.
+     * 
+     * @param index the segment index
+     * @return int start time in milliseconds
+     */
+    public int startMillis(int index) {
+        return startMillis[index];
+    }
+    
+    /**
+     * Gets when a segment ends.
+     * 
+     * @param index the segment index
+     * @return int end time in milliseconds
+     */
+    public int endMillis(int index) {
+        return endMillis[index];
+    }
+    
+    /**
+     * Gets when a segment starts.
+     * 
+     * @param index the segment index
+     * @return double start time in seconds
+     */
+    public double startTime(int index) {
+        return startMillis[index] / 1000.0;
+    }
+    
+    /**
+     * Gets when a segment ends.
+     * 
+     * @param index the segment index
+     * @return double end time in seconds
+     */
+    public double endTime(int index) {
+        return endMillis[index] / 1000.0;
+    }
+    
+    /**
+     * Gets a segment's confidence.
+     * 
+     * @param index the segment index
+     * @return Double the confidence, or null if none was recorded
+     */
+    public Double confidence(int index) {
+        if (confidences == null || Float.isNaN(confidences[index])) {
+            return null;
+        }
+        // Through the float's shortest decimal form, so 0.91 reads back as 0.91
+        return Double.parseDouble(Float.toString(confidences[index]));
+    }
+    
+    /**
+     * Gets the length of a segment's text.
+     * 
+     * @param index the segment index
+     * @return int length in UTF-8 bytes
+     */
+    public int textLength(int index) {
+        return textOffsets[index + 1] - textOffsets[index];
+    }
+    
+    /**
+     * Gets a segment's text as UTF-8 bytes, sharing the stored bytes.
+     * 
+     * @param index the segment index
+     * @return ByteBuffer read-only buffer over the text
+     */
+    public ByteBuffer textBytes(int index) {
+        requireTexts();
+        return texts.slice(textOffsets[index], textLength(index));
+    }
+    
+    /**
+     * Decodes a segment's text.
+     * 
+     * @param index the segment index
+     * @return String the text
+     */
+    public String text(int index) {
+        return StandardCharsets.UTF_8.decode(textBytes(index)).toString();
+    }
+    
+    /**
+     * Decodes one segment.
+     * 
+     * @param index the segment index
+     * @return TranscriptionSegment the segment
+     */
+    public TranscriptionSegment segment(int index) {
+        return new TranscriptionSegment(startTime(index), endTime(index), text(index), confidence(index));
+    }
+    
+    /**
+     * Decodes the segments between two indexes.
+     * 
+     * @param from the index of the first segment
+     * @param to the index after the last segment
+     * @return List<TranscriptionSegment> the segments, in time order
+     */
+    public List<TranscriptionSegment> segments(int from, int to) {
+        List<TranscriptionSegment> segments = new ArrayList<>(Math.max(to - from, 0));
+        for (int i = from; i < to; i++) {
+            segments.add(segment(i));
+        }
+        return segments;
+    }
+    
+    /**
+     * Estimates the heap held by the view, for weighing it in a cache.
+     * 
+     * @return long approximate size in bytes
+     */
+    public long estimateBytes() {
+        long bytes = 96L + (long) startMillis.length * 3 * Integer.BYTES + (texts != null ? texts.capacity() : 0);
+        return confidences != null ? bytes + (long) confidences.length * Float.BYTES : bytes;
+    }
+    
+    private void requireTexts() {
+        if (texts == null) {
+            throw new IllegalStateException("Segment texts were not read");
+        }
+    }
+    
+    /**
+     * Reads the fixed header: flags, segment count and metadata length.
+     */
+    private static int[] readHeader(DataInputStream in) throws IOException {
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported segment format version: " + version);
+        }
+        int flags = in.readUnsignedByte();
+        int count = in.readInt();
+        int metadataBytes = in.readInt();
+        if (count < 0 || metadataBytes < 0) {
+            throw new IllegalArgumentException("Encoded segments are corrupt");
+        }
+        return new int[] {flags, count, metadataBytes};
+    }
+    
+    private static Metadata readMetadata(DataInputStream in, int[] header) throws IOException {
+        int count = header[1];
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        int[] offsets = new int[count + 1];
+        
+        // Gaps come before durations, so starts hold the gaps until the ends are known
+        for (int i = 0; i < count; i++) {
+            starts[i] = Math.toIntExact(unzigzag(readVarint(in)));
+        }
+        long previousEnd = 0;
+        for (int i = 0; i < count; i++) {
+            starts[i] = Math.toIntExact(previousEnd + starts[i]);
+            ends[i] = Math.toIntExact(starts[i] + unzigzag(readVarint(in)));
+            previousEnd = ends[i];
+        }
+        for (int i = 0; i < count; i++) {
+            offsets[i + 1] = Math.addExact(offsets[i], Math.toIntExact(readVarint(in)));
+        }
+        float[] confidences = null;
+        if ((header[0] & FLAG_CONFIDENCES) != 0) {
+            confidences = new float[count];
+            for (int i = 0; i < count; i++) {
+                confidences[i] = in.readFloat();
+            }
+        }
+        return new Metadata(starts, ends, offsets, confidences);
+    }
+    
+    private static long toMillis(double seconds) {
+        return Math.round(seconds * 1000);
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Encoded segments are corrupt");
+    }
+    
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+    
+    private record Metadata(int[] startMillis, int[] endMillis, int[] textOffsets, float[] confidences) {
+    }
+    
+    /**
+     * Reads a buffer without copying it.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+        
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+        
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, count);
+            return count;
+        }
+    }
+}
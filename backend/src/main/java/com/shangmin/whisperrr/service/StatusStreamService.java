@@ -0,0 +1,25 @@
+package com.shangmin.whisperrr.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Service interface for pushing job status changes to clients over Server-Sent Events
+ */
+public interface StatusStreamService {
+    
+    /**
+     * Open a status stream for a job. The current status is sent straight away, then
+     * every later transition; a completed job gets the location of its result before the
+     * stream closes
+     * @param jobId the job ID
+     * @return the emitter backing the stream
+     * @throws com.shangmin.whisperrr.exception.TranscriptionNotFoundException if the job does not exist
+     */
+    SseEmitter streamTranscriptionStatus(String jobId);
+    
+    /**
+     * Get the number of status streams open on this node
+     * @return open stream count
+     */
+    int getOpenStreamCount();
+}
@@ -0,0 +1,19 @@
+package com.shangmin.whisperrr.service;
+
+import com.shangmin.whisperrr.dto.TranscriptSearchResponse;
+
+/**
+ * Service interface for ranked full-text search over stored transcriptions
+ */
+public interface TranscriptSearchService {
+    
+    /**
+     * Search transcription text, best matches first
+     * @param query the search, in web-search syntax: words, "quoted phrases", or, and -excluded words
+     * @param language the language code of the transcriptions to search, or null to search all of them
+     * @param size the maximum number of results
+     * @return the matching transcriptions with highlighted excerpts
+     * @throws com.shangmin.whisperrr.exception.InvalidSearchRequestException if the query is empty or too long, or the language is malformed
+     */
+    TranscriptSearchResponse search(String query, String language, int size);
+}
@@ -0,0 +1,14 @@
+package com.shangmin.whisperrr.service;
+
+/**
+ * Service interface for processing claimed transcription jobs
+ */
+public interface TranscriptionProcessor {
+    
+    /**
+     * Run transcription for a job that has already been claimed (PROCESSING)
+     * and record its outcome
+     * @param jobId the primary key of the claimed job
+     */
+    void process(Long jobId);
+}
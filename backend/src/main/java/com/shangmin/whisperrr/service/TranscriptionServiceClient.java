@@ -0,0 +1,65 @@
+package com.shangmin.whisperrr.service;
+
+import com.shangmin.whisperrr.dto.TranscriptionOptions;
+import com.shangmin.whisperrr.dto.TranscriptionSegment;
+import com.shangmin.whisperrr.dto.TranscriptionServiceResponse;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Client interface for the Python transcription service
+ */
+public interface TranscriptionServiceClient {
+    
+    /**
+     * Send an audio file to the transcription service
+     * @param audioPath path of the stored audio file, streamed from disk
+     * @param filename the filename to report to the service
+     * @param options the model, language and task to request
+     * @return future completing with the decoded transcription, or exceptionally with
+     *         a {@link com.shangmin.whisperrr.exception.TranscriptionProcessingException}
+     */
+    CompletableFuture<TranscriptionServiceResponse> transcribe(Path audioPath, String filename,
+                                                               TranscriptionOptions options);
+    
+    /**
+     * Send an audio file to the transcription service and receive its segments as
+     * they are decoded
+     * @param audioPath path of the stored audio file, streamed from disk
+     * @param filename the filename to report to the service
+     * @param options the model, language and task to request
+     * @param listener called with each batch of segments, in order, on the thread
+     *                 reading the response
+     * @return future completing with the full transcription, or exceptionally with
+     *         a {@link com.shangmin.whisperrr.exception.TranscriptionProcessingException}
+     */
+    CompletableFuture<TranscriptionServiceResponse> transcribe(Path audioPath, String filename,
+                                                               TranscriptionOptions options,
+                                                               ProgressListener listener);
+    
+    /**
+     * Send an audio file to the transcription service with default options
+     * @param audioPath path of the stored audio file, streamed from disk
+     * @param filename the filename to report to the service
+     * @return future completing with the decoded transcription
+     */
+    default CompletableFuture<TranscriptionServiceResponse> transcribe(Path audioPath, String filename) {
+        return transcribe(audioPath, filename, TranscriptionOptions.defaults());
+    }
+    
+    /**
+     * Receives segments of a transcription while it is running
+     */
+    @FunctionalInterface
+    interface ProgressListener {
+        
+        /**
+         * Called after each stretch of audio is transcribed
+         * @param segments the segments decoded from that stretch, possibly none
+         * @param processedSeconds the seconds of audio transcribed so far
+         */
+        void onProgress(List<TranscriptionSegment> segments, double processedSeconds);
+    }
+}
@@ -0,0 +1,462 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.dto.AudioMetadata;
+import com.shangmin.whisperrr.enums.AudioFormat;
+import com.shangmin.whisperrr.exception.FileValidationException;
+import com.shangmin.whisperrr.exception.TranscriptionProcessingException;
+import com.shangmin.whisperrr.service.AudioProbeService;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+
+/**
+ * Implementation of AudioProbeService that parses container headers directly.
+ * <p>
+ * Only a few small positional reads are made per file: the leading magic bytes,
+ * the format header, and for MP3 and Ogg a look at the first frames or the last
+ * page. No audio is decoded, so probing cost does not depend on file length.
+ */
+@Service
+public class AudioProbeServiceImpl implements AudioProbeService {
+    
+    private static final int MAGIC_LENGTH = 12;
+    private static final int ID3_HEADER_LENGTH = 10;
+    private static final int MP3_SYNC_SEARCH_LENGTH = 64 * 1024;
+    private static final int MP3_SYNC_WINDOW = 4096;
+    private static final int OGG_TAIL_LENGTH = 64 * 1024;
+    private static final int MAX_BOXES = 1000;
+    
+    // MPEG audio bitrates in kbps, by [version is MPEG1 ? 0 : 1][layer - 1][index]
+    private static final int[][][] MP3_BITRATES = {
+        {
+            {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+            {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320}
+        },
+        {
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160},
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}
+        }
+    };
+    
+    // MPEG audio sample rates by version bits (0 = MPEG2.5, 2 = MPEG2, 3 = MPEG1)
+    private static final int[][] MP3_SAMPLE_RATES = {
+        {11025, 12000, 8000},
+        null,
+        {22050, 24000, 16000},
+        {44100, 48000, 32000}
+    };
+    
+    // Sample entry types that carry audio in an MP4 container
+    private static final Set<String> MP4_AUDIO_ENTRIES = Set.of("mp4a", "alac", "ac-3", "ec-3", "Opus", "fLaC");
+    
+    // MP4 boxes that only contain other boxes on the way to the sample description
+    private static final Set<String> MP4_CONTAINERS = Set.of("moov", "trak", "mdia", "minf", "stbl");
+    
+    @Override
+    public AudioMetadata probe(Path audioPath, AudioFormat expectedFormat) {
+        try (FileChannel channel = FileChannel.open(audioPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer magic = read(channel, 0, MAGIC_LENGTH);
+            long audioStart = startsWith(magic, 0, "ID3") ? skipId3(channel, magic) : 0;
+            AudioFormat detected = detect(channel, audioStart, magic);
+            
+            if (detected == null) {
+                throw new FileValidationException("File is not a recognized audio file");
+            }
+            if (detected != expectedFormat) {
+                throw new FileValidationException("File content is " + detected.getExtension().toUpperCase() +
+                    " audio but the file extension is ." + expectedFormat.getExtension());
+            }
+            
+            return switch (detected) {
+                case WAV -> probeWav(channel, size);
+                case FLAC -> probeFlac(channel, audioStart);
+                case OGG -> probeOgg(channel, size);
+                case M4A -> probeMp4(channel, size);
+                case MP3 -> probeMp3(channel, audioStart, size);
+            };
+        } catch (IOException e) {
+            throw new TranscriptionProcessingException("Failed to read audio file", e);
+        } catch (RuntimeException e) {
+            if (e instanceof FileValidationException) {
+                throw e;
+            }
+            // Malformed headers can point anywhere; treat out-of-range reads as corruption
+            throw corrupt(expectedFormat);
+        }
+    }
+    
+    private static AudioFormat detect(FileChannel channel, long audioStart, ByteBuffer magic) throws IOException {
+        if (startsWith(magic, 0, "RIFF") && startsWith(magic, 8, "WAVE")) {
+            return AudioFormat.WAV;
+        }
+        if (startsWith(magic, 0, "OggS")) {
+            return AudioFormat.OGG;
+        }
+        if (startsWith(magic, 4, "ftyp")) {
+            return AudioFormat.M4A;
+        }
+        
+        ByteBuffer head = audioStart == 0 ? magic : read(channel, audioStart, 4);
+        if (startsWith(head, 0, "fLaC")) {
+            return AudioFormat.FLAC;
+        }
+        if (head.remaining() >= 2 && (head.get(0) & 0xFF) == 0xFF && (head.get(1) & 0xE0) == 0xE0) {
+            return AudioFormat.MP3;
+        }
+        // An ID3 tag may be followed by padding before the first frame
+        return audioStart > 0 ? AudioFormat.MP3 : null;
+    }
+    
+    // ---------------------------------------------------------------- WAV
+    
+    private static AudioMetadata probeWav(FileChannel channel, long size) throws IOException {
+        Integer channels = null;
+        Integer sampleRate = null;
+        long byteRate = 0;
+        Long dataSize = null;
+        
+        long position = 12;
+        for (int chunks = 0; position + 8 <= size && chunks < MAX_BOXES; chunks++) {
+            ByteBuffer header = read(channel, position, 8).order(ByteOrder.LITTLE_ENDIAN);
+            String id = ascii(header, 0, 4);
+            long chunkSize = Integer.toUnsignedLong(header.getInt(4));
+            
+            if (id.equals("fmt ")) {
+                ByteBuffer fmt = read(channel, position + 8, 16).order(ByteOrder.LITTLE_ENDIAN);
+                requireLength(fmt, 16, AudioFormat.WAV);
+                channels = fmt.getShort(2) & 0xFFFF;
+                sampleRate = fmt.getInt(4);
+                byteRate = Integer.toUnsignedLong(fmt.getInt(8));
+            } else if (id.equals("data")) {
+                // Streamed WAVs leave the size unset; the data then runs to the end of the file
+                dataSize = Math.min(chunkSize, size - position - 8);
+                break;
+            }
+            position += 8 + chunkSize + (chunkSize & 1);
+        }
+        
+        if (channels == null || channels == 0 || sampleRate <= 0 || byteRate == 0 || dataSize == null) {
+            throw corrupt(AudioFormat.WAV);
+        }
+        return new AudioMetadata(AudioFormat.WAV, (double) dataSize / byteRate, sampleRate, channels);
+    }
+    
+    // ---------------------------------------------------------------- FLAC
+    
+    private static AudioMetadata probeFlac(FileChannel channel, long audioStart) throws IOException {
+        // STREAMINFO is always the first metadata block
+        ByteBuffer block = read(channel, audioStart + 4, 4 + 18);
+        requireLength(block, 22, AudioFormat.FLAC);
+        int type = block.get(0) & 0x7F;
+        if (type != 0) {
+            throw corrupt(AudioFormat.FLAC);
+        }
+        
+        long packed = block.getLong(4 + 10);
+        int sampleRate = (int) (packed >>> 44) & 0xFFFFF;
+        int channels = (int) ((packed >>> 41) & 0x7) + 1;
+        long totalSamples = packed & 0xFFFFFFFFFL;
+        if (sampleRate == 0) {
+            throw corrupt(AudioFormat.FLAC);
+        }
+        
+        Double duration = totalSamples > 0 ? (double) totalSamples / sampleRate : null;
+        return new AudioMetadata(AudioFormat.FLAC, duration, sampleRate, channels);
+    }
+    
+    // ---------------------------------------------------------------- Ogg
+    
+    private static AudioMetadata probeOgg(FileChannel channel, long size) throws IOException {
+        ByteBuffer page = read(channel, 0, 27 + 255).order(ByteOrder.LITTLE_ENDIAN);
+        requireLength(page, 28, AudioFormat.OGG);
+        int serial = page.getInt(14);
+        int segments = page.get(26) & 0xFF;
+        ByteBuffer packet = read(channel, 27 + segments, 19).order(ByteOrder.LITTLE_ENDIAN);
+        requireLength(packet, 19, AudioFormat.OGG);
+        
+        int channels;
+        int sampleRate;
+        long granuleRate;
+        long preSkip = 0;
+        if (startsWith(packet, 0, "\u0001vorbis")) {
+            channels = packet.get(11) & 0xFF;
+            sampleRate = packet.getInt(12);
+            granuleRate = sampleRate;
+        } else if (startsWith(packet, 0, "OpusHead")) {
+            channels = packet.get(9) & 0xFF;
+            preSkip = packet.getShort(10) & 0xFFFF;
+            sampleRate = packet.getInt(12);
+            // Opus granule positions always count 48 kHz samples
+            granuleRate = 48000;
+        } else {
+            throw new FileValidationException("Unsupported Ogg codec; only Vorbis and Opus are accepted");
+        }
+        if (channels == 0 || granuleRate <= 0) {
+            throw corrupt(AudioFormat.OGG);
+        }
+        
+        long granule = lastGranulePosition(channel, size, serial);
+        Double duration = granule > preSkip ? (double) (granule - preSkip) / granuleRate : null;
+        return new AudioMetadata(AudioFormat.OGG, duration, sampleRate > 0 ? sampleRate : null, channels);
+    }
+    
+    private static long lastGranulePosition(FileChannel channel, long size, int serial) throws IOException {
+        long tailStart = Math.max(0, size - OGG_TAIL_LENGTH);
+        ByteBuffer tail = read(channel, tailStart, (int) (size - tailStart)).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = tail.limit() - 27; i >= 0; i--) {
+            if (startsWith(tail, i, "OggS") && tail.getInt(i + 14) == serial) {
+                return tail.getLong(i + 6);
+            }
+        }
+        return -1;
+    }
+    
+    // ---------------------------------------------------------------- MP4 / M4A
+    
+    private static AudioMetadata probeMp4(FileChannel channel, long size) throws IOException {
+        Mp4Info info = new Mp4Info();
+        walkMp4(channel, 0, size, 0, info);
+        if (info.timescale <= 0 || info.channels == null) {
+            throw corrupt(AudioFormat.M4A);
+        }
+        return new AudioMetadata(AudioFormat.M4A, (double) info.duration / info.timescale, info.sampleRate, info.channels);
+    }
+    
+    private static void walkMp4(FileChannel channel, long start, long end, int depth, Mp4Info info) throws IOException {
+        long position = start;
+        while (position + 8 <= end && info.boxes++ < MAX_BOXES) {
+            ByteBuffer header = read(channel, position, 16);
+            long boxSize = Integer.toUnsignedLong(header.getInt(0));
+            String type = ascii(header, 4, 4);
+            int headerSize = 8;
+            if (boxSize == 1) {
+                boxSize = header.getLong(8);
+                headerSize = 16;
+            } else if (boxSize == 0) {
+                boxSize = end - position;
+            }
+            if (boxSize < headerSize || position + boxSize > end) {
+                throw corrupt(AudioFormat.M4A);
+            }
+            if (depth == 0 && position == 0 && !type.equals("ftyp")) {
+                throw corrupt(AudioFormat.M4A);
+            }
+            
+            long body = position + headerSize;
+            if (MP4_CONTAINERS.contains(type)) {
+                walkMp4(channel, body, position + boxSize, depth + 1, info);
+            } else if (type.equals("mvhd")) {
+                readMovieHeader(channel, body, info);
+            } else if (type.equals("stsd") && info.channels == null) {
+                readSampleDescription(channel, body, info);
+            }
+            if (depth == 0 && type.equals("moov")) {
+                // Everything needed lives in moov; media data after it is never touched
+                return;
+            }
+            position += boxSize;
+        }
+    }
+    
+    private static void readMovieHeader(FileChannel channel, long body, Mp4Info info) throws IOException {
+        ByteBuffer mvhd = read(channel, body, 32);
+        int version = mvhd.get(0) & 0xFF;
+        if (version == 1) {
+            info.timescale = Integer.toUnsignedLong(mvhd.getInt(20));
+            info.duration = mvhd.getLong(24);
+        } else {
+            info.timescale = Integer.toUnsignedLong(mvhd.getInt(12));
+            info.duration = Integer.toUnsignedLong(mvhd.getInt(16));
+        }
+    }
+    
+    private static void readSampleDescription(FileChannel channel, long body, Mp4Info info) throws IOException {
+        // Full box header, entry count, then the first sample entry
+        ByteBuffer entry = read(channel, body + 8, 36);
+        requireLength(entry, 36, AudioFormat.M4A);
+        if (MP4_AUDIO_ENTRIES.contains(ascii(entry, 4, 4))) {
+            info.channels = entry.getShort(24) & 0xFFFF;
+            info.sampleRate = entry.getInt(32) >>> 16;
+        }
+    }
+    
+    /**
+     * Values collected while walking the MP4 box tree.
+     */
+    private static final class Mp4Info {
+        private int boxes;
+        private long timescale;
+        private long duration;
+        private Integer sampleRate;
+        private Integer channels;
+    }
+    
+    // ---------------------------------------------------------------- MP3
+    
+    private static long skipId3(FileChannel channel, ByteBuffer magic) {
+        requireLength(magic, ID3_HEADER_LENGTH, AudioFormat.MP3);
+        int flags = magic.get(5) & 0xFF;
+        // Tag size is a 28-bit synchsafe integer excluding the header and optional footer
+        long tagSize = ((magic.get(6) & 0x7F) << 21) | ((magic.get(7) & 0x7F) << 14) |
+            ((magic.get(8) & 0x7F) << 7) | (magic.get(9) & 0x7F);
+        return ID3_HEADER_LENGTH + tagSize + ((flags & 0x10) != 0 ? ID3_HEADER_LENGTH : 0);
+    }
+    
+    private static AudioMetadata probeMp3(FileChannel channel, long audioStart, long size) throws IOException {
+        // The first frame is almost always at the start, so scan in small windows rather than reading the whole range
+        long searchEnd = Math.min(audioStart + MP3_SYNC_SEARCH_LENGTH, size);
+        for (long windowStart = audioStart; windowStart + 4 <= searchEnd; windowStart += MP3_SYNC_WINDOW - 3) {
+            ByteBuffer window = read(channel, windowStart, (int) Math.min(MP3_SYNC_WINDOW, searchEnd - windowStart));
+            for (int offset = 0; offset + 4 <= window.limit(); offset++) {
+                MpegFrame frame = MpegFrame.parse(window.getInt(offset));
+                if (frame == null) {
+                    continue;
+                }
+                long frameStart = windowStart + offset;
+                // Require a second frame right after the first so stray sync bits are not mistaken for audio
+                long next = frameStart + frame.length();
+                if (next + 4 <= size && MpegFrame.parse(read(channel, next, 4).getInt(0)) == null) {
+                    continue;
+                }
+                return mp3Metadata(channel, frameStart, frame, size);
+            }
+        }
+        throw corrupt(AudioFormat.MP3);
+    }
+    
+    private static AudioMetadata mp3Metadata(FileChannel channel, long frameStart, MpegFrame frame, long size)
+            throws IOException {
+        ByteBuffer first = read(channel, frameStart, Math.max(frame.xingOffset() + 12, 40));
+        
+        // VBR files carry the frame count in a Xing/Info or VBRI header inside the first frame
+        Long frames = null;
+        int xing = frame.xingOffset();
+        if (startsWith(first, xing, "Xing") || startsWith(first, xing, "Info")) {
+            if ((first.getInt(xing + 4) & 0x1) != 0) {
+                frames = Integer.toUnsignedLong(first.getInt(xing + 8));
+            }
+        } else if (startsWith(first, 36, "VBRI")) {
+            frames = Integer.toUnsignedLong(read(channel, frameStart + 36 + 14, 4).getInt(0));
+        }
+        
+        double duration;
+        if (frames != null && frames > 0) {
+            duration = (double) frames * frame.samplesPerFrame() / frame.sampleRate();
+        } else {
+            long end = size;
+            if (size >= 128 && startsWith(read(channel, size - 128, 3), 0, "TAG")) {
+                end -= 128;
+            }
+            duration = (end - frameStart) * 8.0 / (frame.bitrateKbps() * 1000L);
+        }
+        return new AudioMetadata(AudioFormat.MP3, duration, frame.sampleRate(), frame.channels());
+    }
+    
+    /**
+     * Fields of a single MPEG audio frame header.
+     */
+    private record MpegFrame(boolean mpeg1, int layer, int bitrateKbps, int sampleRate, boolean padded, boolean mono) {
+        
+        static MpegFrame parse(int header) {
+            if ((header >>> 21) != 0x7FF) {
+                return null;
+            }
+            int versionBits = (header >>> 19) & 0x3;
+            int layerBits = (header >>> 17) & 0x3;
+            int bitrateIndex = (header >>> 12) & 0xF;
+            int sampleRateIndex = (header >>> 10) & 0x3;
+            // Reserved values, and free-format bitrate which has no computable frame length
+            if (versionBits == 1 || layerBits == 0 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+                return null;
+            }
+            
+            boolean mpeg1 = versionBits == 3;
+            int layer = 4 - layerBits;
+            return new MpegFrame(
+                mpeg1,
+                layer,
+                MP3_BITRATES[mpeg1 ? 0 : 1][layer - 1][bitrateIndex],
+                MP3_SAMPLE_RATES[versionBits][sampleRateIndex],
+                ((header >>> 9) & 0x1) != 0,
+                ((header >>> 6) & 0x3) == 3
+            );
+        }
+        
+        int samplesPerFrame() {
+            if (layer == 1) {
+                return 384;
+            }
+            return layer == 3 && !mpeg1 ? 576 : 1152;
+        }
+        
+        int length() {
+            if (layer == 1) {
+                return (12 * bitrateKbps * 1000 / sampleRate + (padded ? 1 : 0)) * 4;
+            }
+            return samplesPerFrame() / 8 * bitrateKbps * 1000 / sampleRate + (padded ? 1 : 0);
+        }
+        
+        int xingOffset() {
+            // Frame header plus Layer III side information
+            if (mpeg1) {
+                return 4 + (mono ? 17 : 32);
+            }
+            return 4 + (mono ? 9 : 17);
+        }
+        
+        int channels() {
+            return mono ? 1 : 2;
+        }
+    }
+    
+    // ---------------------------------------------------------------- helpers
+    
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(length, 0));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+    
+    private static boolean startsWith(ByteBuffer buffer, int offset, String ascii) {
+        if (offset < 0 || offset + ascii.length() > buffer.limit()) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length(); i++) {
+            if (buffer.get(offset + i) != (byte) ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static String ascii(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+    
+    private static void requireLength(ByteBuffer buffer, int length, AudioFormat format) {
+        if (buffer.limit() < length) {
+            throw corrupt(format);
+        }
+    }
+    
+    private static FileValidationException corrupt(AudioFormat format) {
+        return new FileValidationException("Audio file is corrupt or not a valid " +
+            format.getExtension().toUpperCase() + " file");
+    }
+}
@@ -1,96 +1,529 @@
 package com.shangmin.whisperrr.service.impl;
 
 import com.shangmin.whisperrr.dto.*;
+import com.shangmin.whisperrr.entity.AudioFile;
+import com.shangmin.whisperrr.entity.Job;
+import com.shangmin.whisperrr.entity.User;
+import com.shangmin.whisperrr.enums.AudioFormat;
+import com.shangmin.whisperrr.enums.JobStatus;
+import com.shangmin.whisperrr.enums.UserRole;
 import com.shangmin.whisperrr.exception.FileValidationException;
+import com.shangmin.whisperrr.exception.JobQueueFullException;
 import com.shangmin.whisperrr.exception.TranscriptionNotFoundException;
+import com.shangmin.whisperrr.exception.TranscriptionProcessingException;
+import com.shangmin.whisperrr.repository.AudioFileRepository;
+import com.shangmin.whisperrr.repository.JobRepository;
+import com.shangmin.whisperrr.repository.TranscriptionRepository;
+import com.shangmin.whisperrr.repository.UserRepository;
+import com.shangmin.whisperrr.repository.projection.BatchProgressView;
+import com.shangmin.whisperrr.repository.projection.JobStatusView;
+import com.shangmin.whisperrr.repository.projection.ReusableTranscription;
+import com.shangmin.whisperrr.service.AudioProbeService;
 import com.shangmin.whisperrr.service.AudioService;
+import com.shangmin.whisperrr.service.AudioStorageService;
+import com.shangmin.whisperrr.service.AudioStorageService.StoredAudio;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 
 /**
- * Implementation of AudioService for handling audio transcription operations
+ * Implementation of AudioService for handling audio transcription operations.
+ * Uploads are stored in the local audio directory and recorded as AudioFile and
+ * PENDING Job rows; the database queue worker picks them up from there.
+ * <p>
+ * Bulk uploads store, hash and probe their files on a small pool of workers, then
+ * insert the rows of every valid file in one transaction, so a batch costs one
+ * request and one transaction however many files it holds. ZIP archives are
+ * copied to a temporary file once and their entries read in parallel from there.
  */
 @Service
-public class AudioServiceImpl implements AudioService {
+public class AudioServiceImpl implements AudioService, DisposableBean {
     
     private static final Logger logger = LoggerFactory.getLogger(AudioServiceImpl.class);
     
-    // In-memory storage for demonstration - in production, use a database
-    private final Map<String, TranscriptionJob> transcriptionJobs = new ConcurrentHashMap<>();
-    private final AtomicLong jobIdCounter = new AtomicLong(1);
+    // Account that owns uploads until authentication is in place
+    private static final String SYSTEM_USERNAME = "system";
+    private static final String SYSTEM_EMAIL = "system@whisperrr.local";
     
     // Supported file types and size limit
-    private static final Set<String> SUPPORTED_EXTENSIONS = Set.of("mp3", "wav", "m4a");
+    private static final Set<String> SUPPORTED_EXTENSIONS = Set.of("mp3", "wav", "m4a", "flac", "ogg");
     private static final long MAX_FILE_SIZE = 25 * 1024 * 1024; // 25MB
     
+    // Transcription settings accepted by the Python service
+    private static final Set<String> SUPPORTED_MODELS = Set.of("tiny", "base", "small", "medium", "large");
+    private static final Set<String> SUPPORTED_TASKS = Set.of(
+        TranscriptionOptions.TASK_TRANSCRIBE, TranscriptionOptions.TASK_TRANSLATE);
+    
+    private final JobRepository jobRepository;
+    private final AudioFileRepository audioFileRepository;
+    private final TranscriptionRepository transcriptionRepository;
+    private final UserRepository userRepository;
+    private final JobQueueWorker jobQueueWorker;
+    private final AudioStorageService audioStorageService;
+    private final AudioProbeService audioProbeService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService batchExecutor;
+    private final AtomicReference<Long> systemUserId = new AtomicReference<>();
+    private final Counter reuseHits;
+    private final Counter reuseMisses;
+    private final Timer reuseSavedTime;
+    
+    @Value("${whisperrr.queue.max-pending:1000}")
+    private long maxPendingJobs;
+    
+    @Value("${whisperrr.executor.retry-after-seconds:30}")
+    private long retryAfterSeconds;
+    
+    @Value("${whisperrr.batch.max-files:1000}")
+    private int maxBatchFiles;
+    
+    @Autowired
+    public AudioServiceImpl(JobRepository jobRepository,
+                            AudioFileRepository audioFileRepository,
+                            TranscriptionRepository transcriptionRepository,
+                            UserRepository userRepository,
+                            JobQueueWorker jobQueueWorker,
+                            AudioStorageService audioStorageService,
+                            AudioProbeService audioProbeService,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${whisperrr.batch.parallelism:4}") int batchParallelism) {
+        this.jobRepository = jobRepository;
+        this.audioFileRepository = audioFileRepository;
+        this.transcriptionRepository = transcriptionRepository;
+        this.userRepository = userRepository;
+        this.jobQueueWorker = jobQueueWorker;
+        this.audioStorageService = audioStorageService;
+        this.audioProbeService = audioProbeService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchExecutor = Executors.newFixedThreadPool(
+            batchParallelism, Thread.ofVirtual().name("batch-upload-", 0).factory());
+        
+        this.reuseHits = Counter.builder("whisperrr.reuse.lookups")
+            .tag("result", "hit")
+            .description("Uploads completed from an earlier transcription of identical audio")
+            .register(meterRegistry);
+        this.reuseMisses = Counter.builder("whisperrr.reuse.lookups")
+            .tag("result", "miss")
+            .description("Uploads with no reusable transcription, sent to the queue")
+            .register(meterRegistry);
+        this.reuseSavedTime = Timer.builder("whisperrr.reuse.saved")
+            .description("Model processing time of the transcriptions reused instead of recomputed")
+            .register(meterRegistry);
+    }
+    
     @Override
-    public AudioUploadResponse uploadAudio(MultipartFile audioFile) {
+    public AudioUploadResponse uploadAudio(MultipartFile audioFile, TranscriptionOptions options) {
         logger.info("Processing audio upload: {}", audioFile.getOriginalFilename());
         
-        // Validate the file
+        // Validate the file and requested settings
         validateAudioFile(audioFile);
+        TranscriptionOptions requested = normalizeOptions(options);
         
-        // Generate job ID
-        String jobId = "job_" + jobIdCounter.getAndIncrement();
+        // Admission control: refuse new work while the queue backlog is over its limit
+        if (jobQueueWorker.getPendingBacklog() >= maxPendingJobs) {
+            throw new JobQueueFullException("Transcription queue is full, please retry later", retryAfterSeconds);
+        }
         
-        // Create transcription job
-        TranscriptionJob job = new TranscriptionJob(jobId, audioFile.getOriginalFilename(), TranscriptionStatus.PENDING);
-        transcriptionJobs.put(jobId, job);
+        // Store the file before opening a transaction so no connection is held during IO
+        String extension = getFileExtension(audioFile.getOriginalFilename()).toLowerCase();
+        String storedFilename = UUID.randomUUID() + "." + extension;
+        StoredAudio storedAudio = storeAudioFile(audioFile, storedFilename);
         
-        // Simulate asynchronous processing
-        processTranscriptionAsync(job);
+        Job job;
+        try {
+            // Check the content really is the claimed format before it can take a worker slot
+            AudioFormat format = AudioFormat.fromExtension(extension);
+            AudioMetadata metadata = audioProbeService.probe(audioStorageService.resolve(storedFilename), format);
+            logger.debug("Probed {}: {}", storedFilename, metadata);
+            
+            Long uploaderId = resolveSystemUserId();
+            job = transactionTemplate.execute(status -> {
+                User uploader = userRepository.getReferenceById(uploaderId);
+                AudioFile stored = new AudioFile(
+                    storedFilename,
+                    audioFile.getOriginalFilename(),
+                    storedAudio.size(),
+                    format,
+                    uploader
+                );
+                stored.setChecksum(storedAudio.checksum());
+                stored.setDuration(metadata.getDurationSeconds());
+                audioFileRepository.save(stored);
+                
+                Job created = new Job(uploader, stored);
+                created.setRequestedModel(requested.getModel());
+                created.setRequestedLanguage(requested.getLanguage());
+                created.setTask(requested.getTask());
+                return reuseOrEnqueue(created, storedAudio.checksum(), requested);
+            });
+        } catch (RuntimeException e) {
+            audioStorageService.deleteQuietly(storedFilename);
+            throw e;
+        }
         
-        logger.info("Audio upload processed successfully with job ID: {}", jobId);
+        if (job.getStatus() == JobStatus.COMPLETED) {
+            logger.info("Audio upload matched an earlier transcription, job {} completed immediately", job.getJobId());
+            return new AudioUploadResponse(
+                job.getJobId().toString(),
+                LocalDateTime.now(),
+                "Audio file uploaded successfully and transcribed from an identical earlier upload"
+            );
+        }
+        jobQueueWorker.recordEnqueued();
+        
+        logger.info("Audio upload processed successfully with job ID: {}", job.getJobId());
         
         return new AudioUploadResponse(
-            jobId,
+            job.getJobId().toString(),
             LocalDateTime.now(),
             "Audio file uploaded successfully and transcription job started"
         );
     }
     
     @Override
-    public TranscriptionStatusResponse getTranscriptionStatus(String jobId) {
-        logger.info("Getting status for job: {}", jobId);
+    public BatchUploadResponse uploadBatch(List<MultipartFile> audioFiles, MultipartFile archive,
+                                           TranscriptionOptions options) {
+        List<MultipartFile> files = audioFiles != null ? audioFiles : List.of();
+        boolean hasArchive = archive != null && !archive.isEmpty();
+        logger.info("Processing bulk upload of {} files{}", files.size(),
+            hasArchive ? " and archive " + archive.getOriginalFilename() : "");
         
-        TranscriptionJob job = transcriptionJobs.get(jobId);
-        if (job == null) {
-            throw new TranscriptionNotFoundException("Transcription job not found: " + jobId);
+        TranscriptionOptions requested = normalizeOptions(options);
+        if (!hasArchive) {
+            return submitBatch(files, null, requested);
         }
         
-        return new TranscriptionStatusResponse(
-            jobId,
-            job.getStatus(),
-            job.getUpdatedAt(),
-            getStatusMessage(job.getStatus())
-        );
+        Path archivePath = copyArchive(archive);
+        try (ZipFile zip = new ZipFile(archivePath.toFile())) {
+            return submitBatch(files, zip, requested);
+        } catch (ZipException e) {
+            throw new FileValidationException("Archive must be a valid ZIP file");
+        } catch (IOException e) {
+            throw new TranscriptionProcessingException("Failed to read uploaded archive", e);
+        } finally {
+            deleteQuietly(archivePath);
+        }
+    }
+    
+    private BatchUploadResponse submitBatch(List<MultipartFile> files, ZipFile archive, TranscriptionOptions requested) {
+        List<BatchSource> sources = new ArrayList<>();
+        for (MultipartFile file : files) {
+            sources.add(new BatchSource(file.getOriginalFilename(), file.getSize(), file.getContentType(),
+                file::getInputStream));
+        }
+        if (archive != null) {
+            archive.stream()
+                .filter(entry -> !entry.isDirectory() && !isArchiveMetadata(entry.getName()))
+                .forEach(entry -> sources.add(archiveSource(archive, entry)));
+        }
+        
+        if (sources.isEmpty()) {
+            throw new FileValidationException("At least one audio file is required");
+        }
+        if (sources.size() > maxBatchFiles) {
+            throw new FileValidationException("At most " + maxBatchFiles + " files can be uploaded in one batch");
+        }
+        // Admission control covers the whole batch, so it is accepted or refused as one
+        if (jobQueueWorker.getPendingBacklog() + sources.size() > maxPendingJobs) {
+            throw new JobQueueFullException("Transcription queue is full, please retry later", retryAfterSeconds);
+        }
+        
+        List<PreparedAudio> prepared = new ArrayList<>(sources.size());
+        List<BatchUploadEntry> rejected = new ArrayList<>();
+        prepareAll(sources, prepared, rejected);
+        if (prepared.isEmpty()) {
+            BatchUploadEntry first = rejected.get(0);
+            throw new FileValidationException(
+                "No valid audio file in the batch; " + first.getFilename() + ": " + first.getError());
+        }
+        
+        UUID batchId = UUID.randomUUID();
+        Long uploaderId = resolveSystemUserId();
+        List<Job> jobs;
+        try {
+            jobs = transactionTemplate.execute(status -> createBatchJobs(batchId, prepared, requested, uploaderId));
+        } catch (RuntimeException e) {
+            prepared.forEach(audio -> audioStorageService.deleteQuietly(audio.storedFilename()));
+            throw e;
+        }
+        
+        List<BatchUploadEntry> created = new ArrayList<>(jobs.size());
+        int enqueued = 0;
+        for (int i = 0; i < jobs.size(); i++) {
+            Job job = jobs.get(i);
+            created.add(new BatchUploadEntry(prepared.get(i).filename(), job.getJobId().toString(), null));
+            if (job.getStatus() == JobStatus.PENDING) {
+                enqueued++;
+            }
+        }
+        jobQueueWorker.recordEnqueued(enqueued);
+        
+        logger.info("Bulk upload {} processed: {} jobs created, {} reused, {} files rejected",
+            batchId, jobs.size(), jobs.size() - enqueued, rejected.size());
+        
+        String message = jobs.size() + " audio files uploaded successfully and transcription jobs started";
+        if (!rejected.isEmpty()) {
+            message += "; " + rejected.size() + " rejected";
+        }
+        return new BatchUploadResponse(batchId.toString(), created, rejected, LocalDateTime.now(), message);
+    }
+    
+    /**
+     * Stores, hashes and probes every file of a batch on the batch workers, keeping
+     * the files in the order they were sent. Files that fail validation are rejected;
+     * any other failure removes everything stored so far and fails the batch.
+     */
+    private void prepareAll(List<BatchSource> sources, List<PreparedAudio> prepared, List<BatchUploadEntry> rejected) {
+        List<Future<PreparedAudio>> tasks = new ArrayList<>(sources.size());
+        for (BatchSource source : sources) {
+            tasks.add(batchExecutor.submit(() -> prepare(source)));
+        }
+        
+        RuntimeException failure = null;
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                prepared.add(tasks.get(i).get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof FileValidationException invalid) {
+                    rejected.add(new BatchUploadEntry(sources.get(i).filename(), null, invalid.getMessage()));
+                } else if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause
+                        ? cause : new TranscriptionProcessingException("Failed to store audio file", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                tasks.forEach(task -> task.cancel(true));
+                failure = new TranscriptionProcessingException("Bulk upload was interrupted", e);
+                break;
+            }
+        }
+        
+        if (failure != null) {
+            prepared.forEach(audio -> audioStorageService.deleteQuietly(audio.storedFilename()));
+            throw failure;
+        }
+    }
+    
+    private PreparedAudio prepare(BatchSource source) {
+        String filename = source.filename();
+        validateAudioEntry(filename, source.size(), source.contentType());
+        
+        String extension = getFileExtension(filename).toLowerCase();
+        String storedFilename = UUID.randomUUID() + "." + extension;
+        StoredAudio storedAudio;
+        try (InputStream content = new BoundedInputStream(source.content().open(), MAX_FILE_SIZE + 1)) {
+            storedAudio = audioStorageService.store(content, storedFilename);
+        } catch (IOException e) {
+            throw new TranscriptionProcessingException("Failed to read uploaded audio file", e);
+        }
+        
+        try {
+            // Archive entries can declare a smaller size than they inflate to
+            if (storedAudio.size() > MAX_FILE_SIZE) {
+                throw new FileValidationException("File size exceeds maximum allowed size of 25MB");
+            }
+            AudioFormat format = AudioFormat.fromExtension(extension);
+            AudioMetadata metadata = audioProbeService.probe(storedAudio.path(), format);
+            return new PreparedAudio(filename, storedFilename, storedAudio, format, metadata);
+        } catch (RuntimeException e) {
+            audioStorageService.deleteQuietly(storedFilename);
+            throw e;
+        }
+    }
+    
+    /**
+     * Inserts the AudioFile and Job rows of a batch. Files whose audio was already
+     * transcribed with the same settings are completed from that transcription,
+     * found with one lookup for the whole batch.
+     */
+    private List<Job> createBatchJobs(UUID batchId, List<PreparedAudio> prepared, TranscriptionOptions options,
+                                      Long uploaderId) {
+        User uploader = userRepository.getReferenceById(uploaderId);
+        String[] checksums = prepared.stream().map(audio -> audio.stored().checksum()).distinct().toArray(String[]::new);
+        Map<String, ReusableTranscription> reusable = new HashMap<>();
+        for (ReusableTranscription source : jobRepository.findReusableTranscriptions(
+                checksums, options.getModel(), options.getLanguage(), options.getTask())) {
+            reusable.put(source.getChecksum(), source);
+        }
+        
+        List<AudioFile> audioFiles = new ArrayList<>(prepared.size());
+        List<Job> jobs = new ArrayList<>(prepared.size());
+        for (PreparedAudio audio : prepared) {
+            AudioFile stored = new AudioFile(
+                audio.storedFilename(),
+                audio.filename(),
+                audio.stored().size(),
+                audio.format(),
+                uploader
+            );
+            stored.setChecksum(audio.stored().checksum());
+            stored.setDuration(audio.metadata().getDurationSeconds());
+            audioFiles.add(stored);
+            
+            Job job = new Job(uploader, stored);
+            job.setRequestedModel(options.getModel());
+            job.setRequestedLanguage(options.getLanguage());
+            job.setTask(options.getTask());
+            job.setBatchId(batchId);
+            ReusableTranscription source = reusable.get(audio.stored().checksum());
+            if (source != null) {
+                job.markAsStarted();
+                job.markAsCompleted(0L);
+                job.setModelUsed(source.getModelUsed());
+            }
+            jobs.add(job);
+        }
+        audioFileRepository.saveAll(audioFiles);
+        jobRepository.saveAll(jobs);
+        jobRepository.flush();
+        
+        for (Job job : jobs) {
+            ReusableTranscription source = reusable.get(job.getAudioFile().getChecksum());
+            if (source == null) {
+                reuseMisses.increment();
+                continue;
+            }
+            transcriptionRepository.copyToJob(source.getId(), job.getId());
+            reuseHits.increment();
+            if (source.getProcessingTimeMs() != null) {
+                reuseSavedTime.record(source.getProcessingTimeMs(), TimeUnit.MILLISECONDS);
+            }
+        }
+        return jobs;
+    }
+    
+    /**
+     * Completes a new job from the transcription of identical audio requested with
+     * the same settings, or saves it as PENDING for the queue when there is none.
+     */
+    private Job reuseOrEnqueue(Job job, String checksum, TranscriptionOptions options) {
+        Optional<ReusableTranscription> reusable = jobRepository.findReusableTranscription(
+            checksum, options.getModel(), options.getLanguage(), options.getTask());
+        if (reusable.isEmpty()) {
+            reuseMisses.increment();
+            return jobRepository.save(job);
+        }
+        
+        ReusableTranscription source = reusable.get();
+        job.markAsStarted();
+        job.markAsCompleted(0L);
+        job.setModelUsed(source.getModelUsed());
+        jobRepository.saveAndFlush(job);
+        transcriptionRepository.copyToJob(source.getId(), job.getId());
+        
+        reuseHits.increment();
+        if (source.getProcessingTimeMs() != null) {
+            reuseSavedTime.record(source.getProcessingTimeMs(), TimeUnit.MILLISECONDS);
+        }
+        return job;
     }
     
     @Override
-    public TranscriptionResultResponse getTranscriptionResult(String jobId) {
-        logger.info("Getting result for job: {}", jobId);
+    @Transactional(readOnly = true)
+    public TranscriptionStatusResponse getTranscriptionStatus(String jobId) {
+        return getVersionedTranscriptionStatus(jobId).status();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public VersionedStatus getVersionedTranscriptionStatus(String jobId) {
+        logger.debug("Getting status for job: {}", jobId);
         
-        TranscriptionJob job = transcriptionJobs.get(jobId);
-        if (job == null) {
-            throw new TranscriptionNotFoundException("Transcription job not found: " + jobId);
+        // A constructor expression: the columns are read into a JobStatusRow and never become a managed entity
+        JobStatusView view = jobRepository.findStatusByJobId(parseJobId(jobId))
+            .orElseThrow(() -> new TranscriptionNotFoundException("Transcription job not found: " + jobId));
+        return new VersionedStatus(view.getVersion(), toStatusResponse(jobId, view));
+    }
+    
+    @Override
+    public BatchStatusResponse getTranscriptionStatuses(List<String> jobIds) {
+        logger.debug("Getting status for {} jobs", jobIds.size());
+        
+        // Duplicates are looked up once; malformed IDs cannot exist and are reported as not found
+        Map<UUID, String> requested = new LinkedHashMap<>();
+        List<String> notFound = new ArrayList<>();
+        for (String jobId : new LinkedHashSet<>(jobIds)) {
+            UUID parsed = jobId != null ? parseJobIdOrNull(jobId) : null;
+            if (parsed == null) {
+                notFound.add(jobId);
+            } else {
+                requested.putIfAbsent(parsed, jobId);
+            }
         }
         
-        if (job.getStatus() != TranscriptionStatus.COMPLETED) {
-            throw new TranscriptionNotFoundException("Transcription job is not completed yet: " + jobId);
+        Map<UUID, JobStatusView> found = new HashMap<>();
+        if (!requested.isEmpty()) {
+            for (JobStatusView view : jobRepository.findStatusesByJobIds(requested.keySet().toArray(UUID[]::new))) {
+                found.put(view.getJobId(), view);
+            }
         }
         
-        return new TranscriptionResultResponse(
-            jobId,
-            job.getTranscriptionText(),
-            job.getCompletedAt(),
-            job.getStatus()
+        List<TranscriptionStatusResponse> statuses = new ArrayList<>(found.size());
+        requested.forEach((parsed, jobId) -> {
+            JobStatusView view = found.get(parsed);
+            if (view == null) {
+                notFound.add(jobId);
+                return;
+            }
+            statuses.add(toStatusResponse(jobId, view));
+        });
+        return new BatchStatusResponse(statuses, notFound);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public BatchProgressResponse getBatchProgress(String batchId) {
+        logger.debug("Getting progress for batch: {}", batchId);
+        
+        UUID parsed = parseJobIdOrNull(batchId);
+        BatchProgressView view = parsed != null ? jobRepository.findBatchProgress(parsed) : null;
+        if (view == null || view.getTotal() == 0) {
+            throw new TranscriptionNotFoundException("Upload batch not found: " + batchId);
+        }
+        
+        Double progressPercent = null;
+        if (view.getTotalSeconds() != null && view.getTotalSeconds() > 0 && view.getProcessedSeconds() != null) {
+            double processed = Math.min(view.getProcessedSeconds() / view.getTotalSeconds(), 1.0);
+            progressPercent = Math.round(processed * 1000) / 10.0;
+        }
+        return new BatchProgressResponse(
+            batchId,
+            view.getTotal(),
+            view.getPending(),
+            view.getProcessing(),
+            view.getCompleted(),
+            view.getFailed(),
+            progressPercent,
+            view.getPending() + view.getProcessing() == 0,
+            view.getUpdatedAt()
         );
     }
     
@@ -99,14 +532,20 @@ public class AudioServiceImpl implements AudioService {
         if (audioFile == null || audioFile.isEmpty()) {
             throw new FileValidationException("Audio file is required");
         }
+        validateAudioEntry(audioFile.getOriginalFilename(), audioFile.getSize(), audioFile.getContentType());
+    }
+    
+    private void validateAudioEntry(String originalFilename, long size, String contentType) {
+        if (size <= 0) {
+            throw new FileValidationException("Audio file is required");
+        }
         
         // Check file size
-        if (audioFile.getSize() > MAX_FILE_SIZE) {
+        if (size > MAX_FILE_SIZE) {
             throw new FileValidationException("File size exceeds maximum allowed size of 25MB");
         }
         
         // Check file extension
-        String originalFilename = audioFile.getOriginalFilename();
         if (originalFilename == null) {
             throw new FileValidationException("File must have a valid name");
         }
@@ -117,7 +556,6 @@ public class AudioServiceImpl implements AudioService {
         }
         
         // Check content type
-        String contentType = audioFile.getContentType();
         if (contentType == null || !contentType.startsWith("audio/")) {
             throw new FileValidationException("File must be an audio file");
         }
@@ -125,41 +563,129 @@ public class AudioServiceImpl implements AudioService {
         logger.debug("File validation passed for: {}", originalFilename);
     }
     
-    private void processTranscriptionAsync(TranscriptionJob job) {
-        // Simulate asynchronous processing
-        new Thread(() -> {
+    private TranscriptionOptions normalizeOptions(TranscriptionOptions options) {
+        if (options == null) {
+            return TranscriptionOptions.defaults();
+        }
+        
+        String model = lowerOrNull(options.getModel());
+        if (model != null && !SUPPORTED_MODELS.contains(model)) {
+            throw new FileValidationException("Unsupported model. Supported models: " + SUPPORTED_MODELS);
+        }
+        
+        String language = lowerOrNull(options.getLanguage());
+        if (language != null && !language.matches("[a-z]{2}")) {
+            throw new FileValidationException("Language must be a two-letter ISO 639-1 code");
+        }
+        
+        String task = lowerOrNull(options.getTask());
+        if (task != null && !SUPPORTED_TASKS.contains(task)) {
+            throw new FileValidationException("Unsupported task. Supported tasks: " + SUPPORTED_TASKS);
+        }
+        return new TranscriptionOptions(model, language, task);
+    }
+    
+    private static String lowerOrNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase();
+    }
+    
+    private Path copyArchive(MultipartFile archive) {
+        try {
+            Path copy = Files.createTempFile("whisperrr-batch-", ".zip");
             try {
-                logger.info("Starting transcription processing for job: {}", job.getJobId());
-                
-                // Update status to processing
-                job.setStatus(TranscriptionStatus.PROCESSING);
-                job.setUpdatedAt(LocalDateTime.now());
-                
-                // Simulate processing time
-                Thread.sleep(2000);
-                
-                // Simulate transcription result
-                String transcriptionText = "This is a simulated transcription result for the audio file: " + job.getFileName();
-                
-                // Update job with result
-                job.setStatus(TranscriptionStatus.COMPLETED);
-                job.setTranscriptionText(transcriptionText);
-                job.setCompletedAt(LocalDateTime.now());
-                job.setUpdatedAt(LocalDateTime.now());
-                
-                logger.info("Transcription completed for job: {}", job.getJobId());
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                job.setStatus(TranscriptionStatus.FAILED);
-                job.setUpdatedAt(LocalDateTime.now());
-                logger.error("Transcription processing interrupted for job: {}", job.getJobId(), e);
-            } catch (Exception e) {
-                job.setStatus(TranscriptionStatus.FAILED);
-                job.setUpdatedAt(LocalDateTime.now());
-                logger.error("Transcription processing failed for job: {}", job.getJobId(), e);
+                archive.transferTo(copy);
+                return copy;
+            } catch (IOException | RuntimeException e) {
+                deleteQuietly(copy);
+                throw e;
             }
-        }).start();
+        } catch (IOException e) {
+            throw new TranscriptionProcessingException("Failed to read uploaded archive", e);
+        }
+    }
+    
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temporary file: {}", path, e);
+        }
+    }
+    
+    /**
+     * A ZIP entry as a batch file. The entry is named after its last path element,
+     * and its content type follows from its extension since archives carry none.
+     */
+    private static BatchSource archiveSource(ZipFile archive, ZipEntry entry) {
+        String name = entry.getName();
+        String filename = name.substring(name.lastIndexOf('/') + 1);
+        AudioFormat format = AudioFormat.fromExtension(filename.substring(filename.lastIndexOf('.') + 1));
+        return new BatchSource(filename, entry.getSize(), format != null ? format.getMimeType() : null,
+            () -> archive.getInputStream(entry));
+    }
+    
+    /**
+     * Entries that archivers add alongside the user's files, such as macOS resource forks.
+     */
+    private static boolean isArchiveMetadata(String name) {
+        String filename = name.substring(name.lastIndexOf('/') + 1);
+        return name.startsWith("__MACOSX/") || filename.startsWith(".");
+    }
+    
+    private StoredAudio storeAudioFile(MultipartFile audioFile, String storedFilename) {
+        try (InputStream content = audioFile.getInputStream()) {
+            return audioStorageService.store(content, storedFilename);
+        } catch (IOException e) {
+            throw new TranscriptionProcessingException("Failed to read uploaded audio file", e);
+        }
+    }
+    
+    /**
+     * Looks up the account that owns uploads, creating it on first use. Without
+     * authentication every job is requested by this one account, which is why
+     * fair-share scheduling is off by default.
+     */
+    private Long resolveSystemUserId() {
+        Long cached = systemUserId.get();
+        if (cached != null) {
+            return cached;
+        }
+        
+        Long id = userRepository.findByUsername(SYSTEM_USERNAME)
+            .map(User::getId)
+            .orElseGet(() -> {
+                try {
+                    User user = new User(SYSTEM_USERNAME, SYSTEM_EMAIL, "!");
+                    user.setRole(UserRole.API_USER);
+                    return userRepository.save(user).getId();
+                } catch (DataIntegrityViolationException e) {
+                    // Another node created it first
+                    return userRepository.findByUsername(SYSTEM_USERNAME).orElseThrow().getId();
+                }
+            });
+        systemUserId.set(id);
+        return id;
+    }
+    
+    @Override
+    public void destroy() {
+        batchExecutor.shutdownNow();
+    }
+    
+    private UUID parseJobId(String jobId) {
+        UUID parsed = parseJobIdOrNull(jobId);
+        if (parsed == null) {
+            throw new TranscriptionNotFoundException("Transcription job not found: " + jobId);
+        }
+        return parsed;
+    }
+    
+    private static UUID parseJobIdOrNull(String jobId) {
+        try {
+            return UUID.fromString(jobId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
     
     private String getFileExtension(String filename) {
@@ -167,6 +693,44 @@ public class AudioServiceImpl implements AudioService {
         return lastDotIndex == -1 ? "" : filename.substring(lastDotIndex + 1);
     }
     
+    private TranscriptionStatus toTranscriptionStatus(JobStatus status) {
+        return switch (status) {
+            case PENDING -> TranscriptionStatus.PENDING;
+            case PROCESSING -> TranscriptionStatus.PROCESSING;
+            case COMPLETED -> TranscriptionStatus.COMPLETED;
+            case FAILED, CANCELLED -> TranscriptionStatus.FAILED;
+        };
+    }
+    
+    private TranscriptionStatusResponse toStatusResponse(String jobId, JobStatusView view) {
+        TranscriptionStatus status = toTranscriptionStatus(view.getStatus());
+        TranscriptionStatusResponse response = new TranscriptionStatusResponse(jobId, status, view.getUpdatedAt(),
+            getStatusMessage(status), getProgressPercent(status, view.getProcessedSeconds(), view.getDuration()));
+        if (status == TranscriptionStatus.FAILED) {
+            response.setErrorMessage(view.getErrorMessage());
+        }
+        return response;
+    }
+    
+    /**
+     * Share of the audio transcribed so far, in percent with one decimal. Unknown
+     * while a job is processing without a known audio duration, and for failed jobs.
+     */
+    private static Double getProgressPercent(TranscriptionStatus status, Double processedSeconds, Double duration) {
+        return switch (status) {
+            case PENDING -> 0.0;
+            case COMPLETED -> 100.0;
+            case FAILED -> null;
+            case PROCESSING -> {
+                if (duration == null || duration <= 0) {
+                    yield null;
+                }
+                double processed = processedSeconds != null ? processedSeconds : 0;
+                yield Math.round(Math.min(processed / duration, 1.0) * 1000) / 10.0;
+            }
+        };
+    }
+    
     private String getStatusMessage(TranscriptionStatus status) {
         return switch (status) {
             case PENDING -> "Transcription job is pending";
@@ -176,46 +740,58 @@ public class AudioServiceImpl implements AudioService {
         };
     }
     
+    @FunctionalInterface
+    private interface ContentSource {
+        InputStream open() throws IOException;
+    }
+    
+    /**
+     * A file of a bulk upload, read when a batch worker picks it up.
+     */
+    private record BatchSource(String filename, long size, String contentType, ContentSource content) {
+    }
+    
+    /**
+     * A file of a bulk upload once stored, hashed and probed.
+     */
+    private record PreparedAudio(String filename, String storedFilename, StoredAudio stored,
+                                 AudioFormat format, AudioMetadata metadata) {
+    }
+    
     /**
-     * Internal class to represent a transcription job
+     * Ends the stream after a fixed number of bytes, so a file that is larger than
+     * it claims is cut short rather than written out in full.
      */
-    private static class TranscriptionJob {
-        private String jobId;
-        private String fileName;
-        private TranscriptionStatus status;
-        private String transcriptionText;
-        private LocalDateTime createdAt;
-        private LocalDateTime updatedAt;
-        private LocalDateTime completedAt;
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
         
-        public TranscriptionJob(String jobId, String fileName, TranscriptionStatus status) {
-            this.jobId = jobId;
-            this.fileName = fileName;
-            this.status = status;
-            this.createdAt = LocalDateTime.now();
-            this.updatedAt = LocalDateTime.now();
+        private BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
         }
         
-        // Getters and setters
-        public String getJobId() { return jobId; }
-        public void setJobId(String jobId) { this.jobId = jobId; }
-        
-        public String getFileName() { return fileName; }
-        public void setFileName(String fileName) { this.fileName = fileName; }
-        
-        public TranscriptionStatus getStatus() { return status; }
-        public void setStatus(TranscriptionStatus status) { this.status = status; }
-        
-        public String getTranscriptionText() { return transcriptionText; }
-        public void setTranscriptionText(String transcriptionText) { this.transcriptionText = transcriptionText; }
-        
-        public LocalDateTime getCreatedAt() { return createdAt; }
-        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
-        
-        public LocalDateTime getUpdatedAt() { return updatedAt; }
-        public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
         
-        public LocalDateTime getCompletedAt() { return completedAt; }
-        public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
     }
 }
@@ -0,0 +1,105 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.exception.TranscriptionProcessingException;
+import com.shangmin.whisperrr.service.AudioStorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Implementation of AudioStorageService backed by a local directory.
+ * <p>
+ * Content is copied through one fixed-size buffer: each chunk read is fed to the
+ * digest and written to a {@link FileChannel}. The checksum is therefore ready
+ * when the last byte is written, with no second pass over the file, and heap use
+ * per upload stays constant regardless of file size. Files are written under a
+ * temporary name and moved into place once complete.
+ */
+@Service
+public class AudioStorageServiceImpl implements AudioStorageService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AudioStorageServiceImpl.class);
+    
+    private static final int BUFFER_SIZE = 16 * 1024;
+    
+    private final Path audioDirectory;
+    
+    public AudioStorageServiceImpl(@Value("${whisperrr.storage.audio-dir}") Path audioDirectory) {
+        this.audioDirectory = audioDirectory;
+    }
+    
+    @Override
+    public StoredAudio store(InputStream content, String storedFilename) {
+        Path target = resolve(storedFilename);
+        Path partial = audioDirectory.resolve(storedFilename + ".part");
+        MessageDigest digest = newDigest();
+        
+        try {
+            Files.createDirectories(audioDirectory);
+            long size;
+            try (FileChannel sink = FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                size = copy(content, sink, digest);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            return new StoredAudio(target, size, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException e) {
+            deleteQuietly(partial);
+            throw new TranscriptionProcessingException("Failed to store audio file", e);
+        }
+    }
+    
+    @Override
+    public Path resolve(String storedFilename) {
+        return audioDirectory.resolve(storedFilename);
+    }
+    
+    @Override
+    public void deleteQuietly(String storedFilename) {
+        deleteQuietly(resolve(storedFilename));
+    }
+    
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete audio file: {}", path, e);
+        }
+    }
+    
+    private static long copy(InputStream content, FileChannel sink, MessageDigest digest) throws IOException {
+        byte[] chunk = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        long size = 0;
+        int read;
+        while ((read = content.read(chunk)) != -1) {
+            digest.update(chunk, 0, read);
+            buffer.limit(read).position(0);
+            while (buffer.hasRemaining()) {
+                sink.write(buffer);
+            }
+            size += read;
+        }
+        return size;
+    }
+    
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
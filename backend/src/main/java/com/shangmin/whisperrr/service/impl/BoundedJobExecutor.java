@@ -0,0 +1,101 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.exception.JobQueueFullException;
+import com.shangmin.whisperrr.service.JobExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JobExecutor backed by a fixed-size worker pool and a bounded pending queue.
+ * Submissions beyond the queue capacity are rejected instead of spawning new threads.
+ */
+@Service
+public class BoundedJobExecutor implements JobExecutor, DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BoundedJobExecutor.class);
+    
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    
+    private final ThreadPoolExecutor executor;
+    private final Counter rejectedCounter;
+    private final long retryAfterSeconds;
+    
+    public BoundedJobExecutor(@Value("${whisperrr.executor.worker-count:4}") int workerCount,
+                              @Value("${whisperrr.executor.queue-capacity:100}") int queueCapacity,
+                              @Value("${whisperrr.executor.virtual-threads:true}") boolean virtualThreads,
+                              @Value("${whisperrr.executor.retry-after-seconds:30}") long retryAfterSeconds,
+                              MeterRegistry meterRegistry) {
+        ThreadFactory threadFactory = virtualThreads
+            ? Thread.ofVirtual().name("transcription-worker-", 0).factory()
+            : Thread.ofPlatform().name("transcription-worker-", 0).daemon(true).factory();
+        
+        this.executor = new ThreadPoolExecutor(
+            workerCount,
+            workerCount,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            threadFactory,
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.retryAfterSeconds = retryAfterSeconds;
+        
+        Gauge.builder("whisperrr.executor.queue.depth", executor, e -> e.getQueue().size())
+            .description("Transcription tasks waiting for a worker")
+            .register(meterRegistry);
+        Gauge.builder("whisperrr.executor.queue.remaining", executor, e -> e.getQueue().remainingCapacity())
+            .description("Transcription tasks that can still be admitted")
+            .register(meterRegistry);
+        Gauge.builder("whisperrr.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Workers currently running a transcription task")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("whisperrr.executor.rejected")
+            .description("Transcription tasks rejected because the queue was full")
+            .register(meterRegistry);
+        
+        logger.info("Transcription executor started with {} {} workers and queue capacity {}",
+            workerCount, virtualThreads ? "virtual" : "platform", queueCapacity);
+    }
+    
+    @Override
+    public void submit(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new JobQueueFullException(
+                "Transcription queue is full, please retry later", retryAfterSeconds, e);
+        }
+    }
+    
+    @Override
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+    
+    @Override
+    public int getRemainingCapacity() {
+        return executor.getQueue().remainingCapacity();
+    }
+    
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            logger.warn("Transcription executor did not terminate in time, interrupting workers");
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.enums.UserRole;
+import com.shangmin.whisperrr.repository.projection.QueuedJobCandidate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Weighted fair-share scheduler that interleaves pending jobs across users.
+ * <p>
+ * Uses stride scheduling: each user carries a virtual "pass" that advances by
+ * {@code 1 / weight} for every job dispatched, and the user with the lowest pass
+ * is served next. Weights come from the requesting user's {@link UserRole}. Users
+ * returning from idle start at the current virtual time, so they cannot bank
+ * credit while they have nothing queued. Within one user, jobs are ordered by
+ * priority plus an aging bonus, and any job that has waited past the starvation
+ * threshold is dispatched ahead of the fair order. The scheduler is
+ * work-conserving: slots a user cannot fill go to the next user.
+ */
+@Component
+public class FairShareScheduler {
+    
+    private final Map<UserRole, Double> roleWeights;
+    private final double agingSeconds;
+    private final Duration starvationThreshold;
+    
+    private final Map<Long, Double> userPass = new HashMap<>();
+    private double virtualTime;
+    
+    @Autowired
+    public FairShareScheduler(@Value("${whisperrr.scheduler.weight.user:1.0}") double userWeight,
+                              @Value("${whisperrr.scheduler.weight.admin:2.0}") double adminWeight,
+                              @Value("${whisperrr.scheduler.weight.api-user:1.0}") double apiUserWeight,
+                              @Value("${whisperrr.scheduler.aging-seconds:300}") double agingSeconds,
+                              @Value("${whisperrr.scheduler.starvation-seconds:3600}") long starvationSeconds) {
+        this(weights(userWeight, adminWeight, apiUserWeight), agingSeconds, Duration.ofSeconds(starvationSeconds));
+    }
+    
+    public FairShareScheduler(Map<UserRole, Double> roleWeights, double agingSeconds, Duration starvationThreshold) {
+        this.roleWeights = new EnumMap<>(roleWeights);
+        this.agingSeconds = agingSeconds;
+        this.starvationThreshold = starvationThreshold;
+    }
+    
+    /**
+     * Gets the wait in seconds that is worth one priority point.
+     * 
+     * @return double aging interval in seconds
+     */
+    public double getAgingSeconds() {
+        return agingSeconds;
+    }
+    
+    /**
+     * Chooses which candidates to dispatch and in what order.
+     * 
+     * @param candidates pending jobs, typically the head of each user's queue
+     * @param slots the number of jobs the workers can take
+     * @param now the current time, used for aging
+     * @return List<Long> primary keys of the chosen jobs in dispatch order
+     */
+    public synchronized List<Long> schedule(List<? extends QueuedJobCandidate> candidates, int slots, LocalDateTime now) {
+        List<Long> selected = new ArrayList<>(Math.min(slots, candidates.size()));
+        if (slots <= 0 || candidates.isEmpty()) {
+            return selected;
+        }
+        
+        // Build each user's queue in effective priority order
+        Map<Long, List<QueuedJobCandidate>> byUser = new HashMap<>();
+        Map<Long, Double> weights = new HashMap<>();
+        for (QueuedJobCandidate candidate : candidates) {
+            byUser.computeIfAbsent(candidate.getRequestedBy(), k -> new ArrayList<>()).add(candidate);
+            weights.putIfAbsent(candidate.getRequestedBy(), weightOf(candidate.getRole()));
+        }
+        Comparator<QueuedJobCandidate> queueOrder = Comparator
+            .comparingDouble((QueuedJobCandidate c) -> -effectivePriority(c, now))
+            .thenComparing(QueuedJobCandidate::getCreatedAt)
+            .thenComparing(QueuedJobCandidate::getId);
+        Map<Long, Deque<QueuedJobCandidate>> queues = new HashMap<>();
+        byUser.forEach((userId, jobs) -> {
+            jobs.sort(queueOrder);
+            queues.put(userId, new ArrayDeque<>(jobs));
+        });
+        
+        // Starved jobs go first, oldest first, and still count against their user's share
+        Set<Long> taken = new HashSet<>();
+        LocalDateTime starvedBefore = now.minus(starvationThreshold);
+        candidates.stream()
+            .filter(c -> c.getCreatedAt().isBefore(starvedBefore))
+            .sorted(Comparator.comparing(QueuedJobCandidate::getCreatedAt))
+            .limit(slots)
+            .forEach(c -> {
+                selected.add(c.getId());
+                taken.add(c.getId());
+                charge(c.getRequestedBy(), weights.get(c.getRequestedBy()));
+            });
+        
+        // Stride scheduling over users with remaining work
+        PriorityQueue<Long> users = new PriorityQueue<>(
+            Comparator.comparingDouble((Long userId) -> userPass.get(userId)).thenComparing(userId -> userId));
+        for (Long userId : queues.keySet()) {
+            userPass.merge(userId, virtualTime, Math::max);
+            users.add(userId);
+        }
+        while (selected.size() < slots && !users.isEmpty()) {
+            Long userId = users.poll();
+            Deque<QueuedJobCandidate> queue = queues.get(userId);
+            QueuedJobCandidate next = queue.poll();
+            while (next != null && taken.contains(next.getId())) {
+                next = queue.poll();
+            }
+            if (next == null) {
+                continue;
+            }
+            virtualTime = Math.max(virtualTime, userPass.get(userId));
+            selected.add(next.getId());
+            charge(userId, weights.get(userId));
+            if (!queue.isEmpty()) {
+                users.add(userId);
+            }
+        }
+        
+        // Users at or behind virtual time would be reset to it anyway
+        userPass.values().removeIf(pass -> pass <= virtualTime);
+        return selected;
+    }
+    
+    private void charge(Long userId, double weight) {
+        userPass.merge(userId, virtualTime + 1.0 / weight, (pass, fresh) -> Math.max(pass, virtualTime) + 1.0 / weight);
+    }
+    
+    private double effectivePriority(QueuedJobCandidate candidate, LocalDateTime now) {
+        double waitedSeconds = Math.max(0, Duration.between(candidate.getCreatedAt(), now).toMillis() / 1000.0);
+        int priority = candidate.getPriority() != null ? candidate.getPriority() : 0;
+        return priority + waitedSeconds / agingSeconds;
+    }
+    
+    private double weightOf(String role) {
+        if (role == null) {
+            return roleWeights.getOrDefault(UserRole.USER, 1.0);
+        }
+        try {
+            return roleWeights.getOrDefault(UserRole.valueOf(role), 1.0);
+        } catch (IllegalArgumentException e) {
+            return roleWeights.getOrDefault(UserRole.USER, 1.0);
+        }
+    }
+    
+    private static Map<UserRole, Double> weights(double userWeight, double adminWeight, double apiUserWeight) {
+        Map<UserRole, Double> weights = new EnumMap<>(UserRole.class);
+        weights.put(UserRole.USER, userWeight);
+        weights.put(UserRole.ADMIN, adminWeight);
+        weights.put(UserRole.API_USER, apiUserWeight);
+        return weights;
+    }
+}
@@ -0,0 +1,173 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.entity.Job;
+import com.shangmin.whisperrr.enums.JobStatus;
+import com.shangmin.whisperrr.repository.JobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains processing leases for jobs claimed by this node and recovers jobs
+ * whose lease has run out.
+ * <p>
+ * Every claimed job carries a lease owner and an expiry. While a job is queued
+ * or running here, and until its outcome is written, the heartbeat keeps pushing
+ * its expiry forward. If the node
+ * dies, renewals stop and the reaper on any surviving node returns the job to
+ * the queue within one lease duration. Lease times use the database clock, so
+ * clock skew between nodes does not matter.
+ */
+@Component
+public class JobLeaseManager {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JobLeaseManager.class);
+    
+    private final JobRepository jobRepository;
+    private final JobStatusNotifier jobStatusNotifier;
+    private final String ownerId;
+    private final Set<Long> heldJobs = ConcurrentHashMap.newKeySet();
+    private final Counter requeuedCounter;
+    private final Counter failedCounter;
+    private final Counter lostCounter;
+    
+    @Value("${whisperrr.lease.duration-seconds:30}")
+    private long leaseSeconds;
+    
+    @Value("${whisperrr.lease.max-retries:3}")
+    private int maxRetries;
+    
+    @Value("${whisperrr.lease.reaper-batch-size:100}")
+    private int reaperBatchSize;
+    
+    @Autowired
+    public JobLeaseManager(JobRepository jobRepository, JobStatusNotifier jobStatusNotifier, MeterRegistry meterRegistry) {
+        this.jobRepository = jobRepository;
+        this.jobStatusNotifier = jobStatusNotifier;
+        this.ownerId = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+        
+        Gauge.builder("whisperrr.lease.held", heldJobs, Set::size)
+            .description("Jobs leased to this node")
+            .register(meterRegistry);
+        this.requeuedCounter = Counter.builder("whisperrr.lease.reaped")
+            .tag("outcome", "requeued")
+            .description("Jobs with an expired lease returned to the queue")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("whisperrr.lease.reaped")
+            .tag("outcome", "failed")
+            .description("Jobs with an expired lease failed after exhausting their retries")
+            .register(meterRegistry);
+        this.lostCounter = Counter.builder("whisperrr.lease.lost")
+            .description("Leases this node tried to renew but no longer held")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Gets the identifier this node writes as lease owner.
+     * 
+     * @return String lease owner ID
+     */
+    public String getOwnerId() {
+        return ownerId;
+    }
+    
+    /**
+     * Gets the lease duration granted on claim and on every renewal.
+     * 
+     * @return long lease duration in seconds
+     */
+    public long getLeaseSeconds() {
+        return leaseSeconds;
+    }
+    
+    /**
+     * Starts renewing the leases of newly claimed jobs.
+     * 
+     * @param ids the primary keys of the claimed jobs
+     */
+    public void hold(Collection<Long> ids) {
+        heldJobs.addAll(ids);
+    }
+    
+    /**
+     * Stops renewing the lease of a job this node is done with: once its outcome is
+     * written, or when it is handed back to the queue.
+     * 
+     * @param id the primary key of the job
+     */
+    public void release(Long id) {
+        heldJobs.remove(id);
+    }
+    
+    /**
+     * Renews the leases of every job held by this node.
+     */
+    @Scheduled(fixedDelayString = "${whisperrr.lease.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        if (heldJobs.isEmpty()) {
+            return;
+        }
+        
+        try {
+            List<Long> ids = new ArrayList<>(heldJobs);
+            int renewed = jobRepository.renewLeases(ids, ownerId, leaseSeconds);
+            if (renewed < ids.size()) {
+                // A job finishing between the snapshot and the update is counted too, so this may overcount slightly
+                lostCounter.increment(ids.size() - renewed);
+                logger.debug("Renewed {} of {} job leases", renewed, ids.size());
+            }
+        } catch (Exception e) {
+            logger.error("Job lease heartbeat failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Returns jobs with expired leases to the queue, or fails them once they
+     * have used up their retries.
+     */
+    @Scheduled(fixedDelayString = "${whisperrr.lease.reaper-interval-ms:5000}")
+    public void reapExpiredLeases() {
+        try {
+            List<Job> reaped;
+            do {
+                reaped = jobRepository.reapExpiredLeases(maxRetries, reaperBatchSize);
+                jobStatusNotifier.publish(reaped.stream().map(Job::getId).toList());
+                for (Job job : reaped) {
+                    if (job.getStatus() == JobStatus.FAILED) {
+                        failedCounter.increment();
+                        logger.warn("Job {} failed after its lease expired {} times", job.getJobId(), job.getRetryCount() + 1);
+                    } else {
+                        requeuedCounter.increment();
+                        logger.info("Job {} returned to the queue after its lease expired (retry {})",
+                            job.getJobId(), job.getRetryCount());
+                    }
+                }
+            } while (reaped.size() == reaperBatchSize);
+        } catch (Exception e) {
+            logger.error("Job lease reaper failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
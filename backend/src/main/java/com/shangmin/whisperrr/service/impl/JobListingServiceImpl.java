@@ -0,0 +1,86 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.dto.JobListResponse;
+import com.shangmin.whisperrr.dto.JobSummary;
+import com.shangmin.whisperrr.entity.Job;
+import com.shangmin.whisperrr.enums.JobStatus;
+import com.shangmin.whisperrr.exception.InvalidScrollRequestException;
+import com.shangmin.whisperrr.repository.JobRepository;
+import com.shangmin.whisperrr.repository.Keysets;
+import com.shangmin.whisperrr.service.JobListingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Implementation of JobListingService over the keyset scroll methods of
+ * JobRepository. Windows are read by seeking to the cursor's key, so a window
+ * deep into the listing costs the same as the first, and no rows are counted.
+ */
+@Service
+public class JobListingServiceImpl implements JobListingService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JobListingServiceImpl.class);
+    
+    private static final List<String> NEWEST_FIRST_KEYS = List.of(Keysets.CREATED_AT, Keysets.ID);
+    private static final List<String> QUEUE_ORDER_KEYS = List.of(Keysets.PRIORITY, Keysets.CREATED_AT, Keysets.ID);
+    
+    private final JobRepository jobRepository;
+    
+    @Value("${whisperrr.listing.max-page-size:200}")
+    private int maxPageSize;
+    
+    @Autowired
+    public JobListingServiceImpl(JobRepository jobRepository) {
+        this.jobRepository = jobRepository;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public JobListResponse listJobs(String status, String cursor, int size) {
+        logger.debug("Listing jobs with status {} after cursor {}", status, cursor);
+        
+        KeysetScrollPosition position = ScrollTokens.position(cursor, NEWEST_FIRST_KEYS);
+        Window<Job> window = status == null || status.isBlank()
+            ? jobRepository.scrollAll(position, pageSize(size))
+            : jobRepository.scrollByStatus(parseStatus(status), position, pageSize(size));
+        return toResponse(window, NEWEST_FIRST_KEYS);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public JobListResponse listQueue(String cursor, int size) {
+        logger.debug("Listing queued jobs after cursor {}", cursor);
+        
+        KeysetScrollPosition position = ScrollTokens.position(cursor, QUEUE_ORDER_KEYS);
+        return toResponse(jobRepository.scrollPendingJobs(position, pageSize(size)), QUEUE_ORDER_KEYS);
+    }
+    
+    private int pageSize(int size) {
+        return Math.min(Math.max(size, 1), maxPageSize);
+    }
+    
+    private static JobStatus parseStatus(String status) {
+        try {
+            return JobStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidScrollRequestException("Unknown job status: " + status, e);
+        }
+    }
+    
+    private static JobListResponse toResponse(Window<Job> window, List<String> keys) {
+        List<JobSummary> jobs = window.stream()
+            .map(job -> new JobSummary(job.getJobId().toString(), job.getAudioFile().getOriginalFilename(),
+                job.getStatus(), job.getPriority(), job.getCreatedAt(), job.getCompletedAt()))
+            .toList();
+        return new JobListResponse(jobs, ScrollTokens.nextCursor(window, keys));
+    }
+}
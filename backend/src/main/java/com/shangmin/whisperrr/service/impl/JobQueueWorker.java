@@ -0,0 +1,203 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.entity.Job;
+import com.shangmin.whisperrr.exception.JobQueueFullException;
+import com.shangmin.whisperrr.repository.JobRepository;
+import com.shangmin.whisperrr.repository.projection.QueuedJobCandidate;
+import com.shangmin.whisperrr.service.JobExecutor;
+import com.shangmin.whisperrr.service.TranscriptionProcessor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Background worker that drains the database job queue in batches.
+ * Each poll claims only as many jobs as the local worker pool can admit,
+ * so every node pulls work in proportion to its own capacity. With fair-share
+ * scheduling enabled, the batch is chosen by {@link FairShareScheduler} instead
+ * of strict queue order.
+ */
+@Component
+public class JobQueueWorker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JobQueueWorker.class);
+    
+    private final JobRepository jobRepository;
+    private final JobExecutor jobExecutor;
+    private final TranscriptionProcessor transcriptionProcessor;
+    private final FairShareScheduler fairShareScheduler;
+    private final JobLeaseManager jobLeaseManager;
+    private final JobStatusNotifier jobStatusNotifier;
+    private final AtomicLong pendingBacklog = new AtomicLong();
+    
+    @Value("${whisperrr.queue.worker.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${whisperrr.queue.batch-size:10}")
+    private int batchSize;
+    
+    @Value("${whisperrr.queue.max-pending:1000}")
+    private long maxPending;
+    
+    @Value("${whisperrr.scheduler.fair-share.enabled:false}")
+    private boolean fairShareEnabled;
+    
+    @Autowired
+    public JobQueueWorker(JobRepository jobRepository,
+                          JobExecutor jobExecutor,
+                          TranscriptionProcessor transcriptionProcessor,
+                          FairShareScheduler fairShareScheduler,
+                          JobLeaseManager jobLeaseManager,
+                          JobStatusNotifier jobStatusNotifier,
+                          MeterRegistry meterRegistry) {
+        this.jobRepository = jobRepository;
+        this.jobExecutor = jobExecutor;
+        this.transcriptionProcessor = transcriptionProcessor;
+        this.fairShareScheduler = fairShareScheduler;
+        this.jobLeaseManager = jobLeaseManager;
+        this.jobStatusNotifier = jobStatusNotifier;
+        
+        Gauge.builder("whisperrr.queue.pending", pendingBacklog, AtomicLong::get)
+            .description("Pending jobs in the database queue as of the last poll, counted up to the admission limit")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Gets the number of pending jobs in the database queue, as counted at the
+     * last poll plus any jobs enqueued on this node since. The count stops at
+     * {@code whisperrr.queue.max-pending}, which is all admission needs to know.
+     * 
+     * @return long approximate pending job count
+     */
+    public long getPendingBacklog() {
+        return pendingBacklog.get();
+    }
+    
+    /**
+     * Records that a job was enqueued on this node since the last poll.
+     */
+    public void recordEnqueued() {
+        pendingBacklog.incrementAndGet();
+    }
+    
+    /**
+     * Records that several jobs were enqueued on this node since the last poll.
+     * 
+     * @param count number of jobs enqueued
+     */
+    public void recordEnqueued(int count) {
+        pendingBacklog.addAndGet(count);
+    }
+    
+    /**
+     * Claims and dispatches pending jobs until the queue is empty or the
+     * local worker pool is saturated.
+     */
+    @Scheduled(fixedDelayString = "${whisperrr.queue.poll-interval-ms:1000}")
+    public void drainQueue() {
+        try {
+            // Refreshed even when this node does not process jobs, since uploads use it for admission
+            pendingBacklog.set(jobRepository.countPendingUpTo(maxPending));
+            if (!enabled) {
+                return;
+            }
+            
+            while (true) {
+                int requested = Math.min(batchSize, jobExecutor.getRemainingCapacity());
+                if (requested <= 0) {
+                    return;
+                }
+                List<Job> jobs = fairShareEnabled ? claimFairShare(requested) : jobRepository.claimPendingJobs(
+                    requested, jobLeaseManager.getOwnerId(), jobLeaseManager.getLeaseSeconds());
+                if (!dispatch(jobs) || jobs.size() < requested) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Job queue poll failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Claims a batch chosen by the fair-share scheduler from every user's queue head.
+     * 
+     * @return the claimed jobs in dispatch order
+     */
+    private List<Job> claimFairShare(int requested) {
+        List<QueuedJobCandidate> candidates = jobRepository.findPendingQueueHeads(
+            requested, fairShareScheduler.getAgingSeconds());
+        List<Long> ids = fairShareScheduler.schedule(candidates, requested, LocalDateTime.now());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, Job> claimed = jobRepository.claimJobsByIds(
+                ids, jobLeaseManager.getOwnerId(), jobLeaseManager.getLeaseSeconds()).stream()
+            .collect(Collectors.toMap(Job::getId, Function.identity()));
+        return ids.stream()
+            .map(claimed::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+    
+    /**
+     * Submits claimed jobs to the worker pool.
+     * 
+     * @return true if every job was admitted, false if some were handed back
+     */
+    private boolean dispatch(List<Job> jobs) {
+        if (jobs.isEmpty()) {
+            return true;
+        }
+        logger.debug("Claimed {} jobs from the queue", jobs.size());
+        
+        // Leases are renewed while jobs wait in the pool as well as while they run
+        List<Long> ids = jobs.stream().map(Job::getId).toList();
+        jobLeaseManager.hold(ids);
+        jobStatusNotifier.publish(ids);
+        
+        List<Long> rejected = new ArrayList<>();
+        for (Job job : jobs) {
+            Long id = job.getId();
+            try {
+                // The lease is kept until JobStatusWriter has written the outcome, so a slow
+                // flush cannot let the reaper requeue a finished job
+                jobExecutor.submit(() -> {
+                    try {
+                        transcriptionProcessor.process(id);
+                    } catch (RuntimeException | Error e) {
+                        // No outcome was recorded; let the lease lapse so the reaper recovers the job
+                        jobLeaseManager.release(id);
+                        throw e;
+                    }
+                });
+            } catch (JobQueueFullException e) {
+                rejected.add(id);
+            }
+        }
+        
+        if (!rejected.isEmpty()) {
+            // Another producer filled the pool after we sized the batch; hand the rest back
+            rejected.forEach(jobLeaseManager::release);
+            jobRepository.releaseJobs(rejected);
+            jobStatusNotifier.publish(rejected);
+            logger.debug("Released {} jobs back to the queue", rejected.size());
+            return false;
+        }
+        return true;
+    }
+}
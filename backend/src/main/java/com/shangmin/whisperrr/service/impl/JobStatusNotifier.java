@@ -0,0 +1,54 @@
+package com.shangmin.whisperrr.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process fan-out of job status transitions.
+ * <p>
+ * Components that change a job's status publish the job's primary key here once the
+ * change is committed. Listeners are called on the publishing thread and must only
+ * hand the ids off, never block. Only transitions made on this node are seen; other
+ * nodes' transitions reach listeners through their own periodic checks.
+ */
+@Component
+public class JobStatusNotifier {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JobStatusNotifier.class);
+    
+    private final List<Consumer<Collection<Long>>> listeners = new CopyOnWriteArrayList<>();
+    
+    /**
+     * Registers a listener for committed status transitions.
+     * 
+     * @param listener called with the primary keys of jobs whose status changed
+     */
+    public void addListener(Consumer<Collection<Long>> listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * Publishes committed status transitions of several jobs.
+     * 
+     * @param ids the primary keys of the jobs
+     */
+    public void publish(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (Consumer<Collection<Long>> listener : listeners) {
+            try {
+                listener.accept(ids);
+            } catch (RuntimeException e) {
+                // A failing listener must never undo or delay the transition itself
+                logger.warn("Job status listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
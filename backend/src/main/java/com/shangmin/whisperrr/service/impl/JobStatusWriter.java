@@ -0,0 +1,252 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.dto.TranscriptionServiceResponse;
+import com.shangmin.whisperrr.enums.JobStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for job outcome updates.
+ * <p>
+ * Workers record terminal transitions here instead of opening a transaction per
+ * job. Updates for the same job are coalesced, and the buffer is flushed on a
+ * short interval as JDBC batches: one batch updating jobs and one batch upserting
+ * transcriptions, in a single transaction per chunk. Updates only apply to jobs
+ * that are still PROCESSING under this node's lease, so a job that was reaped and
+ * handed to another worker is not overwritten; such an update is dropped, logged and
+ * counted. The job's lease is renewed until its update has been applied or dropped,
+ * so a flush that fails or lags does not let the reaper requeue a finished job. If
+ * the node dies before a flush, the
+ * job stays PROCESSING until {@link JobLeaseManager} recovers it.
+ */
+@Component
+public class JobStatusWriter implements DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JobStatusWriter.class);
+    
+    private static final String UPSERT_TRANSCRIPTION_SQL =
+        "INSERT INTO transcriptions (text, language, confidence, duration, segments_data, job_id, created_at, updated_at, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0) " +
+        "ON CONFLICT (job_id) DO UPDATE SET text = EXCLUDED.text, language = EXCLUDED.language, " +
+        "confidence = EXCLUDED.confidence, duration = EXCLUDED.duration, segments_data = EXCLUDED.segments_data, " +
+        "updated_at = EXCLUDED.updated_at, version = transcriptions.version + 1";
+    
+    private static final String UPDATE_JOB_SQL =
+        "UPDATE jobs SET status = ?, completed_at = ?, error_message = ?, processing_time_ms = ?, " +
+        "model_used = COALESCE(?, model_used), lease_owner = NULL, lease_expires_at = NULL, " +
+        "updated_at = ?, version = version + 1 " +
+        "WHERE id = ? AND status = 'PROCESSING' AND lease_owner = ?";
+    
+    private static final String DELETE_PARTIAL_SEGMENTS_SQL =
+        "DELETE FROM partial_segments WHERE job_id = ANY(?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLeaseManager jobLeaseManager;
+    private final JobStatusNotifier jobStatusNotifier;
+    private final Map<Long, JobStatusUpdate> pending = new ConcurrentHashMap<>();
+    private final Counter flushedCounter;
+    private final Counter flushFailureCounter;
+    private final Counter droppedCounter;
+    
+    @Value("${whisperrr.status-writer.batch-size:500}")
+    private int batchSize;
+    
+    @Autowired
+    public JobStatusWriter(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           JobLeaseManager jobLeaseManager,
+                           JobStatusNotifier jobStatusNotifier,
+                           MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jobLeaseManager = jobLeaseManager;
+        this.jobStatusNotifier = jobStatusNotifier;
+        
+        Gauge.builder("whisperrr.status-writer.pending", pending, Map::size)
+            .description("Job status updates waiting to be flushed")
+            .register(meterRegistry);
+        this.flushedCounter = Counter.builder("whisperrr.status-writer.flushed")
+            .description("Job status updates written to the database")
+            .register(meterRegistry);
+        this.flushFailureCounter = Counter.builder("whisperrr.status-writer.flush.failures")
+            .description("Status update batches that failed and were re-queued")
+            .register(meterRegistry);
+        this.droppedCounter = Counter.builder("whisperrr.status-writer.dropped")
+            .description("Job status updates discarded because the job's lease was lost")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Records a successful transcription for a claimed job.
+     * 
+     * @param id the primary key of the job
+     * @param result the transcription returned by the service
+     * @param segmentsData the segments encoded by SegmentView
+     * @param processingTimeMs the processing time in milliseconds
+     */
+    public void markCompleted(Long id, TranscriptionServiceResponse result, byte[] segmentsData, long processingTimeMs) {
+        enqueue(new JobStatusUpdate(id, JobStatus.COMPLETED, LocalDateTime.now(), null, processingTimeMs,
+            result.getModelUsed(), result, segmentsData));
+    }
+    
+    /**
+     * Records a failed transcription for a claimed job.
+     * 
+     * @param id the primary key of the job
+     * @param errorMessage the error message
+     * @param processingTimeMs the processing time in milliseconds
+     */
+    public void markFailed(Long id, String errorMessage, long processingTimeMs) {
+        enqueue(new JobStatusUpdate(id, JobStatus.FAILED, LocalDateTime.now(), errorMessage, processingTimeMs,
+            null, null, null));
+    }
+    
+    /**
+     * Gets the number of updates waiting to be flushed.
+     * 
+     * @return int pending update count
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+    
+    private void enqueue(JobStatusUpdate update) {
+        // The most recent transition for a job supersedes any earlier one still buffered
+        pending.merge(update.id(), update, (older, newer) -> newer.at().isBefore(older.at()) ? older : newer);
+    }
+    
+    /**
+     * Flushes buffered updates in batches.
+     */
+    @Scheduled(fixedDelayString = "${whisperrr.status-writer.flush-interval-ms:200}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        List<JobStatusUpdate> drained = new ArrayList<>(pending.size());
+        for (Long id : pending.keySet()) {
+            JobStatusUpdate update = pending.remove(id);
+            if (update != null) {
+                drained.add(update);
+            }
+        }
+        
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<JobStatusUpdate> chunk = drained.subList(from, Math.min(from + batchSize, drained.size()));
+            try {
+                List<Long> applied = transactionTemplate.execute(status -> write(chunk));
+                flushedCounter.increment(applied.size());
+                reportDropped(chunk, applied);
+                chunk.forEach(update -> jobLeaseManager.release(update.id()));
+                jobStatusNotifier.publish(applied);
+            } catch (Exception e) {
+                flushFailureCounter.increment();
+                logger.error("Failed to flush {} job status updates, will retry: {}", chunk.size(), e.getMessage(), e);
+                chunk.forEach(this::enqueue);
+            }
+        }
+    }
+    
+    private List<Long> write(List<JobStatusUpdate> chunk) {
+        List<Object[]> jobs = new ArrayList<>(chunk.size());
+        for (JobStatusUpdate update : chunk) {
+            jobs.add(new Object[] {
+                update.status().name(),
+                update.at(),
+                update.errorMessage(),
+                update.processingTimeMs(),
+                update.modelUsed(),
+                update.at(),
+                update.id(),
+                jobLeaseManager.getOwnerId()
+            });
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_JOB_SQL, jobs);
+        
+        // Only store results for jobs this node still held the lease on
+        List<Long> applied = new ArrayList<>(chunk.size());
+        List<Object[]> transcriptions = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            JobStatusUpdate update = chunk.get(i);
+            if (updated[i] == 0) {
+                continue;
+            }
+            applied.add(update.id());
+            TranscriptionServiceResponse result = update.result();
+            if (result == null) {
+                continue;
+            }
+            transcriptions.add(new Object[] {
+                result.getText() != null ? result.getText() : "",
+                result.getLanguage(),
+                result.getConfidenceScore(),
+                result.getDuration(),
+                update.segmentsData(),
+                update.id(),
+                update.at(),
+                update.at()
+            });
+        }
+        if (!transcriptions.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_TRANSCRIPTION_SQL, transcriptions);
+        }
+        // Segments kept while the job ran are superseded by the stored result
+        if (!applied.isEmpty()) {
+            jdbcTemplate.update(DELETE_PARTIAL_SEGMENTS_SQL, (Object) applied.toArray(Long[]::new));
+        }
+        return applied;
+    }
+    
+    private void reportDropped(List<JobStatusUpdate> chunk, List<Long> applied) {
+        if (applied.size() == chunk.size()) {
+            return;
+        }
+        Set<Long> appliedIds = new HashSet<>(applied);
+        for (JobStatusUpdate update : chunk) {
+            if (!appliedIds.contains(update.id())) {
+                // The lease expired and the job was reaped or claimed elsewhere, so this result is lost
+                droppedCounter.increment();
+                logger.warn("Dropped {} status for job {}: it is no longer PROCESSING under this node's lease",
+                    update.status(), update.id());
+            }
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        flush();
+    }
+    
+    /**
+     * A buffered terminal transition for one job.
+     */
+    private record JobStatusUpdate(Long id,
+                                   JobStatus status,
+                                   LocalDateTime at,
+                                   String errorMessage,
+                                   Long processingTimeMs,
+                                   String modelUsed,
+                                   TranscriptionServiceResponse result,
+                                   byte[] segmentsData) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.dto.PartialResultResponse;
+import com.shangmin.whisperrr.dto.TranscriptionSegment;
+import com.shangmin.whisperrr.dto.TranscriptionStatus;
+import com.shangmin.whisperrr.dto.TranscriptionStatusResponse;
+import com.shangmin.whisperrr.service.AudioService;
+import com.shangmin.whisperrr.service.PartialResultService;
+import com.shangmin.whisperrr.service.SegmentIndex;
+import com.shangmin.whisperrr.service.SegmentIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of PartialResultService over the partial segments written by
+ * {@link PartialResultWriter} and, once a job completes, its cached segment index.
+ * <p>
+ * Each response carries at most {@code whisperrr.result.partial-max-segments}
+ * segments and the index of the last one, so a client polling with that index only
+ * ever receives segments it does not have yet.
+ */
+@Service
+public class PartialResultServiceImpl implements PartialResultService {
+    
+    private static final String PARTIAL_SEGMENTS_SQL =
+        "SELECT s.segment_index, s.start_time, s.end_time, s.text, s.confidence " +
+        "FROM partial_segments s JOIN jobs j ON j.id = s.job_id " +
+        "WHERE j.job_id = ? AND s.segment_index > ? ORDER BY s.segment_index LIMIT ?";
+    
+    private final AudioService audioService;
+    private final JdbcTemplate jdbcTemplate;
+    private final SegmentIndexService segmentIndexService;
+    
+    @Value("${whisperrr.result.partial-max-segments:500}")
+    private int maxSegments;
+    
+    @Autowired
+    public PartialResultServiceImpl(AudioService audioService,
+                                    JdbcTemplate jdbcTemplate,
+                                    SegmentIndexService segmentIndexService) {
+        this.audioService = audioService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.segmentIndexService = segmentIndexService;
+    }
+    
+    @Override
+    public PartialResultResponse getPartialResult(String jobId, int afterSegment) {
+        // The status is read first: a job that completes in between is seen as still
+        // running with no new segments, and the next request reads its stored result
+        TranscriptionStatusResponse status = audioService.getTranscriptionStatus(jobId);
+        int after = Math.max(afterSegment, -1);
+        
+        Slice slice = switch (status.getStatus()) {
+            case PROCESSING -> readPartialSegments(UUID.fromString(jobId), after);
+            case COMPLETED -> readStoredSegments(jobId, after);
+            case PENDING, FAILED -> new Slice(List.of(), after, false);
+        };
+        boolean complete = status.getStatus() == TranscriptionStatus.FAILED
+            || status.getStatus() == TranscriptionStatus.COMPLETED && !slice.more();
+        return new PartialResultResponse(jobId, status.getStatus(), status.getProgressPercent(),
+            slice.segments(), slice.lastSegment(), complete);
+    }
+    
+    private Slice readPartialSegments(UUID jobId, int after) {
+        List<TranscriptionSegment> segments = new ArrayList<>();
+        int[] last = {after};
+        jdbcTemplate.query(PARTIAL_SEGMENTS_SQL, rs -> {
+            last[0] = rs.getInt("segment_index");
+            segments.add(new TranscriptionSegment(
+                rs.getDouble("start_time"),
+                rs.getDouble("end_time"),
+                rs.getString("text"),
+                rs.getObject("confidence", Double.class)));
+        }, jobId, after, maxSegments);
+        return new Slice(segments, last[0], true);
+    }
+    
+    private Slice readStoredSegments(String jobId, int after) {
+        SegmentIndex index = segmentIndexService.getSegmentIndex(jobId);
+        int from = Math.min(after + 1, index.size());
+        int to = (int) Math.min((long) from + maxSegments, index.size());
+        return new Slice(index.segments(from, to), Math.max(to - 1, after), to < index.size());
+    }
+    
+    /**
+     * A page of segments, the index of its last segment and whether more follow.
+     */
+    private record Slice(List<TranscriptionSegment> segments, int lastSegment, boolean more) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.dto.TranscriptionSegment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists the segments of running jobs as the transcription service decodes them.
+ * <p>
+ * Each batch of segments is stored together with the job's processed seconds in one
+ * transaction, and only while the job is still PROCESSING under this node's lease,
+ * so a worker that lost its job cannot add segments to another attempt. Updating a
+ * job's progress bumps its version, which changes the status ETag. Partial segments
+ * are removed by {@link JobStatusWriter} once the job completes or fails.
+ */
+@Component
+public class PartialResultWriter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PartialResultWriter.class);
+    
+    private static final String UPDATE_PROGRESS_SQL =
+        "UPDATE jobs SET processed_seconds = ?, updated_at = ?, version = version + 1 " +
+        "WHERE id = ? AND status = 'PROCESSING' AND lease_owner = ?";
+    
+    private static final String UPSERT_SEGMENT_SQL =
+        "INSERT INTO partial_segments (job_id, segment_index, start_time, end_time, text, confidence) " +
+        "VALUES (?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (job_id, segment_index) DO UPDATE SET start_time = EXCLUDED.start_time, " +
+        "end_time = EXCLUDED.end_time, text = EXCLUDED.text, confidence = EXCLUDED.confidence";
+    
+    private static final String DELETE_SEGMENTS_SQL =
+        "DELETE FROM partial_segments WHERE job_id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLeaseManager jobLeaseManager;
+    
+    @Autowired
+    public PartialResultWriter(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               JobLeaseManager jobLeaseManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jobLeaseManager = jobLeaseManager;
+    }
+    
+    /**
+     * Clears the progress and partial segments left by an earlier attempt at a job.
+     * 
+     * @param id the primary key of the job
+     */
+    public void reset(Long id) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (updateProgress(id, null)) {
+                jdbcTemplate.update(DELETE_SEGMENTS_SQL, id);
+            }
+        });
+    }
+    
+    /**
+     * Stores a batch of segments of a running job and the job's progress. A failure
+     * is logged and the segments are dropped; the final result still includes them.
+     * 
+     * @param id the primary key of the job
+     * @param firstIndex the index of the first segment in the batch
+     * @param segments the segments, in order
+     * @param processedSeconds the seconds of audio transcribed so far
+     * @return boolean whether the batch was stored
+     */
+    public boolean append(Long id, int firstIndex, List<TranscriptionSegment> segments, double processedSeconds) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (!updateProgress(id, processedSeconds)) {
+                    return false;
+                }
+                List<Object[]> rows = new ArrayList<>(segments.size());
+                for (int i = 0; i < segments.size(); i++) {
+                    TranscriptionSegment segment = segments.get(i);
+                    rows.add(new Object[] {
+                        id,
+                        firstIndex + i,
+                        segment.getStartTime(),
+                        segment.getEndTime(),
+                        segment.getText() != null ? segment.getText() : "",
+                        segment.getConfidence()
+                    });
+                }
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT_SEGMENT_SQL, rows);
+                }
+                return true;
+            }));
+        } catch (DataAccessException e) {
+            logger.warn("Failed to store partial segments for job {}: {}", id, e.getMessage(), e);
+            return false;
+        }
+    }
+    
+    private boolean updateProgress(Long id, Double processedSeconds) {
+        return jdbcTemplate.update(UPDATE_PROGRESS_SQL, processedSeconds, LocalDateTime.now(),
+            id, jobLeaseManager.getOwnerId()) > 0;
+    }
+}
@@ -0,0 +1,322 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shangmin.whisperrr.dto.TranscriptionSegment;
+import com.shangmin.whisperrr.dto.TranscriptionStatus;
+import com.shangmin.whisperrr.enums.ExportFormat;
+import com.shangmin.whisperrr.enums.JobStatus;
+import com.shangmin.whisperrr.exception.TranscriptionNotFoundException;
+import com.shangmin.whisperrr.exception.TranscriptionProcessingException;
+import com.shangmin.whisperrr.repository.TranscriptionRepository;
+import com.shangmin.whisperrr.repository.projection.StoredResultView;
+import com.shangmin.whisperrr.service.ResultStreamService;
+import com.shangmin.whisperrr.service.SegmentView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Implementation of ResultStreamService that reads results in fixed-size chunks.
+ * <p>
+ * Text and segments are read with one query per chunk of
+ * {@code whisperrr.result.chunk-bytes}, each query returning only its slice of the
+ * column. A request therefore holds one chunk at a time however long the transcript
+ * is, and holds no connection between chunks, so a slow client never pins a pooled
+ * connection. Both columns are bytea stored uncompressed out of line, so a slice
+ * reads only the TOAST chunks it covers and streaming stays linear in the size of the
+ * result. Segments are stored in the binary form read by {@link SegmentView}:
+ * their times and text lengths are read first, then each text is copied into the
+ * response as it is reached, already UTF-8, so segments are never bound to objects.
+ * <p>
+ * Completed results never change, so results up to
+ * {@code whisperrr.result-cache.max-entry-bytes} are also kept serialized, both as
+ * is and gzip-compressed, in a cache bounded by the bytes it holds. Caffeine's
+ * W-TinyLFU policy only admits a new result over the one it would evict if it is
+ * requested more often, so a burst of one-off fetches cannot flush the hot results.
+ * Entries expire after {@code whisperrr.result-cache.ttl} so results purged by
+ * retention are not served for long.
+ */
+@Service
+public class ResultStreamServiceImpl implements ResultStreamService {
+    
+    // substring() counts from 1; text_bytes holds the text as UTF-8, so the offsets are byte offsets
+    private static final String TEXT_CHUNK_SQL =
+        "SELECT substring(text_bytes FROM CAST(? AS integer) FOR ?) FROM transcriptions WHERE id = ?";
+    
+    private static final String SEGMENTS_CHUNK_SQL =
+        "SELECT substring(segments_data FROM CAST(? AS integer) FOR ?) FROM transcriptions WHERE id = ?";
+    
+    private static final int EXPORT_BUFFER_SIZE = 8192;
+    
+    private final TranscriptionRepository transcriptionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, CachedResult> cache;
+    private final int chunkBytes;
+    private final long maxEntryBytes;
+    
+    @Autowired
+    public ResultStreamServiceImpl(TranscriptionRepository transcriptionRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${whisperrr.result.chunk-bytes:1048576}") int chunkBytes,
+                                   @Value("${whisperrr.result-cache.max-bytes:67108864}") long maxBytes,
+                                   @Value("${whisperrr.result-cache.max-entry-bytes:1048576}") long maxEntryBytes,
+                                   @Value("${whisperrr.result-cache.ttl:1h}") Duration ttl) {
+        this.transcriptionRepository = transcriptionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkBytes = chunkBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String jobId, CachedResult result) -> weigh(result))
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "results");
+        Gauge.builder("whisperrr.result-cache.resident", cache, c -> c.policy().eviction().orElseThrow().weightedSize().orElse(0))
+            .description("Bytes of serialized results held in the result cache")
+            .baseUnit(BaseUnits.BYTES)
+            .register(meterRegistry);
+        Gauge.builder("whisperrr.result-cache.hit-ratio", cache, c -> c.stats().hitRate())
+            .description("Share of result cache lookups that were hits")
+            .register(meterRegistry);
+    }
+    
+    @Override
+    public StoredResultView getStoredResult(String jobId) {
+        StoredResultView result = transcriptionRepository.findStoredResultByJobId(parseJobId(jobId))
+            .orElseThrow(() -> new TranscriptionNotFoundException("Transcription job not found: " + jobId));
+        
+        if (result.getStatus() != JobStatus.COMPLETED) {
+            throw new TranscriptionNotFoundException("Transcription job is not completed yet: " + jobId);
+        }
+        if (result.getTranscriptionId() == null) {
+            throw new TranscriptionNotFoundException("Transcription result not found: " + jobId);
+        }
+        return result;
+    }
+    
+    @Override
+    public void writeJson(String jobId, StoredResultView result, OutputStream out) throws IOException {
+        // The caller owns the stream, so closing the generator only flushes it
+        try (JsonGenerator generator = objectMapper.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartObject();
+            generator.writeStringField("jobId", jobId);
+            
+            generator.writeFieldName("transcriptionText");
+            try (Reader text = openReader(TEXT_CHUNK_SQL, result.getTranscriptionId(), result.getTextBytes())) {
+                generator.writeString(text, -1);
+            }
+            
+            generator.writeObjectField("completedAt", result.getCompletedAt());
+            generator.writeObjectField("status", TranscriptionStatus.COMPLETED);
+            
+            generator.writeFieldName("segments");
+            Long segmentsBytes = result.getSegmentsBytes();
+            if (segmentsBytes == null || segmentsBytes == 0) {
+                generator.writeNull();
+            } else {
+                try (InputStream segments = new ColumnInputStream(SEGMENTS_CHUNK_SQL, result.getTranscriptionId(), 0, segmentsBytes)) {
+                    writeSegments(generator, segments);
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+    
+    @Override
+    public void writeText(StoredResultView result, long start, long end, OutputStream out) throws IOException {
+        try (InputStream text = new ColumnInputStream(TEXT_CHUNK_SQL, result.getTranscriptionId(), start, end + 1)) {
+            text.transferTo(out);
+        }
+    }
+    
+    @Override
+    public void writeExport(StoredResultView result, ExportFormat format, OutputStream out) throws IOException {
+        // Cues are a few bytes each, so they are gathered into larger writes; the caller owns the stream
+        BufferedOutputStream buffered = new BufferedOutputStream(out, EXPORT_BUFFER_SIZE);
+        SubtitleWriter writer = new SubtitleWriter(format, buffered);
+        writer.writeHeader();
+        Long segmentsBytes = result.getSegmentsBytes();
+        if (segmentsBytes != null && segmentsBytes > 0) {
+            try (InputStream in = new ColumnInputStream(SEGMENTS_CHUNK_SQL, result.getTranscriptionId(), 0, segmentsBytes)) {
+                SegmentView segments = SegmentView.readMetadata(in);
+                byte[] text = new byte[256];
+                for (int i = 0; i < segments.size(); i++) {
+                    text = readText(in, segments.textLength(i), text);
+                    writer.writeSegment(segments.startMillis(i), segments.endMillis(i), text, segments.textLength(i));
+                }
+            }
+        }
+        buffered.flush();
+    }
+    
+    @Override
+    public CachedResult getCachedResult(String jobId) {
+        return cache.getIfPresent(jobId);
+    }
+    
+    @Override
+    public CachedResult cacheResult(String jobId, StoredResultView result) {
+        long segmentsBytes = result.getSegmentsBytes() != null ? result.getSegmentsBytes() : 0;
+        if (result.getTextBytes() + segmentsBytes > maxEntryBytes) {
+            return null;
+        }
+        
+        try {
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            writeJson(jobId, result, json);
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(json.size() / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                json.writeTo(out);
+            }
+            CachedResult cached = new CachedResult(result.getVersion(), json.toByteArray(), gzip.toByteArray());
+            cache.put(jobId, cached);
+            return cached;
+        } catch (IOException e) {
+            throw new TranscriptionProcessingException("Failed to read transcription result: " + jobId, e);
+        }
+    }
+    
+    private static int weigh(CachedResult result) {
+        return result.json().length + result.gzip().length;
+    }
+    
+    private Reader openReader(String sql, long id, long length) {
+        return new InputStreamReader(new ColumnInputStream(sql, id, 0, length), StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Writes stored segments as a JSON array, in the field order of
+     * {@link TranscriptionSegment}, reading each text from the stream as it is reached.
+     */
+    private static void writeSegments(JsonGenerator generator, InputStream in) throws IOException {
+        SegmentView segments = SegmentView.readMetadata(in);
+        byte[] text = new byte[256];
+        generator.writeStartArray();
+        for (int i = 0; i < segments.size(); i++) {
+            int length = segments.textLength(i);
+            text = readText(in, length, text);
+            generator.writeStartObject();
+            generator.writeFieldName("text");
+            generator.writeUTF8String(text, 0, length);
+            Double confidence = segments.confidence(i);
+            if (confidence != null) {
+                generator.writeNumberField("confidence", confidence);
+            } else {
+                generator.writeNullField("confidence");
+            }
+            generator.writeNumberField("start_time", segments.startTime(i));
+            generator.writeNumberField("end_time", segments.endTime(i));
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+    
+    /**
+     * Reads the next segment's text, into the given buffer if it fits.
+     */
+    private static byte[] readText(InputStream in, int length, byte[] buffer) throws IOException {
+        byte[] text = length > buffer.length ? new byte[Math.max(length, buffer.length * 2)] : buffer;
+        if (in.readNBytes(text, 0, length) != length) {
+            throw new EOFException("Stored segments end before their texts");
+        }
+        return text;
+    }
+    
+    private static UUID parseJobId(String jobId) {
+        try {
+            return UUID.fromString(jobId);
+        } catch (IllegalArgumentException e) {
+            throw new TranscriptionNotFoundException("Transcription job not found: " + jobId);
+        }
+    }
+    
+    /**
+     * Reads a byte range of a column of one transcription, one chunk per query.
+     */
+    private final class ColumnInputStream extends InputStream {
+        private final String sql;
+        private final long id;
+        private final long limit;
+        private long position;
+        private byte[] chunk = new byte[0];
+        private int offset;
+        
+        private ColumnInputStream(String sql, long id, long position, long limit) {
+            this.sql = sql;
+            this.id = id;
+            this.position = position;
+            this.limit = limit;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            if (offset == chunk.length && !fetch()) {
+                return -1;
+            }
+            return chunk[offset++] & 0xFF;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (offset == chunk.length && !fetch()) {
+                return -1;
+            }
+            int count = Math.min(len, chunk.length - offset);
+            System.arraycopy(chunk, offset, buffer, off, count);
+            offset += count;
+            return count;
+        }
+        
+        private boolean fetch() throws IOException {
+            if (position >= limit) {
+                return false;
+            }
+            int length = (int) Math.min(chunkBytes, limit - position);
+            byte[] next;
+            try {
+                next = jdbcTemplate.queryForObject(sql, byte[].class, (int) position + 1, length, id);
+            } catch (EmptyResultDataAccessException e) {
+                throw new IOException("Transcription " + id + " was removed while being streamed", e);
+            }
+            // Sizes were read up front; anything shorter means the row changed underneath
+            if (next == null || next.length != length) {
+                throw new IOException("Transcription " + id + " changed while being streamed");
+            }
+            chunk = next;
+            offset = 0;
+            position += length;
+            return true;
+        }
+    }
+}
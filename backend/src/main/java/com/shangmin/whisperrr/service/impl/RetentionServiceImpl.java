@@ -0,0 +1,233 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.service.AudioStorageService;
+import com.shangmin.whisperrr.service.RetentionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of RetentionService that deletes expired data in bounded chunks.
+ * <p>
+ * Each chunk selects a keyset-ordered slice of expired job IDs and deletes their
+ * transcriptions, the jobs, and the audio files left without a job, all with
+ * set-based statements in one short transaction. Committed chunks are gone for
+ * good, so an interrupted run simply continues from the oldest remaining job on
+ * the next pass. Between chunks the purge sleeps as needed to stay under the
+ * configured row rate, keeping lock and I/O pressure off live traffic.
+ * <p>
+ * A throttled purge of a large backlog can run for hours, so the scheduled run only
+ * starts it on a thread of its own and returns, leaving the scheduler threads to the
+ * lease heartbeats and the other periodic tasks. A run that is still going when the
+ * next one is due is left to finish instead of being joined by a second.
+ */
+@Service
+public class RetentionServiceImpl implements RetentionService, DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RetentionServiceImpl.class);
+    
+    // Rows already locked by a worker or another purge are skipped rather than waited on
+    private static final String SELECT_CHUNK_SQL =
+        "SELECT id, completed_at FROM jobs WHERE status IN ('COMPLETED', 'FAILED', 'CANCELLED') AND completed_at < ? " +
+        "AND (completed_at, id) > (?, ?) ORDER BY completed_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+    
+    private static final String DELETE_TRANSCRIPTIONS_SQL =
+        "DELETE FROM transcriptions WHERE job_id = ANY(?)";
+    
+    private static final String DELETE_JOBS_SQL =
+        "DELETE FROM jobs WHERE id = ANY(?) RETURNING audio_file_id";
+    
+    private static final String DELETE_ORPHANED_AUDIO_FILES_SQL =
+        "DELETE FROM audio_files a WHERE a.id = ANY(?) " +
+        "AND NOT EXISTS (SELECT 1 FROM jobs j WHERE j.audio_file_id = a.id) RETURNING a.filename";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AudioStorageService audioStorageService;
+    private final Counter purgedJobs;
+    private final Counter purgedTranscriptions;
+    private final Counter purgedAudioFiles;
+    private final AtomicLong lastRunRowsPerSecond = new AtomicLong();
+    private final ExecutorService purgeExecutor =
+        Executors.newSingleThreadExecutor(Thread.ofVirtual().name("retention-purge-", 0).factory());
+    private final AtomicBoolean purgeRunning = new AtomicBoolean();
+    
+    @Value("${whisperrr.retention.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${whisperrr.retention.days:30}")
+    private int retentionDays;
+    
+    @Value("${whisperrr.retention.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${whisperrr.retention.max-rows-per-second:2000}")
+    private int maxRowsPerSecond;
+    
+    @Autowired
+    public RetentionServiceImpl(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                AudioStorageService audioStorageService,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.audioStorageService = audioStorageService;
+        
+        this.purgedJobs = purgedCounter(meterRegistry, "jobs");
+        this.purgedTranscriptions = purgedCounter(meterRegistry, "transcriptions");
+        this.purgedAudioFiles = purgedCounter(meterRegistry, "audio_files");
+        Gauge.builder("whisperrr.retention.rows-per-second", lastRunRowsPerSecond, AtomicLong::get)
+            .description("Rows purged per second during the last retention run")
+            .register(meterRegistry);
+    }
+    
+    private static Counter purgedCounter(MeterRegistry meterRegistry, String table) {
+        return Counter.builder("whisperrr.retention.purged")
+            .tag("table", table)
+            .description("Rows deleted by the retention purge")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * Starts a purge of data past the retention period on the configured schedule.
+     * The purge runs on the purge thread; this returns as soon as it has started.
+     */
+    @Scheduled(cron = "${whisperrr.retention.cron:0 0 3 * * *}")
+    public void runScheduledPurge() {
+        if (!enabled) {
+            return;
+        }
+        if (!purgeRunning.compareAndSet(false, true)) {
+            logger.warn("Retention purge still running from the previous schedule, skipping this run");
+            return;
+        }
+        LocalDateTime threshold = LocalDateTime.now().minusDays(retentionDays);
+        try {
+            purgeExecutor.execute(() -> {
+                try {
+                    purgeCompletedBefore(threshold);
+                } catch (Exception e) {
+                    logger.error("Retention purge failed: {}", e.getMessage(), e);
+                } finally {
+                    purgeRunning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            purgeRunning.set(false);
+        }
+    }
+    
+    @Override
+    public long purgeCompletedBefore(LocalDateTime threshold) {
+        logger.info("Starting retention purge of jobs completed before {}", threshold);
+        long startNanos = System.nanoTime();
+        long jobs = 0;
+        long rows = 0;
+        
+        // Within a run the cursor skips rows another transaction held locked; each run starts from the oldest
+        Cursor cursor = Cursor.START;
+        while (true) {
+            long chunkStart = System.nanoTime();
+            ChunkResult chunk = purgeChunk(threshold, cursor);
+            if (chunk == null) {
+                break;
+            }
+            
+            jobs += chunk.jobs();
+            rows += chunk.rows();
+            cursor = chunk.next();
+            chunk.filenames().forEach(audioStorageService::deleteQuietly);
+            throttle(chunk.rows(), System.nanoTime() - chunkStart);
+        }
+        
+        double seconds = Math.max((System.nanoTime() - startNanos) / 1e9, 1e-3);
+        lastRunRowsPerSecond.set(Math.round(rows / seconds));
+        logger.info("Retention purge removed {} jobs ({} rows) in {} s", jobs, rows, String.format("%.1f", seconds));
+        return jobs;
+    }
+    
+    /**
+     * Deletes one chunk of expired jobs and their data in a single transaction.
+     * 
+     * @return the chunk outcome, or null when nothing is left to purge
+     */
+    private ChunkResult purgeChunk(LocalDateTime threshold, Cursor cursor) {
+        return transactionTemplate.execute(status -> {
+            List<Cursor> selected = jdbcTemplate.query(SELECT_CHUNK_SQL,
+                (rs, rowNum) -> new Cursor(rs.getTimestamp("completed_at").toLocalDateTime(), rs.getLong("id")),
+                Timestamp.valueOf(threshold), Timestamp.valueOf(cursor.completedAt()), cursor.id(), chunkSize);
+            if (selected.isEmpty()) {
+                return null;
+            }
+            
+            Long[] jobIds = selected.stream().map(Cursor::id).toArray(Long[]::new);
+            
+            int transcriptions = jdbcTemplate.update(DELETE_TRANSCRIPTIONS_SQL, (Object) jobIds);
+            Long[] audioFileIds = jdbcTemplate.queryForList(DELETE_JOBS_SQL, Long.class, (Object) jobIds).stream()
+                .distinct()
+                .toArray(Long[]::new);
+            List<String> filenames = jdbcTemplate.queryForList(DELETE_ORPHANED_AUDIO_FILES_SQL, String.class,
+                (Object) audioFileIds);
+            
+            purgedJobs.increment(jobIds.length);
+            purgedTranscriptions.increment(transcriptions);
+            purgedAudioFiles.increment(filenames.size());
+            return new ChunkResult(jobIds.length, jobIds.length + transcriptions + filenames.size(), filenames,
+                selected.get(selected.size() - 1));
+        });
+    }
+    
+    @Override
+    public void destroy() {
+        // Interrupts the throttle sleep; committed chunks stay purged and the rest waits for the next run
+        purgeExecutor.shutdownNow();
+    }
+    
+    private void throttle(long rows, long elapsedNanos) {
+        if (maxRowsPerSecond <= 0) {
+            return;
+        }
+        long budgetNanos = rows * 1_000_000_000L / maxRowsPerSecond;
+        long sleepMillis = (budgetNanos - elapsedNanos) / 1_000_000;
+        if (sleepMillis > 0) {
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Retention purge interrupted", e);
+            }
+        }
+    }
+    
+    /**
+     * Position of the last purged job in (completed_at, id) order.
+     */
+    private record Cursor(LocalDateTime completedAt, Long id) {
+        static final Cursor START = new Cursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+    }
+    
+    /**
+     * Outcome of a single purge chunk.
+     */
+    private record ChunkResult(int jobs, int rows, List<String> filenames, Cursor next) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.exception.InvalidScrollRequestException;
+import com.shangmin.whisperrr.repository.Keysets;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes keyset scroll positions as the opaque cursors handed to clients.
+ * <p>
+ * A cursor is the key values of the last row of a window, in the listing's key
+ * order, joined and Base64url-encoded. A cursor only ever moves a client to a
+ * position in the listing it came from, so it is not signed; one that does not
+ * decode to the listing's keys is rejected.
+ */
+final class ScrollTokens {
+    
+    private static final char SEPARATOR = '|';
+    
+    private ScrollTokens() {
+    }
+    
+    /**
+     * Gets the cursor that continues a listing after a window.
+     * 
+     * @param window the window just read
+     * @param keys the names of the listing's keys, in order
+     * @return the cursor, or null if no window follows
+     */
+    static String nextCursor(Window<?> window, List<String> keys) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        KeysetScrollPosition position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        StringBuilder token = new StringBuilder();
+        for (String key : keys) {
+            if (!token.isEmpty()) {
+                token.append(SEPARATOR);
+            }
+            token.append(position.getKeys().get(key));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodes a cursor into the position it continues from.
+     * 
+     * @param cursor the cursor, or null for the start of the listing
+     * @param keys the names of the listing's keys, in order
+     * @return the scroll position
+     * @throws InvalidScrollRequestException if the cursor does not hold the listing's keys
+     */
+    static KeysetScrollPosition position(String cursor, List<String> keys) {
+        if (cursor == null || cursor.isEmpty()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = token.split("\\" + SEPARATOR, -1);
+            if (values.length != keys.size()) {
+                throw new InvalidScrollRequestException("Invalid cursor: " + cursor);
+            }
+            Map<String, Object> position = new LinkedHashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                position.put(keys.get(i), parse(keys.get(i), values[i]));
+            }
+            return ScrollPosition.forward(position);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidScrollRequestException("Invalid cursor: " + cursor, e);
+        }
+    }
+    
+    private static Object parse(String key, String value) {
+        return switch (key) {
+            case Keysets.PRIORITY -> Integer.valueOf(value);
+            case Keysets.CREATED_AT -> LocalDateTime.parse(value);
+            case Keysets.ID -> Long.valueOf(value);
+            default -> throw new IllegalStateException("Unknown keyset key: " + key);
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shangmin.whisperrr.enums.JobStatus;
+import com.shangmin.whisperrr.exception.TranscriptionNotFoundException;
+import com.shangmin.whisperrr.repository.JobRepository;
+import com.shangmin.whisperrr.repository.projection.JobVersionView;
+import com.shangmin.whisperrr.service.SegmentIndex;
+import com.shangmin.whisperrr.service.SegmentIndexService;
+import com.shangmin.whisperrr.service.SegmentView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of SegmentIndexService that keeps built indexes in memory.
+ * <p>
+ * An index is built over a {@link SegmentView} of the stored segments, which decodes
+ * their times and leaves the texts encoded, and is then cached, bounded by the heap
+ * the indexes hold. Every lookup still reads the job's status and
+ * version, a single indexed query, so a purged job is never answered from the
+ * cache and an index is rebuilt if the job's version has moved on.
+ */
+@Service
+public class SegmentIndexServiceImpl implements SegmentIndexService {
+    
+    private static final String STORED_SEGMENTS_SQL =
+        "SELECT t.segments_data FROM transcriptions t JOIN jobs j ON j.id = t.job_id WHERE j.job_id = ?";
+    
+    private final JobRepository jobRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, SegmentIndex> cache;
+    
+    @Autowired
+    public SegmentIndexServiceImpl(JobRepository jobRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${whisperrr.segment-index.max-bytes:33554432}") long maxBytes,
+                                   @Value("${whisperrr.segment-index.ttl:1h}") Duration ttl) {
+        this.jobRepository = jobRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String jobId, SegmentIndex index) -> (int) Math.min(index.estimateBytes(), Integer.MAX_VALUE))
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "segment-indexes");
+    }
+    
+    @Override
+    public SegmentIndex getSegmentIndex(String jobId) {
+        UUID id = parseJobId(jobId);
+        JobVersionView job = jobRepository.findVersionByJobId(id)
+            .orElseThrow(() -> new TranscriptionNotFoundException("Transcription job not found: " + jobId));
+        if (job.getStatus() != JobStatus.COMPLETED) {
+            throw new TranscriptionNotFoundException("Transcription job is not completed yet: " + jobId);
+        }
+        
+        SegmentIndex cached = cache.getIfPresent(jobId);
+        if (cached != null && cached.getVersion() == job.getVersion()) {
+            return cached;
+        }
+        SegmentIndex index = SegmentIndex.of(job.getVersion(), readSegments(id, jobId));
+        cache.put(jobId, index);
+        return index;
+    }
+    
+    private SegmentView readSegments(UUID id, String jobId) {
+        List<byte[]> rows = jdbcTemplate.query(STORED_SEGMENTS_SQL, (rs, rowNum) -> rs.getBytes(1), id);
+        if (rows.isEmpty()) {
+            throw new TranscriptionNotFoundException("Transcription result not found: " + jobId);
+        }
+        return SegmentView.wrap(rows.get(0));
+    }
+    
+    private static UUID parseJobId(String jobId) {
+        try {
+            return UUID.fromString(jobId);
+        } catch (IllegalArgumentException e) {
+            throw new TranscriptionNotFoundException("Transcription job not found: " + jobId);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.dto.ResultReadyEvent;
+import com.shangmin.whisperrr.dto.TranscriptionStatus;
+import com.shangmin.whisperrr.dto.TranscriptionStatusResponse;
+import com.shangmin.whisperrr.enums.JobStatus;
+import com.shangmin.whisperrr.exception.TranscriptionNotFoundException;
+import com.shangmin.whisperrr.repository.JobRepository;
+import com.shangmin.whisperrr.service.AudioService;
+import com.shangmin.whisperrr.service.StatusStreamService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementation of StatusStreamService backed by {@link JobStatusNotifier}.
+ * <p>
+ * Open streams are grouped by job. An idle stream is only an emitter in its job's
+ * group: no thread, no timer and no database work of its own. When a transition is
+ * published the job's status is read once and sent to every stream of that job, so
+ * the cost of a transition does not grow with the number of watchers. Sends run on
+ * virtual threads so a slow client never holds up the publisher. Transitions made on
+ * other nodes are picked up by a periodic check of all watched jobs in one query.
+ */
+@Service
+public class StatusStreamServiceImpl implements StatusStreamService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StatusStreamServiceImpl.class);
+    
+    private static final String STATUS_EVENT = "status";
+    private static final String RESULT_EVENT = "result";
+    private static final String RESULT_PATH = "/api/audio/result/";
+    
+    // Built once and written as-is on every pass, since most of a pass's work is per stream
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> KEEP_ALIVE =
+        Set.copyOf(SseEmitter.event().comment("keep-alive").build());
+    
+    private static final String WATCHED_STATUS_SQL = "SELECT id, status FROM jobs WHERE id = ANY(?)";
+    
+    private final AudioService audioService;
+    private final JobRepository jobRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Executor sender;
+    private final Map<Long, JobStreams> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final Counter eventsSent;
+    
+    @Value("${whisperrr.status-stream.timeout-ms:1800000}")
+    private long timeoutMs;
+    
+    @Value("${whisperrr.status-stream.reconnect-ms:3000}")
+    private long reconnectMs;
+    
+    @Value("${whisperrr.status-stream.check-batch-size:1000}")
+    private int checkBatchSize;
+    
+    @Autowired
+    public StatusStreamServiceImpl(AudioService audioService,
+                                   JobRepository jobRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   JobStatusNotifier jobStatusNotifier,
+                                   MeterRegistry meterRegistry) {
+        this(audioService, jobRepository, jdbcTemplate, jobStatusNotifier, meterRegistry,
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("status-stream-", 0).factory()));
+    }
+    
+    public StatusStreamServiceImpl(AudioService audioService,
+                                   JobRepository jobRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   JobStatusNotifier jobStatusNotifier,
+                                   MeterRegistry meterRegistry,
+                                   Executor sender) {
+        this.audioService = audioService;
+        this.jobRepository = jobRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.sender = sender;
+        jobStatusNotifier.addListener(this::onStatusChanged);
+        
+        Gauge.builder("whisperrr.status-stream.open", openStreams, AtomicInteger::get)
+            .description("Status streams open on this node")
+            .register(meterRegistry);
+        this.eventsSent = Counter.builder("whisperrr.status-stream.events")
+            .description("Status and result events sent to stream clients")
+            .register(meterRegistry);
+    }
+    
+    @Override
+    public SseEmitter streamTranscriptionStatus(String jobId) {
+        Long id = jobRepository.findIdByJobId(parseJobId(jobId))
+            .orElseThrow(() -> new TranscriptionNotFoundException("Transcription job not found: " + jobId));
+        return subscribe(id, jobId, new SseEmitter(timeoutMs));
+    }
+    
+    @Override
+    public int getOpenStreamCount() {
+        return openStreams.get();
+    }
+    
+    /**
+     * Registers an emitter for a job that has already been looked up and sends it the
+     * job's current status.
+     * 
+     * @param id the primary key of the job
+     * @param jobId the public job ID
+     * @param emitter the emitter to register
+     * @return the registered emitter
+     */
+    public SseEmitter subscribe(Long id, String jobId, SseEmitter emitter) {
+        // Registered before the first read, so a transition committed in between is not missed
+        JobStreams group = streams.compute(id, (key, existing) -> {
+            JobStreams target = existing != null ? existing : new JobStreams(key, jobId);
+            target.emitters.add(emitter);
+            return target;
+        });
+        openStreams.incrementAndGet();
+        
+        emitter.onCompletion(() -> unsubscribe(id, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(id, emitter));
+        
+        sender.execute(() -> sendCurrent(group, emitter));
+        return emitter;
+    }
+    
+    /**
+     * Queues a refresh for each watched job among the changed ones. Called on the
+     * publisher's thread, so it does no IO itself.
+     */
+    private void onStatusChanged(Collection<Long> ids) {
+        for (Long id : ids) {
+            JobStreams group = streams.get(id);
+            // Transitions already queued for a job are coalesced into one refresh
+            if (group != null && group.refreshQueued.compareAndSet(false, true)) {
+                sender.execute(() -> refresh(group));
+            }
+        }
+    }
+    
+    private void sendCurrent(JobStreams group, SseEmitter emitter) {
+        group.lock.lock();
+        try {
+            TranscriptionStatusResponse status = audioService.getTranscriptionStatus(group.jobId);
+            if (group.lastSent == null) {
+                group.lastSent = status.getStatus();
+            }
+            send(group, emitter, SseEmitter.event().name(STATUS_EVENT).reconnectTime(reconnectMs)
+                .data(status, MediaType.APPLICATION_JSON));
+            if (isFinal(status.getStatus())) {
+                finish(group, List.of(emitter), status);
+            }
+        } catch (TranscriptionNotFoundException e) {
+            // Purged between the lookup and the first read
+            emitter.complete();
+        } catch (RuntimeException e) {
+            // Closing lets the client reconnect and try again
+            logger.warn("Failed to open status stream for job {}: {}", group.jobId, e.getMessage(), e);
+            emitter.complete();
+        } finally {
+            group.lock.unlock();
+        }
+    }
+    
+    private void refresh(JobStreams group) {
+        group.refreshQueued.set(false);
+        group.lock.lock();
+        try {
+            TranscriptionStatusResponse status = audioService.getTranscriptionStatus(group.jobId);
+            if (status.getStatus() == group.lastSent) {
+                return;
+            }
+            group.lastSent = status.getStatus();
+            
+            List<SseEmitter> watchers = List.copyOf(group.emitters);
+            for (SseEmitter emitter : watchers) {
+                send(group, emitter, SseEmitter.event().name(STATUS_EVENT).data(status, MediaType.APPLICATION_JSON));
+            }
+            if (isFinal(status.getStatus())) {
+                finish(group, watchers, status);
+            }
+        } catch (TranscriptionNotFoundException e) {
+            List.copyOf(group.emitters).forEach(SseEmitter::complete);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh status streams for job {}: {}", group.jobId, e.getMessage(), e);
+        } finally {
+            group.lock.unlock();
+        }
+    }
+    
+    /**
+     * Tells the streams of a completed job where its result is, then closes them.
+     */
+    private void finish(JobStreams group, List<SseEmitter> emitters, TranscriptionStatusResponse status) {
+        if (status.getStatus() == TranscriptionStatus.COMPLETED) {
+            // Only a pointer: the result endpoint streams the text in chunks and serves it from the result cache
+            ResultReadyEvent result = new ResultReadyEvent(group.jobId, RESULT_PATH + group.jobId);
+            for (SseEmitter emitter : emitters) {
+                send(group, emitter, SseEmitter.event().name(RESULT_EVENT).data(result, MediaType.APPLICATION_JSON));
+            }
+        }
+        emitters.forEach(SseEmitter::complete);
+    }
+    
+    private void send(JobStreams group, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            eventsSent.increment();
+        } catch (IOException | IllegalStateException e) {
+            // The client has gone; the container reports the error through onError as well
+            logger.debug("Dropping status stream for job {}: {}", group.jobId, e.getMessage());
+            unsubscribe(group.id, emitter);
+        }
+    }
+    
+    /**
+     * Sends a comment on every open stream so proxies and load balancers do not close
+     * connections that are idle while a job waits in the queue.
+     */
+    @Scheduled(fixedDelayString = "${whisperrr.status-stream.keep-alive-interval-ms:15000}")
+    public void sendKeepAlives() {
+        if (streams.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> {
+            for (JobStreams group : streams.values()) {
+                for (SseEmitter emitter : group.emitters) {
+                    try {
+                        emitter.send(KEEP_ALIVE);
+                    } catch (IOException | IllegalStateException e) {
+                        unsubscribe(group.id, emitter);
+                    }
+                }
+            }
+        });
+    }
+    
+    /**
+     * Reads the status of every watched job in batched queries and refreshes the ones
+     * that changed without a local notification, i.e. on another node.
+     */
+    @Scheduled(fixedDelayString = "${whisperrr.status-stream.check-interval-ms:5000}")
+    public void checkWatchedJobs() {
+        if (streams.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> watched = new ArrayList<>(streams.keySet());
+            for (int from = 0; from < watched.size(); from += checkBatchSize) {
+                Long[] batch = watched.subList(from, Math.min(from + checkBatchSize, watched.size()))
+                    .toArray(Long[]::new);
+                Map<Long, JobStatus> current = new HashMap<>();
+                jdbcTemplate.query(WATCHED_STATUS_SQL,
+                    rs -> { current.put(rs.getLong("id"), JobStatus.valueOf(rs.getString("status"))); },
+                    (Object) batch);
+                
+                List<Long> changed = new ArrayList<>();
+                for (Long id : batch) {
+                    JobStreams group = streams.get(id);
+                    JobStatus status = current.get(id);
+                    // A job that no longer exists is refreshed too, which closes its streams
+                    if (group != null && (status == null || toTranscriptionStatus(status) != group.lastSent)) {
+                        changed.add(id);
+                    }
+                }
+                onStatusChanged(changed);
+            }
+        } catch (Exception e) {
+            logger.error("Status stream check failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    private void unsubscribe(Long id, SseEmitter emitter) {
+        AtomicBoolean removed = new AtomicBoolean();
+        streams.computeIfPresent(id, (key, group) -> {
+            removed.set(group.emitters.remove(emitter));
+            return group.emitters.isEmpty() ? null : group;
+        });
+        if (removed.get()) {
+            openStreams.decrementAndGet();
+        }
+    }
+    
+    private static boolean isFinal(TranscriptionStatus status) {
+        return status == TranscriptionStatus.COMPLETED || status == TranscriptionStatus.FAILED;
+    }
+    
+    private static TranscriptionStatus toTranscriptionStatus(JobStatus status) {
+        return switch (status) {
+            case PENDING -> TranscriptionStatus.PENDING;
+            case PROCESSING -> TranscriptionStatus.PROCESSING;
+            case COMPLETED -> TranscriptionStatus.COMPLETED;
+            case FAILED, CANCELLED -> TranscriptionStatus.FAILED;
+        };
+    }
+    
+    private static UUID parseJobId(String jobId) {
+        try {
+            return UUID.fromString(jobId);
+        } catch (IllegalArgumentException e) {
+            throw new TranscriptionNotFoundException("Transcription job not found: " + jobId);
+        }
+    }
+    
+    /**
+     * The open streams of one job and the last status sent to them.
+     */
+    private static final class JobStreams {
+        private final Long id;
+        private final String jobId;
+        private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicBoolean refreshQueued = new AtomicBoolean();
+        private volatile TranscriptionStatus lastSent;
+        
+        private JobStreams(Long id, String jobId) {
+            this.id = id;
+            this.jobId = jobId;
+        }
+    }
+}
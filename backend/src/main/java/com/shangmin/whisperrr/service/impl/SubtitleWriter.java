@@ -0,0 +1,169 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes segments to a stream in one of the export formats, one segment at a time.
+ * <p>
+ * Texts arrive as UTF-8 and are written as they are, apart from the ASCII bytes a
+ * format gives a meaning to: line breaks everywhere, tabs in TSV, and {@code &},
+ * {@code <} and {@code >} in WebVTT. Those bytes never occur inside a multi-byte
+ * UTF-8 sequence, so no text is decoded. SRT and WebVTT cues and TXT lines are
+ * skipped for segments without text; TSV keeps a row for every segment.
+ */
+final class SubtitleWriter {
+    
+    private static final byte[] VTT_HEADER = ascii("WEBVTT\n\n");
+    private static final byte[] TSV_HEADER = ascii("start\tend\ttext\n");
+    private static final byte[] ARROW = ascii(" --> ");
+    private static final byte[] SPACE = ascii(" ");
+    private static final byte[] AMP = ascii("&amp;");
+    private static final byte[] LT = ascii("&lt;");
+    private static final byte[] GT = ascii("&gt;");
+    
+    private final ExportFormat format;
+    private final OutputStream out;
+    private final byte[] digits = new byte[20];
+    private long cues;
+    
+    SubtitleWriter(ExportFormat format, OutputStream out) {
+        this.format = format;
+        this.out = out;
+    }
+    
+    /**
+     * Writes what the format puts before the first segment.
+     */
+    void writeHeader() throws IOException {
+        switch (format) {
+            case VTT -> out.write(VTT_HEADER);
+            case TSV -> out.write(TSV_HEADER);
+            case SRT, TXT -> {
+            }
+        }
+    }
+    
+    /**
+     * Writes one segment.
+     * 
+     * @param startMillis the start time in milliseconds
+     * @param endMillis the end time in milliseconds
+     * @param text the segment's text, UTF-8 encoded
+     * @param length the number of bytes of text
+     */
+    void writeSegment(int startMillis, int endMillis, byte[] text, int length) throws IOException {
+        if (format != ExportFormat.TSV && isBlank(text, length)) {
+            return;
+        }
+        switch (format) {
+            case SRT -> {
+                writeNumber(++cues);
+                out.write('\n');
+                writeTimestamp(startMillis, ',');
+                out.write(ARROW);
+                writeTimestamp(endMillis, ',');
+                out.write('\n');
+                writeText(text, length);
+                out.write('\n');
+                out.write('\n');
+            }
+            case VTT -> {
+                writeTimestamp(startMillis, '.');
+                out.write(ARROW);
+                writeTimestamp(endMillis, '.');
+                out.write('\n');
+                writeText(text, length);
+                out.write('\n');
+                out.write('\n');
+            }
+            case TSV -> {
+                writeNumber(Math.max(startMillis, 0));
+                out.write('\t');
+                writeNumber(Math.max(endMillis, 0));
+                out.write('\t');
+                writeText(text, length);
+                out.write('\n');
+            }
+            case TXT -> {
+                writeText(text, length);
+                out.write('\n');
+            }
+        }
+    }
+    
+    private void writeText(byte[] text, int length) throws IOException {
+        int from = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = text[i];
+            byte[] replacement = replacement(b);
+            if (replacement != null) {
+                out.write(text, from, i - from);
+                out.write(replacement);
+                from = i + 1;
+            }
+        }
+        out.write(text, from, length - from);
+    }
+    
+    private byte[] replacement(byte b) {
+        return switch (b) {
+            case '\n', '\r' -> SPACE;
+            case '\t' -> format == ExportFormat.TSV ? SPACE : null;
+            case '&' -> format == ExportFormat.VTT ? AMP : null;
+            case '<' -> format == ExportFormat.VTT ? LT : null;
+            case '>' -> format == ExportFormat.VTT ? GT : null;
+            default -> null;
+        };
+    }
+    
+    /**
+     * Writes {@code hh:mm:ss,mmm}, with the hours widened past 99 if needed.
+     */
+    private void writeTimestamp(int millis, char separator) throws IOException {
+        int value = Math.max(millis, 0);
+        int hours = value / 3_600_000;
+        if (hours < 10) {
+            out.write('0');
+        }
+        writeNumber(hours);
+        out.write(':');
+        writeTwoDigits(value / 60_000 % 60);
+        out.write(':');
+        writeTwoDigits(value / 1000 % 60);
+        out.write(separator);
+        int fraction = value % 1000;
+        out.write('0' + fraction / 100);
+        writeTwoDigits(fraction % 100);
+    }
+    
+    private void writeTwoDigits(int value) throws IOException {
+        out.write('0' + value / 10);
+        out.write('0' + value % 10);
+    }
+    
+    private void writeNumber(long value) throws IOException {
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        out.write(digits, position, digits.length - position);
+    }
+    
+    private static boolean isBlank(byte[] text, int length) {
+        for (int i = 0; i < length; i++) {
+            if (text[i] != ' ' && text[i] != '\t' && text[i] != '\n' && text[i] != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,95 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.dto.TranscriptSearchResponse;
+import com.shangmin.whisperrr.dto.TranscriptSearchResult;
+import com.shangmin.whisperrr.exception.InvalidSearchRequestException;
+import com.shangmin.whisperrr.repository.TranscriptionRepository;
+import com.shangmin.whisperrr.repository.projection.TranscriptSearchHit;
+import com.shangmin.whisperrr.service.TranscriptSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Implementation of TranscriptSearchService over the GIN-indexed search vector of
+ * the transcriptions table. Each transcript is indexed with the text search
+ * configuration of its language, so words are matched by their stems in that
+ * language; a search without a language is parsed in every configuration.
+ * <p>
+ * A GIN index scan collects every match before any of them is read, so a word in
+ * most transcripts would cost time in proportion to the table. At most
+ * {@code whisperrr.search.max-candidates} matches are ranked, and the response is
+ * marked truncated when that many were. The index scan itself is limited with
+ * {@code gin_fuzzy_search_limit} to a random sample of about twice as many matches;
+ * the sample varies in size, and the margin keeps one that was cut short from
+ * falling below the cap, so a sampled search is marked truncated too.
+ */
+@Service
+public class TranscriptSearchServiceImpl implements TranscriptSearchService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptSearchServiceImpl.class);
+    
+    private static final int MAX_QUERY_LENGTH = 500;
+    private static final Pattern LANGUAGE_CODE = Pattern.compile("[a-z]{2,3}(-[a-z0-9]{1,6})?");
+    
+    private static final String LIMIT_INDEX_MATCHES_SQL =
+        "SELECT set_config('gin_fuzzy_search_limit', ?, true)";
+    
+    private final TranscriptionRepository transcriptionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${whisperrr.search.max-results:100}")
+    private int maxResults;
+    
+    @Value("${whisperrr.search.max-candidates:2000}")
+    private int maxCandidates;
+    
+    @Autowired
+    public TranscriptSearchServiceImpl(TranscriptionRepository transcriptionRepository, JdbcTemplate jdbcTemplate) {
+        this.transcriptionRepository = transcriptionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public TranscriptSearchResponse search(String query, String language, int size) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidSearchRequestException("Search query must not be empty");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new InvalidSearchRequestException("Search query must not exceed " + MAX_QUERY_LENGTH + " characters");
+        }
+        String normalizedLanguage = normalizeLanguage(language);
+        logger.debug("Searching transcriptions in language {} for: {}", normalizedLanguage, query);
+        
+        // Local to this transaction
+        jdbcTemplate.queryForObject(LIMIT_INDEX_MATCHES_SQL, String.class, String.valueOf(2L * maxCandidates));
+        List<TranscriptSearchHit> hits = transcriptionRepository
+            .search(query.trim(), normalizedLanguage, maxCandidates, Math.min(Math.max(size, 1), maxResults));
+        boolean truncated = !hits.isEmpty() && hits.get(0).getCandidates() >= maxCandidates;
+        List<TranscriptSearchResult> results = hits.stream()
+            .map(hit -> new TranscriptSearchResult(hit.getJobId().toString(), hit.getLanguage(), hit.getRank(),
+                hit.getSnippet(), hit.getCreatedAt()))
+            .toList();
+        return new TranscriptSearchResponse(query.trim(), normalizedLanguage, results, truncated);
+    }
+    
+    private static String normalizeLanguage(String language) {
+        if (language == null || language.isBlank()) {
+            return null;
+        }
+        String normalized = language.trim().toLowerCase(Locale.ROOT);
+        if (!LANGUAGE_CODE.matcher(normalized).matches()) {
+            throw new InvalidSearchRequestException("Invalid language code: " + language);
+        }
+        return normalized;
+    }
+}
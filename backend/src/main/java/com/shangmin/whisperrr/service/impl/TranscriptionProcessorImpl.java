@@ -0,0 +1,101 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.dto.TranscriptionOptions;
+import com.shangmin.whisperrr.dto.TranscriptionServiceResponse;
+import com.shangmin.whisperrr.entity.AudioFile;
+import com.shangmin.whisperrr.entity.Job;
+import com.shangmin.whisperrr.exception.EntityNotFoundException;
+import com.shangmin.whisperrr.repository.JobRepository;
+import com.shangmin.whisperrr.service.AudioStorageService;
+import com.shangmin.whisperrr.service.SegmentView;
+import com.shangmin.whisperrr.service.TranscriptionProcessor;
+import com.shangmin.whisperrr.service.TranscriptionServiceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Implementation of TranscriptionProcessor for jobs taken from the database queue
+ */
+@Service
+public class TranscriptionProcessorImpl implements TranscriptionProcessor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptionProcessorImpl.class);
+    
+    private final JobRepository jobRepository;
+    private final JobStatusWriter jobStatusWriter;
+    private final TranscriptionServiceClient transcriptionServiceClient;
+    private final AudioStorageService audioStorageService;
+    private final PartialResultWriter partialResultWriter;
+    
+    @Value("${whisperrr.service.stream-segments:true}")
+    private boolean streamSegments;
+    
+    @Autowired
+    public TranscriptionProcessorImpl(JobRepository jobRepository,
+                                      JobStatusWriter jobStatusWriter,
+                                      TranscriptionServiceClient transcriptionServiceClient,
+                                      AudioStorageService audioStorageService,
+                                      PartialResultWriter partialResultWriter) {
+        this.jobRepository = jobRepository;
+        this.jobStatusWriter = jobStatusWriter;
+        this.transcriptionServiceClient = transcriptionServiceClient;
+        this.audioStorageService = audioStorageService;
+        this.partialResultWriter = partialResultWriter;
+    }
+    
+    @Override
+    public void process(Long jobId) {
+        long startTime = System.currentTimeMillis();
+        logger.info("Starting transcription processing for job: {}", jobId);
+        
+        try {
+            Job job = jobRepository.findWithAudioFileById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("Job", jobId));
+            AudioFile audioFile = job.getAudioFile();
+            Path audioPath = audioStorageService.resolve(audioFile.getFilename());
+            TranscriptionOptions options = new TranscriptionOptions(
+                job.getRequestedModel(), job.getRequestedLanguage(), job.getTask());
+            
+            TranscriptionServiceResponse result = transcribe(jobId, audioPath, audioFile.getOriginalFilename(), options)
+                .join();
+            byte[] segmentsData = SegmentView.encode(result.getSegments());
+            
+            // Outcome is persisted by the write-behind buffer in the next batch
+            jobStatusWriter.markCompleted(jobId, result, segmentsData, System.currentTimeMillis() - startTime);
+            logger.info("Transcription completed for job: {}", jobId);
+        
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            markFailed(jobId, cause.getMessage(), startTime);
+            logger.error("Transcription processing failed for job: {}", jobId, cause);
+        } catch (Exception e) {
+            markFailed(jobId, e.getMessage(), startTime);
+            logger.error("Transcription processing failed for job: {}", jobId, e);
+        }
+    }
+    
+    private CompletableFuture<TranscriptionServiceResponse> transcribe(Long jobId, Path audioPath, String filename,
+                                                                       TranscriptionOptions options) {
+        if (!streamSegments) {
+            return transcriptionServiceClient.transcribe(audioPath, filename, options);
+        }
+        
+        // Segments are stored as they arrive so clients can read them before the job completes
+        partialResultWriter.reset(jobId);
+        AtomicInteger nextIndex = new AtomicInteger();
+        return transcriptionServiceClient.transcribe(audioPath, filename, options, (segments, processedSeconds) ->
+            partialResultWriter.append(jobId, nextIndex.getAndAdd(segments.size()), segments, processedSeconds));
+    }
+    
+    private void markFailed(Long jobId, String errorMessage, long startTime) {
+        jobStatusWriter.markFailed(jobId, errorMessage, System.currentTimeMillis() - startTime);
+    }
+}
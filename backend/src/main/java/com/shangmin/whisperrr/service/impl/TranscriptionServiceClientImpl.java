@@ -0,0 +1,245 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shangmin.whisperrr.dto.TranscriptionOptions;
+import com.shangmin.whisperrr.dto.TranscriptionServiceResponse;
+import com.shangmin.whisperrr.dto.TranscriptionStreamEvent;
+import com.shangmin.whisperrr.exception.TranscriptionProcessingException;
+import com.shangmin.whisperrr.service.TranscriptionServiceClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLConnection;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implementation of TranscriptionServiceClient using the JDK HTTP client.
+ * <p>
+ * A single client instance is shared, so keep-alive connections to the Python
+ * service are pooled and reused. Requests are sent asynchronously, the multipart
+ * body is streamed from the file on disk, and the JSON response is decoded from the
+ * response stream on a virtual thread instead of being buffered as a string.
+ * Streamed transcriptions are read line by line as the service sends them.
+ */
+@Service
+public class TranscriptionServiceClientImpl implements TranscriptionServiceClient, DisposableBean {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptionServiceClientImpl.class);
+    
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_ERROR_BODY_LENGTH = 500;
+    
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService decodeExecutor;
+    private final URI transcribeUri;
+    private final Duration requestTimeout;
+    
+    @Autowired
+    public TranscriptionServiceClientImpl(@Value("${whisperrr.service.url}") String serviceUrl,
+                                          @Value("${whisperrr.service.timeout}") long timeoutMs,
+                                          ObjectMapper objectMapper) {
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+        this.objectMapper = objectMapper;
+        this.decodeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.transcribeUri = URI.create(stripTrailingSlash(serviceUrl) + "/transcribe");
+        this.requestTimeout = Duration.ofMillis(timeoutMs);
+    }
+    
+    @Override
+    public CompletableFuture<TranscriptionServiceResponse> transcribe(Path audioPath, String filename,
+                                                                      TranscriptionOptions options) {
+        return send(audioPath, filename, options, false)
+            .thenApplyAsync(this::decode, decodeExecutor);
+    }
+    
+    @Override
+    public CompletableFuture<TranscriptionServiceResponse> transcribe(Path audioPath, String filename,
+                                                                      TranscriptionOptions options,
+                                                                      ProgressListener listener) {
+        // The request timeout only covers the response headers, which a stream sends
+        // at once, so it is applied to the whole exchange. A read blocked on a stream
+        // that stalled would never see a deadline, so on timeout the body is closed
+        // under it, which fails the read and ends the decoding thread.
+        AtomicReference<InputStream> openBody = new AtomicReference<>();
+        CompletableFuture<HttpResponse<InputStream>> sent = send(audioPath, filename, options, true);
+        return sent
+            .thenApplyAsync(response -> {
+                if (!openBody.compareAndSet(null, response.body())) {
+                    closeQuietly(response.body());
+                    throw streamTimeout();
+                }
+                return decodeStream(response, listener);
+            }, decodeExecutor)
+            .orTimeout(requestTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .handle((result, error) -> {
+                if (error == null) {
+                    return result;
+                }
+                if (error instanceof TimeoutException) {
+                    sent.cancel(true);
+                    closeQuietly(openBody.getAndSet(InputStream.nullInputStream()));
+                    throw streamTimeout();
+                }
+                throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+            });
+    }
+    
+    private TranscriptionProcessingException streamTimeout() {
+        return new TranscriptionProcessingException(
+            "Transcription service did not finish within " + requestTimeout.toSeconds() + "s");
+    }
+    
+    private static void closeQuietly(InputStream body) {
+        if (body == null) {
+            return;
+        }
+        try {
+            body.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close transcription service response: {}", e.getMessage());
+        }
+    }
+    
+    private CompletableFuture<HttpResponse<InputStream>> send(Path audioPath, String filename,
+                                                              TranscriptionOptions options, boolean stream) {
+        String boundary = "whisperrr-" + UUID.randomUUID();
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(transcribeUri(options, stream))
+                .timeout(requestTimeout)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .header("Accept", stream ? "application/x-ndjson" : "application/json")
+                .POST(multipartBody(boundary, audioPath, filename))
+                .build();
+        } catch (FileNotFoundException e) {
+            return CompletableFuture.failedFuture(
+                new TranscriptionProcessingException("Audio file not found: " + audioPath, e));
+        }
+        
+        logger.debug("Sending {} to transcription service", filename);
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+    
+    private URI transcribeUri(TranscriptionOptions options, boolean stream) {
+        StringBuilder query = new StringBuilder("task=").append(encode(options.getTask()));
+        if (stream) {
+            query.append("&stream=true");
+        }
+        if (options.getModel() != null) {
+            query.append("&model_size=").append(encode(options.getModel()));
+        }
+        if (options.getLanguage() != null) {
+            query.append("&language=").append(encode(options.getLanguage()));
+        }
+        return URI.create(transcribeUri + "?" + query);
+    }
+    
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+    
+    private HttpRequest.BodyPublisher multipartBody(String boundary, Path audioPath, String filename)
+            throws FileNotFoundException {
+        String contentType = URLConnection.guessContentTypeFromName(filename);
+        String head = "--" + boundary + "\r\n" +
+            "Content-Disposition: form-data; name=\"file\"; filename=\"" + escapeQuotes(filename) + "\"\r\n" +
+            "Content-Type: " + (contentType != null ? contentType : "application/octet-stream") + "\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+        
+        return HttpRequest.BodyPublishers.concat(
+            HttpRequest.BodyPublishers.ofString(head, StandardCharsets.UTF_8),
+            HttpRequest.BodyPublishers.ofFile(audioPath),
+            HttpRequest.BodyPublishers.ofString(tail, StandardCharsets.UTF_8)
+        );
+    }
+    
+    private TranscriptionServiceResponse decode(HttpResponse<InputStream> response) {
+        try (InputStream body = response.body()) {
+            checkStatus(response, body);
+            return objectMapper.readValue(body, TranscriptionServiceResponse.class);
+        } catch (IOException e) {
+            throw new TranscriptionProcessingException("Failed to read transcription service response", e);
+        }
+    }
+    
+    /**
+     * Reads a newline-delimited stream of progress events ending in the result or an error.
+     */
+    private TranscriptionServiceResponse decodeStream(HttpResponse<InputStream> response,
+                                                      ProgressListener listener) {
+        try (InputStream body = response.body()) {
+            checkStatus(response, body);
+            BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                TranscriptionStreamEvent event = objectMapper.readValue(line, TranscriptionStreamEvent.class);
+                switch (String.valueOf(event.getType())) {
+                    case TranscriptionStreamEvent.PROGRESS ->
+                        listener.onProgress(event.getSegments(), event.getProcessedSeconds());
+                    case TranscriptionStreamEvent.RESULT -> {
+                        return event.getResult();
+                    }
+                    case TranscriptionStreamEvent.ERROR -> throw new TranscriptionProcessingException(
+                        "Transcription service failed: " + event.getMessage());
+                    default -> logger.debug("Ignoring transcription stream event of type {}", event.getType());
+                }
+            }
+            throw new TranscriptionProcessingException("Transcription service stream ended without a result");
+        } catch (IOException e) {
+            throw new TranscriptionProcessingException("Failed to read transcription service response", e);
+        }
+    }
+    
+    private static void checkStatus(HttpResponse<InputStream> response, InputStream body) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            String detail = new String(body.readNBytes(MAX_ERROR_BODY_LENGTH), StandardCharsets.UTF_8);
+            throw new TranscriptionProcessingException(
+                "Transcription service returned HTTP " + response.statusCode() + ": " + detail);
+        }
+    }
+    
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+    
+    private static String escapeQuotes(String filename) {
+        return filename.replace("\"", "%22").replace("\r", "").replace("\n", "");
+    }
+    
+    @Override
+    public void destroy() {
+        httpClient.close();
+        decodeExecutor.shutdown();
+    }
+}
@@ -0,0 +1,210 @@
+package db.migration;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Replaces the JSON segments of transcriptions with the binary form read by
+ * {@code SegmentView}.
+ * <p>
+ * The migration carries its own copy of the segment JSON and of the version 1
+ * encoder rather than using the application's, so that later changes to either
+ * cannot change what it writes.
+ * <p>
+ * Rows are converted in batches by primary key, each batch read and written in one
+ * round trip, so the migration holds one batch of segments in memory at a time. The
+ * JSON column is dropped once every row is converted. Segments that cannot be
+ * parsed are left empty on the transcription, and their JSON is copied with the
+ * parse error to {@code unconverted_segments} before the column is dropped, so
+ * nothing is lost and they can be repaired and converted later.
+ */
+public class V10__Store_segments_binary extends BaseJavaMigration {
+    
+    private static final Logger logger = LoggerFactory.getLogger(V10__Store_segments_binary.class);
+    
+    private static final int BATCH_SIZE = 200;
+    
+    private static final String SELECT_BATCH_SQL =
+        "SELECT id, segments_json FROM transcriptions " +
+        "WHERE id > ? AND segments_json IS NOT NULL AND segments_json <> '' ORDER BY id LIMIT ?";
+    
+    private static final String UPDATE_SQL = "UPDATE transcriptions SET segments_data = ? WHERE id = ?";
+    
+    private static final String CREATE_UNCONVERTED_SQL =
+        "CREATE TABLE unconverted_segments (" +
+        "transcription_id BIGINT PRIMARY KEY REFERENCES transcriptions (id) ON DELETE CASCADE, " +
+        "segments_json TEXT NOT NULL, " +
+        "error TEXT NOT NULL, " +
+        "created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+    
+    private static final String INSERT_UNCONVERTED_SQL =
+        "INSERT INTO unconverted_segments (transcription_id, segments_json, error) " +
+        "SELECT id, segments_json, ? FROM transcriptions WHERE id = ?";
+    
+    private static final byte FORMAT_VERSION = 1;
+    private static final int FLAG_CONFIDENCES = 1;
+    private static final int HEADER_BYTES = 10;
+    
+    private static final TypeReference<List<Segment>> SEGMENT_LIST = new TypeReference<>() {};
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE transcriptions ADD COLUMN segments_data BYTEA");
+            statement.execute(CREATE_UNCONVERTED_SQL);
+        }
+        
+        long converted = 0;
+        long unconverted = 0;
+        long lastId = 0;
+        try (PreparedStatement select = connection.prepareStatement(SELECT_BATCH_SQL);
+             PreparedStatement update = connection.prepareStatement(UPDATE_SQL);
+             PreparedStatement keep = connection.prepareStatement(INSERT_UNCONVERTED_SQL)) {
+            int rows;
+            do {
+                rows = 0;
+                int kept = 0;
+                select.setLong(1, lastId);
+                select.setInt(2, BATCH_SIZE);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getLong(1);
+                        try (Reader json = rs.getCharacterStream(2)) {
+                            update.setBytes(1, encode(objectMapper.readValue(json, SEGMENT_LIST)));
+                            update.setLong(2, lastId);
+                            update.addBatch();
+                            converted++;
+                        } catch (IOException e) {
+                            logger.warn("Segments of transcription {} could not be parsed and were copied to " +
+                                        "unconverted_segments: {}", lastId, e.getMessage());
+                            keep.setString(1, e.getMessage());
+                            keep.setLong(2, lastId);
+                            keep.addBatch();
+                            kept++;
+                        }
+                        rows++;
+                    }
+                }
+                if (rows > kept) {
+                    update.executeBatch();
+                }
+                if (kept > 0) {
+                    keep.executeBatch();
+                    unconverted += kept;
+                }
+            } while (rows == BATCH_SIZE);
+        }
+        
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE transcriptions DROP COLUMN segments_json");
+        }
+        logger.info("Converted the segments of {} transcriptions to the binary format", converted);
+        if (unconverted > 0) {
+            logger.warn("Segments of {} transcriptions could not be parsed; their JSON is kept in unconverted_segments",
+                unconverted);
+        }
+    }
+    
+    /**
+     * Encodes segments in version 1 of the binary format, in start-time order. A copy
+     * of {@code SegmentView.encode} as it was when the format was introduced.
+     */
+    private static byte[] encode(List<Segment> segments) {
+        List<Segment> sorted = new ArrayList<>(segments != null ? segments : List.of());
+        sorted.sort(Comparator.comparingDouble(Segment::startTime));
+        
+        boolean hasConfidences = sorted.stream().anyMatch(segment -> segment.confidence() != null);
+        ByteArrayOutputStream metadata = new ByteArrayOutputStream(sorted.size() * 4);
+        ByteArrayOutputStream texts = new ByteArrayOutputStream(sorted.size() * 64);
+        int[] lengths = new int[sorted.size()];
+        
+        long previousEnd = 0;
+        for (Segment segment : sorted) {
+            writeVarint(metadata, zigzag(toMillis(segment.startTime()) - previousEnd));
+            previousEnd = toMillis(segment.endTime());
+        }
+        for (Segment segment : sorted) {
+            writeVarint(metadata, zigzag(toMillis(segment.endTime()) - toMillis(segment.startTime())));
+        }
+        for (int i = 0; i < sorted.size(); i++) {
+            String text = sorted.get(i).text();
+            byte[] bytes = (text != null ? text : "").getBytes(StandardCharsets.UTF_8);
+            texts.writeBytes(bytes);
+            lengths[i] = bytes.length;
+        }
+        for (int length : lengths) {
+            writeVarint(metadata, length);
+        }
+        if (hasConfidences) {
+            for (Segment segment : sorted) {
+                Double confidence = segment.confidence();
+                writeInt(metadata, Float.floatToIntBits(confidence != null ? confidence.floatValue() : Float.NaN));
+            }
+        }
+        
+        ByteBuffer encoded = ByteBuffer.allocate(HEADER_BYTES + metadata.size() + texts.size());
+        encoded.put(FORMAT_VERSION)
+            .put((byte) (hasConfidences ? FLAG_CONFIDENCES : 0))
+            .putInt(sorted.size())
+            .putInt(metadata.size())
+            .put(metadata.toByteArray())
+            .put(texts.toByteArray());
+        return encoded.array();
+    }
+    
+    private static long toMillis(double seconds) {
+        return Math.round(seconds * 1000);
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+    
+    /**
+     * A segment as it was stored in the JSON column.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record Segment(@JsonProperty("start_time") double startTime,
+                           @JsonProperty("end_time") double endTime,
+                           String text,
+                           Double confidence) {
+    }
+}
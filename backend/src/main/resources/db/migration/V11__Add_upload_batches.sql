@@ -0,0 +1,5 @@
+-- Bulk uploads tag every job they create with a shared batch ID, so the batch's
+-- progress can be aggregated from its jobs.
+ALTER TABLE jobs ADD COLUMN batch_id UUID;
+
+CREATE INDEX idx_jobs_batch_id ON jobs (batch_id) WHERE batch_id IS NOT NULL;
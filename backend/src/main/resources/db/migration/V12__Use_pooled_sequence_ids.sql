@@ -0,0 +1,8 @@
+-- Entity IDs are taken from each table's own sequence through Hibernate's pooled
+-- optimizer, which reserves a block of 50 IDs per call so inserts can be batched.
+-- A call returns the top of its block; an insert that relies on the column default
+-- uses that value alone, which no block handed to Hibernate includes.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE audio_files_id_seq INCREMENT BY 50;
+ALTER SEQUENCE jobs_id_seq INCREMENT BY 50;
+ALTER SEQUENCE transcriptions_id_seq INCREMENT BY 50;
@@ -0,0 +1,30 @@
+-- Listings are paginated by keyset: each window seeks to (created_at, id), or to
+-- (priority, created_at, id) for the queue, after the last row of the previous one.
+-- Extending the indexes with the rest of the key lets a seek start at the position
+-- instead of filtering out every row before it. Each extended index replaces the
+-- one it starts with, which it serves just as well.
+DROP INDEX idx_jobs_created_at;
+CREATE INDEX idx_jobs_created_at ON jobs (created_at, id);
+
+DROP INDEX idx_jobs_status;
+CREATE INDEX idx_jobs_status ON jobs (status, created_at, id);
+
+DROP INDEX idx_jobs_requested_by;
+CREATE INDEX idx_jobs_requested_by ON jobs (requested_by, created_at, id);
+
+DROP INDEX idx_jobs_queue;
+CREATE INDEX idx_jobs_queue ON jobs (status, priority DESC, created_at, id);
+
+DROP INDEX idx_audio_files_created_at;
+CREATE INDEX idx_audio_files_created_at ON audio_files (created_at, id);
+
+DROP INDEX idx_audio_files_uploaded_by;
+CREATE INDEX idx_audio_files_uploaded_by ON audio_files (uploaded_by, created_at, id);
+
+DROP INDEX idx_audio_files_format;
+CREATE INDEX idx_audio_files_format ON audio_files (format, created_at, id);
+
+DROP INDEX idx_transcriptions_language;
+CREATE INDEX idx_transcriptions_language ON transcriptions (language, created_at, id);
+
+CREATE INDEX idx_transcriptions_created_at ON transcriptions (created_at, id);
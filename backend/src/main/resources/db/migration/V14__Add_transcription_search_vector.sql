@@ -0,0 +1,74 @@
+-- Full-text search over transcriptions. Each transcript's lexemes are stored in a
+-- generated column, parsed with the text search configuration of its language, and
+-- indexed with GIN, so a search reads the index instead of parsing every transcript.
+
+-- Text search configuration for a language code as Whisper reports it ('en', 'pt-BR').
+-- Languages without a built-in configuration are indexed without stemming or stopwords.
+-- The cast on the ELSE branch types every branch as a regconfig constant; casting the
+-- result instead would look the configuration up by name on every call.
+CREATE FUNCTION whisperrr_ts_config(language VARCHAR) RETURNS regconfig
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+SELECT CASE lower(split_part(language, '-', 1))
+           WHEN 'ar' THEN 'arabic'
+           WHEN 'ca' THEN 'catalan'
+           WHEN 'da' THEN 'danish'
+           WHEN 'de' THEN 'german'
+           WHEN 'el' THEN 'greek'
+           WHEN 'en' THEN 'english'
+           WHEN 'es' THEN 'spanish'
+           WHEN 'eu' THEN 'basque'
+           WHEN 'fi' THEN 'finnish'
+           WHEN 'fr' THEN 'french'
+           WHEN 'ga' THEN 'irish'
+           WHEN 'hi' THEN 'hindi'
+           WHEN 'hu' THEN 'hungarian'
+           WHEN 'hy' THEN 'armenian'
+           WHEN 'id' THEN 'indonesian'
+           WHEN 'it' THEN 'italian'
+           WHEN 'lt' THEN 'lithuanian'
+           WHEN 'ne' THEN 'nepali'
+           WHEN 'nl' THEN 'dutch'
+           WHEN 'no' THEN 'norwegian'
+           WHEN 'nn' THEN 'norwegian'
+           WHEN 'pt' THEN 'portuguese'
+           WHEN 'ro' THEN 'romanian'
+           WHEN 'ru' THEN 'russian'
+           WHEN 'sr' THEN 'serbian'
+           WHEN 'sv' THEN 'swedish'
+           WHEN 'ta' THEN 'tamil'
+           WHEN 'tr' THEN 'turkish'
+           WHEN 'yi' THEN 'yiddish'
+           ELSE 'simple'::regconfig
+       END
+$$;
+
+-- The query for a search in one language, or in any language when it is null. A
+-- transcript's lexemes depend on its configuration, so the query for any language
+-- matches the search parsed with each built-in configuration. That finds every
+-- transcript the search in its own language matches, and possibly a few more, which
+-- the search rechecks.
+CREATE FUNCTION whisperrr_ts_query(language VARCHAR, search TEXT) RETURNS tsquery
+    LANGUAGE plpgsql STABLE PARALLEL SAFE AS $$
+DECLARE
+    parsed tsquery;
+    result tsquery;
+BEGIN
+    IF language IS NOT NULL THEN
+        RETURN websearch_to_tsquery(whisperrr_ts_config(language), search);
+    END IF;
+    FOR parsed IN SELECT DISTINCT websearch_to_tsquery(oid, search)
+                  FROM pg_ts_config WHERE cfgnamespace = 'pg_catalog'::regnamespace LOOP
+        result := CASE WHEN result IS NULL THEN parsed ELSE result || parsed END;
+    END LOOP;
+    RETURN result;
+END
+$$;
+
+ALTER TABLE transcriptions
+    ADD COLUMN search_vector tsvector
+        GENERATED ALWAYS AS (to_tsvector(whisperrr_ts_config(language), text)) STORED;
+
+-- Replaced by the index on the stored vector
+DROP INDEX IF EXISTS idx_transcriptions_text_search;
+
+CREATE INDEX idx_transcriptions_search_vector ON transcriptions USING GIN (search_vector);
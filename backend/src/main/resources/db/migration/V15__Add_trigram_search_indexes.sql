@@ -0,0 +1,30 @@
+-- Substring search over filenames and users. A pattern like '%text%' has no prefix
+-- for a B-tree to seek to, so each search filtered every row. A pg_trgm GIN index
+-- answers LIKE and ILIKE on its column from the trigrams of the pattern; the searches
+-- OR one such condition per column, which PostgreSQL combines with a BitmapOr.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_audio_files_filename_trgm ON audio_files USING GIN (filename gin_trgm_ops);
+CREATE INDEX idx_audio_files_original_filename_trgm ON audio_files USING GIN (original_filename gin_trgm_ops);
+
+CREATE INDEX idx_users_username_trgm ON users USING GIN (username gin_trgm_ops);
+CREATE INDEX idx_users_email_trgm ON users USING GIN (email gin_trgm_ops);
+CREATE INDEX idx_users_first_name_trgm ON users USING GIN (first_name gin_trgm_ops);
+CREATE INDEX idx_users_last_name_trgm ON users USING GIN (last_name gin_trgm_ops);
+
+-- The planner estimates how many rows a '%text%' pattern matches by trying it on the
+-- column's histogram. With the default hundred entries, text in fewer than one row in
+-- a hundred usually matches none of them; the planner then expects a handful of rows,
+-- and collects every match through the trigram index and sorts them even when a walk
+-- newest first would fill the window after a few thousand rows. A larger histogram
+-- keeps the estimate close for such text.
+ALTER TABLE audio_files ALTER COLUMN filename SET STATISTICS 1000;
+ALTER TABLE audio_files ALTER COLUMN original_filename SET STATISTICS 1000;
+ALTER TABLE users ALTER COLUMN username SET STATISTICS 1000;
+ALTER TABLE users ALTER COLUMN email SET STATISTICS 1000;
+ALTER TABLE users ALTER COLUMN first_name SET STATISTICS 1000;
+ALTER TABLE users ALTER COLUMN last_name SET STATISTICS 1000;
+
+-- User searches are read newest first by keyset. When a search matches many users,
+-- walking this index backwards finds a window sooner than collecting every match.
+CREATE INDEX idx_users_created_at ON users (created_at, id);
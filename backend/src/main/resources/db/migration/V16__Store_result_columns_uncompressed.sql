@@ -0,0 +1,24 @@
+-- Results are streamed one chunk per query with substring(). For a TOASTed value that
+-- is compressed, or that has to be converted to UTF-8 first, each slice decompresses
+-- or converts everything before it, so streaming a transcript cost time quadratic in
+-- its size. Values stored EXTERNAL are kept out of line without compression, and a
+-- slice of a bytea stored that way reads only the TOAST chunks it covers.
+
+-- The UTF-8 bytes of a text. The encoding of a database never changes, so the result
+-- depends only on the argument, which lets a generated column use it.
+CREATE FUNCTION whisperrr_utf8(value TEXT) RETURNS bytea
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+SELECT convert_to(value, 'UTF8')
+$$;
+
+-- text_bytes is set to EXTERNAL in the statement that adds it, so the values the
+-- table rewrite computes for existing rows are stored uncompressed
+ALTER TABLE transcriptions
+    ADD COLUMN text_bytes BYTEA GENERATED ALWAYS AS (whisperrr_utf8(text)) STORED,
+    ALTER COLUMN text_bytes SET STORAGE EXTERNAL,
+    ALTER COLUMN segments_data SET STORAGE EXTERNAL;
+
+-- The rewrite keeps compressed values as they are. Concatenating builds a new value,
+-- which is stored under the new setting.
+UPDATE transcriptions SET segments_data = segments_data || ''::bytea
+WHERE pg_column_compression(segments_data) IS NOT NULL;
@@ -0,0 +1,5 @@
+-- Fair-share scheduling reads the head of each user's pending queue on every poll.
+-- It walks the distinct priorities of a user's pending jobs and takes the oldest few
+-- of each, so every step is a short seek into this index rather than a sort of the
+-- user's whole backlog. Only pending jobs are indexed, which keeps it small.
+CREATE INDEX idx_jobs_pending_by_user ON jobs (requested_by, priority, created_at) WHERE status = 'PENDING';
@@ -0,0 +1,9 @@
+-- Processing leases: a worker holds a job only while it keeps renewing the lease.
+ALTER TABLE jobs ADD COLUMN lease_owner VARCHAR(100);
+ALTER TABLE jobs ADD COLUMN lease_expires_at TIMESTAMP;
+ALTER TABLE jobs ADD COLUMN retry_count INTEGER NOT NULL DEFAULT 0;
+
+-- Jobs already running have no owner to renew them; let the reaper pick them up.
+UPDATE jobs SET lease_expires_at = now() WHERE status = 'PROCESSING';
+
+CREATE INDEX idx_jobs_lease ON jobs (status, lease_expires_at);
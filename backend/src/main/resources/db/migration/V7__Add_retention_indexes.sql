@@ -0,0 +1,6 @@
+-- Keyset scan over expired terminal jobs for the retention purge.
+CREATE INDEX idx_jobs_retention ON jobs (completed_at, id)
+    WHERE status IN ('COMPLETED', 'FAILED', 'CANCELLED');
+
+-- Orphan check when purging audio files, and FK lookups on audio file delete.
+CREATE INDEX idx_jobs_audio_file_id ON jobs (audio_file_id);
@@ -0,0 +1,7 @@
+-- Settings a job was requested with; together with the audio checksum they decide
+-- whether an earlier transcription can be reused.
+ALTER TABLE jobs ADD COLUMN requested_model VARCHAR(50);
+ALTER TABLE jobs ADD COLUMN requested_language VARCHAR(10);
+ALTER TABLE jobs ADD COLUMN task VARCHAR(20) NOT NULL DEFAULT 'transcribe';
+
+CREATE INDEX idx_audio_files_checksum ON audio_files (checksum);
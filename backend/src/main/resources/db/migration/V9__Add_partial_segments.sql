@@ -0,0 +1,13 @@
+-- Audio seconds transcribed so far for a running job, and the segments decoded so
+-- far; partial segments are removed once the job completes or fails.
+ALTER TABLE jobs ADD COLUMN processed_seconds DOUBLE PRECISION;
+
+CREATE TABLE partial_segments (
+    job_id BIGINT NOT NULL REFERENCES jobs(id) ON DELETE CASCADE,
+    segment_index INTEGER NOT NULL,
+    start_time DOUBLE PRECISION NOT NULL,
+    end_time DOUBLE PRECISION NOT NULL,
+    text TEXT NOT NULL,
+    confidence DOUBLE PRECISION,
+    PRIMARY KEY (job_id, segment_index)
+);
@@ -0,0 +1,129 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.shangmin.whisperrr.service.AudioStorageService;
+import com.shangmin.whisperrr.service.impl.AudioStorageServiceImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Compares upload ingestion paths for a multipart part the container has
+ * already spooled to disk.
+ * <p>
+ * {@code copyThenHash} is the previous path: copy the part into the audio store,
+ * then read the stored file again to compute its checksum. {@code streamingStore}
+ * goes through {@link AudioStorageServiceImpl}, hashing while it writes.
+ * The {@code bytes} counter reports throughput in bytes/sec and the GC profiler's
+ * {@code gc.alloc.rate.norm} reports heap allocated per upload.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.AudioIngestionBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AudioIngestionBenchmark {
+    
+    @Param({"1048576", "26214400"})
+    private int uploadSize;
+    
+    private Path workDirectory;
+    private Path spooledPart;
+    private Path storeDirectory;
+    private AudioStorageService storageService;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDirectory("ingestion-bench");
+        storeDirectory = workDirectory.resolve("store");
+        spooledPart = workDirectory.resolve("part.mp3");
+        byte[] content = new byte[uploadSize];
+        new Random(42).nextBytes(content);
+        Files.write(spooledPart, content);
+        storageService = new AudioStorageServiceImpl(storeDirectory);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(workDirectory);
+    }
+    
+    @TearDown(Level.Iteration)
+    public void clearStore() throws IOException {
+        FileSystemUtils.deleteRecursively(storeDirectory);
+    }
+    
+    @Benchmark
+    public String copyThenHash(ByteCounter counter) throws Exception {
+        Files.createDirectories(storeDirectory);
+        Path target = storeDirectory.resolve(UUID.randomUUID() + ".mp3");
+        Files.copy(spooledPart, target);
+        
+        MessageDigest digest = MessageDigest.getInstance("MD5");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(target), digest)) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // Digest is updated as the stream is read
+            }
+        }
+        counter.bytes += uploadSize;
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    @Benchmark
+    public String streamingStore(ByteCounter counter) throws IOException {
+        try (InputStream in = Files.newInputStream(spooledPart)) {
+            String checksum = storageService.store(in, UUID.randomUUID() + ".mp3").checksum();
+            counter.bytes += uploadSize;
+            return checksum;
+        }
+    }
+    
+    /**
+     * Bytes ingested, reported by JMH as a rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ByteCounter {
+        public long bytes;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(AudioIngestionBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,93 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.shangmin.whisperrr.dto.AudioMetadata;
+import com.shangmin.whisperrr.enums.AudioFormat;
+import com.shangmin.whisperrr.service.AudioProbeService;
+import com.shangmin.whisperrr.service.impl.AudioFixtures;
+import com.shangmin.whisperrr.service.impl.AudioProbeServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of probing an upload with {@link AudioProbeServiceImpl}.
+ * <p>
+ * Each format is probed from a file of close to the 25MB upload limit, so the
+ * result shows that probing reads headers only and stays in microseconds
+ * regardless of how much audio follows them.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.AudioProbeBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AudioProbeBenchmark {
+    
+    @Param({"WAV", "MP3", "M4A", "FLAC", "OGG"})
+    private AudioFormat format;
+    
+    private Path workDirectory;
+    private Path audioFile;
+    private AudioProbeService probeService;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDirectory("probe-bench");
+        audioFile = workDirectory.resolve("upload." + format.getExtension());
+        Files.write(audioFile, fixture(format));
+        probeService = new AudioProbeServiceImpl();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(workDirectory);
+    }
+    
+    @Benchmark
+    public AudioMetadata probe() {
+        return probeService.probe(audioFile, format);
+    }
+    
+    private static byte[] fixture(AudioFormat format) {
+        int nearLimit = 24 * 1024 * 1024;
+        return switch (format) {
+            case WAV -> AudioFixtures.wav(16000, 1, nearLimit / 32000.0);
+            case MP3 -> AudioFixtures.mp3(nearLimit / 417, true);
+            case M4A -> AudioFixtures.m4a(44100, 2, 44100, 44100L * 1500, nearLimit);
+            // FLAC and Ogg durations come from fixed-size headers and the tail page
+            case FLAC -> AudioFixtures.flac(44100, 2, 44100L * 1500);
+            case OGG -> AudioFixtures.oggVorbis(44100, 2, 1500);
+        };
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(AudioProbeBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,131 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.shangmin.whisperrr.WhisperrrApiApplication;
+import com.shangmin.whisperrr.entity.AudioFile;
+import com.shangmin.whisperrr.entity.Job;
+import com.shangmin.whisperrr.entity.User;
+import com.shangmin.whisperrr.enums.AudioFormat;
+import com.shangmin.whisperrr.repository.AudioFileRepository;
+import com.shangmin.whisperrr.repository.JobRepository;
+import com.shangmin.whisperrr.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Measures how fast a bulk upload's rows are inserted: {@value #JOBS} AudioFile
+ * and {@value #JOBS} Job rows saved in one transaction, as
+ * {@code AudioServiceImpl.uploadBatch} does. The score is rows inserted per second.
+ * <p>
+ * {@code batchSize} overrides {@code hibernate.jdbc.batch_size}; at 1 every insert
+ * is its own statement, which is what IDENTITY IDs forced. Unlike the other
+ * benchmarks this one needs the PostgreSQL database the application is configured
+ * with, for example the one from {@code docker-compose.yml}. The rows it inserts are
+ * deleted after each iteration.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.BulkInsertBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkInsertBenchmark {
+    
+    private static final int JOBS = 500;
+    
+    @Param({"1", "50"})
+    private int batchSize;
+    
+    private ConfigurableApplicationContext context;
+    private AudioFileRepository audioFileRepository;
+    private JobRepository jobRepository;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private Long uploaderId;
+    private final UUID batchId = UUID.randomUUID();
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WhisperrrApiApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "--whisperrr.queue.worker.enabled=false",
+                "--whisperrr.retention.enabled=false",
+                "--logging.level.root=WARN");
+        audioFileRepository = context.getBean(AudioFileRepository.class);
+        jobRepository = context.getBean(JobRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        uploaderId = userRepository.findByUsername("benchmark")
+            .orElseGet(() -> userRepository.save(new User("benchmark", "benchmark@whisperrr.local", "!")))
+            .getId();
+    }
+    
+    @TearDown(Level.Iteration)
+    public void deleteRows() {
+        jdbcTemplate.update("WITH deleted AS (DELETE FROM jobs WHERE batch_id = ? RETURNING audio_file_id) " +
+                            "DELETE FROM audio_files WHERE id IN (SELECT audio_file_id FROM deleted)", batchId);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(2 * JOBS)
+    public List<Job> insertBatch() {
+        return transactionTemplate.execute(status -> {
+            User uploader = context.getBean(UserRepository.class).getReferenceById(uploaderId);
+            List<AudioFile> audioFiles = new ArrayList<>(JOBS);
+            List<Job> jobs = new ArrayList<>(JOBS);
+            for (int i = 0; i < JOBS; i++) {
+                AudioFile audioFile = new AudioFile(UUID.randomUUID() + ".wav", "file-" + i + ".wav",
+                    32_000L, AudioFormat.WAV, uploader);
+                audioFile.setChecksum(Integer.toHexString(i));
+                audioFile.setDuration(1.0);
+                audioFiles.add(audioFile);
+                
+                Job job = new Job(uploader, audioFile);
+                job.setBatchId(batchId);
+                jobs.add(job);
+            }
+            audioFileRepository.saveAll(audioFiles);
+            jobRepository.saveAll(jobs);
+            jobRepository.flush();
+            return jobs;
+        });
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(BulkInsertBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
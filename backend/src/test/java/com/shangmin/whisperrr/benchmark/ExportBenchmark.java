@@ -0,0 +1,192 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shangmin.whisperrr.dto.TranscriptionSegment;
+import com.shangmin.whisperrr.enums.ExportFormat;
+import com.shangmin.whisperrr.enums.JobStatus;
+import com.shangmin.whisperrr.repository.TranscriptionRepository;
+import com.shangmin.whisperrr.repository.projection.StoredResultView;
+import com.shangmin.whisperrr.service.SegmentView;
+import com.shangmin.whisperrr.service.impl.ResultStreamServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares exporting a transcript as SRT straight from its stored segments, as
+ * {@link ResultStreamServiceImpl#writeExport} does, with building the document in
+ * memory from the parsed JSON result, as clients had to.
+ * <p>
+ * Segments average four seconds, so {@code hours} of 10 is about 9,000 segments.
+ * Stored chunks are served from memory without copying, so {@code gc.alloc.rate.norm}
+ * is the heap the export itself allocates; the JDBC driver's copy of each chunk is
+ * left out, and is garbage once the next chunk is read. The export should allocate
+ * a fixed buffer plus the segment times, whatever the size of the document, while
+ * building it in memory allocates several copies of the whole document.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.ExportBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ExportBenchmark {
+    
+    private static final int CHUNK_BYTES = 64 * 1024;
+    
+    @Param({"1", "10", "100"})
+    private int hours;
+    
+    private final OutputStream socket = OutputStream.nullOutputStream();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ResultStreamServiceImpl resultService;
+    private StoredResultView result;
+    private byte[] json;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        List<TranscriptionSegment> segments = new ArrayList<>();
+        long millis = 0;
+        while (millis < hours * 3_600_000L) {
+            long length = 2000 + random.nextInt(4000);
+            segments.add(new TranscriptionSegment(millis / 1000.0, (millis + length) / 1000.0,
+                "Segment " + segments.size() + " of the transcript, about as long as a spoken sentence.", null));
+            millis += length;
+        }
+        byte[] stored = SegmentView.encode(segments);
+        json = objectMapper.writeValueAsBytes(segments);
+        result = new FixedResult(stored.length);
+        resultService = new ResultStreamServiceImpl(mock(TranscriptionRepository.class),
+            new InMemoryColumns(stored), objectMapper, new SimpleMeterRegistry(),
+            CHUNK_BYTES, 64L * 1024 * 1024, 1024 * 1024, Duration.ofHours(1));
+        
+        System.out.printf("%n%d hours, %d segments: %d stored bytes, %d bytes of SRT%n",
+            hours, segments.size(), stored.length, buildInMemory().getBytes(StandardCharsets.UTF_8).length);
+    }
+    
+    @Benchmark
+    public void streamExport() throws IOException {
+        resultService.writeExport(result, ExportFormat.SRT, socket);
+    }
+    
+    @Benchmark
+    public void buildInMemoryAndWrite() throws IOException {
+        socket.write(buildInMemory().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String buildInMemory() throws IOException {
+        TranscriptionSegment[] segments = objectMapper.readValue(json, TranscriptionSegment[].class);
+        StringBuilder srt = new StringBuilder();
+        for (int i = 0; i < segments.length; i++) {
+            srt.append(i + 1).append('\n')
+                .append(timestamp(segments[i].getStartTime())).append(" --> ")
+                .append(timestamp(segments[i].getEndTime())).append('\n')
+                .append(segments[i].getText()).append("\n\n");
+        }
+        return srt.toString();
+    }
+    
+    private static String timestamp(double seconds) {
+        long millis = Math.round(seconds * 1000);
+        return String.format("%02d:%02d:%02d,%03d",
+            millis / 3_600_000, millis / 60_000 % 60, millis / 1000 % 60, millis % 1000);
+    }
+    
+    /**
+     * Serves the chunk queries of {@link ResultStreamServiceImpl} from chunks split up
+     * front, without copying them.
+     */
+    private static final class InMemoryColumns extends JdbcTemplate {
+        private final byte[] segments;
+        private final Map<Integer, byte[]> chunks = new HashMap<>();
+        
+        private InMemoryColumns(byte[] segments) {
+            this.segments = segments;
+            for (int from = 0; from < segments.length; from += CHUNK_BYTES) {
+                chunks.put(from, Arrays.copyOfRange(segments, from, Math.min(from + CHUNK_BYTES, segments.length)));
+            }
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            int from = (Integer) args[0] - 1;
+            int length = (Integer) args[1];
+            byte[] chunk = chunks.get(from);
+            return (T) (chunk != null && chunk.length == length ? chunk : Arrays.copyOfRange(segments, from, from + length));
+        }
+    }
+    
+    private record FixedResult(long segmentsLength) implements StoredResultView {
+        @Override
+        public Long getTranscriptionId() {
+            return 1L;
+        }
+        
+        @Override
+        public JobStatus getStatus() {
+            return JobStatus.COMPLETED;
+        }
+        
+        @Override
+        public Long getVersion() {
+            return 2L;
+        }
+        
+        @Override
+        public LocalDateTime getCompletedAt() {
+            return LocalDateTime.of(2025, 1, 1, 12, 0);
+        }
+        
+        @Override
+        public Long getTextBytes() {
+            return 0L;
+        }
+        
+        @Override
+        public Long getSegmentsBytes() {
+            return segmentsLength;
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ExportBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
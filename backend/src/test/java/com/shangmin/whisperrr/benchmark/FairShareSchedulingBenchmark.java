@@ -0,0 +1,190 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.shangmin.whisperrr.enums.UserRole;
+import com.shangmin.whisperrr.repository.projection.QueuedJobCandidate;
+import com.shangmin.whisperrr.service.impl.FairShareScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Compares queue wait per tenant under a skewed load for strict priority order
+ * and {@link FairShareScheduler}, and the cost of one scheduling decision for each.
+ * <p>
+ * One API user submits 2,000 files at once while two regular users each submit one
+ * file every two minutes. Four workers take one job per minute each. Setup runs four
+ * hours of that load under both policies and prints the p50 and p99 wait of every
+ * tenant. The benchmarks then time a single decision over the backlog as it stands
+ * two hours in, including the per-user queue heads the fair-share policy reads.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.FairShareSchedulingBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FairShareSchedulingBenchmark {
+    
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int WORKERS = 4;
+    private static final int STEP_SECONDS = 60;
+    private static final int STEPS = 240;
+    
+    private static final long BULK_USER = 1L;
+    private static final long LIGHT_USER_A = 2L;
+    private static final long LIGHT_USER_B = 3L;
+    
+    private FairShareScheduler scheduler;
+    private List<Candidate> backlog;
+    private LocalDateTime now;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<UserRole, Double> weights = new EnumMap<>(UserRole.class);
+        weights.put(UserRole.USER, 1.0);
+        weights.put(UserRole.ADMIN, 2.0);
+        weights.put(UserRole.API_USER, 1.0);
+        scheduler = new FairShareScheduler(weights, 300, Duration.ofHours(12));
+        
+        System.out.printf("%n%-16s %-8s %8s %10s %10s%n", "policy", "tenant", "jobs", "p50 wait", "p99 wait");
+        report("strict priority", simulate(skewedLoad(), (pending, at) -> strictOrder(pending)));
+        report("fair share", simulate(skewedLoad(), this::fairShare));
+        
+        now = START.plusSeconds((long) STEPS / 2 * STEP_SECONDS);
+        backlog = skewedLoad().stream().filter(job -> !job.getCreatedAt().isAfter(now)).toList();
+    }
+    
+    @Benchmark
+    public List<Long> strictPriority() {
+        return strictOrder(backlog);
+    }
+    
+    @Benchmark
+    public List<Long> fairShare() {
+        return fairShare(backlog, now);
+    }
+    
+    private List<Long> fairShare(List<Candidate> pending, LocalDateTime at) {
+        return scheduler.schedule(queueHeads(pending, at, scheduler.getAgingSeconds()), WORKERS, at);
+    }
+    
+    private static List<Candidate> skewedLoad() {
+        List<Candidate> arrivals = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < 2000; i++) {
+            arrivals.add(new Candidate(id++, BULK_USER, "API_USER", 0, START));
+        }
+        for (int step = 0; step < STEPS; step += 2) {
+            LocalDateTime at = START.plusSeconds((long) step * STEP_SECONDS);
+            arrivals.add(new Candidate(id++, LIGHT_USER_A, "USER", 0, at));
+            arrivals.add(new Candidate(id++, LIGHT_USER_B, "USER", 0, at.plusSeconds(STEP_SECONDS)));
+        }
+        arrivals.sort(Comparator.comparing(Candidate::getCreatedAt));
+        return arrivals;
+    }
+    
+    /**
+     * Every job takes one step, so each step frees all workers.
+     * 
+     * @return wait in seconds of every dispatched job, per tenant
+     */
+    private static Map<Long, List<Long>> simulate(List<Candidate> arrivals,
+                                                   BiFunction<List<Candidate>, LocalDateTime, List<Long>> policy) {
+        Map<Long, List<Long>> waits = new TreeMap<>();
+        List<Candidate> pending = new ArrayList<>();
+        int next = 0;
+        for (int step = 0; step < STEPS; step++) {
+            LocalDateTime at = START.plusSeconds((long) step * STEP_SECONDS);
+            while (next < arrivals.size() && !arrivals.get(next).getCreatedAt().isAfter(at)) {
+                pending.add(arrivals.get(next++));
+            }
+            List<Long> chosen = policy.apply(pending, at);
+            Map<Long, Candidate> byId = pending.stream().collect(Collectors.toMap(Candidate::getId, job -> job));
+            for (Long id : chosen) {
+                Candidate job = byId.get(id);
+                waits.computeIfAbsent(job.getRequestedBy(), k -> new ArrayList<>())
+                    .add(Duration.between(job.getCreatedAt(), at).toSeconds());
+            }
+            pending.removeIf(job -> chosen.contains(job.getId()));
+        }
+        return waits;
+    }
+    
+    private static List<Long> strictOrder(List<Candidate> pending) {
+        return pending.stream()
+            .sorted(Comparator.comparing((Candidate job) -> -job.getPriority()).thenComparing(Candidate::getCreatedAt))
+            .limit(WORKERS)
+            .map(Candidate::getId)
+            .toList();
+    }
+    
+    /**
+     * Mirrors JobRepository.findPendingQueueHeads.
+     */
+    private static List<Candidate> queueHeads(List<Candidate> pending, LocalDateTime at, double agingSeconds) {
+        Map<Long, List<Candidate>> byUser = new HashMap<>();
+        pending.forEach(job -> byUser.computeIfAbsent(job.getRequestedBy(), k -> new ArrayList<>()).add(job));
+        List<Candidate> heads = new ArrayList<>();
+        byUser.values().forEach(jobs -> jobs.stream()
+            .sorted(Comparator.comparingDouble((Candidate job) ->
+                    -(job.getPriority() + Duration.between(job.getCreatedAt(), at).toSeconds() / agingSeconds))
+                .thenComparing(Candidate::getCreatedAt))
+            .limit(WORKERS)
+            .forEach(heads::add));
+        return heads;
+    }
+    
+    private static void report(String policy, Map<Long, List<Long>> waits) {
+        for (long tenant = BULK_USER; tenant <= LIGHT_USER_B; tenant++) {
+            List<Long> sorted = waits.getOrDefault(tenant, List.of()).stream().sorted().toList();
+            if (sorted.isEmpty()) {
+                System.out.printf("%-16s %-8d %8d %10s %10s%n", policy, tenant, 0, "-", "-");
+            } else {
+                System.out.printf("%-16s %-8d %8d %9ds %9ds%n", policy, tenant, sorted.size(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99));
+            }
+        }
+    }
+    
+    private static long percentile(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(FairShareSchedulingBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+    
+    private record Candidate(Long getId, Long getRequestedBy, String getRole, Integer getPriority,
+                             LocalDateTime getCreatedAt) implements QueuedJobCandidate {
+    }
+}
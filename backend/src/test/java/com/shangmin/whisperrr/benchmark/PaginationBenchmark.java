@@ -0,0 +1,141 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.shangmin.whisperrr.WhisperrrApiApplication;
+import com.shangmin.whisperrr.entity.AudioFile;
+import com.shangmin.whisperrr.entity.Job;
+import com.shangmin.whisperrr.entity.User;
+import com.shangmin.whisperrr.enums.AudioFormat;
+import com.shangmin.whisperrr.repository.AudioFileRepository;
+import com.shangmin.whisperrr.repository.JobRepository;
+import com.shangmin.whisperrr.repository.Keysets;
+import com.shangmin.whisperrr.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a window of {@value #PAGE_SIZE} jobs, newest first, at a given
+ * depth of the listing: with {@code Pageable}, which runs an OFFSET query and a
+ * count of every job, and by keyset with {@link JobRepository#scrollAll}, which
+ * seeks to the last row of the previous window.
+ * <p>
+ * {@value #JOBS} jobs are inserted for the run and deleted at its end. The OFFSET
+ * page should grow slower with {@code depth}, since the rows before it are read and
+ * discarded and every row is counted, while the keyset window should take the same
+ * time at any depth. Like BulkInsertBenchmark this needs the PostgreSQL database
+ * the application is configured with.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.PaginationBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PaginationBenchmark {
+    
+    private static final int JOBS = 300_000;
+    private static final int PAGE_SIZE = 50;
+    
+    @Param({"0", "10000", "100000", "250000"})
+    private int depth;
+    
+    private ConfigurableApplicationContext context;
+    private JobRepository jobRepository;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private final UUID batchId = UUID.randomUUID();
+    private PageRequest pageRequest;
+    private KeysetScrollPosition position;
+    private AudioFile audioFile;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WhisperrrApiApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--whisperrr.queue.worker.enabled=false",
+                "--whisperrr.retention.enabled=false",
+                "--logging.level.root=WARN");
+        jobRepository = context.getBean(JobRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User uploader = userRepository.findByUsername("benchmark")
+            .orElseGet(() -> userRepository.save(new User("benchmark", "benchmark@whisperrr.local", "!")));
+        audioFile = new AudioFile(UUID.randomUUID() + ".wav", "pagination.wav", 32_000L, AudioFormat.WAV, uploader);
+        context.getBean(AudioFileRepository.class).save(audioFile);
+        
+        // One job a second, with a few sharing each second, so the keyset's id decides ties
+        jdbcTemplate.update("INSERT INTO jobs (id, job_id, status, priority, task, retry_count, requested_by, audio_file_id, " +
+                            "batch_id, created_at, updated_at, version) " +
+                            "SELECT nextval('jobs_id_seq'), gen_random_uuid(), 'COMPLETED', 0, 'transcribe', 0, ?, ?, ?, " +
+                            "timestamp '2024-01-01' + (g / 3) * interval '1 second', now(), 0 " +
+                            "FROM generate_series(1, ?) g",
+            uploader.getId(), audioFile.getId(), batchId, JOBS);
+        jdbcTemplate.execute("ANALYZE jobs");
+        
+        pageRequest = PageRequest.of(depth / PAGE_SIZE, PAGE_SIZE,
+            Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")));
+        position = depth == 0 ? ScrollPosition.keyset() : jdbcTemplate.queryForObject(
+            "SELECT created_at, id FROM jobs ORDER BY created_at DESC, id DESC OFFSET ? LIMIT 1",
+            (rs, row) -> ScrollPosition.forward(Map.of(
+                Keysets.CREATED_AT, rs.getObject(1, Timestamp.class).toLocalDateTime(),
+                Keysets.ID, rs.getLong(2))),
+            depth - 1);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM jobs WHERE batch_id = ?", batchId);
+        context.getBean(AudioFileRepository.class).delete(audioFile);
+        context.close();
+    }
+    
+    @Benchmark
+    public Page<Job> offset() {
+        return transactionTemplate.execute(status -> jobRepository.findAll(pageRequest));
+    }
+    
+    @Benchmark
+    public Window<Job> keyset() {
+        return transactionTemplate.execute(status -> jobRepository.scrollAll(position, PAGE_SIZE));
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PaginationBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
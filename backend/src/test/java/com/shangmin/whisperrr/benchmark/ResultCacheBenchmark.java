@@ -0,0 +1,166 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shangmin.whisperrr.dto.TranscriptionSegment;
+import com.shangmin.whisperrr.enums.JobStatus;
+import com.shangmin.whisperrr.repository.TranscriptionRepository;
+import com.shangmin.whisperrr.repository.projection.StoredResultView;
+import com.shangmin.whisperrr.service.ResultStreamService.CachedResult;
+import com.shangmin.whisperrr.service.SegmentView;
+import com.shangmin.whisperrr.service.impl.ResultStreamServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares serving a completed result from the result cache with serializing it
+ * on every request, as {@link ResultStreamServiceImpl} does for uncached results.
+ * <p>
+ * The database is replaced by an in-memory copy of the text and segments, so
+ * {@code serialize} is the cost of building the response alone. {@code cachedHit}
+ * is a cache lookup plus the write of the precompressed body. With the GC profiler,
+ * {@code gc.alloc.rate.norm} shows the heap allocated per request for each path.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.ResultCacheBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultCacheBenchmark {
+    
+    @Param({"16384", "262144"})
+    private int textBytes;
+    
+    private final OutputStream socket = OutputStream.nullOutputStream();
+    private ResultStreamServiceImpl resultService;
+    private StoredResultView result;
+    private String jobId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder text = new StringBuilder();
+        List<TranscriptionSegment> segments = new ArrayList<>();
+        for (int i = 0; text.length() < textBytes; i++) {
+            String sentence = "Segment " + i + " of the transcript, with a \"quoted\" word. ";
+            text.append(sentence);
+            segments.add(new TranscriptionSegment(i * 4.0, i * 4.0 + 4.0, sentence, 0.9));
+        }
+        
+        byte[] textContent = text.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] segmentsContent = SegmentView.encode(segments);
+        result = new FixedResult(textContent.length, segmentsContent.length);
+        jobId = UUID.randomUUID().toString();
+        
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        resultService = new ResultStreamServiceImpl(mock(TranscriptionRepository.class),
+            new InMemoryColumns(textContent, segmentsContent), objectMapper, new SimpleMeterRegistry(),
+            1024 * 1024, 64L * 1024 * 1024, 1024 * 1024, Duration.ofHours(1));
+        resultService.cacheResult(jobId, result);
+    }
+    
+    @Benchmark
+    public void serialize() throws IOException {
+        resultService.writeJson(jobId, result, socket);
+    }
+    
+    @Benchmark
+    public void cachedHit() throws IOException {
+        CachedResult cached = resultService.getCachedResult(jobId);
+        socket.write(cached.gzip());
+    }
+    
+    /**
+     * Serves the chunk queries of {@link ResultStreamServiceImpl} from memory.
+     */
+    private static final class InMemoryColumns extends JdbcTemplate {
+        private final byte[] text;
+        private final byte[] segments;
+        
+        private InMemoryColumns(byte[] text, byte[] segments) {
+            this.text = text;
+            this.segments = segments;
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            byte[] column = sql.contains("segments_data") ? segments : text;
+            int from = (Integer) args[0] - 1;
+            int length = (Integer) args[1];
+            return (T) Arrays.copyOfRange(column, from, from + length);
+        }
+    }
+    
+    private record FixedResult(long textLength, long segmentsLength) implements StoredResultView {
+        @Override
+        public Long getTranscriptionId() {
+            return 1L;
+        }
+        
+        @Override
+        public JobStatus getStatus() {
+            return JobStatus.COMPLETED;
+        }
+        
+        @Override
+        public Long getVersion() {
+            return 2L;
+        }
+        
+        @Override
+        public LocalDateTime getCompletedAt() {
+            return LocalDateTime.of(2025, 1, 1, 12, 0);
+        }
+        
+        @Override
+        public Long getTextBytes() {
+            return textLength;
+        }
+        
+        @Override
+        public Long getSegmentsBytes() {
+            return segmentsLength;
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ResultCacheBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shangmin.whisperrr.dto.TranscriptionSegment;
+import com.shangmin.whisperrr.service.SegmentView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compares the two stored segment formats: the JSON stored before and the binary
+ * form read by {@link SegmentView}.
+ * <p>
+ * Setup prints the stored size of each, raw and deflated, the latter roughly what
+ * PostgreSQL's TOAST compression keeps on disk. {@code parseJson} is the decode a
+ * reader of the JSON column had to do before it could use any segment.
+ * {@code openView} is opening a view, which decodes the times and leaves the texts
+ * encoded, and {@code decodeAll} goes on to bind every segment as {@code parseJson}
+ * does. Segments have Whisper's 20 ms time resolution and no confidence, as the
+ * transcription service sends them.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.SegmentStorageBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SegmentStorageBenchmark {
+    
+    private static final TypeReference<List<TranscriptionSegment>> SEGMENT_LIST = new TypeReference<>() {};
+    private static final String[] WORDS = {
+        "the", "meeting", "we", "should", "probably", "look", "at", "numbers", "again", "before",
+        "Friday", "because", "I", "think", "that", "quarter", "was", "different", "okay", "right"
+    };
+    
+    @Param({"1000", "10000", "100000"})
+    private int segments;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] json;
+    private byte[] binary;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        List<TranscriptionSegment> list = new ArrayList<>(segments);
+        int ticks = 0;
+        for (int i = 0; i < segments; i++) {
+            int length = 50 + random.nextInt(300);
+            StringBuilder text = new StringBuilder();
+            for (int words = 4 + random.nextInt(14); words > 0; words--) {
+                text.append(text.length() > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            list.add(new TranscriptionSegment(ticks * 0.02, (ticks + length) * 0.02, text + ".", null));
+            ticks += length;
+        }
+        json = objectMapper.writeValueAsBytes(list);
+        binary = SegmentView.encode(list);
+        
+        System.out.printf("%n%d segments: JSON %d bytes (%d deflated), binary %d bytes (%d deflated)%n",
+            segments, json.length, deflatedSize(json), binary.length, deflatedSize(binary));
+    }
+    
+    @Benchmark
+    public List<TranscriptionSegment> parseJson() throws IOException {
+        return objectMapper.readValue(json, SEGMENT_LIST);
+    }
+    
+    @Benchmark
+    public SegmentView openView() {
+        return SegmentView.wrap(binary);
+    }
+    
+    @Benchmark
+    public List<TranscriptionSegment> decodeAll() {
+        SegmentView view = SegmentView.wrap(binary);
+        return view.segments(0, view.size());
+    }
+    
+    private static int deflatedSize(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(data);
+        }
+        return out.size();
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(SegmentStorageBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
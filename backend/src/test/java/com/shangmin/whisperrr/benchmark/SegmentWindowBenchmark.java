@@ -0,0 +1,98 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shangmin.whisperrr.dto.TranscriptionSegment;
+import com.shangmin.whisperrr.service.SegmentIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares answering a one-minute window of segments from a {@link SegmentIndex}
+ * with parsing the stored segments JSON and filtering it, which is what a client
+ * had to do with the full result.
+ * <p>
+ * Segments are four seconds long, so {@code segments} of 100,000 is a transcript
+ * of about 111 hours. The window sits in the middle of the transcript. The index
+ * lookup should stay flat as the transcript grows, while parsing grows with it.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.SegmentWindowBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SegmentWindowBenchmark {
+    
+    private static final double SEGMENT_SECONDS = 4.0;
+    private static final double WINDOW_SECONDS = 60.0;
+    private static final TypeReference<List<TranscriptionSegment>> SEGMENT_LIST = new TypeReference<>() {};
+    
+    @Param({"1000", "10000", "100000"})
+    private int segments;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SegmentIndex index;
+    private String segmentsJson;
+    private double from;
+    private double to;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<TranscriptionSegment> list = new ArrayList<>(segments);
+        for (int i = 0; i < segments; i++) {
+            list.add(new TranscriptionSegment(i * SEGMENT_SECONDS, (i + 1) * SEGMENT_SECONDS,
+                "Segment " + i + " of the transcript, about as long as a spoken sentence.", null));
+        }
+        segmentsJson = objectMapper.writeValueAsString(list);
+        index = SegmentIndex.of(1, list);
+        from = segments * SEGMENT_SECONDS / 2;
+        to = from + WINDOW_SECONDS;
+    }
+    
+    @Benchmark
+    public List<TranscriptionSegment> indexedWindow() {
+        int first = index.firstEndingAfter(from);
+        return index.segments(first, Math.max(first, index.firstStartingFrom(to)));
+    }
+    
+    @Benchmark
+    public List<TranscriptionSegment> parseAndFilter() throws IOException {
+        List<TranscriptionSegment> window = new ArrayList<>();
+        for (TranscriptionSegment segment : objectMapper.readValue(segmentsJson, SEGMENT_LIST)) {
+            if (segment.getEndTime() > from && segment.getStartTime() < to) {
+                window.add(segment);
+            }
+        }
+        return window;
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(SegmentWindowBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,139 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.shangmin.whisperrr.WhisperrrApiApplication;
+import com.shangmin.whisperrr.dto.TranscriptionStatus;
+import com.shangmin.whisperrr.dto.TranscriptionStatusResponse;
+import com.shangmin.whisperrr.entity.AudioFile;
+import com.shangmin.whisperrr.entity.Job;
+import com.shangmin.whisperrr.entity.User;
+import com.shangmin.whisperrr.enums.AudioFormat;
+import com.shangmin.whisperrr.repository.AudioFileRepository;
+import com.shangmin.whisperrr.repository.JobRepository;
+import com.shangmin.whisperrr.repository.UserRepository;
+import com.shangmin.whisperrr.service.AudioService;
+import com.shangmin.whisperrr.service.AudioService.VersionedStatus;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the status lookup behind {@code GET /status/{jobId}}, one projection
+ * query in a read-only transaction, with the lookup it replaced: a version query
+ * followed by loading the Job entity and its AudioFile into the persistence context.
+ * {@code entityWithoutVersion} is the entity load on its own.
+ * <p>
+ * {@code gc.alloc.rate.norm} is the heap allocated per request, including what the
+ * JDBC driver and Hibernate allocate for the queries. Like BulkInsertBenchmark this
+ * needs the PostgreSQL database the application is configured with; the job it reads
+ * is deleted at the end of the run.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.StatusLookupBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StatusLookupBenchmark {
+    
+    private ConfigurableApplicationContext context;
+    private AudioService audioService;
+    private JobRepository jobRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnlyTransaction;
+    private Job job;
+    private String jobId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WhisperrrApiApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--whisperrr.queue.worker.enabled=false",
+                "--whisperrr.retention.enabled=false",
+                "--logging.level.root=WARN");
+        audioService = context.getBean(AudioService.class);
+        jobRepository = context.getBean(JobRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User uploader = userRepository.findByUsername("benchmark")
+            .orElseGet(() -> userRepository.save(new User("benchmark", "benchmark@whisperrr.local", "!")));
+        AudioFile audioFile = new AudioFile(UUID.randomUUID() + ".wav", "status.wav", 32_000L, AudioFormat.WAV, uploader);
+        audioFile.setChecksum("status-lookup-benchmark");
+        audioFile.setDuration(60.0);
+        context.getBean(AudioFileRepository.class).save(audioFile);
+        job = jobRepository.save(new Job(uploader, audioFile));
+        jobId = job.getJobId().toString();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jobRepository.delete(job);
+        context.getBean(AudioFileRepository.class).delete(job.getAudioFile());
+        context.close();
+    }
+    
+    @Benchmark
+    public VersionedStatus projection() {
+        return audioService.getVersionedTranscriptionStatus(jobId);
+    }
+    
+    @Benchmark
+    public TranscriptionStatusResponse entity() {
+        jobRepository.findVersionByJobId(UUID.fromString(jobId)).orElseThrow();
+        return loadEntity();
+    }
+    
+    /**
+     * The entity load alone, to separate the cost of hydrating the entities from the
+     * cost of the second query.
+     */
+    @Benchmark
+    public TranscriptionStatusResponse entityWithoutVersion() {
+        return loadEntity();
+    }
+    
+    private TranscriptionStatusResponse loadEntity() {
+        return readOnlyTransaction.execute(status -> {
+            Job loaded = entityManager
+                .createQuery("SELECT j FROM Job j JOIN FETCH j.audioFile WHERE j.jobId = :jobId", Job.class)
+                .setParameter("jobId", UUID.fromString(jobId))
+                .getSingleResult();
+            return new TranscriptionStatusResponse(jobId, TranscriptionStatus.PENDING, loaded.getUpdatedAt(),
+                "Transcription job is pending", loaded.getAudioFile().getDuration() != null ? 0.0 : null);
+        });
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(StatusLookupBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
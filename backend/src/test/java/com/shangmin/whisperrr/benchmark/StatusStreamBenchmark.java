@@ -0,0 +1,195 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.shangmin.whisperrr.dto.AudioUploadResponse;
+import com.shangmin.whisperrr.dto.BatchProgressResponse;
+import com.shangmin.whisperrr.dto.BatchStatusResponse;
+import com.shangmin.whisperrr.dto.BatchUploadResponse;
+import com.shangmin.whisperrr.dto.TranscriptionOptions;
+import com.shangmin.whisperrr.dto.TranscriptionStatus;
+import com.shangmin.whisperrr.dto.TranscriptionStatusResponse;
+import com.shangmin.whisperrr.repository.JobRepository;
+import com.shangmin.whisperrr.service.AudioService;
+import com.shangmin.whisperrr.service.impl.JobStatusNotifier;
+import com.shangmin.whisperrr.service.impl.StatusStreamServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures what open status streams cost a node in {@link StatusStreamServiceImpl}.
+ * <p>
+ * {@code openStreams} streams are registered, {@code watchersPerJob} to a job.
+ * {@code publishTransition} is the work done when one job changes status and
+ * {@code keepAlive} is one keep-alive pass over every open stream. Setup prints the
+ * heap retained per idle stream. Emitters build each event but discard it instead of
+ * writing to a socket, and sends run on the calling thread, so the figures are the
+ * service's own cost; the container's per-connection buffers come on top.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.StatusStreamBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StatusStreamBenchmark {
+    
+    @Param({"1000", "10000", "100000"})
+    private int openStreams;
+    
+    @Param({"1", "10"})
+    private int watchersPerJob;
+    
+    private JobStatusNotifier notifier;
+    private StatusStreamServiceImpl streamService;
+    private FlippingStatusService statusService;
+    private String[] jobIds;
+    private int nextJob;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        notifier = new JobStatusNotifier();
+        statusService = new FlippingStatusService();
+        streamService = new StatusStreamServiceImpl(statusService, mock(JobRepository.class),
+            mock(JdbcTemplate.class), notifier, new SimpleMeterRegistry(), Runnable::run);
+        
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedHeap(memory);
+        jobIds = new String[openStreams / watchersPerJob];
+        for (int job = 0; job < jobIds.length; job++) {
+            jobIds[job] = UUID.randomUUID().toString();
+        }
+        for (int stream = 0; stream < openStreams; stream++) {
+            int job = stream % jobIds.length;
+            streamService.subscribe((long) job, jobIds[job], new DiscardingEmitter());
+        }
+        long retained = usedHeap(memory) - before;
+        System.out.printf("%n%d open streams over %d jobs: ~%d bytes retained per stream%n",
+            streamService.getOpenStreamCount(), jobIds.length, retained / openStreams);
+    }
+    
+    @Benchmark
+    public void publishTransition() {
+        int job = nextJob++ % jobIds.length;
+        statusService.flip(jobIds[job]);
+        notifier.publish(List.of((long) job));
+    }
+    
+    @Benchmark
+    public void keepAlive() {
+        streamService.sendKeepAlives();
+    }
+    
+    private static long usedHeap(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+    
+    /**
+     * Emitter that builds each event as a real send would, then drops it.
+     */
+    private static final class DiscardingEmitter extends SseEmitter {
+        private DiscardingEmitter() {
+            super(0L);
+        }
+        
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build();
+        }
+        
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+        }
+    }
+    
+    /**
+     * Holds each job's status in memory; the benchmark flips it before publishing, so
+     * every published transition is a real change that gets sent.
+     */
+    private static final class FlippingStatusService implements AudioService {
+        private final Map<String, TranscriptionStatus> current = new HashMap<>();
+        
+        void flip(String jobId) {
+            current.merge(jobId, TranscriptionStatus.PROCESSING, (previous, ignored) ->
+                previous == TranscriptionStatus.PENDING ? TranscriptionStatus.PROCESSING : TranscriptionStatus.PENDING);
+        }
+        
+        @Override
+        public TranscriptionStatusResponse getTranscriptionStatus(String jobId) {
+            TranscriptionStatus status = current.getOrDefault(jobId, TranscriptionStatus.PENDING);
+            return new TranscriptionStatusResponse(jobId, status, LocalDateTime.now(), status.name());
+        }
+        
+        @Override
+        public BatchStatusResponse getTranscriptionStatuses(List<String> jobIds) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public VersionedStatus getVersionedTranscriptionStatus(String jobId) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public AudioUploadResponse uploadAudio(MultipartFile audioFile, TranscriptionOptions options) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public BatchUploadResponse uploadBatch(List<MultipartFile> audioFiles, MultipartFile archive,
+                                               TranscriptionOptions options) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public BatchProgressResponse getBatchProgress(String batchId) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public void validateAudioFile(MultipartFile audioFile) {
+            throw new UnsupportedOperationException();
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(StatusStreamBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
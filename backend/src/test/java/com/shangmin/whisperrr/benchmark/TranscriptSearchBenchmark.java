@@ -0,0 +1,132 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.shangmin.whisperrr.WhisperrrApiApplication;
+import com.shangmin.whisperrr.dto.TranscriptSearchResponse;
+import com.shangmin.whisperrr.entity.AudioFile;
+import com.shangmin.whisperrr.entity.User;
+import com.shangmin.whisperrr.enums.AudioFormat;
+import com.shangmin.whisperrr.repository.AudioFileRepository;
+import com.shangmin.whisperrr.repository.UserRepository;
+import com.shangmin.whisperrr.service.TranscriptSearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a search for the 20 best matching transcriptions through
+ * TranscriptSearchService, which reads the GIN-indexed search vector, with the query
+ * it replaced, which parsed every transcript with {@code to_tsvector} and returned
+ * the first 20 matches unranked.
+ * <p>
+ * {@value #TRANSCRIPTS} English transcripts of 60 words are inserted for the run,
+ * drawn from a vocabulary where a word's frequency falls with its rank, and deleted
+ * at its end. {@code word4000} is in a few hundred transcripts, {@code word20} in
+ * about a third of them and {@code word1 word2} in nearly all, like a stopword. The
+ * old query stops early when matches are common but reads the whole table when they
+ * are rare; the indexed search ranks at most {@code whisperrr.search.max-candidates}
+ * matches, however many there are. Like BulkInsertBenchmark this needs the
+ * PostgreSQL database the application is configured with.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.TranscriptSearchBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TranscriptSearchBenchmark {
+    
+    private static final int TRANSCRIPTS = 200_000;
+    private static final int VOCABULARY = 5_000;
+    
+    @Param({"word4000", "word20", "word1 word2"})
+    private String query;
+    
+    private ConfigurableApplicationContext context;
+    private TranscriptSearchService transcriptSearchService;
+    private JdbcTemplate jdbcTemplate;
+    private final UUID batchId = UUID.randomUUID();
+    private AudioFile audioFile;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WhisperrrApiApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--whisperrr.queue.worker.enabled=false",
+                "--whisperrr.retention.enabled=false",
+                "--logging.level.root=WARN");
+        transcriptSearchService = context.getBean(TranscriptSearchService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User uploader = userRepository.findByUsername("benchmark")
+            .orElseGet(() -> userRepository.save(new User("benchmark", "benchmark@whisperrr.local", "!")));
+        audioFile = new AudioFile(UUID.randomUUID() + ".wav", "search.wav", 32_000L, AudioFormat.WAV, uploader);
+        context.getBean(AudioFileRepository.class).save(audioFile);
+        
+        jdbcTemplate.update("INSERT INTO jobs (id, job_id, status, priority, task, retry_count, requested_by, " +
+                            "audio_file_id, batch_id, created_at, updated_at, version) " +
+                            "SELECT nextval('jobs_id_seq'), gen_random_uuid(), 'COMPLETED', 0, 'transcribe', 0, ?, ?, ?, " +
+                            "now(), now(), 0 FROM generate_series(1, ?)",
+            uploader.getId(), audioFile.getId(), batchId, TRANSCRIPTS);
+        // Word k of the vocabulary is drawn with a probability of about 1/k; the reference
+        // to j keeps the subquery from being evaluated only once
+        jdbcTemplate.update("INSERT INTO transcriptions (id, text, language, job_id, created_at, updated_at, version) " +
+                            "SELECT nextval('transcriptions_id_seq'), " +
+                            "(SELECT string_agg('word' || floor(exp(random() * ln(?))), ' ') " +
+                            " FROM generate_series(1, 60) WHERE j.id IS NOT NULL), " +
+                            "'en', j.id, now(), now(), 0 FROM jobs j WHERE j.batch_id = ?",
+            VOCABULARY, batchId);
+        // Moves the new entries out of the GIN pending list, as autovacuum would
+        jdbcTemplate.execute("VACUUM ANALYZE transcriptions");
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM transcriptions WHERE job_id IN (SELECT id FROM jobs WHERE batch_id = ?)", batchId);
+        jdbcTemplate.update("DELETE FROM jobs WHERE batch_id = ?", batchId);
+        context.getBean(AudioFileRepository.class).delete(audioFile);
+        context.close();
+    }
+    
+    @Benchmark
+    public TranscriptSearchResponse indexed() {
+        return transcriptSearchService.search(query, null, 20);
+    }
+    
+    @Benchmark
+    public List<Long> unindexed() {
+        return jdbcTemplate.queryForList("SELECT id FROM transcriptions " +
+                                         "WHERE to_tsvector('english', text) @@ plainto_tsquery('english', ?) LIMIT 20",
+            Long.class, query);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(TranscriptSearchBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
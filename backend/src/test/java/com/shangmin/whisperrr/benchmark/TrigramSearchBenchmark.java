@@ -0,0 +1,146 @@
+package com.shangmin.whisperrr.benchmark;
+
+import com.shangmin.whisperrr.WhisperrrApiApplication;
+import com.shangmin.whisperrr.entity.AudioFile;
+import com.shangmin.whisperrr.entity.User;
+import com.shangmin.whisperrr.repository.AudioFileRepository;
+import com.shangmin.whisperrr.repository.LikePatterns;
+import com.shangmin.whisperrr.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the first window of {@value #PAGE_SIZE} audio files from
+ * {@link AudioFileRepository#searchByFilename}, which the pg_trgm indexes on the
+ * filename columns serve, with the query it replaced, which matched
+ * {@code LOWER(column) LIKE} and so could only filter rows one by one.
+ * <p>
+ * {@value #FILES} audio files named like {@code keynote_2021-03-14_482913.wav} are
+ * inserted for the run and deleted at its end. {@code keynote} is in one name in
+ * fifteen, {@code 2021-03-1} in one in two hundred, and {@code 482913} in a handful.
+ * Both queries find a common term quickly by walking the files newest first; the old
+ * one reads the whole table for a rare term. The plan of the search for each term is
+ * printed at the start of its run. Like BulkInsertBenchmark this needs the PostgreSQL
+ * database the application is configured with, migrated to V15.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.shangmin.whisperrr.benchmark.TrigramSearchBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TrigramSearchBenchmark {
+    
+    private static final int FILES = 1_000_000;
+    private static final int PAGE_SIZE = 20;
+    // The key Keysets seeks before for the first window
+    private static final LocalDateTime FIRST_WINDOW_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    
+    @Param({"keynote", "2021-03-1", "482913"})
+    private String searchText;
+    
+    private ConfigurableApplicationContext context;
+    private AudioFileRepository audioFileRepository;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    // Stored as the checksum of the inserted files, to delete them by
+    private final String batchTag = UUID.randomUUID().toString().replace("-", "");
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(WhisperrrApiApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--whisperrr.queue.worker.enabled=false",
+                "--whisperrr.retention.enabled=false",
+                "--logging.level.root=WARN");
+        audioFileRepository = context.getBean(AudioFileRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User uploader = userRepository.findByUsername("benchmark")
+            .orElseGet(() -> userRepository.save(new User("benchmark", "benchmark@whisperrr.local", "!")));
+        
+        // One file a second, named after a recording kind, a day and a number that
+        // differ from one file to the next
+        jdbcTemplate.update("INSERT INTO audio_files (id, filename, original_filename, file_size, format, checksum, " +
+                            "uploaded_by, created_at, updated_at, version) " +
+                            "SELECT nextval('audio_files_id_seq'), gen_random_uuid() || '.wav', " +
+                            "(ARRAY['meeting', 'interview', 'lecture', 'podcast', 'voicemail', 'standup', 'review', " +
+                            "'call', 'memo', 'session', 'keynote', 'webinar', 'briefing', 'sync', 'retro'])[1 + g % 15] " +
+                            "|| '_' || to_char(date '2020-01-01' + g % 2000, 'YYYY-MM-DD') " +
+                            "|| '_' || g::bigint * 7919 % 1000003 || '.wav', " +
+                            "32000, 'WAV', ?, ?, timestamp '2024-01-01' + g * interval '1 second', now(), 0 " +
+                            "FROM generate_series(1, ?) g",
+            batchTag, uploader.getId(), FILES);
+        // Moves the new entries out of the GIN pending lists, as autovacuum would
+        jdbcTemplate.execute("VACUUM ANALYZE audio_files");
+        
+        String pattern = LikePatterns.containing(searchText);
+        List<String> plan = jdbcTemplate.queryForList(
+            "EXPLAIN (ANALYZE, COSTS OFF) SELECT * FROM audio_files af " +
+            "WHERE (af.filename ILIKE ? ESCAPE '\\' OR af.original_filename ILIKE ? ESCAPE '\\') " +
+            "AND (af.created_at, af.id) < (?, ?) ORDER BY af.created_at DESC, af.id DESC LIMIT " + (PAGE_SIZE + 1),
+            String.class, pattern, pattern, FIRST_WINDOW_CREATED_AT, Long.MAX_VALUE);
+        System.out.println("Search for '" + searchText + "':");
+        plan.forEach(System.out::println);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM audio_files WHERE checksum = ?", batchTag);
+        context.close();
+    }
+    
+    @Benchmark
+    public Window<AudioFile> indexed() {
+        return transactionTemplate.execute(status ->
+            audioFileRepository.searchByFilename(searchText, ScrollPosition.keyset(), PAGE_SIZE));
+    }
+    
+    @Benchmark
+    public List<Map<String, Object>> unindexed() {
+        return jdbcTemplate.queryForList("SELECT * FROM audio_files af " +
+                                         "WHERE (LOWER(af.filename) LIKE LOWER('%' || ? || '%') " +
+                                         "OR LOWER(af.original_filename) LIKE LOWER('%' || ? || '%')) " +
+                                         "AND (af.created_at, af.id) < (?, ?) " +
+                                         "ORDER BY af.created_at DESC, af.id DESC LIMIT " + (PAGE_SIZE + 1),
+            searchText, searchText, FIRST_WINDOW_CREATED_AT, Long.MAX_VALUE);
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(TrigramSearchBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
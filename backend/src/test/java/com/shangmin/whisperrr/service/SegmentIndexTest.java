@@ -0,0 +1,98 @@
+package com.shangmin.whisperrr.service;
+
+import com.shangmin.whisperrr.dto.TranscriptionSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for SegmentIndex window lookups against a linear scan, and for the stored
+ * segment format they run over.
+ */
+class SegmentIndexTest {
+    
+    @Test
+    void findsSegmentsOverlappingWindow() {
+        SegmentIndex index = SegmentIndex.of(1, List.of(
+            segment(0, 4, "a"), segment(4, 8, "b"), segment(8, 12, "c"), segment(12, 16, "d")));
+        
+        assertThat(texts(index, 5, 9)).containsExactly("b", "c");
+        assertThat(texts(index, 4, 8)).containsExactly("b");
+        assertThat(texts(index, 0, 0.5)).containsExactly("a");
+        assertThat(texts(index, 16, 20)).isEmpty();
+        assertThat(index.firstEndingAfter(16)).isEqualTo(index.size());
+    }
+    
+    @Test
+    void includesLongSegmentStartedBeforeWindow() {
+        // "long" starts first and outlasts the segments after it
+        SegmentIndex index = SegmentIndex.of(1, List.of(
+            segment(0, 30, "long"), segment(2, 3, "x"), segment(31, 32, "y")));
+        
+        assertThat(texts(index, 10, 20)).containsExactly("long", "x");
+    }
+    
+    @Test
+    void matchesLinearScanOnRandomWindows() {
+        Random random = new Random(42);
+        List<TranscriptionSegment> segments = new ArrayList<>();
+        double time = 0;
+        for (int i = 0; i < 2000; i++) {
+            // Times are stored to the millisecond
+            double length = Math.round(500 + random.nextDouble() * 6000) / 1000.0;
+            segments.add(segment(time, time + length, "s" + i));
+            time += length + Math.round(random.nextDouble() * 1000) / 1000.0;
+        }
+        SegmentIndex index = SegmentIndex.of(7, segments);
+        
+        for (int i = 0; i < 500; i++) {
+            double from = random.nextDouble() * time;
+            double to = from + random.nextDouble() * 120;
+            List<String> expected = segments.stream()
+                .filter(s -> s.getEndTime() > from && s.getStartTime() < to)
+                .map(TranscriptionSegment::getText)
+                .toList();
+            assertThat(texts(index, from, to)).isEqualTo(expected);
+        }
+    }
+    
+    @Test
+    void sortsSegmentsOutOfOrder() {
+        SegmentIndex index = SegmentIndex.of(1, List.of(segment(5, 6, "late"), segment(1, 2, "early")));
+        
+        assertThat(texts(index, 0, 10)).containsExactly("early", "late");
+    }
+    
+    @Test
+    void roundTripsSegmentsThroughStoredForm() {
+        SegmentView view = SegmentView.wrap(SegmentView.encode(List.of(
+            new TranscriptionSegment(0.0, 2.48, "Caf\u00e9 \"quoted\"", 0.91),
+            new TranscriptionSegment(2.4, 7.0, "", null),
+            new TranscriptionSegment(9.125, 9.5, "\ud83c\udfb5 end", 0.5))));
+        
+        assertThat(view.size()).isEqualTo(3);
+        assertThat(view.segment(0).getText()).isEqualTo("Caf\u00e9 \"quoted\"");
+        assertThat(view.segment(0).getConfidence()).isEqualTo(0.91);
+        assertThat(view.segment(1).getStartTime()).isEqualTo(2.4);
+        assertThat(view.segment(1).getText()).isEmpty();
+        assertThat(view.segment(1).getConfidence()).isNull();
+        assertThat(view.segment(2).getStartTime()).isEqualTo(9.125);
+        assertThat(view.segment(2).getEndTime()).isEqualTo(9.5);
+        assertThat(view.text(2)).isEqualTo("\ud83c\udfb5 end");
+        assertThat(SegmentView.wrap(null).size()).isZero();
+    }
+    
+    private static List<String> texts(SegmentIndex index, double from, double to) {
+        int first = index.firstEndingAfter(from);
+        int last = Math.max(first, index.firstStartingFrom(to));
+        return index.segments(first, last).stream().map(TranscriptionSegment::getText).toList();
+    }
+    
+    private static TranscriptionSegment segment(double start, double end, String text) {
+        return new TranscriptionSegment(start, end, text, null);
+    }
+}
@@ -0,0 +1,195 @@
+package com.shangmin.whisperrr.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds minimal, silent audio files with valid container headers for probe tests
+ * and benchmarks. Payloads are zero-filled; only the headers are meaningful.
+ */
+public final class AudioFixtures {
+    
+    // MPEG1 Layer III, 128 kbps, 44.1 kHz, stereo, no CRC
+    private static final int MP3_HEADER = 0xFFFB9000;
+    private static final int MP3_FRAME_LENGTH = 417;
+    private static final int MP3_SAMPLES_PER_FRAME = 1152;
+    
+    private AudioFixtures() {
+    }
+    
+    /**
+     * 16-bit PCM WAV.
+     */
+    public static byte[] wav(int sampleRate, int channels, double seconds) {
+        int byteRate = sampleRate * channels * 2;
+        int dataSize = (int) (byteRate * seconds);
+        ByteBuffer buffer = le(44 + dataSize);
+        buffer.put(ascii("RIFF")).putInt(36 + dataSize).put(ascii("WAVE"));
+        buffer.put(ascii("fmt ")).putInt(16)
+            .putShort((short) 1).putShort((short) channels)
+            .putInt(sampleRate).putInt(byteRate)
+            .putShort((short) (channels * 2)).putShort((short) 16);
+        buffer.put(ascii("data")).putInt(dataSize);
+        return buffer.array();
+    }
+    
+    /**
+     * FLAC stream with only a STREAMINFO block.
+     */
+    public static byte[] flac(int sampleRate, int channels, long totalSamples) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 34 + 1024);
+        buffer.put(ascii("fLaC"));
+        // Last-metadata-block flag, type 0 (STREAMINFO), 24-bit length
+        buffer.putInt(0x80000000 | 34);
+        buffer.putShort((short) 4096).putShort((short) 4096);
+        buffer.put(new byte[6]);
+        long packed = ((long) sampleRate << 44) | ((long) (channels - 1) << 41) | (15L << 36) | totalSamples;
+        buffer.putLong(packed);
+        buffer.put(new byte[16]);
+        return buffer.array();
+    }
+    
+    /**
+     * Ogg Vorbis stream: identification page, a body page and a final page.
+     */
+    public static byte[] oggVorbis(int sampleRate, int channels, double seconds) {
+        ByteBuffer ident = le(30);
+        ident.put((byte) 1).put(ascii("vorbis")).putInt(0).put((byte) channels).putInt(sampleRate)
+            .putInt(0).putInt(0).putInt(0).put((byte) 0xB8).put((byte) 1);
+        return ogg(ident.array(), (long) (sampleRate * seconds));
+    }
+    
+    /**
+     * Ogg Opus stream; granule positions count 48 kHz samples after the pre-skip.
+     */
+    public static byte[] oggOpus(int inputSampleRate, int channels, double seconds) {
+        int preSkip = 312;
+        ByteBuffer head = le(19);
+        head.put(ascii("OpusHead")).put((byte) 1).put((byte) channels).putShort((short) preSkip)
+            .putInt(inputSampleRate).putShort((short) 0).put((byte) 0);
+        return ogg(head.array(), preSkip + (long) (48000 * seconds));
+    }
+    
+    /**
+     * CBR MP3 made of identical frames, optionally preceded by an ID3v2 tag.
+     */
+    public static byte[] mp3(int frames, boolean id3Tag) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (id3Tag) {
+            out.writeBytes(id3v2(300));
+        }
+        for (int i = 0; i < frames; i++) {
+            out.writeBytes(mp3Frame());
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * VBR MP3 whose first frame carries a Xing header declaring the frame count.
+     */
+    public static byte[] mp3WithXing(int declaredFrames, int actualFrames) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] first = mp3Frame();
+        // Xing tag after the 4-byte header and 32 bytes of stereo MPEG1 side info
+        ByteBuffer.wrap(first, 36, 12).put(ascii("Xing")).putInt(0x1).putInt(declaredFrames);
+        out.writeBytes(first);
+        for (int i = 1; i < actualFrames; i++) {
+            out.writeBytes(mp3Frame());
+        }
+        return out.toByteArray();
+    }
+    
+    public static double mp3FrameSeconds() {
+        return (double) MP3_SAMPLES_PER_FRAME / 44100;
+    }
+    
+    public static double mp3CbrSeconds(int frames) {
+        return frames * MP3_FRAME_LENGTH * 8.0 / 128000;
+    }
+    
+    /**
+     * M4A with ftyp, a moov holding mvhd and one AAC track, then mdat.
+     */
+    public static byte[] m4a(int sampleRate, int channels, long timescale, long duration, int mdatSize) {
+        ByteBuffer mvhd = ByteBuffer.allocate(100);
+        mvhd.putInt(0).putInt(0).putInt(0).putInt((int) timescale).putInt((int) duration);
+        
+        ByteBuffer entry = ByteBuffer.allocate(36);
+        entry.putInt(36).put(ascii("mp4a")).put(new byte[6]).putShort((short) 1)
+            .putShort((short) 0).putShort((short) 0).putInt(0)
+            .putShort((short) channels).putShort((short) 16).putShort((short) 0).putShort((short) 0)
+            .putInt(sampleRate << 16);
+        ByteBuffer stsd = ByteBuffer.allocate(8 + 36);
+        stsd.putInt(0).putInt(1).put(entry.array());
+        
+        byte[] stbl = box("stbl", box("stsd", stsd.array()));
+        byte[] trak = box("trak", box("mdia", box("minf", stbl)));
+        
+        ByteArrayOutputStream moov = new ByteArrayOutputStream();
+        moov.writeBytes(box("mvhd", mvhd.array()));
+        moov.writeBytes(trak);
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(box("ftyp", concat(ascii("M4A "), new byte[4], ascii("isomM4A "))));
+        out.writeBytes(box("moov", moov.toByteArray()));
+        out.writeBytes(box("mdat", new byte[mdatSize]));
+        return out.toByteArray();
+    }
+    
+    private static byte[] ogg(byte[] firstPacket, long finalGranule) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(oggPage(0x02, 0, 0, firstPacket));
+        out.writeBytes(oggPage(0x00, finalGranule / 2, 1, new byte[4000]));
+        out.writeBytes(oggPage(0x04, finalGranule, 2, new byte[200]));
+        return out.toByteArray();
+    }
+    
+    private static byte[] oggPage(int headerType, long granule, int sequence, byte[] packet) {
+        int segments = packet.length / 255 + 1;
+        ByteBuffer page = le(27 + segments + packet.length);
+        page.put(ascii("OggS")).put((byte) 0).put((byte) headerType).putLong(granule)
+            .putInt(0x1234).putInt(sequence).putInt(0).put((byte) segments);
+        for (int i = 0; i < segments - 1; i++) {
+            page.put((byte) 255);
+        }
+        page.put((byte) (packet.length % 255));
+        page.put(packet);
+        return page.array();
+    }
+    
+    private static byte[] mp3Frame() {
+        byte[] frame = new byte[MP3_FRAME_LENGTH];
+        ByteBuffer.wrap(frame).putInt(MP3_HEADER);
+        return frame;
+    }
+    
+    private static byte[] id3v2(int tagSize) {
+        byte[] tag = new byte[10 + tagSize];
+        ByteBuffer.wrap(tag).put(ascii("ID3")).put((byte) 4).put((byte) 0).put((byte) 0)
+            .put((byte) ((tagSize >> 21) & 0x7F)).put((byte) ((tagSize >> 14) & 0x7F))
+            .put((byte) ((tagSize >> 7) & 0x7F)).put((byte) (tagSize & 0x7F));
+        return tag;
+    }
+    
+    private static byte[] box(String type, byte[] body) {
+        return ByteBuffer.allocate(8 + body.length).putInt(8 + body.length).put(ascii(type)).put(body).array();
+    }
+    
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+    
+    private static ByteBuffer le(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
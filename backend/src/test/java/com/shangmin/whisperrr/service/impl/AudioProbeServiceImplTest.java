@@ -0,0 +1,98 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.dto.AudioMetadata;
+import com.shangmin.whisperrr.enums.AudioFormat;
+import com.shangmin.whisperrr.exception.FileValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class AudioProbeServiceImplTest {
+    
+    private final AudioProbeServiceImpl probeService = new AudioProbeServiceImpl();
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void readsWavFormatChunk() throws IOException {
+        AudioMetadata metadata = probe("a.wav", AudioFixtures.wav(16000, 1, 2.5), AudioFormat.WAV);
+        
+        assertThat(metadata.getDurationSeconds()).isCloseTo(2.5, within(0.001));
+        assertThat(metadata.getSampleRate()).isEqualTo(16000);
+        assertThat(metadata.getChannels()).isEqualTo(1);
+    }
+    
+    @Test
+    void readsFlacStreamInfo() throws IOException {
+        AudioMetadata metadata = probe("a.flac", AudioFixtures.flac(48000, 2, 48000L * 90), AudioFormat.FLAC);
+        
+        assertThat(metadata.getDurationSeconds()).isCloseTo(90.0, within(0.001));
+        assertThat(metadata.getSampleRate()).isEqualTo(48000);
+        assertThat(metadata.getChannels()).isEqualTo(2);
+    }
+    
+    @Test
+    void readsOggDurationFromLastPage() throws IOException {
+        AudioMetadata vorbis = probe("a.ogg", AudioFixtures.oggVorbis(44100, 2, 12.0), AudioFormat.OGG);
+        AudioMetadata opus = probe("b.ogg", AudioFixtures.oggOpus(16000, 1, 7.5), AudioFormat.OGG);
+        
+        assertThat(vorbis.getDurationSeconds()).isCloseTo(12.0, within(0.001));
+        assertThat(vorbis.getSampleRate()).isEqualTo(44100);
+        assertThat(opus.getDurationSeconds()).isCloseTo(7.5, within(0.001));
+        assertThat(opus.getChannels()).isEqualTo(1);
+    }
+    
+    @Test
+    void readsMp3FrameHeaders() throws IOException {
+        AudioMetadata cbr = probe("a.mp3", AudioFixtures.mp3(500, true), AudioFormat.MP3);
+        AudioMetadata vbr = probe("b.mp3", AudioFixtures.mp3WithXing(2000, 3), AudioFormat.MP3);
+        
+        assertThat(cbr.getDurationSeconds()).isCloseTo(AudioFixtures.mp3CbrSeconds(500), within(0.001));
+        assertThat(cbr.getSampleRate()).isEqualTo(44100);
+        assertThat(cbr.getChannels()).isEqualTo(2);
+        assertThat(vbr.getDurationSeconds()).isCloseTo(2000 * AudioFixtures.mp3FrameSeconds(), within(0.001));
+    }
+    
+    @Test
+    void readsM4aMovieHeader() throws IOException {
+        AudioMetadata metadata = probe("a.m4a", AudioFixtures.m4a(44100, 2, 1000, 61_500, 4096), AudioFormat.M4A);
+        
+        assertThat(metadata.getDurationSeconds()).isCloseTo(61.5, within(0.001));
+        assertThat(metadata.getSampleRate()).isEqualTo(44100);
+        assertThat(metadata.getChannels()).isEqualTo(2);
+    }
+    
+    @Test
+    void rejectsContentThatDoesNotMatchExtension() {
+        assertThatThrownBy(() -> probe("a.mp3", AudioFixtures.wav(16000, 1, 1.0), AudioFormat.MP3))
+            .isInstanceOf(FileValidationException.class)
+            .hasMessageContaining("WAV");
+        assertThatThrownBy(() -> probe("b.mp3", "not audio at all".getBytes(), AudioFormat.MP3))
+            .isInstanceOf(FileValidationException.class);
+    }
+    
+    @Test
+    void rejectsTruncatedHeaders() {
+        byte[] wav = AudioFixtures.wav(16000, 1, 1.0);
+        byte[] m4a = AudioFixtures.m4a(44100, 2, 1000, 5000, 0);
+        
+        assertThatThrownBy(() -> probe("a.wav", Arrays.copyOf(wav, 30), AudioFormat.WAV))
+            .isInstanceOf(FileValidationException.class);
+        assertThatThrownBy(() -> probe("a.m4a", Arrays.copyOf(m4a, 60), AudioFormat.M4A))
+            .isInstanceOf(FileValidationException.class);
+    }
+    
+    private AudioMetadata probe(String name, byte[] content, AudioFormat expected) throws IOException {
+        Path file = Files.write(tempDir.resolve(name), content);
+        return probeService.probe(file, expected);
+    }
+}
@@ -0,0 +1,197 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.enums.UserRole;
+import com.shangmin.whisperrr.repository.projection.QueuedJobCandidate;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Simulation of queue wait per tenant under a skewed load, comparing strict
+ * priority order with fair-share scheduling.
+ */
+class FairShareSchedulerTest {
+    
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int WORKERS = 4;
+    private static final int STEP_SECONDS = 60;
+    private static final int STEPS = 240;
+    
+    private static final long BULK_USER = 1L;
+    private static final long LIGHT_USER_A = 2L;
+    private static final long LIGHT_USER_B = 3L;
+    
+    @Test
+    void lightTenantsAreNotStarvedByBulkUploader() {
+        Map<Long, List<Long>> fifo = simulate(skewedLoad(), (pending, now) -> strictOrder(pending));
+        
+        FairShareScheduler scheduler = scheduler(Duration.ofHours(12));
+        Map<Long, List<Long>> fair = simulate(skewedLoad(), (pending, now) ->
+            scheduler.schedule(queueHeads(pending, WORKERS, now, scheduler.getAgingSeconds()), WORKERS, now));
+        
+        // In strict order the light tenants sit behind the whole bulk backlog for the entire run
+        assertThat(fifo.getOrDefault(LIGHT_USER_A, List.of())).isEmpty();
+        assertThat(fifo.getOrDefault(LIGHT_USER_B, List.of())).isEmpty();
+        assertThat(percentile(fair.get(LIGHT_USER_A), 0.99)).isLessThanOrEqualTo(STEP_SECONDS);
+        assertThat(percentile(fair.get(LIGHT_USER_B), 0.99)).isLessThanOrEqualTo(STEP_SECONDS);
+        
+        // Work-conserving: the same number of jobs is dispatched either way
+        assertThat(dispatched(fair)).isEqualTo(dispatched(fifo));
+    }
+    
+    @Test
+    void weightsShareCapacityProportionally() {
+        Map<UserRole, Double> weights = new EnumMap<>(UserRole.class);
+        weights.put(UserRole.USER, 1.0);
+        weights.put(UserRole.ADMIN, 3.0);
+        FairShareScheduler scheduler = new FairShareScheduler(weights, 300, Duration.ofHours(12));
+        
+        List<Candidate> pending = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            pending.add(new Candidate(pending.size() + 1L, 1L, "USER", 0, START));
+            pending.add(new Candidate(pending.size() + 1L, 2L, "ADMIN", 0, START));
+        }
+        
+        List<Long> chosen = scheduler.schedule(queueHeads(pending, 40, START, 300), 40, START);
+        Map<Long, Long> perUser = pending.stream()
+            .filter(job -> chosen.contains(job.getId()))
+            .collect(Collectors.groupingBy(Candidate::getRequestedBy, Collectors.counting()));
+        
+        assertThat(chosen).hasSize(40);
+        assertThat(perUser.get(2L)).isEqualTo(30L);
+        assertThat(perUser.get(1L)).isEqualTo(10L);
+    }
+    
+    @Test
+    void agingLetsLowPriorityJobFinish() {
+        FairShareScheduler scheduler = scheduler(Duration.ofHours(12));
+        List<Candidate> pending = new ArrayList<>();
+        Candidate lowPriority = new Candidate(0L, BULK_USER, "USER", 0, START);
+        pending.add(lowPriority);
+        
+        LocalDateTime dispatchedAt = null;
+        for (int step = 0; step < STEPS && dispatchedAt == null; step++) {
+            LocalDateTime now = START.plusSeconds((long) step * STEP_SECONDS);
+            // A steady stream of high-priority work that alone would fill every slot
+            for (int i = 0; i < WORKERS; i++) {
+                pending.add(new Candidate(step * 10L + i + 1, BULK_USER, "USER", 5, now));
+            }
+            List<Long> chosen = scheduler.schedule(queueHeads(pending, WORKERS, now, 300), WORKERS, now);
+            if (chosen.contains(lowPriority.getId())) {
+                dispatchedAt = now;
+            }
+            pending.removeIf(job -> chosen.contains(job.getId()));
+        }
+        
+        assertThat(dispatchedAt).isNotNull();
+        assertThat(Duration.between(START, dispatchedAt)).isLessThanOrEqualTo(Duration.ofMinutes(30));
+    }
+    
+    private static FairShareScheduler scheduler(Duration starvationThreshold) {
+        Map<UserRole, Double> weights = new EnumMap<>(UserRole.class);
+        weights.put(UserRole.USER, 1.0);
+        weights.put(UserRole.ADMIN, 2.0);
+        weights.put(UserRole.API_USER, 1.0);
+        return new FairShareScheduler(weights, 300, starvationThreshold);
+    }
+    
+    /**
+     * One API user dumps 2,000 files at once; two regular users each submit
+     * one file every two minutes.
+     */
+    private static List<Candidate> skewedLoad() {
+        List<Candidate> arrivals = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < 2000; i++) {
+            arrivals.add(new Candidate(id++, BULK_USER, "API_USER", 0, START));
+        }
+        for (int step = 0; step < STEPS; step += 2) {
+            LocalDateTime at = START.plusSeconds((long) step * STEP_SECONDS);
+            arrivals.add(new Candidate(id++, LIGHT_USER_A, "USER", 0, at));
+            arrivals.add(new Candidate(id++, LIGHT_USER_B, "USER", 0, at.plusSeconds(STEP_SECONDS)));
+        }
+        return arrivals;
+    }
+    
+    /**
+     * Runs a fixed number of steps; every job takes one step, so each step frees all workers.
+     * 
+     * @return wait in seconds of every dispatched job, per tenant
+     */
+    private static Map<Long, List<Long>> simulate(List<Candidate> arrivals,
+                                                   BiFunction<List<Candidate>, LocalDateTime, List<Long>> policy) {
+        Map<Long, List<Long>> waits = new TreeMap<>();
+        List<Candidate> pending = new ArrayList<>();
+        int next = 0;
+        arrivals.sort(Comparator.comparing(Candidate::getCreatedAt));
+        
+        for (int step = 0; step < STEPS; step++) {
+            LocalDateTime now = START.plusSeconds((long) step * STEP_SECONDS);
+            while (next < arrivals.size() && !arrivals.get(next).getCreatedAt().isAfter(now)) {
+                pending.add(arrivals.get(next++));
+            }
+            
+            List<Long> chosen = policy.apply(pending, now);
+            assertThat(chosen).hasSize(Math.min(WORKERS, pending.size()));
+            
+            Map<Long, Candidate> byId = pending.stream().collect(Collectors.toMap(Candidate::getId, job -> job));
+            for (Long id : chosen) {
+                Candidate job = byId.get(id);
+                waits.computeIfAbsent(job.getRequestedBy(), k -> new ArrayList<>())
+                    .add(Duration.between(job.getCreatedAt(), now).toSeconds());
+            }
+            pending.removeIf(job -> chosen.contains(job.getId()));
+        }
+        return waits;
+    }
+    
+    private static List<Long> strictOrder(List<Candidate> pending) {
+        return pending.stream()
+            .sorted(Comparator.comparing((Candidate job) -> -job.getPriority()).thenComparing(Candidate::getCreatedAt))
+            .limit(WORKERS)
+            .map(Candidate::getId)
+            .toList();
+    }
+    
+    /**
+     * Mirrors JobRepository.findPendingQueueHeads.
+     */
+    private static List<Candidate> queueHeads(List<Candidate> pending, int perUser, LocalDateTime now, double agingSeconds) {
+        Map<Long, List<Candidate>> byUser = new HashMap<>();
+        pending.forEach(job -> byUser.computeIfAbsent(job.getRequestedBy(), k -> new ArrayList<>()).add(job));
+        List<Candidate> heads = new ArrayList<>();
+        byUser.values().forEach(jobs -> jobs.stream()
+            .sorted(Comparator.comparingDouble((Candidate job) ->
+                    -(job.getPriority() + Duration.between(job.getCreatedAt(), now).toSeconds() / agingSeconds))
+                .thenComparing(Candidate::getCreatedAt))
+            .limit(perUser)
+            .forEach(heads::add));
+        return heads;
+    }
+    
+    private static long percentile(List<Long> waits, double percentile) {
+        List<Long> sorted = waits.stream().sorted().toList();
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+    
+    private static int dispatched(Map<Long, List<Long>> waits) {
+        return waits.values().stream().mapToInt(List::size).sum();
+    }
+    
+    private record Candidate(Long getId, Long getRequestedBy, String getRole, Integer getPriority,
+                       LocalDateTime getCreatedAt) implements QueuedJobCandidate {
+    }
+}
@@ -0,0 +1,60 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.shangmin.whisperrr.enums.ExportFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for SubtitleWriter output in each export format.
+ */
+class SubtitleWriterTest {
+    
+    @Test
+    void writesNumberedSrtCues() throws IOException {
+        assertThat(export(ExportFormat.SRT)).isEqualTo(
+            "1\n00:00:00,000 --> 00:00:02,480\nCafé <b>&</b>\n\n" +
+            "2\n10:00:03,005 --> 10:01:00,000\nsplit line\n\n");
+    }
+    
+    @Test
+    void escapesWebVttMarkup() throws IOException {
+        assertThat(export(ExportFormat.VTT)).isEqualTo(
+            "WEBVTT\n\n" +
+            "00:00:00.000 --> 00:00:02.480\nCafé &lt;b&gt;&amp;&lt;/b&gt;\n\n" +
+            "10:00:03.005 --> 10:01:00.000\nsplit line\n\n");
+    }
+    
+    @Test
+    void keepsEveryRowInTsv() throws IOException {
+        assertThat(export(ExportFormat.TSV)).isEqualTo(
+            "start\tend\ttext\n" +
+            "0\t2480\tCafé <b>&</b>\n" +
+            "2480\t2600\t \n" +
+            "36003005\t36060000\tsplit line\n");
+    }
+    
+    @Test
+    void writesOneLinePerSegmentAsText() throws IOException {
+        assertThat(export(ExportFormat.TXT)).isEqualTo("Café <b>&</b>\nsplit line\n");
+    }
+    
+    private static String export(ExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SubtitleWriter writer = new SubtitleWriter(format, out);
+        writer.writeHeader();
+        write(writer, 0, 2480, "Café <b>&</b>");
+        write(writer, 2480, 2600, " ");
+        write(writer, 36_003_005, 36_060_000, "split\nline");
+        return out.toString(StandardCharsets.UTF_8);
+    }
+    
+    private static void write(SubtitleWriter writer, int start, int end, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writer.writeSegment(start, end, bytes, bytes.length);
+    }
+}
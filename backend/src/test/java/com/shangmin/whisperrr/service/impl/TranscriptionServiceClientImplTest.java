@@ -0,0 +1,203 @@
+package com.shangmin.whisperrr.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shangmin.whisperrr.dto.TranscriptionOptions;
+import com.shangmin.whisperrr.dto.TranscriptionServiceResponse;
+import com.shangmin.whisperrr.exception.TranscriptionProcessingException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for TranscriptionServiceClientImpl against a local stub of the Python service.
+ */
+class TranscriptionServiceClientImplTest {
+    
+    private static final String RESPONSE_JSON = """
+        {"text": "hello world", "language": "en", "duration": 2.5,
+         "segments": [{"start_time": 0.0, "end_time": 1.2, "text": "hello", "confidence": 0.9},
+                      {"start_time": 1.2, "end_time": 2.5, "text": "world"}],
+         "confidence_score": 0.85, "model_used": "base", "processing_time": 0.4}
+        """;
+    
+    private static final String STREAM_NDJSON = """
+        {"type": "progress", "processed_seconds": 1.2, "segments": [{"start_time": 0.0, "end_time": 1.2, "text": "hello"}]}
+        {"type": "progress", "processed_seconds": 2.5, "segments": [{"start_time": 1.2, "end_time": 2.5, "text": "world"}]}
+        {"type": "result", "result": %s}
+        """.formatted(RESPONSE_JSON.replace("\n", " "));
+    
+    @TempDir
+    Path tempDir;
+    
+    private HttpServer server;
+    private final AtomicReference<byte[]> lastBody = new AtomicReference<>();
+    private final AtomicReference<String> lastContentType = new AtomicReference<>();
+    private final AtomicInteger statusCode = new AtomicInteger(200);
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicReference<String> streamBody = new AtomicReference<>(STREAM_NDJSON);
+    private final CountDownLatch stallUntil = new CountDownLatch(1);
+    private volatile boolean stallStream;
+    
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/transcribe", exchange -> {
+            requestCount.incrementAndGet();
+            lastContentType.set(exchange.getRequestHeaders().getFirst("Content-Type"));
+            lastBody.set(exchange.getRequestBody().readAllBytes());
+            boolean stream = String.valueOf(exchange.getRequestURI().getQuery()).contains("stream=true");
+            String ok = stream ? streamBody.get() : RESPONSE_JSON;
+            byte[] response = (statusCode.get() == 200 ? ok : "{\"detail\":\"Transcription failed\"}")
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", stream ? "application/x-ndjson" : "application/json");
+            exchange.sendResponseHeaders(statusCode.get(), stallStream ? 0 : response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+                if (stallStream) {
+                    out.flush();
+                    stallUntil.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+    
+    @AfterEach
+    void stopStub() {
+        stallUntil.countDown();
+        server.stop(0);
+    }
+    
+    @Test
+    void streamsMultipartFileAndDecodesResponse() throws IOException {
+        Path audio = Files.write(tempDir.resolve("clip.wav"), new byte[] {1, 2, 3, 4, 5});
+        TranscriptionServiceClientImpl client = client();
+        
+        TranscriptionServiceResponse response = client.transcribe(audio, "clip.wav").join();
+        
+        assertThat(response.getText()).isEqualTo("hello world");
+        assertThat(response.getLanguage()).isEqualTo("en");
+        assertThat(response.getConfidenceScore()).isEqualTo(0.85);
+        assertThat(response.getModelUsed()).isEqualTo("base");
+        assertThat(response.getSegments()).hasSize(2);
+        assertThat(response.getSegments().get(1).getStartTime()).isEqualTo(1.2);
+        
+        String body = new String(lastBody.get(), StandardCharsets.ISO_8859_1);
+        assertThat(lastContentType.get()).startsWith("multipart/form-data; boundary=");
+        assertThat(body).contains("name=\"file\"; filename=\"clip.wav\"");
+        assertThat(body).contains(new String(new byte[] {1, 2, 3, 4, 5}, StandardCharsets.ISO_8859_1));
+        
+        client.destroy();
+    }
+    
+    @Test
+    void runsManyRequestsConcurrently() throws IOException {
+        Path audio = Files.write(tempDir.resolve("clip.mp3"), new byte[1024]);
+        TranscriptionServiceClientImpl client = client();
+        
+        List<CompletableFuture<TranscriptionServiceResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(client.transcribe(audio, "clip.mp3"));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        
+        assertThat(requestCount.get()).isEqualTo(50);
+        assertThat(futures).allSatisfy(f -> assertThat(f.join().getText()).isEqualTo("hello world"));
+        
+        client.destroy();
+    }
+    
+    @Test
+    void failsWithProcessingExceptionOnErrorStatus() throws IOException {
+        Path audio = Files.write(tempDir.resolve("clip.wav"), new byte[] {1});
+        statusCode.set(500);
+        TranscriptionServiceClientImpl client = client();
+        
+        assertThatThrownBy(() -> client.transcribe(audio, "clip.wav").join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(TranscriptionProcessingException.class)
+            .hasMessageContaining("HTTP 500");
+        
+        client.destroy();
+    }
+    
+    @Test
+    void deliversStreamedSegmentsBeforeResult() throws IOException {
+        Path audio = Files.write(tempDir.resolve("clip.wav"), new byte[] {1, 2, 3});
+        TranscriptionServiceClientImpl client = client();
+        List<String> received = new ArrayList<>();
+        
+        TranscriptionServiceResponse response = client.transcribe(audio, "clip.wav", TranscriptionOptions.defaults(),
+            (segments, processedSeconds) -> segments.forEach(s -> received.add(s.getText() + "@" + processedSeconds))).join();
+        
+        assertThat(received).containsExactly("hello@1.2", "world@2.5");
+        assertThat(response.getText()).isEqualTo("hello world");
+        assertThat(response.getSegments()).hasSize(2);
+        
+        client.destroy();
+    }
+    
+    @Test
+    void failsWithProcessingExceptionOnStreamedError() throws IOException {
+        Path audio = Files.write(tempDir.resolve("clip.wav"), new byte[] {1});
+        streamBody.set("{\"type\": \"error\", \"message\": \"Transcription failed\"}\n");
+        TranscriptionServiceClientImpl client = client();
+        
+        assertThatThrownBy(() -> client.transcribe(audio, "clip.wav", TranscriptionOptions.defaults(), (s, p) -> { }).join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(TranscriptionProcessingException.class)
+            .hasMessageContaining("Transcription failed");
+        
+        client.destroy();
+    }
+    
+    @Test
+    void failsWhenStreamStallsPastTimeout() throws IOException {
+        Path audio = Files.write(tempDir.resolve("clip.wav"), new byte[] {1});
+        streamBody.set(STREAM_NDJSON.lines().findFirst().orElseThrow() + "\n");
+        stallStream = true;
+        TranscriptionServiceClientImpl client = client(500);
+        List<Double> received = new ArrayList<>();
+        
+        assertThatThrownBy(() -> client.transcribe(audio, "clip.wav", TranscriptionOptions.defaults(),
+                (segments, processedSeconds) -> received.add(processedSeconds)).get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(TranscriptionProcessingException.class)
+            .hasMessageContaining("did not finish");
+        assertThat(received).containsExactly(1.2);
+        
+        client.destroy();
+    }
+    
+    private TranscriptionServiceClientImpl client() {
+        return client(10_000);
+    }
+    
+    private TranscriptionServiceClientImpl client(long timeoutMs) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        return new TranscriptionServiceClientImpl(url, timeoutMs, new ObjectMapper());
+    }
+}
@@ -27,6 +27,7 @@ class Settings(BaseSettings):
     max_concurrent_transcriptions: int = 3
     request_timeout_seconds: int = 300
     cleanup_temp_files: bool = True
+    stream_window_seconds: int = 30
     
     # Performance and monitoring
     enable_metrics: bool = True
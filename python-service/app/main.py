@@ -2,14 +2,16 @@
 FastAPI application for the Whisperrr transcription service.
 """
 
+import json
 import logging
+import os
 import time
 import uuid
 from contextlib import asynccontextmanager
 
 from fastapi import FastAPI, File, UploadFile, HTTPException, Depends, Query, Request
 from fastapi.middleware.cors import CORSMiddleware
-from fastapi.responses import JSONResponse
+from fastapi.responses import JSONResponse, StreamingResponse
 import uvicorn
 
 from .config import settings
@@ -189,13 +191,16 @@ async def transcribe_audio(
     language: str = Query(None, description="Language hint (ISO 639-1)"),
     temperature: float = Query(0.0, ge=0.0, le=1.0, description="Temperature for sampling"),
     task: str = Query("transcribe", description="Task: transcribe or translate"),
+    stream: bool = Query(False, description="Stream segments as NDJSON while transcribing"),
     correlation_id: str = Depends(get_correlation_id_dependency)
 ):
     """
     Transcribe an audio file using Whisper.
     
     Supports multiple audio formats and provides detailed transcription results
-    with timing information and confidence scores.
+    with timing information and confidence scores. With ``stream=true`` the
+    response is newline-delimited JSON: a ``progress`` line per decoded window of
+    audio, then a ``result`` line with the full transcription, or an ``error`` line.
     """
     start_time = time.time()
     
@@ -225,6 +230,20 @@ async def transcribe_audio(
             temp_file.write(content)
             temp_file_path = temp_file.name
         
+        if stream:
+            # The stream owns the temporary file from here and removes it when done
+            return StreamingResponse(
+                _stream_transcription(
+                    temp_file_path,
+                    correlation_id,
+                    model_size=model_size,
+                    language=language,
+                    temperature=temperature,
+                    task=task
+                ),
+                media_type="application/x-ndjson"
+            )
+        
         try:
             # Transcribe audio
             result = await whisper_service.transcribe_audio(
@@ -262,6 +281,22 @@ async def transcribe_audio(
         raise HTTPException(status_code=500, detail="Transcription failed")
 
 
+async def _stream_transcription(temp_file_path: str, correlation_id: str, **options):
+    """Yield streamed transcription events as NDJSON lines, then remove the temporary file."""
+    try:
+        async for event in whisper_service.transcribe_audio_stream(file_path=temp_file_path, **options):
+            yield json.dumps(event) + "\n"
+    except Exception as e:
+        # The status line is already sent, so the failure is reported in the stream
+        logger.error(f"Streamed transcription failed [{correlation_id}]: {e}")
+        yield json.dumps({"type": "error", "message": "Transcription failed"}) + "\n"
+    finally:
+        try:
+            os.unlink(temp_file_path)
+        except Exception as e:
+            logger.warning(f"Failed to cleanup temp file {temp_file_path}: {e}")
+
+
 @app.get("/health", response_model=HealthResponse)
 async def health_check():
     """Health check endpoint."""
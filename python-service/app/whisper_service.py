@@ -7,7 +7,7 @@ import logging
 import time
 import threading
 from datetime import datetime
-from typing import Optional, Dict, Any, List
+from typing import Optional, Dict, Any, List, AsyncIterator
 from concurrent.futures import ThreadPoolExecutor
 import whisper
 import torch
@@ -34,6 +34,10 @@ from .utils import (
 
 logger = logging.getLogger(__name__)
 
+# Whisper keeps at most the last 223 tokens of a prompt; this many characters of the
+# previous text covers them, as its own conditioning on previous text would
+STREAM_PROMPT_CHARS = 1000
+
 
 class WhisperService:
     """
@@ -272,14 +276,148 @@ class WhisperService:
         finally:
             self._active_transcriptions -= 1
     
-    def _transcribe_sync(
+    async def transcribe_audio_stream(
         self,
         file_path: str,
+        model_size: Optional[str] = None,
+        language: Optional[str] = None,
+        temperature: float = 0.0,
+        task: str = "transcribe"
+    ) -> AsyncIterator[Dict[str, Any]]:
+        """
+        Transcribe audio file window by window, yielding segments as they are decoded.
+        
+        The audio is decoded in windows of ``stream_window_seconds``. Like Whisper's own
+        seek over 30-second windows, a window other than the last keeps its segments
+        up to the start of its last one, which the window's end may have cut off, and
+        the next window starts there and decodes it whole. The text so far is passed
+        as the prompt, in place of Whisper conditioning on the previous text, and the
+        language is detected on the first window, as Whisper does. After each window a
+        ``progress`` event is yielded with the segments it kept and the seconds of
+        audio processed so far; a final ``result`` event carries the full response.
+        
+        Args:
+            file_path: Path to audio file
+            model_size: Model size to use (defaults to loaded model)
+            language: Language hint (ISO 639-1 code)
+            temperature: Temperature for sampling
+            task: Task type ('transcribe' or 'translate')
+        
+        Yields:
+            Event dictionaries ready to be encoded as JSON
+        """
+        if self._model is None:
+            raise ModelNotLoaded("No model is currently loaded")
+        
+        if model_size and model_size != self._model_size:
+            await self.load_model(model_size)
+        
+        start_time = time.time()
+        self._active_transcriptions += 1
+        
+        try:
+            logger.info(f"Starting streamed transcription: {file_path}")
+            file_info = validate_audio_file(file_path)
+            
+            processed_file = None
+            try:
+                processed_file = preprocess_audio(file_path)
+                loop = asyncio.get_event_loop()
+                audio = await loop.run_in_executor(self._executor, whisper.load_audio, processed_file)
+                
+                sample_rate = whisper.audio.SAMPLE_RATE
+                window = settings.stream_window_seconds * sample_rate
+                segments = []
+                texts = []
+                detected_language = language
+                
+                offset = 0
+                while offset < len(audio):
+                    prompt = " ".join(texts)[-STREAM_PROMPT_CHARS:] or None
+                    result = await loop.run_in_executor(
+                        self._executor,
+                        self._transcribe_sync,
+                        audio[offset:offset + window],
+                        detected_language,
+                        temperature,
+                        task,
+                        prompt
+                    )
+                    detected_language = detected_language or result.get("language")
+                    
+                    window_segments = result.get("segments", [])
+                    next_offset = offset + window
+                    if next_offset < len(audio) and len(window_segments) > 1:
+                        # The last segment may run past the window and be cut mid-word,
+                        # so it is decoded again at the start of the next window
+                        cut = int(window_segments[-1].get("start", 0.0) * sample_rate)
+                        if cut > 0:
+                            window_segments = window_segments[:-1]
+                            next_offset = offset + cut
+                    
+                    offset_seconds = offset / sample_rate
+                    kept_segments = []
+                    for segment in window_segments:
+                        segment = dict(segment)
+                        segment["start"] = segment.get("start", 0.0) + offset_seconds
+                        segment["end"] = segment.get("end", 0.0) + offset_seconds
+                        kept_segments.append(segment)
+                    segments.extend(kept_segments)
+                    texts.append("".join(segment.get("text", "") for segment in kept_segments).strip())
+                    offset = next_offset
+                    
+                    yield {
+                        "type": "progress",
+                        "processed_seconds": round(min(offset, len(audio)) / sample_rate, 3),
+                        "segments": [
+                            segment.dict()
+                            for segment in self._to_segments(kept_segments)
+                        ]
+                    }
+                
+                processing_time = time.time() - start_time
+                response = self._create_transcription_response(
+                    {"text": " ".join(text for text in texts if text), "language": detected_language, "segments": segments},
+                    file_info,
+                    processing_time
+                )
+                
+                log_performance_metrics(
+                    operation="streamed_transcription",
+                    duration=processing_time,
+                    file_size=file_info["file_size"],
+                    memory_usage=get_memory_usage(),
+                    model_size=self._model_size,
+                    language=language
+                )
+                
+                logger.info(f"Streamed transcription completed in {processing_time:.2f}s")
+                yield {"type": "result", "result": response.dict()}
+            
+            finally:
+                if processed_file and settings.cleanup_temp_files:
+                    cleanup_temp_file(processed_file)
+        
+        except Exception as e:
+            logger.error(f"Streamed transcription failed: {e}")
+            raise TranscriptionFailed(
+                message="Transcription failed",
+                original_error=str(e),
+                file_path=file_path
+            )
+        
+        finally:
+            self._active_transcriptions -= 1
+    
+    def _transcribe_sync(
+        self,
+        audio,
         language: Optional[str],
         temperature: float,
-        task: str
+        task: str,
+        initial_prompt: Optional[str] = None
     ):
-        """Synchronous transcription (runs in thread pool)."""
+        """Synchronous transcription of a file path or audio array (runs in thread pool)."""
         try:
             # Prepare transcription options
             options = {
@@ -289,9 +427,11 @@ class WhisperService:
             
             if language:
                 options["language"] = language
+            if initial_prompt:
+                options["initial_prompt"] = initial_prompt
             
             # Run transcription
-            result = self._model.transcribe(file_path, **options)
+            result = self._model.transcribe(audio, **options)
             
             return result
         
@@ -308,14 +448,7 @@ class WhisperService:
         """Create TranscriptionResponse from Whisper result."""
         
         # Extract segments
-        segments = []
-        for segment in whisper_result.get("segments", []):
-            segments.append(TranscriptionSegment(
-                start_time=segment.get("start", 0.0),
-                end_time=segment.get("end", 0.0),
-                text=segment.get("text", "").strip(),
-                confidence=None  # Whisper doesn't provide confidence scores
-            ))
+        segments = self._to_segments(whisper_result.get("segments", []))
         
         # Calculate overall confidence (if available)
         confidence_score = None
@@ -339,6 +472,19 @@ class WhisperService:
             processing_time=round(processing_time, 3)
         )
     
+    @staticmethod
+    def _to_segments(whisper_segments: List[Dict[str, Any]]) -> List[TranscriptionSegment]:
+        """Convert Whisper segments to response segments."""
+        return [
+            TranscriptionSegment(
+                start_time=segment.get("start", 0.0),
+                end_time=segment.get("end", 0.0),
+                text=segment.get("text", "").strip(),
+                confidence=None  # Whisper doesn't provide confidence scores
+            )
+            for segment in whisper_segments
+        ]
+    
     def get_model_info(self) -> ModelInfoResponse:
         """Get information about the currently loaded model."""
         return ModelInfoResponse(